@@ -24,8 +24,12 @@ import com.sparkedhost.pterodactyl4j.requests.action.operator.*;
 import com.sparkedhost.pterodactyl4j.utils.Checks;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -159,6 +163,27 @@ public interface PteroAction<T> {
      */
     void executeAsync(Consumer<? super T> success, Consumer<? super Throwable> failure);
 
+    /**
+     * Submits a Request for execution and provides a {@link CompletableFuture} representing its completion.
+     * <br>The future completes exceptionally if the Request fails.
+     *
+     * <p><b>This method is asynchronous</b>
+     *
+     * <h2>Example</h2>
+     * <pre>{@code
+     * application.retrieveServerById(id).submit()
+     *     .thenCompose(server -> server.getController().suspend().submit())
+     *     .thenRun(() -> System.out.println("Suspended server " + id));
+     * }</pre>
+     *
+     * @return Never-null {@link CompletableFuture} representing the completion
+     */
+    default CompletableFuture<T> submit() {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executeAsync(future::complete, future::completeExceptionally);
+        return future;
+    }
+
     /**
      * Schedules a timeout for this PteroAction instance.
      * <br>If the request doesn't get executed within the timeout, it will fail.
@@ -362,6 +387,110 @@ public interface PteroAction<T> {
         return new FlatMapPteroAction<>(this, condition, flatMap);
     }
 
+    /**
+     * Intermediate operator that returns a modified PteroAction.
+     *
+     * <p>This does not modify the instance but returns a new PteroAction which executes this action and the provided
+     * action at the same time and combines both results with the accumulator.
+     * <br>If either of the actions fails, the returned action fails with the same exception.
+     *
+     * <h2>Example</h2>
+     * <pre>{@code
+     * public PteroAction<String> describeServer(ApplicationServer server) {
+     *     return server.retrieveOwner()
+     *             .zip(server.retrieveNode(), (owner, node) -> owner.getEmail() + " on " + node.getName());
+     * }
+     * }</pre>
+     *
+     * @param  other
+     *         The action to execute alongside this one
+     * @param  accumulator
+     *         The function combining both results
+     *
+     * @param  <U>
+     *         The result type of the other action
+     * @param  <O>
+     *         The target output type
+     *
+     * @throws IllegalArgumentException
+     *         If the action or the accumulator is null
+     *
+     * @return PteroAction for the combined type
+     */
+    default <U, O> PteroAction<O> zip(PteroAction<U> other, BiFunction<? super T, ? super U, ? extends O> accumulator) {
+        Checks.notNull(other, "PteroAction");
+        Checks.notNull(accumulator, "Accumulator");
+        return new ZipPteroAction<>(this, other, accumulator);
+    }
+
+    /**
+     * Creates a PteroAction which executes all of the provided actions at the same time.
+     * <br>The results are provided in the same order as the actions, the first failure fails the returned action.
+     *
+     * <h2>Example</h2>
+     * <pre>{@code
+     * PteroAction.allOf(Arrays.asList(server.retrieveOwner(), otherServer.retrieveOwner()))
+     *     .executeAsync(owners -> owners.forEach(owner -> System.out.println(owner.getEmail())));
+     * }</pre>
+     *
+     * @param  actions
+     *         The actions to execute, must not be empty
+     *
+     * @param  <E>
+     *         The result type of the actions
+     *
+     * @throws IllegalArgumentException
+     *         If the collection is null or empty
+     *
+     * @return PteroAction providing every result
+     *
+     * @see    #fanOut(P4J, Collection, Function, int)
+     */
+    static <E> PteroAction<List<E>> allOf(Collection<? extends PteroAction<? extends E>> actions) {
+        Checks.notEmpty(actions, "Actions");
+        P4J api = actions.iterator().next().getP4J();
+        return new FanOutPteroAction<>(api, actions, Function.identity(), actions.size());
+    }
+
+    /**
+     * Creates a PteroAction which maps every item to a PteroAction and executes them with bounded parallelism.
+     * <br>At most {@code parallelism} of the created actions are running at any given time, the results are provided
+     * in the same order as the items and the first failure fails the returned action.
+     *
+     * <h2>Example</h2>
+     * <pre>{@code
+     * PteroAction.fanOut(api, nodes, node -> node.retrieveAllocations().all(), 4)
+     *     .executeAsync(allocations -> System.out.println("Retrieved allocations of " + allocations.size() + " nodes"));
+     * }</pre>
+     *
+     * @param  api
+     *         The API instance used for the returned action
+     * @param  items
+     *         The items to map
+     * @param  function
+     *         The function creating the PteroAction for an item, must not return null
+     * @param  parallelism
+     *         The maximum amount of actions running at the same time
+     *
+     * @param  <I>
+     *         The item type
+     * @param  <O>
+     *         The result type of the created actions
+     *
+     * @throws IllegalArgumentException
+     *         If any of the arguments is null or the parallelism is not positive
+     *
+     * @return PteroAction providing every result
+     */
+    static <I, O> PteroAction<List<O>> fanOut(P4J api, Collection<? extends I> items,
+                                              Function<? super I, ? extends PteroAction<? extends O>> function, int parallelism) {
+        Checks.notNull(api, "API");
+        Checks.notNull(items, "Items");
+        Checks.notNull(function, "Function");
+        Checks.check(parallelism > 0, "Parallelism must be positive");
+        return new FanOutPteroAction<>(api, items, function, parallelism);
+    }
+
     /**
      * Supply a fallback value when the PteroAction fails for a any reason.
      *
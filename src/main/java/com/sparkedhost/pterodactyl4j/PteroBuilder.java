@@ -18,12 +18,23 @@ package com.sparkedhost.pterodactyl4j;
 
 import com.sparkedhost.pterodactyl4j.application.entities.PteroApplication;
 import com.sparkedhost.pterodactyl4j.client.entities.PteroClient;
+import com.sparkedhost.pterodactyl4j.client.managers.WebSocketPool;
 import com.sparkedhost.pterodactyl4j.entities.P4J;
 import com.sparkedhost.pterodactyl4j.entities.impl.P4JImpl;
+import com.sparkedhost.pterodactyl4j.requests.Method;
+import com.sparkedhost.pterodactyl4j.requests.ResponseCachePolicy;
+import com.sparkedhost.pterodactyl4j.requests.Route;
 import com.sparkedhost.pterodactyl4j.utils.Checks;
 import com.sparkedhost.pterodactyl4j.utils.NamedThreadFactory;
+import com.sparkedhost.pterodactyl4j.utils.cache.CacheType;
+import com.sparkedhost.pterodactyl4j.utils.cache.EntityCache;
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 
+import java.io.File;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.*;
 
 /**
@@ -40,7 +51,14 @@ public class PteroBuilder {
     private ExecutorService callbackPool = null;
     private ScheduledExecutorService rateLimitPool = null;
     private ExecutorService supplierPool = null;
+    private ExecutorService ioPool = null;
+    private int maxConcurrentRequests = 1;
     private OkHttpClient webSocketClient = null;
+    private final Map<CacheType, Long> cacheExpirations = new EnumMap<>(CacheType.class);
+    private int cacheMaxSize = 1000;
+    private File responseCacheDirectory = null;
+    private long responseCacheMaxSize = 0;
+    private final Map<Route, Long> responseCacheExpirations = new HashMap<>();
 
     private PteroBuilder(String applicationUrl, String token, String userAgent) {
         this.applicationUrl = applicationUrl;
@@ -255,6 +273,48 @@ public class PteroBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link ExecutorService ExecutorService} that should be used for blocking file I/O,
+     * like writing downloads to disk.
+     *
+     * <br>Every running download occupies one thread of this pool until it is done.
+     *
+     * <p>Default: Cached {@link ThreadPoolExecutor}, idle threads are stopped after a minute.
+     *
+     * @param  pool
+     *         The thread pool to use for file I/O
+     *
+     * @return The PteroBuilder instance. Useful for chaining.
+     */
+    public PteroBuilder setIOPool(ExecutorService pool) {
+        this.ioPool = pool;
+        return this;
+    }
+
+    /**
+     * Sets how many requests P4J may have in flight at the same time.
+     *
+     * <br>Requests still respect the panel's rate limit, this only allows independent requests,
+     * like the ones started by {@link com.sparkedhost.pterodactyl4j.PteroAction#fanOut PteroAction.fanOut(...)},
+     * to wait on the panel concurrently instead of one after another.
+     * A custom rate limit pool set with {@link #setRateLimitPool(ScheduledExecutorService)} needs more threads than this limit.
+     *
+     * <p>Default: <b>1</b>
+     *
+     * @param  maxConcurrentRequests
+     *         The maximum amount of requests executed at the same time
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is not positive
+     *
+     * @return The PteroBuilder instance. Useful for chaining.
+     */
+    public PteroBuilder setMaxConcurrentRequests(int maxConcurrentRequests) {
+        Checks.check(maxConcurrentRequests > 0, "Max concurrent requests must be positive");
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        return this;
+    }
+
     /**
      * Sets the {@link okhttp3.OkHttpClient OkHttpClient} that will be used by P4Js websocket client.
      * <br>This can be used to set things such as connection timeout and proxy.
@@ -269,6 +329,115 @@ public class PteroBuilder {
         return this;
     }
 
+    /**
+     * Enables the {@link EntityCache EntityCache} for the provided entity type.
+     *
+     * <br>Cached entities are returned by lookups like {@link PteroApplication#retrieveNodeById(String)} without
+     * making a request until they expire or are modified through P4J.
+     * This is best suited for entities that rarely change, like nodes, locations, nests and eggs.
+     *
+     * <p>Default: <b>disabled</b> for every type
+     *
+     * @param  type
+     *         The entity type to cache
+     * @param  duration
+     *         How long an entity stays cached, or {@code 0} to disable caching for the type
+     * @param  unit
+     *         {@link TimeUnit TimeUnit} for the duration
+     *
+     * @throws IllegalArgumentException
+     *         If the type or unit is null, or the duration is negative
+     *
+     * @return The PteroBuilder instance. Useful for chaining.
+     */
+    public PteroBuilder setCacheExpiration(CacheType type, long duration, TimeUnit unit) {
+        Checks.notNull(type, "CacheType");
+        Checks.notNull(unit, "TimeUnit");
+        Checks.check(duration >= 0, "Duration may not be negative!");
+        this.cacheExpirations.put(type, unit.toMillis(duration));
+        return this;
+    }
+
+    /**
+     * Sets the maximum amount of entities cached per {@link CacheType CacheType}.
+     * <br>Once the limit is reached, the least recently used entities are evicted.
+     *
+     * <p>Default: <b>1000</b>
+     *
+     * @param  maxSize
+     *         The maximum amount of entities per type
+     *
+     * @throws IllegalArgumentException
+     *         If the size is less than 1
+     *
+     * @return The PteroBuilder instance. Useful for chaining.
+     */
+    public PteroBuilder setCacheMaxSize(int maxSize) {
+        Checks.check(maxSize > 0, "Cache size must be greater than 0");
+        this.cacheMaxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Enables the disk backed HTTP response cache.
+     *
+     * <br>Only responses of routes configured with {@link #setResponseCacheExpiration(Route, long, TimeUnit)} are stored.
+     * Fresh responses are served straight from disk without going through the rate limiter, and expired ones are
+     * revalidated with a conditional request when the panel sends an {@code ETag} or {@code Last-Modified} header.
+     *
+     * <p>The cache is keyed by URL, so a directory should not be shared between API keys with different permissions.
+     *
+     * <p>Default: <b>disabled</b>
+     *
+     * @param  directory
+     *         The directory to store the responses in
+     * @param  maxSize
+     *         The maximum size of the cache in bytes
+     *
+     * @throws IllegalArgumentException
+     *         If the directory is null, or the size is less than 1
+     *
+     * @return The PteroBuilder instance. Useful for chaining.
+     */
+    public PteroBuilder setResponseCache(File directory, long maxSize) {
+        Checks.notNull(directory, "Directory");
+        Checks.check(maxSize > 0, "Cache size must be greater than 0");
+        this.responseCacheDirectory = directory;
+        this.responseCacheMaxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Sets how long responses of the provided route are considered fresh in the response cache.
+     *
+     * <br>This is best suited for large payloads that rarely change, like
+     * {@link Route.Nests#GET_EGGS Route.Nests.GET_EGGS} or {@link Route.Nodes#GET_CONFIGURATION Route.Nodes.GET_CONFIGURATION}.
+     * Has no effect unless the cache is enabled with {@link #setResponseCache(File, long)}.
+     *
+     * @param  route
+     *         The route to cache, must be a GET route
+     * @param  duration
+     *         How long a response stays fresh, or {@code 0} to stop caching the route
+     * @param  unit
+     *         {@link TimeUnit TimeUnit} for the duration
+     *
+     * @throws IllegalArgumentException
+     *         If the route or unit is null, the route is not a GET route, or the duration is negative
+     *
+     * @return The PteroBuilder instance. Useful for chaining.
+     */
+    public PteroBuilder setResponseCacheExpiration(Route route, long duration, TimeUnit unit) {
+        Checks.notNull(route, "Route");
+        Checks.notNull(unit, "TimeUnit");
+        Checks.check(route.getMethod() == Method.GET, "Only GET routes can be cached!");
+        Checks.check(duration >= 0, "Duration may not be negative!");
+        if (duration == 0)
+            this.responseCacheExpirations.remove(route);
+        else
+            this.responseCacheExpirations.put(route, unit.toMillis(duration));
+        return this;
+    }
+
     /**
      * The URL of the Pterodactyl panel that is currently being used with P4J.
      *
@@ -307,13 +476,23 @@ public class PteroBuilder {
         if (actionPool == null)
             this.actionPool = Executors.newSingleThreadExecutor(new NamedThreadFactory("Action"));
         if (rateLimitPool == null)
-            this.rateLimitPool = Executors.newScheduledThreadPool(5, new NamedThreadFactory("RateLimit"));
+            this.rateLimitPool = Executors.newScheduledThreadPool(Math.max(5, this.maxConcurrentRequests + 1), new NamedThreadFactory("RateLimit"));
         if (supplierPool == null)
             this.supplierPool = Executors.newFixedThreadPool(3, new NamedThreadFactory("Supplier"));
+        if (ioPool == null)
+            this.ioPool = Executors.newCachedThreadPool(new NamedThreadFactory("IO"));
         if (webSocketClient == null)
-            this.webSocketClient = new OkHttpClient();
-        return new P4JImpl(this.applicationUrl, this.token, this.userAgent, this.httpClient, this.callbackPool, this.actionPool,
-                this.rateLimitPool, this.supplierPool, this.webSocketClient);
+            this.webSocketClient = new OkHttpClient.Builder().dispatcher(WebSocketPool.createWebSocketDispatcher()).build();
+        ResponseCachePolicy responseCachePolicy = new ResponseCachePolicy(this.responseCacheExpirations);
+        OkHttpClient client = this.httpClient;
+        if (responseCacheDirectory != null)
+            client = client.newBuilder()
+                    .cache(new Cache(this.responseCacheDirectory, this.responseCacheMaxSize))
+                    .addNetworkInterceptor(responseCachePolicy)
+                    .build();
+        return new P4JImpl(this.applicationUrl, this.token, this.userAgent, client, this.callbackPool, this.actionPool,
+                this.rateLimitPool, this.supplierPool, this.ioPool, this.webSocketClient, new EntityCache(this.cacheExpirations, this.cacheMaxSize),
+                responseCachePolicy, this.maxConcurrentRequests);
     }
 
     /**
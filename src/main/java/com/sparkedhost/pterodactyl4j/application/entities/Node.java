@@ -31,6 +31,8 @@ public interface Node extends ISnowflake {
 	String getName();
 	String getDescription();
 	PteroAction<Location> retrieveLocation();
+	long getLocationIdLong();
+	default String getLocationId() { return Long.toUnsignedString(getLocationIdLong()); }
 	ApplicationAllocationManager getAllocationManager();
 	String getFQDN();
 	String getScheme();
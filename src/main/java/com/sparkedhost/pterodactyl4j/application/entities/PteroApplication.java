@@ -17,17 +17,26 @@
 package com.sparkedhost.pterodactyl4j.application.entities;
 
 import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.requests.bulk.BulkOperation;
+import com.sparkedhost.pterodactyl4j.requests.bulk.BulkResult;
 import com.sparkedhost.pterodactyl4j.application.managers.LocationManager;
 import com.sparkedhost.pterodactyl4j.application.managers.NodeManager;
 import com.sparkedhost.pterodactyl4j.application.managers.ServerCreationAction;
 import com.sparkedhost.pterodactyl4j.application.managers.UserManager;
+import com.sparkedhost.pterodactyl4j.application.mirror.PanelMirrorBuilder;
 import com.sparkedhost.pterodactyl4j.PteroBuilder;
 import com.sparkedhost.pterodactyl4j.exceptions.LoginException;
 import com.sparkedhost.pterodactyl4j.exceptions.NotFoundException;
 import com.sparkedhost.pterodactyl4j.requests.action.PaginationAction;
 import com.sparkedhost.pterodactyl4j.utils.StreamUtils;
+import com.sparkedhost.pterodactyl4j.utils.cache.EntityCache;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * The core of PteroApplication. All parts of the the PteroApplication API can be accessed starting from this class.
@@ -585,8 +594,8 @@ public interface PteroApplication {
 	 * @return {@link PteroAction PteroAction} - Type {@link java.util.List List} of {@link ApplicationServer ApplicationServers}
 	 */
 	default PteroAction<List<ApplicationServer>> retrieveServersByNode(Node node) {
-		return retrieveServers().map(List::stream)
-				.map(stream -> stream.filter(s -> s.retrieveNode().map(ISnowflake::getIdLong).execute() == node.getIdLong())
+		return retrieveServers().all().map(List::stream)
+				.map(stream -> stream.filter(s -> s.getNodeIdLong() == node.getIdLong())
 						.collect(StreamUtils.toUnmodifiableList()));
 	}
 
@@ -603,10 +612,11 @@ public interface PteroApplication {
 	 * @return {@link PteroAction PteroAction} - Type {@link java.util.List List} of {@link ApplicationServer ApplicationServers}
 	 */
 	default PteroAction<List<ApplicationServer>> retrieveServersByLocation(Location location) {
-		return retrieveServers().map(List::stream)
-				.map(stream -> stream.filter(s -> s.retrieveNode().flatMap(Node::retrieveLocation)
-								.map(ISnowflake::getIdLong).execute() == location.getIdLong())
-						.collect(StreamUtils.toUnmodifiableList()));
+		return retrieveNodesByLocation(location)
+				.map(nodes -> nodes.stream().map(ISnowflake::getIdLong).collect(Collectors.toSet()))
+				.flatMap(nodes -> retrieveServers().all().map(List::stream)
+						.map(stream -> stream.filter(s -> nodes.contains(s.getNodeIdLong()))
+								.collect(StreamUtils.toUnmodifiableList())));
 	}
 
 	/**
@@ -618,5 +628,115 @@ public interface PteroApplication {
 	 */
 	ServerCreationAction createServer();
 
+	/**
+	 * Retrieves the owners of the provided {@link ApplicationServer ApplicationServers}
+	 * <br>Owners included in the servers' relationships are used as they are. The remaining owners are de-duplicated
+	 * and retrieved in a single batch, either from the user listing or with one request per distinct owner, whichever needs fewer requests.
+	 * <br>This requires an <b>Application API key</b> with the <b>Users</b> permission with <b>Read</b> access.
+	 *
+	 * @param  servers
+	 *         The servers
+	 *
+	 * @throws LoginException
+	 *         If the API key is incorrect or doesn't have the required permissions
+	 *
+	 * @return {@link PteroAction PteroAction} - Type {@link java.util.Map Map} of each {@link ApplicationServer ApplicationServer}
+	 *         to its {@link ApplicationUser owner}, servers whose owner no longer exists are left out
+	 */
+	PteroAction<Map<ApplicationServer, ApplicationUser>> retrieveServerOwners(Collection<ApplicationServer> servers);
+
+	/**
+	 * Retrieves the nodes of the provided {@link ApplicationServer ApplicationServers}
+	 * <br>Nodes included in the servers' relationships are used as they are. The remaining nodes are de-duplicated
+	 * and retrieved in a single batch, either from the node listing or with one request per distinct node, whichever needs fewer requests.
+	 * <br>This requires an <b>Application API key</b> with the <b>Nodes</b> permission with <b>Read</b> access.
+	 *
+	 * @param  servers
+	 *         The servers
+	 *
+	 * @throws LoginException
+	 *         If the API key is incorrect or doesn't have the required permissions
+	 *
+	 * @return {@link PteroAction PteroAction} - Type {@link java.util.Map Map} of each {@link ApplicationServer ApplicationServer}
+	 *         to its {@link Node Node}, servers whose node no longer exists are left out
+	 */
+	PteroAction<Map<ApplicationServer, Node>> retrieveServerNodes(Collection<ApplicationServer> servers);
+
+	/**
+	 * Retrieves the eggs of the provided {@link ApplicationServer ApplicationServers}
+	 * <br>Eggs included in the servers' relationships are used as they are. The remaining eggs are retrieved
+	 * with a single request per nest.
+	 * <br>This requires an <b>Application API key</b> with the <b>Nests</b> permission with <b>Read</b> access.
+	 *
+	 * @param  servers
+	 *         The servers
+	 *
+	 * @throws LoginException
+	 *         If the API key is incorrect or doesn't have the required permissions
+	 *
+	 * @return {@link PteroAction PteroAction} - Type {@link java.util.Map Map} of each {@link ApplicationServer ApplicationServer}
+	 *         to its {@link ApplicationEgg ApplicationEgg}, servers whose egg no longer exists are left out
+	 */
+	PteroAction<Map<ApplicationServer, ApplicationEgg>> retrieveServerEggs(Collection<ApplicationServer> servers);
+
+	/**
+	 * The {@link EntityCache EntityCache} used by this instance
+	 * <br>Entities are only cached for the types configured with
+	 * {@link PteroBuilder#setCacheExpiration PteroBuilder.setCacheExpiration(...)}
+	 *
+	 * @return The entity cache, useful to inspect hit and miss counters or to invalidate entries
+	 */
+	EntityCache getEntityCache();
+
+	/**
+	 * The P4J instance backing this application, used by helpers like
+	 * {@link PteroAction#fanOut PteroAction.fanOut(...)}
+	 *
+	 * @return The P4J instance
+	 */
+	P4J getP4J();
+
+	/**
+	 * Returns a new {@link PanelMirrorBuilder PanelMirrorBuilder}, used to keep an in-memory mirror of the servers, users,
+	 * nodes and allocations of the Pterodactyl instance
+	 * <br>The mirror requires an <b>Application API key</b> with the <b>Servers</b>, <b>Users</b>, <b>Nodes</b> and <b>Allocations</b>
+	 * permissions with <b>Read</b> access.
+	 *
+	 * @return The builder used to start the mirror
+	 */
+	default PanelMirrorBuilder getMirrorBuilder() {
+		return new PanelMirrorBuilder(this);
+	}
+
+	/**
+	 * Creates a {@link BulkOperation BulkOperation} applying an action to every provided item, for example
+	 * changing the build, details or startup of many servers at once.
+	 * <br>Failing items do not stop the operation and can be retried through {@link BulkResult#retryFailed()}.
+	 *
+	 * <h2>Example</h2>
+	 * <pre>{@code
+	 * application.bulk(servers, server -> server.getStartupManager().setImage("ghcr.io/pterodactyl/yolks:java_17"))
+	 *     .setParallelism(4)
+	 *     .executeAsync(result -> result.getFailed().forEach(o -> System.out.println(o.getItem() + ": " + o.getError())));
+	 * }</pre>
+	 *
+	 * @param  items
+	 *         The items to apply the action to
+	 * @param  action
+	 *         The function creating the action for a single item
+	 *
+	 * @param  <I>
+	 *         The item type
+	 * @param  <O>
+	 *         The result type of the per-item actions
+	 *
+	 * @throws IllegalArgumentException
+	 *         If any of the arguments is null
+	 *
+	 * @return The BulkOperation, nothing is executed until it is executed like any other {@link PteroAction PteroAction}
+	 */
+	default <I, O> BulkOperation<I, O> bulk(Collection<? extends I> items, Function<? super I, ? extends PteroAction<? extends O>> action) {
+		return BulkOperation.of(getP4J(), items, action);
+	}
 
 }
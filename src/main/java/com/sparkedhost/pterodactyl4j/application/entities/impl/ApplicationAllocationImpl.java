@@ -78,6 +78,10 @@ public class ApplicationAllocationImpl implements ApplicationAllocation {
 		return Optional.of(new NodeImpl(relationships.getJSONObject("node"), impl));
 	}
 
+	JSONObject getRawJSON() {
+		return json;
+	}
+
 	@Override
 	public String toString() {
 		return json.toString(4);
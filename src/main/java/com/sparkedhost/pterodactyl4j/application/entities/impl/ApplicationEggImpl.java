@@ -122,6 +122,10 @@ public class ApplicationEggImpl implements ApplicationEgg {
         return OffsetDateTime.parse(json.optString("updated_at"));
     }
 
+    JSONObject getRawJSON() {
+        return json;
+    }
+
     @Override
     public String toString() {
         return json.toString(4);
@@ -87,7 +87,7 @@ public class ApplicationServerImpl implements ApplicationServer {
 	@Override
 	public PteroAction<ApplicationUser> retrieveOwner() {
 		if(!json.has("relationships"))
-			return impl.retrieveUserById(getOwnerIdLong());
+			return impl.loadUser(getOwnerIdLong());
 
 		return new CompletedPteroAction<>(impl.getP4J(), new ApplicationUserImpl(relationships.getJSONObject("user"), impl));
 	}
@@ -100,7 +100,7 @@ public class ApplicationServerImpl implements ApplicationServer {
 	@Override
 	public PteroAction<Node> retrieveNode() {
 		if (!json.has("relationships"))
-			return impl.retrieveNodeById(getNodeIdLong());
+			return impl.loadNode(getNodeIdLong());
 
 		return new CompletedPteroAction<>(impl.getP4J(), new NodeImpl(relationships.getJSONObject("node"), impl));
 	}
@@ -142,7 +142,7 @@ public class ApplicationServerImpl implements ApplicationServer {
 	@Override
 	public PteroAction<Nest> retrieveNest() {
 		if (!json.has("relationships"))
-			return impl.retrieveNestById(getNestIdLong());
+			return impl.loadNest(getNestIdLong());
 
 		return new CompletedPteroAction<>(impl.getP4J(), new NestImpl(relationships.getJSONObject("nest"), impl));
 	}
@@ -155,7 +155,7 @@ public class ApplicationServerImpl implements ApplicationServer {
 	@Override
 	public PteroAction<ApplicationEgg> retrieveEgg() {
 		if (!json.has("relationships"))
-			return impl.retrieveEggById(getNestId(), getEggId());
+			return impl.loadEgg(getNestIdLong(), getEggIdLong());
 
 		return new CompletedPteroAction<>(impl.getP4J(), new ApplicationEggImpl(relationships.getJSONObject("egg"), impl));
 	}
@@ -246,6 +246,14 @@ public class ApplicationServerImpl implements ApplicationServer {
 		return OffsetDateTime.parse(json.optString("updated_at"));
 	}
 
+	boolean hasRelationships() {
+		return json.has("relationships");
+	}
+
+	JSONObject getRawJSON() {
+		return json;
+	}
+
 	@Override
 	public String toString() {
 		return json.toString(4);
@@ -127,6 +127,10 @@ public class ApplicationUserImpl implements ApplicationUser {
 		return PteroActionImpl.onRequestExecute(impl.getP4J(), Route.Users.DELETE_USER.compile(getId()));
 	}
 
+	JSONObject getRawJSON() {
+		return json;
+	}
+
 	@Override
 	public String toString() {
 		return json.toString(4);
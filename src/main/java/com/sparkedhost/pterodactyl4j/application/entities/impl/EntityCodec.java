@@ -0,0 +1,72 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.application.entities.impl;
+
+import com.sparkedhost.pterodactyl4j.application.entities.*;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts Application API entities to and from the raw attributes returned by the panel.
+ * <br>Used to persist entities without a round trip to the panel, the decoded entities behave exactly like retrieved ones.
+ */
+public final class EntityCodec {
+
+	private EntityCodec() {}
+
+	public static byte[] encode(Object entity) {
+		JSONObject json;
+		if (entity instanceof ApplicationServerImpl)
+			json = ((ApplicationServerImpl) entity).getRawJSON();
+		else if (entity instanceof ApplicationUserImpl)
+			json = ((ApplicationUserImpl) entity).getRawJSON();
+		else if (entity instanceof NodeImpl)
+			json = ((NodeImpl) entity).getRawJSON();
+		else if (entity instanceof ApplicationAllocationImpl)
+			json = ((ApplicationAllocationImpl) entity).getRawJSON();
+		else if (entity instanceof ApplicationEggImpl)
+			json = ((ApplicationEggImpl) entity).getRawJSON();
+		else
+			throw new IllegalArgumentException("Cannot encode entity of type " + entity.getClass().getName());
+		return json.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	public static ApplicationServer decodeServer(PteroApplication application, byte[] data) {
+		return new ApplicationServerImpl((PteroApplicationImpl) application, wrap(data));
+	}
+
+	public static ApplicationUser decodeUser(PteroApplication application, byte[] data) {
+		return new ApplicationUserImpl(wrap(data), (PteroApplicationImpl) application);
+	}
+
+	public static Node decodeNode(PteroApplication application, byte[] data) {
+		return new NodeImpl(wrap(data), (PteroApplicationImpl) application);
+	}
+
+	public static ApplicationAllocation decodeAllocation(PteroApplication application, byte[] data) {
+		return new ApplicationAllocationImpl(wrap(data), (PteroApplicationImpl) application);
+	}
+
+	public static ApplicationEgg decodeEgg(PteroApplication application, byte[] data) {
+		return new ApplicationEggImpl(wrap(data), (PteroApplicationImpl) application);
+	}
+
+	private static JSONObject wrap(byte[] data) {
+		return new JSONObject().put("attributes", new JSONObject(new String(data, StandardCharsets.UTF_8)));
+	}
+}
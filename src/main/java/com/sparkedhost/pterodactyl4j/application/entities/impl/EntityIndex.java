@@ -0,0 +1,158 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.application.entities.impl;
+
+import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.application.entities.ApplicationAllocation;
+import com.sparkedhost.pterodactyl4j.application.entities.Location;
+import com.sparkedhost.pterodactyl4j.application.entities.Node;
+import com.sparkedhost.pterodactyl4j.exceptions.NotFoundException;
+import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
+import com.sparkedhost.pterodactyl4j.utils.StreamUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps lightweight id indexes for entities that the Application API can only look up by scanning.
+ * <br>The indexes are filled lazily from any listing the library performs and are only used as hints,
+ * every lookup is still answered with data fetched from the panel.
+ */
+public class EntityIndex {
+
+	private static final Logger INDEX_LOG = LoggerFactory.getLogger(EntityIndex.class);
+
+	private final PteroApplicationImpl impl;
+
+	// allocation id -> node id
+	private final Map<Long, Long> allocationNodes = new ConcurrentHashMap<>();
+	// lower-cased short code -> location ids
+	private final Map<String, Set<Long>> locationShortCodes = new ConcurrentHashMap<>();
+
+	EntityIndex(PteroApplicationImpl impl) {
+		this.impl = impl;
+	}
+
+	void indexAllocations(long nodeId, Collection<ApplicationAllocation> allocations) {
+		for (ApplicationAllocation allocation : allocations)
+			allocationNodes.put(allocation.getIdLong(), nodeId);
+	}
+
+	void indexLocations(Collection<Location> locations) {
+		for (Location location : locations)
+			locationShortCodes.computeIfAbsent(location.getShortCode().toLowerCase(), k -> ConcurrentHashMap.newKeySet())
+					.add(location.getIdLong());
+	}
+
+	/**
+	 * The amount of allocations that currently have a known node
+	 *
+	 * @return The size of the allocation index
+	 */
+	public int getAllocationIndexSize() {
+		return allocationNodes.size();
+	}
+
+	/**
+	 * Drops the indexed short codes, called whenever a location is created or edited through P4J
+	 * <br>Locations created through the panel itself are only picked up once the index is found stale or cleared.
+	 */
+	public void invalidateLocations() {
+		locationShortCodes.clear();
+	}
+
+	/**
+	 * Drops every indexed entry, the next lookups will crawl the panel again
+	 */
+	public void clear() {
+		allocationNodes.clear();
+		locationShortCodes.clear();
+	}
+
+	PteroAction<ApplicationAllocation> retrieveAllocationById(long id) {
+		return PteroActionImpl.onExecute(impl.getP4J(), () -> {
+			Long nodeId = allocationNodes.get(id);
+			if (nodeId != null) {
+				Optional<ApplicationAllocation> allocation = findAllocationOnNode(nodeId, id);
+				if (allocation.isPresent())
+					return allocation.get();
+				INDEX_LOG.debug("Allocation {} is no longer on node {}, crawling nodes", id, nodeId);
+				allocationNodes.remove(id);
+			}
+
+			// the node listing embeds the allocations, its pages are fetched lazily until a node holds the allocation
+			return impl.retrieveNodes().stream()
+					.map(node -> findAllocationOnNode(node, id))
+					.filter(Optional::isPresent)
+					.map(Optional::get)
+					.findFirst()
+					.orElseThrow(() -> new NotFoundException("The requested entity was not found."));
+		});
+	}
+
+	private Optional<ApplicationAllocation> findAllocationOnNode(Node node, long id) {
+		List<ApplicationAllocation> allocations = node.retrieveAllocations().all().execute();
+		indexAllocations(node.getIdLong(), allocations);
+		return allocations.stream()
+				.filter(a -> a.getIdLong() == id)
+				.findFirst();
+	}
+
+	private Optional<ApplicationAllocation> findAllocationOnNode(long nodeId, long id) {
+		try {
+			// the stream fetches pages lazily, so this stops at the page containing the allocation
+			return impl.retrieveAllocationsByNode(Long.toUnsignedString(nodeId)).stream()
+					.filter(a -> a.getIdLong() == id)
+					.findFirst();
+		} catch (NotFoundException e) {
+			return Optional.empty();
+		}
+	}
+
+	PteroAction<List<Location>> retrieveLocationsByShortCode(String shortCode, boolean caseSensitive) {
+		return PteroActionImpl.onExecute(impl.getP4J(), () -> {
+			Set<Long> ids = locationShortCodes.get(shortCode.toLowerCase());
+			if (ids != null && !ids.isEmpty()) {
+				List<Location> locations = new ArrayList<>(ids.size());
+				boolean stale = false;
+				for (long id : ids) {
+					try {
+						Location location = impl.retrieveLocationById(id).execute();
+						if (StreamUtils.compareString(location.getShortCode(), shortCode, caseSensitive))
+							locations.add(location);
+						else if (!location.getShortCode().equalsIgnoreCase(shortCode))
+							stale = true;
+					} catch (NotFoundException e) {
+						stale = true;
+					}
+				}
+				if (!stale)
+					return Collections.unmodifiableList(locations);
+				INDEX_LOG.debug("Location index for short code {} is stale, crawling locations", shortCode);
+				locationShortCodes.remove(shortCode.toLowerCase());
+			}
+
+			// listing locations indexes every short code it sees
+			List<Location> locations = impl.retrieveLocations().all().execute();
+			return locations.stream()
+					.filter(l -> StreamUtils.compareString(l.getShortCode(), shortCode, caseSensitive))
+					.collect(StreamUtils.toUnmodifiableList());
+		});
+	}
+}
@@ -70,10 +70,15 @@ public class NodeImpl implements Node {
 	@Override
 	public PteroAction<Location> retrieveLocation() {
 		if(!json.has("relationships"))
-			return impl.retrieveLocationById(json.getLong("location_id"));
+			return impl.loadLocation(getLocationIdLong());
 		return new CompletedPteroAction<>(impl.getP4J(), new LocationImpl(relationships.getJSONObject("location"), impl));
 	}
 
+	@Override
+	public long getLocationIdLong() {
+		return json.getLong("location_id");
+	}
+
 	@Override
 	public String getFQDN() {
 		return json.getString("fqdn");
@@ -193,6 +198,10 @@ public class NodeImpl implements Node {
 		return OffsetDateTime.parse(json.optString("updated_at"));
 	}
 
+	JSONObject getRawJSON() {
+		return json;
+	}
+
 	@Override
 	public String toString() {
 		return json.toString(4);
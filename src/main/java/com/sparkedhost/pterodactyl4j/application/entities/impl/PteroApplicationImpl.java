@@ -18,6 +18,8 @@ package com.sparkedhost.pterodactyl4j.application.entities.impl;
 
 import com.sparkedhost.pterodactyl4j.PteroAction;
 import com.sparkedhost.pterodactyl4j.application.entities.*;
+import com.sparkedhost.pterodactyl4j.requests.BatchLoader;
+import com.sparkedhost.pterodactyl4j.requests.CachedPteroAction;
 import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
 import com.sparkedhost.pterodactyl4j.application.managers.LocationManager;
 import com.sparkedhost.pterodactyl4j.application.managers.NodeManager;
@@ -28,28 +30,61 @@ import com.sparkedhost.pterodactyl4j.requests.Route;
 import com.sparkedhost.pterodactyl4j.requests.action.PaginationAction;
 import com.sparkedhost.pterodactyl4j.requests.action.impl.PaginationResponseImpl;
 import com.sparkedhost.pterodactyl4j.utils.StreamUtils;
+import com.sparkedhost.pterodactyl4j.utils.cache.CacheType;
+import com.sparkedhost.pterodactyl4j.utils.cache.EntityCache;
 import org.json.JSONObject;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class PteroApplicationImpl implements PteroApplication {
 
+	// how many nodes or nests are listed at the same time by the aggregate lookups
+	private static final int AGGREGATE_PARALLELISM = 8;
+
 	private final P4J api;
+	private final EntityIndex index;
+
+	// relationship lookups made within a short window are resolved together
+	private final BatchLoader<ApplicationUser> userLoader;
+	private final BatchLoader<Node> nodeLoader;
+	private final BatchLoader<Location> locationLoader;
+	private final BatchLoader<Nest> nestLoader;
+	private final Map<Long, BatchLoader<ApplicationEgg>> eggLoaders = new ConcurrentHashMap<>();
 
 	public PteroApplicationImpl(P4J api) {
 		this.api = api;
+		this.index = new EntityIndex(this);
+		this.userLoader = new BatchLoader<>(api, BatchLoader.ofPagination(this::retrieveUsers, ISnowflake::getIdLong, this::retrieveUserById));
+		this.nodeLoader = new BatchLoader<>(api, BatchLoader.ofPagination(this::retrieveNodes, ISnowflake::getIdLong, this::retrieveNodeById));
+		this.locationLoader = new BatchLoader<>(api, BatchLoader.ofPagination(this::retrieveLocations, ISnowflake::getIdLong, this::retrieveLocationById));
+		this.nestLoader = new BatchLoader<>(api, BatchLoader.ofPagination(this::retrieveNests, ISnowflake::getIdLong, this::retrieveNestById));
 	}
 
+	@Override
 	public P4J getP4J() {
 		return api;
 	}
 
+	public EntityIndex getEntityIndex() {
+		return index;
+	}
+
+	@Override
+	public EntityCache getEntityCache() {
+		return api.getEntityCache();
+	}
+
 	public PteroAction<ApplicationUser> retrieveUserById(String id) {
-		return PteroActionImpl.onRequestExecute(api, Route.Users.GET_USER.compile(id),
-				(response, request) -> new ApplicationUserImpl(response.getObject(), this));
+		return CachedPteroAction.of(api, CacheType.USER, id,
+				PteroActionImpl.onRequestExecute(api, Route.Users.GET_USER.compile(id),
+						(response, request) -> new ApplicationUserImpl(response.getObject(), this)));
 	}
 
 	@Override
@@ -101,8 +136,9 @@ public class PteroApplicationImpl implements PteroApplication {
 
 	@Override
 	public PteroAction<Node> retrieveNodeById(String id) {
-		return PteroActionImpl.onRequestExecute(api, Route.Nodes.GET_NODE.compile(id),
-				(response, request) -> new NodeImpl(response.getObject(), this));
+		return CachedPteroAction.of(api, CacheType.NODE, id,
+				PteroActionImpl.onRequestExecute(api, Route.Nodes.GET_NODE.compile(id),
+						(response, request) -> new NodeImpl(response.getObject(), this)));
 	}
 
 	@Override
@@ -123,7 +159,7 @@ public class PteroApplicationImpl implements PteroApplication {
 	@Override
 	public PteroAction<List<Node>> retrieveNodesByLocation(Location location) {
 		return retrieveNodes().all().map(List::stream).map(stream ->
-				stream.filter(n -> n.retrieveLocation().map(ISnowflake::getIdLong).execute() == location.getIdLong())
+				stream.filter(n -> n.getLocationIdLong() == location.getIdLong())
 				.collect(StreamUtils.toUnmodifiableList()));
 	}
 
@@ -134,57 +170,66 @@ public class PteroApplicationImpl implements PteroApplication {
 
 	@Override
 	public PaginationAction<ApplicationAllocation> retrieveAllocationsByNode(Node node) {
-		return PaginationResponseImpl.onPagination(api, Route.Nodes.LIST_ALLOCATIONS.compile(node.getId()),
-				(object) -> new ApplicationAllocationImpl(object, this));
+		return retrieveAllocationsByNode(node.getId());
 	}
 
+	PaginationAction<ApplicationAllocation> retrieveAllocationsByNode(String nodeId) {
+		long node = Long.parseUnsignedLong(nodeId);
+		return PaginationResponseImpl.onPagination(api, Route.Nodes.LIST_ALLOCATIONS.compile(nodeId),
+				(object) -> {
+					ApplicationAllocation allocation = new ApplicationAllocationImpl(object, this);
+					index.indexAllocations(node, Collections.singletonList(allocation));
+					return allocation;
+				});
+	}
 
 	@Override
 	public PteroAction<List<ApplicationAllocation>> retrieveAllocations() {
-		return PteroActionImpl.onExecute(api, () -> {
-			List<ApplicationAllocation> allocations = new ArrayList<>();
-			List<Node> nodes = retrieveNodes().all().execute();
-			for (Node node : nodes) {
-				allocations.addAll(node.retrieveAllocations().execute());
-			}
-			return Collections.unmodifiableList(allocations);
-		});
+		return retrieveNodes().all()
+				.flatMap(nodes -> PteroAction.fanOut(api, nodes, node -> node.retrieveAllocations().all()
+						.map(allocations -> {
+							index.indexAllocations(node.getIdLong(), allocations);
+							return allocations;
+						}), AGGREGATE_PARALLELISM))
+				.map(PteroApplicationImpl::flatten);
 	}
 
 	@Override
 	public PteroAction<ApplicationAllocation> retrieveAllocationById(String id) {
-		return retrieveAllocations().map(List::stream)
-				.map(stream -> stream.filter(a -> a.getId().equals(id)).findFirst().orElse(null));
+		return index.retrieveAllocationById(Long.parseUnsignedLong(id));
 	}
 
 	@Override
 	public PteroAction<ApplicationEgg> retrieveEggById(Nest nest, String id) {
-		return PteroActionImpl.onRequestExecute(api, Route.Nests.GET_EGG.compile(nest.getId(), id),
-				(response, request) -> new ApplicationEggImpl(response.getObject(), this));
+		return retrieveEggById(nest.getId(), id);
 	}
 
 	protected PteroAction<ApplicationEgg> retrieveEggById(String nest, String egg) {
-		return PteroActionImpl.onRequestExecute(api, Route.Nests.GET_EGG.compile(nest, egg),
-				(response, request) -> new ApplicationEggImpl(response.getObject(), this));
+		return CachedPteroAction.of(api, CacheType.EGG, nest + "/" + egg,
+				PteroActionImpl.onRequestExecute(api, Route.Nests.GET_EGG.compile(nest, egg),
+						(response, request) -> new ApplicationEggImpl(response.getObject(), this)));
 	}
 
 
 	@Override
 	public PteroAction<List<ApplicationEgg>> retrieveEggs() {
-		return PteroActionImpl.onExecute(api, () -> {
-			List<Nest> nests = retrieveNests().all().execute();
-			List<ApplicationEgg> eggs = new ArrayList<>();
-			for (Nest nest : nests) {
-				eggs.addAll(nest.retrieveEggs().execute());
-			}
-			return Collections.unmodifiableList(eggs);
-		});
+		return retrieveNests().all()
+				.flatMap(nests -> PteroAction.fanOut(api, nests, Nest::retrieveEggs, AGGREGATE_PARALLELISM))
+				.map(PteroApplicationImpl::flatten);
+	}
+
+	private static <T> List<T> flatten(List<List<T>> lists) {
+		return lists.stream().flatMap(List::stream).collect(StreamUtils.toUnmodifiableList());
 	}
 
 	@Override
 	public PteroAction<List<ApplicationEgg>> retrieveEggsByNest(Nest nest) {
+		return retrieveEggsByNest(nest.getId());
+	}
+
+	PteroAction<List<ApplicationEgg>> retrieveEggsByNest(String nestId) {
 		return PteroActionImpl.onRequestExecute(api,
-				Route.Nests.GET_EGGS.compile(nest.getId()), (response, request) -> {
+				Route.Nests.GET_EGGS.compile(nestId), (response, request) -> {
 					List<ApplicationEgg> eggs = new ArrayList<>();
 					JSONObject json = response.getObject();
 					for (Object o : json.getJSONArray("data")) {
@@ -197,8 +242,9 @@ public class PteroApplicationImpl implements PteroApplication {
 
 	@Override
 	public PteroAction<Nest> retrieveNestById(String id) {
-		return PteroActionImpl.onRequestExecute(api, Route.Nests.GET_NEST.compile(id),
-				(response, request) -> new NestImpl(response.getObject(), this));
+		return CachedPteroAction.of(api, CacheType.NEST, id,
+				PteroActionImpl.onRequestExecute(api, Route.Nests.GET_NEST.compile(id),
+						(response, request) -> new NestImpl(response.getObject(), this)));
 	}
 
 	@Override
@@ -240,20 +286,23 @@ public class PteroApplicationImpl implements PteroApplication {
 	@Override
 	public PaginationAction<Location> retrieveLocations() {
 		return PaginationResponseImpl.onPagination(api, Route.Locations.LIST_LOCATIONS.compile(),
-				(object) -> new LocationImpl(object, this));
+				(object) -> {
+					Location location = new LocationImpl(object, this);
+					index.indexLocations(Collections.singletonList(location));
+					return location;
+				});
 	}
 
 	@Override
 	public PteroAction<Location> retrieveLocationById(String id) {
-		return PteroActionImpl.onRequestExecute(api, Route.Locations.GET_LOCATION.compile(id),
-				((response, request) -> new LocationImpl(response.getObject(), this)));
+		return CachedPteroAction.of(api, CacheType.LOCATION, id,
+				PteroActionImpl.onRequestExecute(api, Route.Locations.GET_LOCATION.compile(id),
+						((response, request) -> new LocationImpl(response.getObject(), this))));
 	}
 
 	@Override
 	public PteroAction<List<Location>> retrieveLocationsByShortCode(String name, boolean caseSensitive) {
-		return retrieveLocations().all().map(List::stream)
-				.map(stream -> stream.filter(l -> StreamUtils.compareString(l.getShortCode(), name, caseSensitive))
-						.collect(StreamUtils.toUnmodifiableList()));
+		return index.retrieveLocationsByShortCode(name, caseSensitive);
 	}
 
 	@Override
@@ -269,8 +318,9 @@ public class PteroApplicationImpl implements PteroApplication {
 
 	@Override
 	public PteroAction<ApplicationServer> retrieveServerById(String id) {
-		return PteroActionImpl.onRequestExecute(api, Route.Servers.GET_SERVER.compile(id),
-				(response, request) -> new ApplicationServerImpl(this, response.getObject()));
+		return CachedPteroAction.of(api, CacheType.SERVER, id,
+				PteroActionImpl.onRequestExecute(api, Route.Servers.GET_SERVER.compile(id),
+						(response, request) -> new ApplicationServerImpl(this, response.getObject())));
 	}
 
 	@Override
@@ -283,10 +333,99 @@ public class PteroApplicationImpl implements PteroApplication {
 	@Override
 	public PteroAction<List<ApplicationServer>> retrieveServersByOwner(ApplicationUser user) {
 		return retrieveServers().all().map(List::stream)
-				.map(stream -> stream.filter(s -> s.retrieveOwner().map(ISnowflake::getIdLong).execute() == user.getIdLong())
+				.map(stream -> stream.filter(s -> s.getOwnerIdLong() == user.getIdLong())
 						.collect(StreamUtils.toUnmodifiableList()));
 	}
 
+	PteroAction<ApplicationUser> loadUser(long id) {
+		String key = Long.toUnsignedString(id);
+		return CachedPteroAction.of(api, CacheType.USER, key, userLoader.load(id));
+	}
+
+	PteroAction<Node> loadNode(long id) {
+		String key = Long.toUnsignedString(id);
+		return CachedPteroAction.of(api, CacheType.NODE, key, nodeLoader.load(id));
+	}
+
+	PteroAction<Location> loadLocation(long id) {
+		String key = Long.toUnsignedString(id);
+		return CachedPteroAction.of(api, CacheType.LOCATION, key, locationLoader.load(id));
+	}
+
+	PteroAction<Nest> loadNest(long id) {
+		String key = Long.toUnsignedString(id);
+		return CachedPteroAction.of(api, CacheType.NEST, key, nestLoader.load(id));
+	}
+
+	PteroAction<ApplicationEgg> loadEgg(long nest, long egg) {
+		String key = Long.toUnsignedString(nest) + "/" + Long.toUnsignedString(egg);
+		return CachedPteroAction.of(api, CacheType.EGG, key, getEggLoader(nest).load(egg));
+	}
+
+	private BatchLoader<ApplicationEgg> getEggLoader(long nest) {
+		// a nest lists all of its eggs in one request
+		return eggLoaders.computeIfAbsent(nest, n -> new BatchLoader<>(api,
+				BatchLoader.ofList(() -> retrieveEggsByNest(Long.toUnsignedString(n)), ISnowflake::getIdLong)));
+	}
+
+	@Override
+	public PteroAction<Map<ApplicationServer, ApplicationUser>> retrieveServerOwners(Collection<ApplicationServer> servers) {
+		return resolveRelationship(servers, ApplicationServer::getOwnerIdLong, ApplicationServer::retrieveOwner,
+				ids -> userLoader.loadAll(ids).submit());
+	}
+
+	@Override
+	public PteroAction<Map<ApplicationServer, Node>> retrieveServerNodes(Collection<ApplicationServer> servers) {
+		return resolveRelationship(servers, ApplicationServer::getNodeIdLong, ApplicationServer::retrieveNode,
+				ids -> nodeLoader.loadAll(ids).submit());
+	}
+
+	@Override
+	public PteroAction<Map<ApplicationServer, ApplicationEgg>> retrieveServerEggs(Collection<ApplicationServer> servers) {
+		return resolveRelationship(servers, ApplicationServer::getEggIdLong, ApplicationServer::retrieveEgg, ids -> {
+			// egg ids are unique across nests, but have to be requested per nest
+			Map<Long, Set<Long>> eggsByNest = servers.stream()
+					.filter(s -> ids.contains(s.getEggIdLong()))
+					.collect(Collectors.groupingBy(ApplicationServer::getNestIdLong,
+							Collectors.mapping(ApplicationServer::getEggIdLong, Collectors.toSet())));
+			List<CompletableFuture<Map<Long, ApplicationEgg>>> futures = new ArrayList<>(eggsByNest.size());
+			eggsByNest.forEach((nest, nestEggs) -> futures.add(getEggLoader(nest).loadAll(nestEggs).submit()));
+			return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+				Map<Long, ApplicationEgg> eggs = new HashMap<>();
+				futures.forEach(future -> eggs.putAll(future.join()));
+				return eggs;
+			});
+		});
+	}
+
+	private <T> PteroAction<Map<ApplicationServer, T>> resolveRelationship(Collection<ApplicationServer> servers,
+			ToLongFunction<ApplicationServer> idFunction, Function<ApplicationServer, PteroAction<T>> included,
+			Function<Set<Long>, CompletableFuture<Map<Long, T>>> batch) {
+		Supplier<CompletableFuture<Map<ApplicationServer, T>>> resolver = () -> {
+			Map<ApplicationServer, T> result = new HashMap<>();
+			Set<Long> missing = new HashSet<>();
+			for (ApplicationServer server : servers) {
+				// included relationships complete right away, without a request
+				if (server instanceof ApplicationServerImpl && ((ApplicationServerImpl) server).hasRelationships())
+					result.put(server, included.apply(server).execute());
+				else
+					missing.add(idFunction.applyAsLong(server));
+			}
+			CompletableFuture<Map<Long, T>> resolved = missing.isEmpty()
+					? CompletableFuture.completedFuture(Collections.emptyMap()) : batch.apply(missing);
+			return resolved.thenApply(batched -> {
+				Map<ApplicationServer, T> joined = new LinkedHashMap<>();
+				for (ApplicationServer server : servers) {
+					T value = result.containsKey(server) ? result.get(server) : batched.get(idFunction.applyAsLong(server));
+					if (value != null)
+						joined.put(server, value);
+				}
+				return Collections.unmodifiableMap(joined);
+			});
+		};
+		return PteroActionImpl.onExecute(api, () -> PteroActionImpl.join(resolver.get()), resolver);
+	}
+
 
 	@Override
 	public ServerCreationAction createServer() {
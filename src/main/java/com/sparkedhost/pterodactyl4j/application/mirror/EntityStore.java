@@ -0,0 +1,160 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.application.mirror;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Holds the mirrored entities of one type keyed by id, together with any number of secondary indexes.
+ * <br>Writes are serialized, reads are lock-free and may briefly observe an entity in the primary map
+ * before its secondary indexes are updated.
+ */
+class EntityStore<T> {
+
+	private final ToLongFunction<T> idFunction;
+	private final Map<Long, T> entities = new ConcurrentHashMap<>();
+	private final List<Index<?>> indexes = new ArrayList<>();
+
+	private volatile long highestId = 0;
+
+	EntityStore(ToLongFunction<T> idFunction) {
+		this.idFunction = idFunction;
+	}
+
+	<K> Index<K> addIndex(Function<T, K> keyFunction) {
+		Index<K> index = new Index<>(keyFunction);
+		indexes.add(index);
+		return index;
+	}
+
+	T get(long id) {
+		return entities.get(id);
+	}
+
+	Collection<T> values() {
+		return Collections.unmodifiableCollection(entities.values());
+	}
+
+	int size() {
+		return entities.size();
+	}
+
+	long getHighestId() {
+		return highestId;
+	}
+
+	synchronized T put(T entity) {
+		long id = idFunction.applyAsLong(entity);
+		T old = entities.put(id, entity);
+		for (Index<?> index : indexes) {
+			if (old != null)
+				index.remove(old, id);
+			index.add(entity, id);
+		}
+		if (id > highestId)
+			highestId = id;
+		return old;
+	}
+
+	synchronized T remove(long id) {
+		T old = entities.remove(id);
+		if (old != null) {
+			for (Index<?> index : indexes)
+				index.remove(old, id);
+		}
+		return old;
+	}
+
+	synchronized void clear() {
+		for (Long id : new ArrayList<>(entities.keySet()))
+			remove(id);
+		highestId = 0;
+	}
+
+	/**
+	 * Replaces the whole content of the store with the provided entities
+	 *
+	 * @return The ids of the entities that were removed
+	 */
+	synchronized Set<Long> replaceAll(Collection<T> fresh, Set<Long> scope) {
+		Set<Long> seen = new HashSet<>(fresh.size());
+		for (T entity : fresh) {
+			seen.add(idFunction.applyAsLong(entity));
+			put(entity);
+		}
+		Set<Long> removed = new HashSet<>();
+		for (Long id : scope == null ? new ArrayList<>(entities.keySet()) : scope) {
+			if (!seen.contains(id) && remove(id) != null)
+				removed.add(id);
+		}
+		return removed;
+	}
+
+	final class Index<K> {
+
+		private final Function<T, K> keyFunction;
+		private final Map<K, Set<Long>> ids = new ConcurrentHashMap<>();
+
+		private Index(Function<T, K> keyFunction) {
+			this.keyFunction = keyFunction;
+		}
+
+		private void add(T entity, long id) {
+			K key = keyFunction.apply(entity);
+			if (key != null)
+				ids.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+
+		private void remove(T entity, long id) {
+			K key = keyFunction.apply(entity);
+			if (key == null)
+				return;
+			ids.computeIfPresent(key, (k, set) -> {
+				set.remove(id);
+				return set.isEmpty() ? null : set;
+			});
+		}
+
+		Set<Long> getIds(K key) {
+			Set<Long> set = ids.get(key);
+			return set == null ? Collections.emptySet() : set;
+		}
+
+		Optional<T> findFirst(K key) {
+			for (long id : getIds(key)) {
+				T entity = entities.get(id);
+				if (entity != null)
+					return Optional.of(entity);
+			}
+			return Optional.empty();
+		}
+
+		List<T> findAll(K key) {
+			Set<Long> set = getIds(key);
+			List<T> result = new ArrayList<>(set.size());
+			for (long id : set) {
+				T entity = entities.get(id);
+				if (entity != null)
+					result.add(entity);
+			}
+			return Collections.unmodifiableList(result);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.application.mirror;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static com.sparkedhost.pterodactyl4j.application.mirror.PanelMirror.MIRROR_LOG;
+
+/**
+ * Checksummed JSON snapshot of a {@link PanelMirror PanelMirror}.
+ *
+ * <p>Every record holds the JSON attributes of an entity as the panel returned them, framed with its id.
+ * The file is read and decoded in full when the mirror starts, which spares the initial crawl but not the parsing.
+ *
+ * <p>Layout, all numbers big endian:
+ * <pre>
+ *  header   int magic ("P4JM"), int version, long created at (epoch millis), int section count
+ *  section  byte kind, int record count, records...
+ *  record   long id, long parent id (the node of an allocation, 0 otherwise), int length, UTF-8 JSON attributes
+ *  trailer  int CRC32 of everything before it
+ * </pre>
+ * Snapshots with another version or a checksum mismatch are discarded.
+ */
+final class MirrorSnapshot {
+
+	static final int MAGIC = 0x50344A4D;
+	static final int VERSION = 1;
+
+	static final byte SERVERS = 1;
+	static final byte USERS = 2;
+	static final byte NODES = 3;
+	static final byte ALLOCATIONS = 4;
+	static final byte EGGS = 5;
+
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+	private final long createdAt;
+	private final Map<Byte, List<Record>> sections;
+
+	MirrorSnapshot(long createdAt, Map<Byte, List<Record>> sections) {
+		this.createdAt = createdAt;
+		this.sections = sections;
+	}
+
+	long getCreatedAt() {
+		return createdAt;
+	}
+
+	List<Record> getSection(byte kind) {
+		return sections.getOrDefault(kind, Collections.emptyList());
+	}
+
+	void write(Path file) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		CRC32 crc = new CRC32();
+		try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), crc))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(createdAt);
+			out.writeInt(sections.size());
+			for (Map.Entry<Byte, List<Record>> section : sections.entrySet()) {
+				out.writeByte(section.getKey());
+				out.writeInt(section.getValue().size());
+				for (Record record : section.getValue()) {
+					out.writeLong(record.id);
+					out.writeLong(record.parent);
+					out.writeInt(record.data.length);
+					out.write(record.data);
+				}
+			}
+			out.flush();
+			// the trailer itself is not covered, the checksum is captured before writing it
+			out.writeInt((int) crc.getValue());
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads the snapshot file and validates it
+	 *
+	 * @return The snapshot, or empty if there is no snapshot or it had to be discarded
+	 */
+	static Optional<MirrorSnapshot> read(Path file) {
+		if (!Files.isRegularFile(file))
+			return Optional.empty();
+
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(file);
+		} catch (IOException e) {
+			MIRROR_LOG.warn("Could not read mirror snapshot {}", file, e);
+			return discard(file, "unreadable");
+		}
+		// the file is closed at this point, so it can be deleted on every platform
+		if (bytes.length < HEADER_SIZE + 4)
+			return discard(file, "unexpected size " + bytes.length);
+
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, bytes.length - 4);
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length - 4);
+		if ((int) crc.getValue() != ByteBuffer.wrap(bytes).getInt(bytes.length - 4))
+			return discard(file, "checksum mismatch");
+
+		try {
+			if (buffer.getInt() != MAGIC)
+				return discard(file, "not a mirror snapshot");
+			int version = buffer.getInt();
+			if (version != VERSION)
+				return discard(file, "unsupported version " + version);
+			long createdAt = buffer.getLong();
+
+			int sectionCount = buffer.getInt();
+			Map<Byte, List<Record>> sections = new HashMap<>();
+			for (int i = 0; i < sectionCount; i++) {
+				byte kind = buffer.get();
+				int count = buffer.getInt();
+				List<Record> records = new ArrayList<>(Math.min(count, buffer.remaining() / 20));
+				for (int j = 0; j < count; j++) {
+					long id = buffer.getLong();
+					long parent = buffer.getLong();
+					int length = buffer.getInt();
+					if (length < 0 || length > buffer.remaining())
+						return discard(file, "truncated record");
+					byte[] data = new byte[length];
+					buffer.get(data);
+					records.add(new Record(id, parent, data));
+				}
+				sections.put(kind, records);
+			}
+			return Optional.of(new MirrorSnapshot(createdAt, sections));
+		} catch (BufferUnderflowException e) {
+			return discard(file, "truncated");
+		}
+	}
+
+	private static Optional<MirrorSnapshot> discard(Path file, String reason) {
+		MIRROR_LOG.warn("Discarding mirror snapshot {}: {}", file, reason);
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			MIRROR_LOG.debug("Could not delete mirror snapshot {}", file, e);
+		}
+		return Optional.empty();
+	}
+
+	static final class Record {
+
+		final long id;
+		final long parent;
+		final byte[] data;
+
+		Record(long id, long parent, byte[] data) {
+			this.id = id;
+			this.parent = parent;
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,574 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.application.mirror;
+
+import com.sparkedhost.pterodactyl4j.application.entities.*;
+import com.sparkedhost.pterodactyl4j.application.entities.impl.EntityCodec;
+import com.sparkedhost.pterodactyl4j.exceptions.NotFoundException;
+import com.sparkedhost.pterodactyl4j.requests.action.PaginationAction;
+import com.sparkedhost.pterodactyl4j.utils.cache.CacheType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * An in-memory mirror of the servers, users, nodes, allocations and eggs of a Pterodactyl instance.
+ *
+ * <p>The mirror performs one full crawl when it is started and then keeps itself up to date with two periodic jobs:
+ * <ul>
+ *     <li><b>Delta syncs</b> walk the listings newest first and stop as soon as they reach an entity that is already
+ *     mirrored, so only new entities are fetched. Entities changed or deleted through this P4J instance are re-fetched
+ *     individually.</li>
+ *     <li><b>Reconciles</b> crawl the full listings at a much lower frequency, replacing entities whose
+ *     {@link ISnowflake#getUpdatedDate() update date} changed and dropping deleted ones. This picks up changes made
+ *     through the panel itself or by other API clients.</li>
+ * </ul>
+ *
+ * <p>All lookups are answered from memory without any request, so they may be out of date by up to one reconcile interval
+ * for changes made outside of P4J.
+ * <br>Delta syncs only see entities with an id above the highest mirrored one and changes made through this P4J instance.
+ * Entities edited or deleted through the panel or by other API clients, and entities whose id is lower than one already
+ * mirrored, only show up with the next reconcile, up to 15 minutes later with the
+ * {@link PanelMirrorBuilder#setReconcileInterval(long, TimeUnit) default interval}.
+ *
+ * <p>If a snapshot file is configured, the mirror is saved to it after every reconcile and on {@link #shutdown()}.
+ * On the next start the snapshot is loaded instead of crawling the panel, so lookups are available immediately,
+ * and a delta sync runs in the background right away. Eggs are only refreshed by reconciles.
+ *
+ * @see PanelMirrorBuilder
+ */
+public class PanelMirror {
+
+	public static final Logger MIRROR_LOG = LoggerFactory.getLogger(PanelMirror.class);
+
+	private final PteroApplication application;
+	private final ScheduledExecutorService scheduler;
+	private final boolean shutdownScheduler;
+	private final long deltaInterval;
+	private final long reconcileInterval;
+	private final Path snapshotFile;
+
+	private final EntityStore<ApplicationServer> servers = new EntityStore<>(ApplicationServer::getIdLong);
+	private final EntityStore<ApplicationServer>.Index<UUID> serversByUUID = servers.addIndex(ApplicationServer::getUUID);
+	private final EntityStore<ApplicationServer>.Index<String> serversByIdentifier = servers.addIndex(ApplicationServer::getIdentifier);
+	private final EntityStore<ApplicationServer>.Index<String> serversByExternalId = servers.addIndex(ApplicationServer::getExternalId);
+	private final EntityStore<ApplicationServer>.Index<Long> serversByOwner = servers.addIndex(ApplicationServer::getOwnerIdLong);
+	private final EntityStore<ApplicationServer>.Index<Long> serversByNode = servers.addIndex(ApplicationServer::getNodeIdLong);
+
+	private final EntityStore<ApplicationUser> users = new EntityStore<>(ApplicationUser::getIdLong);
+	private final EntityStore<ApplicationUser>.Index<UUID> usersByUUID = users.addIndex(ApplicationUser::getUUID);
+	private final EntityStore<ApplicationUser>.Index<String> usersByExternalId = users.addIndex(ApplicationUser::getExternalId);
+	private final EntityStore<ApplicationUser>.Index<String> usersByEmail = users.addIndex(u -> u.getEmail() == null ? null : u.getEmail().toLowerCase());
+
+	private final EntityStore<Node> nodes = new EntityStore<>(Node::getIdLong);
+
+	// allocations don't carry their node when listed per node, so the membership is tracked separately
+	private final Map<Long, Long> allocationNodes = new ConcurrentHashMap<>();
+	private final EntityStore<ApplicationAllocation> allocations = new EntityStore<>(ApplicationAllocation::getIdLong);
+	private final EntityStore<ApplicationAllocation>.Index<Long> allocationsByNode = allocations.addIndex(a -> allocationNodes.get(a.getIdLong()));
+
+	private final EntityStore<ApplicationEgg> eggs = new EntityStore<>(ApplicationEgg::getIdLong);
+
+	private final Set<Long> dirtyServers = ConcurrentHashMap.newKeySet();
+	private final Set<String> dirtyClientServers = ConcurrentHashMap.newKeySet();
+	private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+	private final Set<Long> dirtyNodes = ConcurrentHashMap.newKeySet();
+	private final BiConsumer<CacheType, String> mutationListener = this::onMutation;
+
+	private final CompletableFuture<PanelMirror> ready = new CompletableFuture<>();
+	private final Object syncLock = new Object();
+	private volatile OffsetDateTime lastDeltaSync;
+	private volatile OffsetDateTime lastReconcile;
+	private volatile ScheduledFuture<?> deltaTask;
+	private volatile ScheduledFuture<?> reconcileTask;
+	private volatile boolean shutdown = false;
+
+	PanelMirror(PteroApplication application, ScheduledExecutorService scheduler, boolean shutdownScheduler,
+				long deltaInterval, long reconcileInterval, Path snapshotFile) {
+		this.application = application;
+		this.scheduler = scheduler;
+		this.shutdownScheduler = shutdownScheduler;
+		this.deltaInterval = deltaInterval;
+		this.reconcileInterval = reconcileInterval;
+		this.snapshotFile = snapshotFile;
+	}
+
+	void start() {
+		application.getEntityCache().addMutationListener(mutationListener);
+
+		Optional<MirrorSnapshot> snapshot = snapshotFile == null ? Optional.empty() : MirrorSnapshot.read(snapshotFile);
+		if (snapshot.isPresent() && loadSnapshot(snapshot.get())) {
+			ready.complete(this);
+			long age = Math.max(0, System.currentTimeMillis() - snapshot.get().getCreatedAt());
+			lastReconcile = OffsetDateTime.ofInstant(Instant.ofEpochMilli(snapshot.get().getCreatedAt()), ZoneOffset.UTC);
+			// catch up right away, the next reconcile is due one interval after the snapshot was taken
+			deltaTask = scheduler.scheduleWithFixedDelay(this::runDeltaSync, 0, deltaInterval, TimeUnit.MILLISECONDS);
+			reconcileTask = scheduler.scheduleWithFixedDelay(this::runReconcile, Math.max(0, reconcileInterval - age), reconcileInterval, TimeUnit.MILLISECONDS);
+			return;
+		}
+
+		scheduler.execute(() -> {
+			try {
+				reconcileNow();
+				ready.complete(this);
+			} catch (Throwable t) {
+				MIRROR_LOG.error("Initial crawl of the panel failed", t);
+				ready.completeExceptionally(t);
+			}
+			if (shutdown)
+				return;
+			deltaTask = scheduler.scheduleWithFixedDelay(this::runDeltaSync, deltaInterval, deltaInterval, TimeUnit.MILLISECONDS);
+			reconcileTask = scheduler.scheduleWithFixedDelay(this::runReconcile, reconcileInterval, reconcileInterval, TimeUnit.MILLISECONDS);
+		});
+	}
+
+	/**
+	 * Completes once the initial crawl of the panel has finished
+	 *
+	 * @return {@link CompletableFuture CompletableFuture} completed with this mirror, or exceptionally if the initial crawl failed
+	 */
+	public CompletableFuture<PanelMirror> getReadyFuture() {
+		return ready;
+	}
+
+	/**
+	 * Whether the initial crawl of the panel has finished successfully
+	 *
+	 * @return True, if the mirror contains data
+	 */
+	public boolean isReady() {
+		return ready.isDone() && !ready.isCompletedExceptionally();
+	}
+
+	/**
+	 * The time the last delta sync finished
+	 *
+	 * @return {@link Optional Optional} - Type {@link OffsetDateTime OffsetDateTime}
+	 */
+	public Optional<OffsetDateTime> getLastDeltaSync() {
+		return Optional.ofNullable(lastDeltaSync);
+	}
+
+	/**
+	 * The time the last full reconcile finished
+	 *
+	 * @return {@link Optional Optional} - Type {@link OffsetDateTime OffsetDateTime}
+	 */
+	public Optional<OffsetDateTime> getLastReconcile() {
+		return Optional.ofNullable(lastReconcile);
+	}
+
+	/**
+	 * Runs a delta sync outside of the regular schedule
+	 *
+	 * @return {@link CompletableFuture CompletableFuture} that completes once the sync has finished
+	 */
+	public CompletableFuture<Void> refresh() {
+		return CompletableFuture.runAsync(this::deltaSyncNow, scheduler);
+	}
+
+	/**
+	 * Runs a full reconcile outside of the regular schedule
+	 *
+	 * @return {@link CompletableFuture CompletableFuture} that completes once the reconcile has finished
+	 */
+	public CompletableFuture<Void> reconcile() {
+		return CompletableFuture.runAsync(this::reconcileNow, scheduler);
+	}
+
+	/**
+	 * Writes the mirror to the configured snapshot file
+	 *
+	 * @throws IllegalStateException
+	 *         If no snapshot file was configured
+	 *
+	 * @return {@link CompletableFuture CompletableFuture} that completes once the snapshot has been written
+	 */
+	public CompletableFuture<Void> saveSnapshot() {
+		if (snapshotFile == null)
+			throw new IllegalStateException("No snapshot file was configured");
+		return CompletableFuture.runAsync(() -> {
+			try {
+				saveSnapshotNow();
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, scheduler);
+	}
+
+	/**
+	 * Stops the periodic syncs. The mirrored data stays available but won't be updated anymore.
+	 * <br>If a snapshot file was configured, the mirror is saved to it before this returns.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		application.getEntityCache().removeMutationListener(mutationListener);
+		if (deltaTask != null)
+			deltaTask.cancel(false);
+		if (reconcileTask != null)
+			reconcileTask.cancel(false);
+		if (snapshotFile != null && isReady()) {
+			try {
+				saveSnapshotNow();
+			} catch (IOException e) {
+				MIRROR_LOG.warn("Could not save mirror snapshot {}", snapshotFile, e);
+			}
+		}
+		if (shutdownScheduler)
+			scheduler.shutdown();
+	}
+
+	public Optional<ApplicationServer> getServerById(long id) {
+		return Optional.ofNullable(servers.get(id));
+	}
+
+	public Optional<ApplicationServer> getServerByUUID(UUID uuid) {
+		return serversByUUID.findFirst(uuid);
+	}
+
+	public Optional<ApplicationServer> getServerByIdentifier(String identifier) {
+		return serversByIdentifier.findFirst(identifier);
+	}
+
+	public Optional<ApplicationServer> getServerByExternalId(String externalId) {
+		return serversByExternalId.findFirst(externalId);
+	}
+
+	public List<ApplicationServer> getServersByOwner(ApplicationUser owner) {
+		return serversByOwner.findAll(owner.getIdLong());
+	}
+
+	public List<ApplicationServer> getServersByOwner(long ownerId) {
+		return serversByOwner.findAll(ownerId);
+	}
+
+	public List<ApplicationServer> getServersByNode(Node node) {
+		return serversByNode.findAll(node.getIdLong());
+	}
+
+	public List<ApplicationServer> getServersByNode(long nodeId) {
+		return serversByNode.findAll(nodeId);
+	}
+
+	public Collection<ApplicationServer> getServers() {
+		return servers.values();
+	}
+
+	public Optional<ApplicationUser> getUserById(long id) {
+		return Optional.ofNullable(users.get(id));
+	}
+
+	public Optional<ApplicationUser> getUserByUUID(UUID uuid) {
+		return usersByUUID.findFirst(uuid);
+	}
+
+	public Optional<ApplicationUser> getUserByExternalId(String externalId) {
+		return usersByExternalId.findFirst(externalId);
+	}
+
+	public Optional<ApplicationUser> getUserByEmail(String email) {
+		return usersByEmail.findFirst(email.toLowerCase());
+	}
+
+	public Collection<ApplicationUser> getUsers() {
+		return users.values();
+	}
+
+	public Optional<Node> getNodeById(long id) {
+		return Optional.ofNullable(nodes.get(id));
+	}
+
+	public Collection<Node> getNodes() {
+		return nodes.values();
+	}
+
+	public Optional<ApplicationAllocation> getAllocationById(long id) {
+		return Optional.ofNullable(allocations.get(id));
+	}
+
+	public List<ApplicationAllocation> getAllocationsByNode(Node node) {
+		return allocationsByNode.findAll(node.getIdLong());
+	}
+
+	public List<ApplicationAllocation> getAllocationsByNode(long nodeId) {
+		return allocationsByNode.findAll(nodeId);
+	}
+
+	public Collection<ApplicationAllocation> getAllocations() {
+		return allocations.values();
+	}
+
+	public Optional<ApplicationEgg> getEggById(long id) {
+		return Optional.ofNullable(eggs.get(id));
+	}
+
+	public Collection<ApplicationEgg> getEggs() {
+		return eggs.values();
+	}
+
+	private void onMutation(CacheType type, String id) {
+		switch (type) {
+			case SERVER:
+				if (id != null)
+					parseId(id).ifPresent(dirtyServers::add);
+				break;
+			case CLIENT_SERVER:
+				if (id != null)
+					dirtyClientServers.add(id);
+				break;
+			case USER:
+				if (id != null)
+					parseId(id).ifPresent(dirtyUsers::add);
+				break;
+			case NODE:
+				if (id != null)
+					parseId(id).ifPresent(dirtyNodes::add);
+				break;
+			default:
+				break;
+		}
+		// creations (id == null) are picked up by the newest first scan of the next delta sync
+	}
+
+	private static Optional<Long> parseId(String id) {
+		try {
+			return Optional.of(Long.parseUnsignedLong(id));
+		} catch (NumberFormatException e) {
+			return Optional.empty();
+		}
+	}
+
+	private void runDeltaSync() {
+		try {
+			deltaSyncNow();
+		} catch (Throwable t) {
+			MIRROR_LOG.warn("Delta sync of the panel mirror failed", t);
+		}
+	}
+
+	private void runReconcile() {
+		try {
+			reconcileNow();
+		} catch (Throwable t) {
+			MIRROR_LOG.warn("Reconcile of the panel mirror failed", t);
+		}
+	}
+
+	private void deltaSyncNow() {
+		synchronized (syncLock) {
+			int added = fetchNewest(users, application.retrieveUsers())
+					+ fetchNewest(servers, application.retrieveServers());
+
+			List<Node> newNodes = new ArrayList<>();
+			long highestNode = nodes.getHighestId();
+			for (Node node : application.retrieveNodes().sort("-id")) {
+				if (node.getIdLong() <= highestNode)
+					break;
+				newNodes.add(node);
+			}
+			for (Node node : newNodes) {
+				nodes.put(node);
+				syncAllocations(node);
+			}
+			added += newNodes.size();
+
+			for (String identifier : drain(dirtyClientServers))
+				serversByIdentifier.getIds(identifier).forEach(dirtyServers::add);
+			for (long id : drain(dirtyServers)) {
+				ApplicationServer old = servers.get(id);
+				ApplicationServer fresh = refetch(servers, id, i -> application.retrieveServerById(i).execute());
+				// assignments changed, so the allocations of both nodes may be different now
+				if (old != null)
+					dirtyNodes.add(old.getNodeIdLong());
+				if (fresh != null)
+					dirtyNodes.add(fresh.getNodeIdLong());
+			}
+			for (long id : drain(dirtyUsers))
+				refetch(users, id, i -> application.retrieveUserById(i).execute());
+			for (long id : drain(dirtyNodes)) {
+				Node node = refetch(nodes, id, i -> application.retrieveNodeById(i).execute());
+				if (node != null)
+					syncAllocations(node);
+				else
+					removeAllocations(id);
+			}
+
+			lastDeltaSync = OffsetDateTime.now();
+			MIRROR_LOG.debug("Delta sync finished, {} new entities", added);
+		}
+	}
+
+	private void reconcileNow() {
+		synchronized (syncLock) {
+			// anything marked before the crawl is covered by it
+			dirtyServers.clear();
+			dirtyClientServers.clear();
+			dirtyUsers.clear();
+			dirtyNodes.clear();
+
+			int changed = reconcile(users, application.retrieveUsers().all().execute())
+					+ reconcile(servers, application.retrieveServers().all().execute());
+
+			List<Node> nodeList = application.retrieveNodes().all().execute();
+			changed += reconcile(nodes, nodeList);
+			for (Node node : nodeList)
+				syncAllocations(node);
+			for (Long nodeId : new HashSet<>(allocationNodes.values())) {
+				if (nodes.get(nodeId) == null)
+					removeAllocations(nodeId);
+			}
+			changed += reconcile(eggs, application.retrieveEggs().execute());
+
+			lastReconcile = OffsetDateTime.now();
+			MIRROR_LOG.debug("Reconcile finished, {} servers, {} users, {} nodes, {} allocations, {} eggs, {} changes",
+					servers.size(), users.size(), nodes.size(), allocations.size(), eggs.size(), changed);
+		}
+		if (snapshotFile != null) {
+			try {
+				saveSnapshotNow();
+			} catch (IOException e) {
+				MIRROR_LOG.warn("Could not save mirror snapshot {}", snapshotFile, e);
+			}
+		}
+	}
+
+	private void saveSnapshotNow() throws IOException {
+		MirrorSnapshot snapshot;
+		synchronized (syncLock) {
+			Map<Byte, List<MirrorSnapshot.Record>> sections = new LinkedHashMap<>();
+			sections.put(MirrorSnapshot.USERS, encode(users.values(), ApplicationUser::getIdLong, u -> 0));
+			sections.put(MirrorSnapshot.SERVERS, encode(servers.values(), ApplicationServer::getIdLong, s -> 0));
+			sections.put(MirrorSnapshot.NODES, encode(nodes.values(), Node::getIdLong, n -> 0));
+			sections.put(MirrorSnapshot.ALLOCATIONS, encode(allocations.values(), ApplicationAllocation::getIdLong,
+					a -> allocationNodes.getOrDefault(a.getIdLong(), 0L)));
+			sections.put(MirrorSnapshot.EGGS, encode(eggs.values(), ApplicationEgg::getIdLong, e -> 0));
+			snapshot = new MirrorSnapshot(System.currentTimeMillis(), sections);
+		}
+		snapshot.write(snapshotFile);
+		MIRROR_LOG.debug("Saved mirror snapshot {}", snapshotFile);
+	}
+
+	private <T> List<MirrorSnapshot.Record> encode(Collection<T> entities, ToLongFunction<T> idFunction, ToLongFunction<T> parentFunction) {
+		List<MirrorSnapshot.Record> records = new ArrayList<>(entities.size());
+		for (T entity : entities)
+			records.add(new MirrorSnapshot.Record(idFunction.applyAsLong(entity), parentFunction.applyAsLong(entity), EntityCodec.encode(entity)));
+		return records;
+	}
+
+	private boolean loadSnapshot(MirrorSnapshot snapshot) {
+		try {
+			synchronized (syncLock) {
+				decode(snapshot, MirrorSnapshot.USERS, users, EntityCodec::decodeUser);
+				decode(snapshot, MirrorSnapshot.SERVERS, servers, EntityCodec::decodeServer);
+				decode(snapshot, MirrorSnapshot.NODES, nodes, EntityCodec::decodeNode);
+				for (MirrorSnapshot.Record record : snapshot.getSection(MirrorSnapshot.ALLOCATIONS))
+					allocationNodes.put(record.id, record.parent);
+				decode(snapshot, MirrorSnapshot.ALLOCATIONS, allocations, EntityCodec::decodeAllocation);
+				decode(snapshot, MirrorSnapshot.EGGS, eggs, EntityCodec::decodeEgg);
+			}
+			MIRROR_LOG.info("Loaded mirror snapshot {} with {} servers, {} users, {} nodes, {} allocations and {} eggs",
+					snapshotFile, servers.size(), users.size(), nodes.size(), allocations.size(), eggs.size());
+			return true;
+		} catch (RuntimeException e) {
+			// the checksum matched, so this is a snapshot written by an incompatible build
+			MIRROR_LOG.warn("Discarding mirror snapshot {} that could not be decoded", snapshotFile, e);
+			for (EntityStore<?> store : Arrays.asList(users, servers, nodes, allocations, eggs))
+				store.clear();
+			allocationNodes.clear();
+			return false;
+		}
+	}
+
+	private <T> void decode(MirrorSnapshot snapshot, byte kind, EntityStore<T> store, BiFunction<PteroApplication, byte[], T> decoder) {
+		for (MirrorSnapshot.Record record : snapshot.getSection(kind))
+			store.put(decoder.apply(application, record.data));
+	}
+
+	private <T extends ISnowflake> int fetchNewest(EntityStore<T> store, PaginationAction<T> action) {
+		long highest = store.getHighestId();
+		int added = 0;
+		// newest first, so the scan ends on the first page in the common case
+		for (T entity : action.sort("-id")) {
+			if (entity.getIdLong() <= highest)
+				break;
+			store.put(entity);
+			added++;
+		}
+		return added;
+	}
+
+	private <T extends ISnowflake> int reconcile(EntityStore<T> store, List<T> fresh) {
+		int changed = 0;
+		for (T entity : fresh) {
+			T old = store.get(entity.getIdLong());
+			if (old == null || !Objects.equals(old.getUpdatedDate(), entity.getUpdatedDate()))
+				changed++;
+		}
+		changed += store.replaceAll(fresh, null).size();
+		return changed;
+	}
+
+	private <T> T refetch(EntityStore<T> store, long id, LongFunction<T> retriever) {
+		try {
+			T entity = retriever.apply(id);
+			store.put(entity);
+			return entity;
+		} catch (NotFoundException e) {
+			store.remove(id);
+			return null;
+		}
+	}
+
+	private void syncAllocations(Node node) {
+		long nodeId = node.getIdLong();
+		List<ApplicationAllocation> list;
+		try {
+			list = node.retrieveAllocations().all().execute();
+		} catch (NotFoundException e) {
+			removeAllocations(nodeId);
+			return;
+		}
+		for (ApplicationAllocation allocation : list)
+			allocationNodes.put(allocation.getIdLong(), nodeId);
+		Set<Long> removed = allocations.replaceAll(list, new HashSet<>(allocationsByNode.getIds(nodeId)));
+		removed.forEach(allocationNodes::remove);
+	}
+
+	private void removeAllocations(long nodeId) {
+		for (Long id : new ArrayList<>(allocationsByNode.getIds(nodeId))) {
+			allocations.remove(id);
+			allocationNodes.remove(id);
+		}
+	}
+
+	private static <T> List<T> drain(Set<T> set) {
+		List<T> drained = new ArrayList<>(set);
+		drained.forEach(set::remove);
+		return drained;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.application.mirror;
+
+import com.sparkedhost.pterodactyl4j.application.entities.PteroApplication;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import com.sparkedhost.pterodactyl4j.utils.NamedThreadFactory;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class PanelMirrorBuilder {
+
+	private final PteroApplication application;
+
+	private ScheduledExecutorService scheduler = null;
+	private long deltaInterval = TimeUnit.SECONDS.toMillis(30);
+	private long reconcileInterval = TimeUnit.MINUTES.toMillis(15);
+	private Path snapshotFile = null;
+
+	public PanelMirrorBuilder(PteroApplication application) {
+		this.application = application;
+	}
+
+	/**
+	 * Sets how often the mirror looks for new entities and re-fetches entities changed through P4J.
+	 * <br>A delta sync usually costs one request per entity type.
+	 *
+	 * <p>Default: <b>30 seconds</b>
+	 *
+	 * @param  interval
+	 *         The interval between two delta syncs
+	 * @param  unit
+	 *         The time unit of the interval
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the interval is not positive or the unit is null
+	 *
+	 * @return The {@link PanelMirrorBuilder PanelMirrorBuilder} instance. Useful for chaining.
+	 */
+	public PanelMirrorBuilder setDeltaInterval(long interval, TimeUnit unit) {
+		Checks.notNull(unit, "Unit");
+		Checks.check(interval > 0, "Interval must be greater than 0");
+		this.deltaInterval = unit.toMillis(interval);
+		return this;
+	}
+
+	/**
+	 * Sets how often the mirror crawls the full listings to pick up changes made outside of P4J.
+	 * <br>A reconcile costs one request per page of every listing and one per node for its allocations.
+	 *
+	 * <p>Default: <b>15 minutes</b>
+	 *
+	 * @param  interval
+	 *         The interval between two reconciles
+	 * @param  unit
+	 *         The time unit of the interval
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the interval is not positive or the unit is null
+	 *
+	 * @return The {@link PanelMirrorBuilder PanelMirrorBuilder} instance. Useful for chaining.
+	 */
+	public PanelMirrorBuilder setReconcileInterval(long interval, TimeUnit unit) {
+		Checks.notNull(unit, "Unit");
+		Checks.check(interval > 0, "Interval must be greater than 0");
+		this.reconcileInterval = unit.toMillis(interval);
+		return this;
+	}
+
+	/**
+	 * Sets the file the mirror is persisted to, which lets the mirror start without crawling the panel.
+	 * <br>The snapshot is loaded when the mirror is built and rewritten after every reconcile and on shutdown.
+	 * Snapshots that are corrupted or were written by an incompatible version are discarded.
+	 *
+	 * <p>Default: <b>null (no snapshot)</b>
+	 *
+	 * @param  snapshotFile
+	 *         The snapshot file, or null to disable snapshots
+	 *
+	 * @return The {@link PanelMirrorBuilder PanelMirrorBuilder} instance. Useful for chaining.
+	 */
+	public PanelMirrorBuilder setSnapshotFile(Path snapshotFile) {
+		this.snapshotFile = snapshotFile;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link ScheduledExecutorService ScheduledExecutorService} that runs the syncs.
+	 * <br>The syncs block while waiting for the panel, so this should not be one of the P4J pools.
+	 * A scheduler provided here is not shut down together with the mirror.
+	 *
+	 * <p>Default: a dedicated single threaded scheduler
+	 *
+	 * @param  scheduler
+	 *         The scheduler to use
+	 *
+	 * @return The {@link PanelMirrorBuilder PanelMirrorBuilder} instance. Useful for chaining.
+	 */
+	public PanelMirrorBuilder setScheduler(ScheduledExecutorService scheduler) {
+		this.scheduler = scheduler;
+		return this;
+	}
+
+	/**
+	 * Builds a new {@link PanelMirror PanelMirror} and starts the initial crawl of the panel.
+	 * <p>The crawl runs in a different thread, so while this will return immediately, the mirror will be empty
+	 * until {@link PanelMirror#getReadyFuture()} completes. If a valid snapshot file exists, it is loaded before this returns
+	 * and the mirror is ready right away.
+	 *
+	 * @return A {@link PanelMirror PanelMirror} that is being filled
+	 */
+	public PanelMirror build() {
+		boolean ownScheduler = scheduler == null;
+		ScheduledExecutorService pool = ownScheduler
+				? Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Mirror"))
+				: scheduler;
+		PanelMirror mirror = new PanelMirror(application, pool, ownScheduler, deltaInterval, reconcileInterval, snapshotFile);
+		mirror.start();
+		return mirror;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * A segment is a data file of independently deflated blocks and an index file with one entry per block:
+ *
+ *   long  offset of the block in the data file
+ *   int   compressed length
+ *   int   uncompressed length
+ *   long  timestamp of the first line
+ *   long  timestamp of the last line
+ *   int   amount of lines
+ *   int   length of the trigram filter, 0 without text index
+ *   byte[] trigram filter
+ *
+ * Entries are written after their block, so a crash leaves at most an unindexed tail which is truncated on load.
+ */
+final class ArchiveSegment {
+
+    static final String DATA_SUFFIX = ".log";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final int ENTRY_SIZE = 40;
+
+    final File data;
+    final File index;
+    final long firstTimestamp;
+    final List<Block> blocks = new ArrayList<>();
+    long lastTimestamp;
+    long dataSize;
+    long indexSize;
+
+    ArchiveSegment(File directory, long firstTimestamp) {
+        this.data = new File(directory, firstTimestamp + DATA_SUFFIX);
+        this.index = new File(directory, firstTimestamp + INDEX_SUFFIX);
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = firstTimestamp;
+    }
+
+    long getSize() {
+        return dataSize + indexSize;
+    }
+
+    // reads the index of an existing segment, returns null if it holds no complete block
+    static ArchiveSegment load(File directory, long firstTimestamp) throws IOException {
+        ArchiveSegment segment = new ArchiveSegment(directory, firstTimestamp);
+        long dataLength = segment.data.length();
+        if (segment.index.exists()) {
+            try (FileChannel channel = FileChannel.open(segment.index.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                long position = 0;
+                ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+                while (position + ENTRY_SIZE <= size) {
+                    entry.clear();
+                    readFully(channel, entry, position);
+                    entry.flip();
+                    long offset = entry.getLong();
+                    int length = entry.getInt();
+                    int rawLength = entry.getInt();
+                    long first = entry.getLong();
+                    long last = entry.getLong();
+                    int lines = entry.getInt();
+                    int filterLength = entry.getInt();
+                    if (offset != segment.dataSize || offset + length > dataLength || position + ENTRY_SIZE + filterLength > size)
+                        break;
+                    segment.blocks.add(new Block(offset, length, rawLength, first, last, lines, position + ENTRY_SIZE, filterLength));
+                    segment.dataSize += length;
+                    segment.lastTimestamp = last;
+                    position += ENTRY_SIZE + filterLength;
+                }
+                if (position < size)
+                    channel.truncate(position);
+                segment.indexSize = position;
+            }
+        }
+        if (segment.blocks.isEmpty()) {
+            segment.delete();
+            return null;
+        }
+        if (dataLength > segment.dataSize) {
+            try (FileChannel channel = FileChannel.open(segment.data.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(segment.dataSize);
+            }
+        }
+        return segment;
+    }
+
+    void append(byte[] compressed, int length, int rawLength, long first, long last, int lines, byte[] filter) throws IOException {
+        try (FileChannel channel = FileChannel.open(data.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.wrap(compressed, 0, length), dataSize);
+        }
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE + filter.length);
+        entry.putLong(dataSize).putInt(length).putInt(rawLength).putLong(first).putLong(last).putInt(lines)
+                .putInt(filter.length).put(filter).flip();
+        try (FileChannel channel = FileChannel.open(index.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            writeFully(channel, entry, indexSize);
+        }
+        blocks.add(new Block(dataSize, length, rawLength, first, last, lines, indexSize + ENTRY_SIZE, filter.length));
+        dataSize += length;
+        indexSize += ENTRY_SIZE + filter.length;
+        lastTimestamp = last;
+    }
+
+    byte[] readFilter(FileChannel channel, Block block) throws IOException {
+        ByteBuffer filter = ByteBuffer.allocate(block.filterLength);
+        readFully(channel, filter, block.filterPosition);
+        return filter.array();
+    }
+
+    byte[] readBlock(FileChannel channel, Block block) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate(block.length);
+        readFully(channel, compressed, block.offset);
+        return compressed.array();
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(data.toPath());
+        Files.deleteIfExists(index.toPath());
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException();
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    static final class Block {
+
+        final long offset;
+        final int length;
+        final int rawLength;
+        final long firstTimestamp;
+        final long lastTimestamp;
+        final int lines;
+        final long filterPosition;
+        final int filterLength;
+
+        Block(long offset, int length, int rawLength, long firstTimestamp, long lastTimestamp, int lines,
+              long filterPosition, int filterLength) {
+            this.offset = offset;
+            this.length = length;
+            this.rawLength = rawLength;
+            this.firstTimestamp = firstTimestamp;
+            this.lastTimestamp = lastTimestamp;
+            this.lines = lines;
+            this.filterPosition = filterPosition;
+            this.filterLength = filterLength;
+        }
+    }
+}
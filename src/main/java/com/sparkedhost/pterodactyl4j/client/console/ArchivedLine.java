@@ -0,0 +1,56 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import java.time.Instant;
+
+/**
+ * A console line read from a {@link ConsoleArchive ConsoleArchive}
+ */
+public class ArchivedLine {
+
+    private final long timestamp;
+    private final String line;
+
+    ArchivedLine(long timestamp, String line) {
+        this.timestamp = timestamp;
+        this.line = line;
+    }
+
+    /**
+     * The time the line was archived at, in epoch milliseconds
+     *
+     * @return The timestamp
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * The line, without ANSI escape sequences
+     *
+     * @return The line
+     */
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timestamp) + " " + line;
+    }
+}
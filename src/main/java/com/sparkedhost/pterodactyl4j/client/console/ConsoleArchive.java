@@ -0,0 +1,276 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import com.sparkedhost.pterodactyl4j.client.ws.events.output.OutputEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.hooks.ClientSocketListenerAdapter;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Archives console output on disk, in a directory per server.
+ * <br>Lines are collected into blocks that are compressed on their own, so a query only decompresses the blocks
+ * that can hold matching lines. Every block is indexed with the time range of its lines and, unless disabled,
+ * a filter of the text it contains, which lets substring searches skip most blocks.
+ * Blocks are grouped into segment files, which are deleted as a whole once they are too old or the archive
+ * of a server is too large.
+ *
+ * <p>The console, daemon and install output of the websockets the archive is registered on is archived with the
+ * time it was received at. Archiving writes to disk whenever a block is full, so registering the archive on an
+ * {@link com.sparkedhost.pterodactyl4j.client.ws.hooks.AsyncClientListenerManager AsyncClientListenerManager}
+ * keeps that off the websocket threads.
+ *
+ * <p>Lines in a block that isn't full yet are only held in memory. They are included in queries, but lost
+ * unless the block is written with {@link #flush()} or {@link #close()}.
+ *
+ * @see ConsoleArchiveBuilder
+ */
+public class ConsoleArchive extends ClientSocketListenerAdapter implements Closeable {
+
+    private static final Logger ARCHIVE_LOG = LoggerFactory.getLogger(ConsoleArchive.class);
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_-]+");
+
+    final File directory;
+    final int blockSize;
+    final long blockAge;
+    final long segmentSize;
+    final long segmentDuration;
+    final long maxSize;
+    final long maxAge;
+    final boolean textIndex;
+
+    private final Map<String, ServerArchive> servers = new ConcurrentHashMap<>();
+
+    ConsoleArchive(File directory, int blockSize, long blockAge, long segmentSize, long segmentDuration, long maxSize,
+                   long maxAge, boolean textIndex) {
+        this.directory = directory;
+        this.blockSize = blockSize;
+        this.blockAge = blockAge;
+        this.segmentSize = segmentSize;
+        this.segmentDuration = segmentDuration;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.textIndex = textIndex;
+    }
+
+    @Override
+    public void onOutput(OutputEvent event) {
+        String identifier = event.getServer().getIdentifier();
+        try {
+            append(identifier, System.currentTimeMillis(), event.getLine());
+        } catch (UncheckedIOException e) {
+            ARCHIVE_LOG.error("Could not archive console output of server {}", identifier, e.getCause());
+        }
+    }
+
+    /**
+     * Archives a line
+     *
+     * @param  identifier
+     *         The identifier of the server
+     * @param  timestamp
+     *         The time of the line in epoch milliseconds, lines older than the last one of the server are archived
+     *         with the time of the last one
+     * @param  line
+     *         The line, ANSI escape sequences are stripped
+     *
+     * @throws IllegalArgumentException
+     *         If the identifier isn't a valid server identifier or the line is null
+     * @throws UncheckedIOException
+     *         If a block couldn't be written, its lines are dropped
+     */
+    public void append(String identifier, long timestamp, CharSequence line) {
+        Checks.notNull(line, "Line");
+        ServerArchive server = server(identifier);
+        try {
+            server.append(timestamp, line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finds the archived lines of a server within a time range that contain a text
+     *
+     * @param  identifier
+     *         The identifier of the server
+     * @param  from
+     *         The start of the range in epoch milliseconds, inclusive
+     * @param  to
+     *         The end of the range in epoch milliseconds, inclusive
+     * @param  contains
+     *         The text the lines have to contain, case-sensitive, or null for every line
+     * @param  limit
+     *         The maximum amount of lines to return
+     *
+     * @throws IllegalArgumentException
+     *         If the identifier isn't a valid server identifier or the limit isn't positive
+     * @throws UncheckedIOException
+     *         If the archive couldn't be read
+     *
+     * @return Immutable list of the oldest matching lines, oldest first
+     */
+    public List<ArchivedLine> query(String identifier, long from, long to, String contains, int limit) {
+        Checks.check(limit > 0, "The limit must be positive");
+        ServerArchive server = server(identifier);
+        byte[] needle = contains == null ? null : contains.getBytes(StandardCharsets.UTF_8);
+        try {
+            return Collections.unmodifiableList(server.query(from, to, needle, limit));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns every archived line of a server within a time range
+     *
+     * @see    #query(String, long, long, String, int)
+     */
+    public List<ArchivedLine> query(String identifier, long from, long to) {
+        return query(identifier, from, to, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The identifiers of the servers with an archive
+     *
+     * @return Immutable set of the identifiers
+     */
+    public Set<String> getServers() {
+        String[] names = directory.list();
+        Set<String> identifiers = names == null ? new HashSet<>() : Arrays.stream(names)
+                .filter(name -> IDENTIFIER.matcher(name).matches() && new File(directory, name).isDirectory())
+                .collect(Collectors.toSet());
+        identifiers.addAll(servers.keySet());
+        return Collections.unmodifiableSet(identifiers);
+    }
+
+    /**
+     * The size of the archive of a server on disk
+     *
+     * @param  identifier
+     *         The identifier of the server
+     *
+     * @return The size in bytes
+     */
+    public long getSize(String identifier) {
+        return server(identifier).getSize();
+    }
+
+    /**
+     * Deletes the archive of a server
+     *
+     * @param  identifier
+     *         The identifier of the server
+     *
+     * @throws UncheckedIOException
+     *         If a file couldn't be deleted
+     */
+    public void delete(String identifier) {
+        ServerArchive server = server(identifier);
+        servers.remove(identifier, server);
+        try {
+            server.delete();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the blocks that aren't full yet of every server to disk.
+     * <br>Calling this regularly bounds how many lines are lost if the application stops without {@link #close()}.
+     *
+     * @throws UncheckedIOException
+     *         If a block couldn't be written, the other servers are flushed regardless
+     */
+    public void flush() {
+        UncheckedIOException failure = null;
+        for (ServerArchive server : servers.values()) {
+            try {
+                server.seal();
+            } catch (IOException e) {
+                if (failure == null)
+                    failure = new UncheckedIOException(e);
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Deletes the segments of every server that are older than the maximum age or exceed the maximum size.
+     * <br>This happens for a server whenever it starts a new segment, servers that stopped printing are only
+     * cleaned up by this.
+     *
+     * @throws UncheckedIOException
+     *         If a file couldn't be deleted
+     */
+    public void enforceRetention() {
+        long now = System.currentTimeMillis();
+        for (String identifier : getServers()) {
+            try {
+                server(identifier).enforceRetention(now);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks that aren't full yet to disk
+     *
+     * @throws IOException
+     *         If a block couldn't be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ServerArchive server(String identifier) {
+        Checks.notNull(identifier, "Identifier");
+        Checks.check(IDENTIFIER.matcher(identifier).matches(), identifier + " is not a valid server identifier");
+        return servers.computeIfAbsent(identifier, id -> {
+            try {
+                return new ServerArchive(this, new File(directory, id));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+public class ConsoleArchiveBuilder {
+
+    private final File directory;
+
+    private int blockSize = 32 * 1024;
+    private long blockAge = TimeUnit.MINUTES.toMillis(5);
+    private long segmentSize = 8 * 1024 * 1024;
+    private long segmentDuration = TimeUnit.DAYS.toMillis(1);
+    private long maxSize = 0;
+    private long maxAge = 0;
+    private boolean textIndex = true;
+
+    /**
+     * Creates a builder for an archive in the provided directory, which holds a directory per server
+     *
+     * @param  directory
+     *         The directory of the archive, created once the first line is written
+     *
+     * @throws IllegalArgumentException
+     *         If the directory is null
+     */
+    public ConsoleArchiveBuilder(File directory) {
+        Checks.notNull(directory, "Directory");
+        this.directory = directory;
+    }
+
+    /**
+     * Sets the amount of uncompressed bytes collected before a block is compressed and written.
+     * <br>Larger blocks compress better, smaller blocks make queries decompress less.
+     *
+     * <p>Default: <b>32 KB</b>
+     *
+     * @param  blockSize
+     *         The size of a block in bytes
+     *
+     * @throws IllegalArgumentException
+     *         If the size is not positive
+     *
+     * @return The {@link ConsoleArchiveBuilder ConsoleArchiveBuilder} instance. Useful for chaining.
+     */
+    public ConsoleArchiveBuilder setBlockSize(int blockSize) {
+        Checks.check(blockSize > 0, "Block size must be positive");
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * Sets how long lines are collected before a block is written even if it isn't full.
+     * <br>The age is checked when a line is added, see {@link ConsoleArchive#flush()} for servers that stopped printing.
+     *
+     * <p>Default: <b>5 minutes</b>
+     *
+     * @param  age
+     *         The maximum age of a block
+     * @param  unit
+     *         The unit of the age
+     *
+     * @throws IllegalArgumentException
+     *         If the age is not positive or the unit is null
+     *
+     * @return The {@link ConsoleArchiveBuilder ConsoleArchiveBuilder} instance. Useful for chaining.
+     */
+    public ConsoleArchiveBuilder setMaxBlockAge(long age, TimeUnit unit) {
+        Checks.check(age > 0, "Block age must be positive");
+        Checks.notNull(unit, "Unit");
+        this.blockAge = unit.toMillis(age);
+        return this;
+    }
+
+    /**
+     * Sets the compressed size after which a server starts a new segment file.
+     * <br>Retention deletes whole segments, so this is the granularity of the maximum size.
+     *
+     * <p>Default: <b>8 MB</b>
+     *
+     * @param  segmentSize
+     *         The size of a segment in bytes
+     *
+     * @throws IllegalArgumentException
+     *         If the size is not positive
+     *
+     * @return The {@link ConsoleArchiveBuilder ConsoleArchiveBuilder} instance. Useful for chaining.
+     */
+    public ConsoleArchiveBuilder setSegmentSize(long segmentSize) {
+        Checks.check(segmentSize > 0, "Segment size must be positive");
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    /**
+     * Sets the time span after which a server starts a new segment file.
+     * <br>Retention deletes whole segments, so this is the granularity of the maximum age.
+     *
+     * <p>Default: <b>1 day</b>
+     *
+     * @param  duration
+     *         The time span of a segment
+     * @param  unit
+     *         The unit of the time span
+     *
+     * @throws IllegalArgumentException
+     *         If the duration is not positive or the unit is null
+     *
+     * @return The {@link ConsoleArchiveBuilder ConsoleArchiveBuilder} instance. Useful for chaining.
+     */
+    public ConsoleArchiveBuilder setSegmentDuration(long duration, TimeUnit unit) {
+        Checks.check(duration > 0, "Segment duration must be positive");
+        Checks.notNull(unit, "Unit");
+        this.segmentDuration = unit.toMillis(duration);
+        return this;
+    }
+
+    /**
+     * Sets the size the archive of a server may take on disk, the oldest segments are deleted beyond it.
+     *
+     * <p>Default: <b>0</b>, unlimited
+     *
+     * @param  maxSize
+     *         The maximum size per server in bytes, or 0 for no limit
+     *
+     * @throws IllegalArgumentException
+     *         If the size is negative
+     *
+     * @return The {@link ConsoleArchiveBuilder ConsoleArchiveBuilder} instance. Useful for chaining.
+     */
+    public ConsoleArchiveBuilder setMaxSize(long maxSize) {
+        Checks.check(maxSize >= 0, "Max size must not be negative");
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Sets how long lines are kept, segments whose newest line is older are deleted.
+     *
+     * <p>Default: <b>0</b>, forever
+     *
+     * @param  maxAge
+     *         The maximum age, or 0 to keep lines forever
+     * @param  unit
+     *         The unit of the age
+     *
+     * @throws IllegalArgumentException
+     *         If the age is negative or the unit is null
+     *
+     * @return The {@link ConsoleArchiveBuilder ConsoleArchiveBuilder} instance. Useful for chaining.
+     */
+    public ConsoleArchiveBuilder setMaxAge(long maxAge, TimeUnit unit) {
+        Checks.check(maxAge >= 0, "Max age must not be negative");
+        Checks.notNull(unit, "Unit");
+        this.maxAge = unit.toMillis(maxAge);
+        return this;
+    }
+
+    /**
+     * Whether blocks are indexed by the text they contain, which lets substring queries of at least 3 bytes skip
+     * blocks without decompressing them. The index takes about 10 bits per distinct 3 byte sequence of a block.
+     *
+     * <p>Default: <b>true</b>
+     *
+     * @param  textIndex
+     *         True, to index the text of blocks
+     *
+     * @return The {@link ConsoleArchiveBuilder ConsoleArchiveBuilder} instance. Useful for chaining.
+     */
+    public ConsoleArchiveBuilder setTextIndex(boolean textIndex) {
+        this.textIndex = textIndex;
+        return this;
+    }
+
+    /**
+     * Creates the archive, existing segments in the directory are picked up
+     *
+     * @throws IllegalArgumentException
+     *         If the segment size exceeds the maximum size
+     *
+     * @return The {@link ConsoleArchive ConsoleArchive}
+     */
+    public ConsoleArchive build() {
+        Checks.check(maxSize == 0 || segmentSize <= maxSize, "Segment size must not exceed the max size");
+        return new ConsoleArchive(directory, blockSize, blockAge, segmentSize, segmentDuration, maxSize, maxAge, textIndex);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the most recent console lines of a server as UTF-8 in a single preallocated buffer.
+ * <br>Once either the line or the byte limit is reached, the oldest lines are dropped. ANSI escape sequences and
+ * carriage returns are stripped when a line is added, lines longer than the buffer are truncated.
+ *
+ * <p>Every line gets a sequence number, counting every line added since the buffer was created.
+ * {@link #forEach(long, LineVisitor)} visits lines in place, without copying the buffer.
+ */
+public class ConsoleBuffer {
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    // per line start and length, indexed as a ring starting at head
+    private final int[] offsets;
+    private final int[] lengths;
+    private int head;
+    private int count;
+    private int writePosition;
+    private int byteSize;
+    private long nextSequence;
+
+    /**
+     * Creates a buffer
+     *
+     * @param  maxLines
+     *         The maximum amount of lines to keep
+     * @param  maxBytes
+     *         The size of the buffer in bytes
+     * @param  direct
+     *         Whether the buffer is allocated outside of the heap
+     *
+     * @throws IllegalArgumentException
+     *         If any of the limits isn't positive
+     */
+    public ConsoleBuffer(int maxLines, int maxBytes, boolean direct) {
+        Checks.check(maxLines > 0, "The maximum amount of lines must be positive");
+        Checks.check(maxBytes > 0, "The maximum amount of bytes must be positive");
+        this.buffer = direct ? ByteBuffer.allocateDirect(maxBytes) : ByteBuffer.allocate(maxBytes);
+        this.capacity = maxBytes;
+        this.offsets = new int[maxLines];
+        this.lengths = new int[maxLines];
+    }
+
+    /**
+     * Adds a line, dropping the oldest lines if needed
+     *
+     * @param  line
+     *         The line as sent by Wings
+     *
+     * @return The sequence number of the line
+     */
+    public synchronized long append(CharSequence line) {
+        Checks.notNull(line, "Line");
+        int length = ConsoleText.encode(line, null, 0, capacity);
+        // lines are kept contiguous, a line that doesn't fit before the end starts over at the beginning
+        int start = writePosition;
+        if (start + length > capacity) {
+            // the lines behind the write position are older than the ones at the beginning
+            while (count > 0 && offsets[head] >= start)
+                evict();
+            start = 0;
+        }
+        while (count > 0 && (count == offsets.length || overlaps(offsets[head], lengths[head], start, length)))
+            evict();
+
+        ConsoleText.encode(line, buffer, start, length);
+        int index = (head + count) % offsets.length;
+        offsets[index] = start;
+        lengths[index] = length;
+        count++;
+        byteSize += length;
+        writePosition = start + length;
+        return nextSequence++;
+    }
+
+    // empty lines count as taking their start position, so they can't end up behind newer lines
+    private static boolean overlaps(int offset, int length, int start, int size) {
+        return offset < start + size && start < offset + Math.max(length, 1);
+    }
+
+    private void evict() {
+        byteSize -= lengths[head];
+        head = (head + 1) % offsets.length;
+        count--;
+    }
+
+    /**
+     * The amount of lines held
+     *
+     * @return The amount of lines
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Whether no lines are held
+     *
+     * @return True, if the buffer is empty
+     */
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * The UTF-8 size of the lines held, without line separators
+     *
+     * @return The size in bytes
+     */
+    public synchronized int getByteSize() {
+        return byteSize;
+    }
+
+    /**
+     * The sequence number of the oldest line held
+     *
+     * @return The sequence number, equal to {@link #getNextSequence()} if the buffer is empty
+     */
+    public synchronized long getFirstSequence() {
+        return nextSequence - count;
+    }
+
+    /**
+     * The sequence number the next line will get, which is the amount of lines added so far
+     *
+     * @return The next sequence number
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Visits the lines from a sequence number onwards, oldest first.
+     * <br>The lines are read-only views of the buffer, they are only valid within the call of the visitor.
+     * The buffer is locked while visiting, so the visitor should return quickly.
+     *
+     * @param  fromSequence
+     *         The sequence number of the first line, older lines that were already dropped are skipped
+     * @param  visitor
+     *         The visitor
+     *
+     * @return The sequence number after the last visited line, to continue from
+     */
+    public synchronized long forEach(long fromSequence, LineVisitor visitor) {
+        Checks.notNull(visitor, "Visitor");
+        long first = nextSequence - count;
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        for (long sequence = Math.max(fromSequence, first); sequence < nextSequence; sequence++) {
+            int index = (int) ((head + sequence - first) % offsets.length);
+            view.limit(offsets[index] + lengths[index]).position(offsets[index]);
+            visitor.visit(sequence, view);
+        }
+        return nextSequence;
+    }
+
+    /**
+     * Decodes the most recent lines
+     *
+     * @param  amount
+     *         The maximum amount of lines
+     *
+     * @return Immutable list of the lines, oldest first
+     */
+    public synchronized List<String> getLastLines(int amount) {
+        Checks.check(amount >= 0, "The amount of lines must not be negative");
+        int size = Math.min(amount, count);
+        if (size == 0)
+            return Collections.emptyList();
+        List<String> lines = new ArrayList<>(size);
+        forEach(nextSequence - size, (sequence, line) -> lines.add(StandardCharsets.UTF_8.decode(line).toString()));
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Decodes every line held
+     *
+     * @return Immutable list of the lines, oldest first
+     */
+    public List<String> getLines() {
+        return getLastLines(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Writes the most recent lines as UTF-8, each followed by a line feed
+     *
+     * @param  amount
+     *         The maximum amount of lines
+     * @param  out
+     *         The stream to write to
+     *
+     * @throws IOException
+     *         If the stream fails
+     */
+    public synchronized void writeTo(int amount, OutputStream out) throws IOException {
+        Checks.check(amount >= 0, "The amount of lines must not be negative");
+        Checks.notNull(out, "OutputStream");
+        long first = nextSequence - count;
+        byte[] chunk = buffer.hasArray() ? null : new byte[8192];
+        for (long sequence = nextSequence - Math.min(amount, count); sequence < nextSequence; sequence++) {
+            int index = (int) ((head + sequence - first) % offsets.length);
+            int offset = offsets[index];
+            int length = lengths[index];
+            if (chunk == null) {
+                out.write(buffer.array(), buffer.arrayOffset() + offset, length);
+            } else {
+                ByteBuffer view = buffer.duplicate();
+                view.limit(offset + length).position(offset);
+                while (view.hasRemaining()) {
+                    int size = Math.min(chunk.length, view.remaining());
+                    view.get(chunk, 0, size);
+                    out.write(chunk, 0, size);
+                }
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Drops every line, the sequence numbers keep counting
+     */
+    public synchronized void clear() {
+        head = 0;
+        count = 0;
+        writePosition = 0;
+        byteSize = 0;
+    }
+
+    /**
+     * Receives the lines of a {@link ConsoleBuffer ConsoleBuffer}
+     */
+    @FunctionalInterface
+    public interface LineVisitor {
+
+        /**
+         * Called for every line
+         *
+         * @param  sequence
+         *         The sequence number of the line
+         * @param  line
+         *         Read-only UTF-8 view of the line, between its position and limit
+         */
+        void visit(long sequence, ByteBuffer line);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import com.sparkedhost.pterodactyl4j.client.managers.WebSocketManager;
+import com.sparkedhost.pterodactyl4j.client.ws.events.AuthSuccessEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.output.OutputEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.hooks.ClientSocketListenerAdapter;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link ConsoleBuffer ConsoleBuffer} per server, filled with the console, daemon and install output of
+ * the websockets the store is registered on, for example with
+ * {@link com.sparkedhost.pterodactyl4j.client.managers.WebSocketPoolBuilder#addEventListeners(Object...) WebSocketPoolBuilder.addEventListeners(store)}.
+ *
+ * <p>When a websocket authenticates while the buffer of its server is still empty, the console history is
+ * requested from Wings once, so the buffer starts out with the lines shown before the connection.
+ * Lines printed while a websocket was disconnected aren't recovered.
+ */
+public class ConsoleBufferStore extends ClientSocketListenerAdapter {
+
+    public static final int DEFAULT_MAX_LINES = 1000;
+    public static final int DEFAULT_MAX_BYTES = 128 * 1024;
+
+    private final int maxLines;
+    private final int maxBytes;
+    private final boolean direct;
+    private final Map<String, ConsoleBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a store keeping up to 1000 lines or 128 KB per server on the heap
+     */
+    public ConsoleBufferStore() {
+        this(DEFAULT_MAX_LINES, DEFAULT_MAX_BYTES, false);
+    }
+
+    /**
+     * Creates a store with the provided limits per server
+     *
+     * @param  maxLines
+     *         The maximum amount of lines per server
+     * @param  maxBytes
+     *         The size of the buffer of each server in bytes
+     * @param  direct
+     *         Whether the buffers are allocated outside of the heap
+     *
+     * @throws IllegalArgumentException
+     *         If any of the limits isn't positive
+     */
+    public ConsoleBufferStore(int maxLines, int maxBytes, boolean direct) {
+        Checks.check(maxLines > 0, "The maximum amount of lines must be positive");
+        Checks.check(maxBytes > 0, "The maximum amount of bytes must be positive");
+        this.maxLines = maxLines;
+        this.maxBytes = maxBytes;
+        this.direct = direct;
+    }
+
+    @Override
+    public void onAuthSuccess(AuthSuccessEvent event) {
+        if (getOrCreate(event.getServer().getIdentifier()).isEmpty())
+            event.getWebSocketManager().requestOnce(WebSocketManager.RequestAction.LOGS);
+    }
+
+    @Override
+    public void onOutput(OutputEvent event) {
+        getOrCreate(event.getServer().getIdentifier()).append(event.getLine());
+    }
+
+    private ConsoleBuffer getOrCreate(String identifier) {
+        return buffers.computeIfAbsent(identifier, id -> new ConsoleBuffer(maxLines, maxBytes, direct));
+    }
+
+    /**
+     * Returns the buffer of a server
+     *
+     * @param  identifier
+     *         The identifier of the server
+     *
+     * @return The {@link ConsoleBuffer ConsoleBuffer}, or null if the store didn't see the server yet
+     */
+    public ConsoleBuffer getBuffer(String identifier) {
+        return buffers.get(identifier);
+    }
+
+    /**
+     * The identifiers of the servers with a buffer
+     *
+     * @return Immutable view of the identifiers
+     */
+    public Set<String> getServers() {
+        return Collections.unmodifiableSet(buffers.keySet());
+    }
+
+    /**
+     * Drops the buffer of a server, freeing its memory
+     *
+     * @param  identifier
+     *         The identifier of the server
+     */
+    public void remove(String identifier) {
+        buffers.remove(identifier);
+    }
+
+    /**
+     * Drops the buffers of every server
+     */
+    public void clear() {
+        buffers.clear();
+    }
+}
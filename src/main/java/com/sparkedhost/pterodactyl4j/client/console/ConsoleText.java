@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import java.nio.ByteBuffer;
+
+// strips the escape sequences Wings passes through from the server process
+final class ConsoleText {
+
+    private static final char ESC = '\u001B';
+    private static final char BEL = '\u0007';
+
+    private ConsoleText() {}
+
+    /**
+     * Writes a line as UTF-8 without ANSI escape sequences and carriage returns, stopping before the character
+     * that would exceed the limit. Unpaired surrogates are written as {@code ?}.
+     *
+     * @return The amount of bytes written, or that would be written if out is null
+     */
+    static int encode(CharSequence line, ByteBuffer out, int position, int limit) {
+        int written = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == ESC) {
+                i = skipEscape(line, i);
+                continue;
+            }
+            if (c == '\r')
+                continue;
+
+            int codePoint = c;
+            int size;
+            if (c < 0x80) {
+                size = 1;
+            } else if (c < 0x800) {
+                size = 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(line.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, line.charAt(i + 1));
+                size = 4;
+            } else if (Character.isSurrogate(c)) {
+                codePoint = '?';
+                size = 1;
+            } else {
+                size = 3;
+            }
+            if (written + size > limit)
+                break;
+
+            if (out != null) {
+                int index = position + written;
+                switch (size) {
+                    case 1:
+                        out.put(index, (byte) codePoint);
+                        break;
+                    case 2:
+                        out.put(index, (byte) (0xC0 | codePoint >> 6));
+                        out.put(index + 1, (byte) (0x80 | codePoint & 0x3F));
+                        break;
+                    case 3:
+                        out.put(index, (byte) (0xE0 | codePoint >> 12));
+                        out.put(index + 1, (byte) (0x80 | codePoint >> 6 & 0x3F));
+                        out.put(index + 2, (byte) (0x80 | codePoint & 0x3F));
+                        break;
+                    default:
+                        out.put(index, (byte) (0xF0 | codePoint >> 18));
+                        out.put(index + 1, (byte) (0x80 | codePoint >> 12 & 0x3F));
+                        out.put(index + 2, (byte) (0x80 | codePoint >> 6 & 0x3F));
+                        out.put(index + 3, (byte) (0x80 | codePoint & 0x3F));
+                        break;
+                }
+            }
+            if (size == 4)
+                i++;
+            written += size;
+        }
+        return written;
+    }
+
+    // returns the index of the last character of the escape sequence starting at start
+    private static int skipEscape(CharSequence line, int start) {
+        int length = line.length();
+        if (start + 1 >= length)
+            return start;
+        char type = line.charAt(start + 1);
+        int i = start + 2;
+        if (type == '[') {
+            // CSI, parameters until a final byte in @ to ~
+            while (i < length && (line.charAt(i) < '@' || line.charAt(i) > '~'))
+                i++;
+            return Math.min(i, length - 1);
+        }
+        if (type == ']') {
+            // OSC, until BEL or ESC \
+            while (i < length) {
+                char c = line.charAt(i);
+                if (c == BEL)
+                    return i;
+                if (c == ESC && i + 1 < length && line.charAt(i + 1) == '\\')
+                    return i + 1;
+                i++;
+            }
+            return length - 1;
+        }
+        return start + 1;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/*
+ * The archive of a single server. Lines are collected into a block in memory as
+ *
+ *   varint milliseconds since the previous line, or since the first line of the block
+ *   varint length
+ *   UTF-8 bytes
+ *
+ * and the block is deflated into the current segment once it is full or old enough.
+ */
+final class ServerArchive {
+
+    private static final byte[] NO_FILTER = new byte[0];
+
+    private final ConsoleArchive archive;
+    private final File directory;
+    // oldest first, the last one is appended to once current is set
+    private final List<ArchiveSegment> segments = new ArrayList<>();
+    private ArchiveSegment current;
+
+    private byte[] pending = new byte[256];
+    private int pendingSize;
+    private int pendingLines;
+    private long pendingFirst;
+    private long lastTimestamp;
+
+    ServerArchive(ConsoleArchive archive, File directory) throws IOException {
+        this.archive = archive;
+        this.directory = directory;
+        String[] names = directory.list();
+        if (names == null)
+            return;
+        long[] timestamps = Arrays.stream(names)
+                .filter(name -> name.endsWith(ArchiveSegment.INDEX_SUFFIX) || name.endsWith(ArchiveSegment.DATA_SUFFIX))
+                .map(name -> name.substring(0, name.length() - 4))
+                .filter(name -> name.matches("\\d+"))
+                .mapToLong(Long::parseLong)
+                .distinct()
+                .sorted()
+                .toArray();
+        for (long timestamp : timestamps) {
+            ArchiveSegment segment = ArchiveSegment.load(directory, timestamp);
+            if (segment != null) {
+                segments.add(segment);
+                lastTimestamp = segment.lastTimestamp;
+            }
+        }
+    }
+
+    synchronized void append(long timestamp, CharSequence line) throws IOException {
+        // lines are kept in order, a clock going backwards doesn't reorder them
+        timestamp = Math.max(timestamp, lastTimestamp);
+        int length = ConsoleText.encode(line, null, 0, Integer.MAX_VALUE);
+        ensureCapacity(pendingSize + 20 + length);
+        if (pendingLines == 0)
+            pendingFirst = timestamp;
+        pendingSize = writeVarint(pending, pendingSize, timestamp - (pendingLines == 0 ? pendingFirst : lastTimestamp));
+        pendingSize = writeVarint(pending, pendingSize, length);
+        ConsoleText.encode(line, ByteBuffer.wrap(pending), pendingSize, length);
+        pendingSize += length;
+        pendingLines++;
+        lastTimestamp = timestamp;
+        if (pendingSize >= archive.blockSize || timestamp - pendingFirst >= archive.blockAge)
+            seal();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > pending.length)
+            pending = Arrays.copyOf(pending, Math.max(capacity, pending.length * 2));
+    }
+
+    // compresses the pending lines into the current segment
+    synchronized void seal() throws IOException {
+        if (pendingLines == 0)
+            return;
+        boolean rolled = false;
+        try {
+            if (current == null || current.dataSize >= archive.segmentSize
+                    || pendingFirst - current.firstTimestamp >= archive.segmentDuration) {
+                long first = segments.isEmpty() ? pendingFirst
+                        : Math.max(pendingFirst, segments.get(segments.size() - 1).firstTimestamp + 1);
+                if (!directory.isDirectory() && !directory.mkdirs())
+                    throw new IOException("Could not create " + directory);
+                current = new ArchiveSegment(directory, first);
+                segments.add(current);
+                rolled = true;
+            }
+
+            byte[] filter = archive.textIndex ? createFilter() : NO_FILTER;
+            Deflater deflater = new Deflater();
+            byte[] compressed;
+            int length = 0;
+            try {
+                deflater.setInput(pending, 0, pendingSize);
+                deflater.finish();
+                compressed = new byte[pendingSize / 2 + 64];
+                while (!deflater.finished()) {
+                    if (length == compressed.length)
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+            } finally {
+                deflater.end();
+            }
+            current.append(compressed, length, pendingSize, pendingFirst, lastTimestamp, pendingLines, filter);
+        } finally {
+            // a block that couldn't be written is dropped, so a failing disk doesn't grow the heap
+            pendingSize = 0;
+            pendingLines = 0;
+            if (pending.length > archive.blockSize * 2)
+                pending = new byte[256];
+        }
+        if (rolled)
+            enforceRetention(System.currentTimeMillis());
+    }
+
+    private byte[] createFilter() {
+        int[] trigrams = new int[pendingSize];
+        int size = 0;
+        int position = 0;
+        long[] record = new long[2];
+        while (position < pendingSize) {
+            position = readVarint(pending, position, record, 0);
+            position = readVarint(pending, position, record, 1);
+            size = TrigramFilter.add(pending, position, (int) record[1], trigrams, size);
+            position += (int) record[1];
+        }
+        return TrigramFilter.create(TrigramFilter.distinct(trigrams, size));
+    }
+
+    synchronized void enforceRetention(long now) throws IOException {
+        long total = getSize();
+        while (!segments.isEmpty()) {
+            ArchiveSegment oldest = segments.get(0);
+            boolean expired = archive.maxAge > 0 && oldest.lastTimestamp < now - archive.maxAge;
+            if (!expired && (archive.maxSize <= 0 || total <= archive.maxSize))
+                break;
+            segments.remove(0);
+            if (oldest == current)
+                current = null;
+            total -= oldest.getSize();
+            oldest.delete();
+        }
+    }
+
+    synchronized long getSize() {
+        long size = 0;
+        for (ArchiveSegment segment : segments)
+            size += segment.getSize();
+        return size;
+    }
+
+    synchronized void delete() throws IOException {
+        for (ArchiveSegment segment : segments)
+            segment.delete();
+        segments.clear();
+        current = null;
+        pendingSize = 0;
+        pendingLines = 0;
+        directory.delete();
+    }
+
+    List<ArchivedLine> query(long from, long to, byte[] needle, int limit) throws IOException {
+        int[] trigrams = needle != null && needle.length >= 3 ? TrigramFilter.of(needle) : null;
+        List<ArchiveSegment> candidateSegments = new ArrayList<>();
+        List<ArchiveSegment.Block> candidates = new ArrayList<>();
+        byte[] block = null;
+        int blockSize = 0;
+        long blockFirst = 0;
+        // blocks are immutable once written, only the lists are copied while locked
+        synchronized (this) {
+            for (ArchiveSegment segment : segments) {
+                if (segment.lastTimestamp < from)
+                    continue;
+                for (ArchiveSegment.Block candidate : segment.blocks) {
+                    if (candidate.lastTimestamp >= from && candidate.firstTimestamp <= to) {
+                        candidateSegments.add(segment);
+                        candidates.add(candidate);
+                    }
+                }
+            }
+            if (pendingLines > 0 && lastTimestamp >= from && pendingFirst <= to) {
+                block = Arrays.copyOf(pending, pendingSize);
+                blockSize = pendingSize;
+                blockFirst = pendingFirst;
+            }
+        }
+
+        List<ArchivedLine> lines = new ArrayList<>();
+        Inflater inflater = new Inflater();
+        ArchiveSegment open = null;
+        FileChannel data = null;
+        FileChannel index = null;
+        try {
+            for (int i = 0; i < candidates.size(); i++) {
+                ArchiveSegment segment = candidateSegments.get(i);
+                ArchiveSegment.Block candidate = candidates.get(i);
+                if (segment != open) {
+                    close(data, index);
+                    data = null;
+                    index = null;
+                    open = segment;
+                    try {
+                        data = FileChannel.open(segment.data.toPath(), StandardOpenOption.READ);
+                        if (trigrams != null)
+                            index = FileChannel.open(segment.index.toPath(), StandardOpenOption.READ);
+                    } catch (NoSuchFileException e) {
+                        // deleted by the retention since the lists were copied
+                        continue;
+                    }
+                }
+                if (data == null || trigrams != null && index == null)
+                    continue;
+                if (trigrams != null && candidate.filterLength > 0
+                        && !TrigramFilter.mightContain(segment.readFilter(index, candidate), trigrams))
+                    continue;
+
+                byte[] raw = new byte[candidate.rawLength];
+                inflater.reset();
+                inflater.setInput(segment.readBlock(data, candidate));
+                try {
+                    int length = 0;
+                    while (length < raw.length && !inflater.finished())
+                        length += inflater.inflate(raw, length, raw.length - length);
+                } catch (DataFormatException e) {
+                    throw new IOException("Corrupted block in " + segment.data, e);
+                }
+                if (scan(raw, raw.length, candidate.firstTimestamp, from, to, needle, limit, lines))
+                    return lines;
+            }
+            if (block != null)
+                scan(block, blockSize, blockFirst, from, to, needle, limit, lines);
+            return lines;
+        } finally {
+            inflater.end();
+            close(data, index);
+        }
+    }
+
+    private static void close(FileChannel data, FileChannel index) throws IOException {
+        if (data != null)
+            data.close();
+        if (index != null)
+            index.close();
+    }
+
+    // returns true once no later line can match
+    private static boolean scan(byte[] data, int size, long timestamp, long from, long to, byte[] needle, int limit,
+                                List<ArchivedLine> into) {
+        int position = 0;
+        long[] record = new long[2];
+        while (position < size) {
+            position = readVarint(data, position, record, 0);
+            position = readVarint(data, position, record, 1);
+            timestamp += record[0];
+            int length = (int) record[1];
+            if (timestamp > to)
+                return true;
+            if (timestamp >= from && (needle == null || indexOf(data, position, length, needle))) {
+                into.add(new ArchivedLine(timestamp, new String(data, position, length, StandardCharsets.UTF_8)));
+                if (into.size() >= limit)
+                    return true;
+            }
+            position += length;
+        }
+        return false;
+    }
+
+    private static boolean indexOf(byte[] data, int offset, int length, byte[] needle) {
+        if (needle.length == 0)
+            return true;
+        byte first = needle[0];
+        for (int i = offset, end = offset + length - needle.length; i <= end; i++) {
+            if (data[i] != first)
+                continue;
+            int j = 1;
+            while (j < needle.length && data[i + j] == needle[j])
+                j++;
+            if (j == needle.length)
+                return true;
+        }
+        return false;
+    }
+
+    private static int writeVarint(byte[] into, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            into[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        into[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarint(byte[] data, int position, long[] into, int slot) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        into[slot] = value;
+        return position;
+    }
+}
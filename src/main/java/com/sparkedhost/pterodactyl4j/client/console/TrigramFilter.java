@@ -0,0 +1,82 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import java.util.Arrays;
+
+// bloom filters over the byte trigrams of the lines of a block, used to skip blocks that can't contain a substring
+final class TrigramFilter {
+
+    private static final int HASHES = 3;
+    private static final int BITS_PER_TRIGRAM = 10;
+    private static final int MIN_BITS = 64;
+
+    private TrigramFilter() {}
+
+    // adds the trigrams of a line to into, which must have room for length - 2 more
+    static int add(byte[] data, int offset, int length, int[] into, int size) {
+        for (int i = offset; i + 2 < offset + length; i++)
+            into[size++] = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | data[i + 2] & 0xFF;
+        return size;
+    }
+
+    static int[] distinct(int[] trigrams, int size) {
+        Arrays.sort(trigrams, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || trigrams[unique - 1] != trigrams[i])
+                trigrams[unique++] = trigrams[i];
+        }
+        return Arrays.copyOf(trigrams, unique);
+    }
+
+    static int[] of(byte[] text) {
+        int[] trigrams = new int[Math.max(0, text.length - 2)];
+        return distinct(trigrams, add(text, 0, text.length, trigrams, 0));
+    }
+
+    static byte[] create(int[] distinct) {
+        int bits = Math.max(MIN_BITS, distinct.length * BITS_PER_TRIGRAM);
+        bits = Integer.highestOneBit(bits - 1) << 1;
+        byte[] filter = new byte[bits / 8];
+        for (int trigram : distinct) {
+            long hash = trigram * 0x9E3779B97F4A7C15L;
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = h1 + i * h2 & bits - 1;
+                filter[bit >>> 3] |= 1 << (bit & 7);
+            }
+        }
+        return filter;
+    }
+
+    static boolean mightContain(byte[] filter, int[] distinct) {
+        int bits = filter.length * 8;
+        for (int trigram : distinct) {
+            long hash = trigram * 0x9E3779B97F4A7C15L;
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = h1 + i * h2 & bits - 1;
+                if ((filter[bit >>> 3] & 1 << (bit & 7)) == 0)
+                    return false;
+            }
+        }
+        return true;
+    }
+}
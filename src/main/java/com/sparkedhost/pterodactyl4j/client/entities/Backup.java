@@ -36,6 +36,7 @@ public interface Backup {
     }
     List<String> getIgnoredFiles();
     PteroAction<String> retrieveDownloadUrl();
+    PteroAction<DownloadableFile> retrieveDownload();
     OffsetDateTime getTimeCompleted();
     OffsetDateTime getTimeCreated();
 
@@ -16,35 +16,102 @@
 
 package com.sparkedhost.pterodactyl4j.client.entities;
 
+import com.sparkedhost.pterodactyl4j.PteroAction;
 import com.sparkedhost.pterodactyl4j.entities.P4J;
 import com.sparkedhost.pterodactyl4j.exceptions.HttpException;
 import com.sparkedhost.pterodactyl4j.requests.Requester;
 import com.sparkedhost.pterodactyl4j.utils.Checks;
 import okhttp3.*;
+import okio.BufferedSource;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.UncheckedIOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 public class DownloadableFile {
 
+    public static final Logger DOWNLOAD_LOG = LoggerFactory.getLogger(DownloadableFile.class);
+
+    static final int BUFFER_SIZE = 256 * 1024;
+    static final int MAX_RETRIES = 3;
+    static final long RETRY_DELAY = 1000;
+    static final long MIN_SEGMENT_SIZE = 4 * 1024 * 1024;
+
     private final P4J p4j;
-    private final File file;
-    private final String url;
+    private final String name;
+    private final Supplier<PteroAction<String>> urlSupplier;
+    private final AtomicBoolean urlUsed = new AtomicBoolean();
+    private volatile String url;
 
     public DownloadableFile(P4J p4j, File file, String url) {
+        this(p4j, file.getName(), url, () -> file.retrieveDownload().map(DownloadableFile::getUrl));
+    }
+
+    /**
+     * Creates a download of the provided url
+     *
+     * @param p4j
+     *        The P4J instance
+     * @param name
+     *        The file name used by {@link #downloadToFile()}
+     * @param url
+     *        The signed download url
+     * @param urlSupplier
+     *        Retrieves a new signed url for every request after the first one, as Wings only accepts every url once.
+     *        Null to always use the same url
+     */
+    public DownloadableFile(P4J p4j, String name, String url, Supplier<PteroAction<String>> urlSupplier) {
         this.p4j = p4j;
-        this.file = file;
+        this.name = name;
         this.url = url;
+        this.urlSupplier = urlSupplier;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The signed download url, replaced whenever a download has to be resumed
+     *
+     * @return The url
+     */
+    public String getUrl() {
+        return url;
     }
 
     public CompletableFuture<InputStream> retrieveInputStream() {
         CompletableFuture<InputStream> future = new CompletableFuture<>();
+        try {
+            // retrieving a new url blocks, the url this download was created with is only accepted once
+            p4j.getIOPool().execute(() -> {
+                try {
+                    retrieveInputStream(acquireUrl(), future);
+                } catch (IOException e) {
+                    future.completeExceptionally(new UncheckedIOException(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void retrieveInputStream(String location, CompletableFuture<InputStream> future) {
         Request req = new Request.Builder()
-                .url(url)
+                .url(location)
                 .addHeader("User-Agent", Requester.USER_AGENT)
                 .build();
 
@@ -71,20 +138,179 @@ public class DownloadableFile {
                 }
             }
         });
-        return future;
     }
 
     public CompletableFuture<java.io.File> downloadToFile() {
-        return downloadToFile(file.getName());
+        return downloadToFile(name);
     }
 
-
     public CompletableFuture<java.io.File> downloadToFile(String path) {
         Checks.notNull(path, "Path");
         return downloadToFile(new java.io.File(path));
     }
 
     public CompletableFuture<java.io.File> downloadToFile(java.io.File file) {
+        return downloadToFile(file, false, null);
+    }
+
+    public CompletableFuture<java.io.File> downloadToFile(java.io.File file, ProgressListener listener) {
+        return downloadToFile(file, false, listener);
+    }
+
+    /**
+     * Writes the download to a file on the {@link P4J#getIOPool() I/O pool}.
+     * <br>If the connection drops, the download continues where it stopped with a range request, up to 3 times.
+     *
+     * <p>Cancelling the returned future stops the download, the file keeps the bytes written so far.
+     *
+     * @param  file
+     *         The file to write to
+     * @param  resume
+     *         True - keep the current content of the file and only download the rest,
+     *         false - overwrite the file
+     * @param  listener
+     *         Informed after every written chunk, or null
+     *
+     * @throws IllegalArgumentException
+     *         If the file is null or can't be written to
+     *
+     * @return A future completing with the file once it was completely written
+     */
+    public CompletableFuture<java.io.File> downloadToFile(java.io.File file, boolean resume, ProgressListener listener) {
+        prepareFile(file);
+        CompletableFuture<java.io.File> future = new CompletableFuture<>();
+        try {
+            p4j.getIOPool().execute(() -> {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    downloadStream(channel, resume ? channel.size() : 0, listener, future);
+                    future.complete(file);
+                } catch (IOException e) {
+                    future.completeExceptionally(new UncheckedIOException(e));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Writes the download to a file, fetching up to the provided amount of byte ranges of it at the same time.
+     * <br>Splitting a download helps with large backups on distant nodes, where a single connection is limited
+     * by latency rather than bandwidth.
+     *
+     * <p>The file is preallocated to the size of the download and every segment is written at its offset by its own
+     * thread of the {@link P4J#getIOPool() I/O pool}. Segments are at least 4 MB large and retry on their own, up to 3 times.
+     * If one of them fails for good, the others are stopped and the future fails.
+     * Wings accepts every signed url only once, so every segment retrieves a new url from the panel.
+     *
+     * <p>If the server doesn't support range requests or the size of the download is unknown,
+     * the file is downloaded over a single connection instead, like {@link #downloadToFile(java.io.File, boolean, ProgressListener)}.
+     *
+     * @param  file
+     *         The file to write to, it is overwritten
+     * @param  segments
+     *         The maximum amount of ranges downloaded at the same time
+     * @param  listener
+     *         Informed after every written chunk of any segment, possibly from several threads at once, or null
+     *
+     * @throws IllegalArgumentException
+     *         If the file is null or can't be written to, or the amount of segments is not positive
+     *
+     * @return A future completing with the file once every segment was written
+     */
+    public CompletableFuture<java.io.File> downloadToFile(java.io.File file, int segments, ProgressListener listener) {
+        Checks.check(segments > 0, "Segments must be positive");
+        prepareFile(file);
+        CompletableFuture<java.io.File> future = new CompletableFuture<>();
+        try {
+            p4j.getIOPool().execute(() -> {
+                FileChannel channel = null;
+                try {
+                    channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+                    long total = segments > 1 ? retrieveRangeLength() : -1;
+                    if (total < MIN_SEGMENT_SIZE * 2) {
+                        try (FileChannel single = channel) {
+                            downloadStream(single, 0, listener, future);
+                        }
+                        future.complete(file);
+                    } else {
+                        downloadSegments(channel, total, segments, listener, future)
+                                .thenRun(() -> future.complete(file));
+                    }
+                } catch (Throwable t) {
+                    closeQuietly(channel);
+                    future.completeExceptionally(t instanceof IOException ? new UncheckedIOException((IOException) t) : t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void downloadStream(FileChannel channel, long start, ProgressListener listener, CompletableFuture<?> future) throws IOException {
+        if (start == 0)
+            channel.truncate(0);
+        RangeTransfer transfer = new RangeTransfer(channel, start, -1, future);
+        if (listener != null)
+            transfer.setProgress(written -> listener.onProgress(transfer.getPosition(), transfer.getTotal()));
+        transfer.run();
+    }
+
+    private CompletableFuture<Void> downloadSegments(FileChannel channel, long total, int segments,
+                                                     ProgressListener listener, CompletableFuture<?> future) throws IOException {
+        channel.truncate(0);
+        channel.write(ByteBuffer.allocate(1), total - 1); // preallocate
+
+        int count = (int) Math.min(segments, total / MIN_SEGMENT_SIZE);
+        long size = (total + count - 1) / count;
+        AtomicLong downloaded = new AtomicLong();
+        CompletableFuture<?>[] parts = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            RangeTransfer transfer = new RangeTransfer(channel, i * size, Math.min(total, (i + 1) * size), future);
+            if (listener != null)
+                transfer.setProgress(written -> listener.onProgress(downloaded.addAndGet(written), total));
+            parts[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    transfer.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, p4j.getIOPool()).whenComplete((v, t) -> {
+                if (t != null)
+                    future.completeExceptionally(t instanceof CompletionException ? t.getCause() : t);
+            });
+        }
+        return CompletableFuture.allOf(parts).whenComplete((v, t) -> closeQuietly(channel));
+    }
+
+    /**
+     * Requests the first byte of the download to find out whether the server supports range requests
+     *
+     * @return The size of the download, or -1 if the server doesn't support range requests or didn't send the size
+     */
+    private long retrieveRangeLength() {
+        try {
+            Request request = new Request.Builder()
+                    .url(acquireUrl())
+                    .addHeader("User-Agent", Requester.USER_AGENT)
+                    .addHeader("Range", "bytes=0-0")
+                    .build();
+            try (Response response = p4j.getHttpClient().newCall(request).execute()) {
+                if (response.code() != 206 || "none".equalsIgnoreCase(response.header("Accept-Ranges")))
+                    return -1;
+                return getRangeLength(response.header("Content-Range"));
+            }
+        } catch (IOException e) {
+            DOWNLOAD_LOG.debug("Could not check whether {} supports range requests", name, e);
+            return -1;
+        }
+    }
+
+    private static void prepareFile(java.io.File file) {
         Checks.notNull(file, "File");
         try {
             if (!file.exists())
@@ -94,22 +320,193 @@ public class DownloadableFile {
         } catch (IOException e) {
             throw new IllegalArgumentException("Cannot create file", e);
         }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null)
+                closeable.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * Returns a url for a new request.
+     * <br>The first request uses the url this download was created with, later ones retrieve a new url
+     * if possible, because Wings rejects a url once it was used.
+     *
+     * @throws IOException
+     *         If a new url couldn't be retrieved
+     *
+     * @return The url
+     */
+    private String acquireUrl() throws IOException {
+        if (urlSupplier == null || urlUsed.compareAndSet(false, true))
+            return url;
+        try {
+            String fresh = urlSupplier.get().execute();
+            url = fresh;
+            return fresh;
+        } catch (RuntimeException e) {
+            throw new IOException("Could not retrieve a new download url", e);
+        }
+    }
+
+    /**
+     * Downloads the bytes of a range of the file into a {@link FileChannel FileChannel} at the same position,
+     * continuing with a range request where it stopped if the connection drops
+     */
+    class RangeTransfer {
+
+        private final FileChannel channel;
+        private final long end;
+        private final CompletableFuture<?> future;
+        private LongConsumer progress;
+        private long position;
+        private long total = -1;
+
+        /**
+         * @param channel
+         *        The channel to write to
+         * @param start
+         *        The first byte to download
+         * @param end
+         *        The byte after the last one to download, or -1 to download until the end of the file
+         * @param future
+         *        The download stops once this future is done
+         */
+        RangeTransfer(FileChannel channel, long start, long end, CompletableFuture<?> future) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+            this.future = future;
+            if (end >= 0)
+                this.total = end;
+        }
+
+        void setProgress(LongConsumer progress) {
+            this.progress = progress;
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        /**
+         * The size of the whole file
+         *
+         * @return The size in bytes, or -1 if the server didn't send it
+         */
+        long getTotal() {
+            return total;
+        }
 
-        return retrieveInputStream().thenApplyAsync((stream) -> {
-            try (FileOutputStream out = new FileOutputStream(file)) {
-                byte[] buf = new byte[1024];
-                int count;
-                while ((count = stream.read(buf)) > 0)
-                    out.write(buf, 0, count);
-                return file;
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            } finally {
+        void run() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            int retries = 0;
+            while (true) {
+                String location = acquireUrl();
                 try {
-                    stream.close();
-                } catch (Exception ignored) {}
+                    transfer(location, buffer);
+                    return;
+                } catch (IOException e) {
+                    if (future.isDone() || ++retries > MAX_RETRIES)
+                        throw e;
+                    DOWNLOAD_LOG.debug("Download of {} failed at byte {}, resuming", name, position, e);
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY * retries);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting to resume the download");
+                }
             }
-        }, p4j.getCallbackPool());
+        }
+
+        private void transfer(String location, ByteBuffer buffer) throws IOException {
+            if (end >= 0 && position >= end)
+                return;
+            Request.Builder builder = new Request.Builder()
+                    .url(location)
+                    .addHeader("User-Agent", Requester.USER_AGENT);
+            if (position > 0 || end >= 0)
+                builder.addHeader("Range", "bytes=" + position + "-" + (end >= 0 ? String.valueOf(end - 1) : ""));
+
+            try (Response response = p4j.getHttpClient().newCall(builder.build()).execute()) {
+                int code = response.code();
+                if (code == 416 && end < 0 && position == getRangeLength(response.header("Content-Range")))
+                    return; // the file was already complete
+                if (code >= 500 || code == 401 || code == 403 || code == 408 || code == 429)
+                    throw new IOException(code + ": " + response.message());
+                if (!response.isSuccessful())
+                    throw new HttpException(code + ": " + response.message());
+
+                ResponseBody body = response.body();
+                if (code != 206 && end >= 0)
+                    throw new HttpException("The server doesn't support range requests");
+                if (code != 206 && position > 0) {
+                    // the range was ignored, the whole file is sent again
+                    position = 0;
+                    channel.truncate(0);
+                }
+                if (end < 0 && body.contentLength() >= 0)
+                    total = position + body.contentLength();
+
+                BufferedSource source = body.source();
+                boolean eof = false;
+                while (!eof) {
+                    if (future.isDone())
+                        throw new CancellationException();
+                    buffer.clear();
+                    // bytes past the range belong to the next segment, even if the server sends them
+                    if (end >= 0) {
+                        if (position >= end)
+                            break;
+                        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                    }
+                    while (buffer.hasRemaining()) {
+                        if (source.read(buffer) < 0) {
+                            eof = true;
+                            break;
+                        }
+                    }
+                    buffer.flip();
+                    long written = buffer.remaining();
+                    while (buffer.hasRemaining())
+                        position += channel.write(buffer, position);
+                    if (progress != null && written > 0)
+                        progress.accept(written);
+                }
+                if (total >= 0 && position < total)
+                    throw new EOFException("The connection was closed after " + position + " of " + total + " bytes");
+            }
+        }
+    }
+
+    static long getRangeLength(String contentRange) {
+        if (contentRange == null)
+            return -1;
+        int slash = contentRange.lastIndexOf('/');
+        try {
+            return slash < 0 ? -1 : Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
+    /**
+     * Informed about the progress of a download
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Called after a chunk of the download was written to the file
+         *
+         * @param downloaded
+         *        The amount of bytes written so far, including resumed ones
+         * @param total
+         *        The size of the file, or -1 if it is unknown
+         */
+        void onProgress(long downloaded, long total);
+    }
 }
@@ -18,11 +18,19 @@ package com.sparkedhost.pterodactyl4j.client.entities;
 
 import com.sparkedhost.pterodactyl4j.PowerAction;
 import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.entities.P4J;
 import com.sparkedhost.pterodactyl4j.exceptions.LoginException;
 import com.sparkedhost.pterodactyl4j.exceptions.NotFoundException;
+import com.sparkedhost.pterodactyl4j.client.managers.WebSocketManager;
+import com.sparkedhost.pterodactyl4j.client.managers.WebSocketPoolBuilder;
 import com.sparkedhost.pterodactyl4j.requests.action.PaginationAction;
+import com.sparkedhost.pterodactyl4j.requests.bulk.BulkOperation;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import com.sparkedhost.pterodactyl4j.utils.cache.EntityCache;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PteroClient {
 
@@ -117,4 +125,85 @@ public interface PteroClient {
      */
     PteroAction<List<ClientServer>> retrieveServersByName(String name, boolean caseSensitive);
 
+    /**
+     * The {@link EntityCache EntityCache} used by this instance
+     * <br>Entities are only cached for the types configured with
+     * {@link com.sparkedhost.pterodactyl4j.PteroBuilder#setCacheExpiration PteroBuilder.setCacheExpiration(...)}
+     *
+     * @return The entity cache, useful to inspect hit and miss counters or to invalidate entries
+     */
+    EntityCache getEntityCache();
+
+    /**
+     * The websocket that power and command actions of the server are currently routed through
+     * <br>Only websockets built with {@link com.sparkedhost.pterodactyl4j.client.managers.WebSocketBuilder#routeActions(boolean) routeActions}
+     * enabled are registered, use {@link WebSocketManager#isAuthenticated()} to check whether it is ready.
+     *
+     * @param  identifier
+     *         The server identifier
+     *
+     * @return Possibly-empty Optional of the websocket
+     */
+    Optional<WebSocketManager> getWebSocket(String identifier);
+
+    /**
+     * Returns a new {@link WebSocketPoolBuilder WebSocketPoolBuilder}, used to hold the websockets of many servers
+     * without a thread per server
+     *
+     * @return The builder used to create the pool
+     */
+    WebSocketPoolBuilder getWebSocketPoolBuilder();
+
+    /**
+     * Creates a {@link BulkOperation BulkOperation} sending a console command to every provided server.
+     * <br>Servers with a live websocket receive the command through it, the others through the HTTP API within the rate limit.
+     *
+     * <h2>Example</h2>
+     * <pre>{@code
+     * client.broadcastCommand(servers, "say Restarting in 5 minutes")
+     *     .executeAsync(result -> System.out.println(result.getFailed().size() + " servers did not receive the command"));
+     * }</pre>
+     *
+     * @param  servers
+     *         The servers to send the command to
+     * @param  command
+     *         The command to send
+     *
+     * @throws IllegalArgumentException
+     *         If any of the arguments is null
+     *
+     * @return The BulkOperation, nothing is sent until it is executed
+     */
+    default BulkOperation<ClientServer, Void> broadcastCommand(Collection<? extends ClientServer> servers, String command) {
+        Checks.notNull(command, "Command");
+        return BulkOperation.of(getP4J(), servers, server -> server.sendCommand(command));
+    }
+
+    /**
+     * Creates a {@link BulkOperation BulkOperation} sending a power signal to every provided server.
+     * <br>Servers with a live websocket receive the signal through it, the others through the HTTP API within the rate limit.
+     *
+     * @param  servers
+     *         The servers to send the signal to
+     * @param  powerAction
+     *         The power signal to send
+     *
+     * @throws IllegalArgumentException
+     *         If any of the arguments is null
+     *
+     * @return The BulkOperation, nothing is sent until it is executed
+     */
+    default BulkOperation<ClientServer, Void> broadcastPower(Collection<? extends ClientServer> servers, PowerAction powerAction) {
+        Checks.notNull(powerAction, "Power Action");
+        return BulkOperation.of(getP4J(), servers, server -> server.setPower(powerAction));
+    }
+
+    /**
+     * The P4J instance backing this client, used by helpers like
+     * {@link PteroAction#fanOut PteroAction.fanOut(...)}
+     *
+     * @return The P4J instance
+     */
+    P4J getP4J();
+
 }
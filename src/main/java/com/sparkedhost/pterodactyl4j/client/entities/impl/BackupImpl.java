@@ -19,6 +19,7 @@ package com.sparkedhost.pterodactyl4j.client.entities.impl;
 import com.sparkedhost.pterodactyl4j.PteroAction;
 import com.sparkedhost.pterodactyl4j.client.entities.Backup;
 import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
+import com.sparkedhost.pterodactyl4j.client.entities.DownloadableFile;
 import org.json.JSONObject;
 
 import java.time.OffsetDateTime;
@@ -76,6 +77,11 @@ public class BackupImpl implements Backup {
         return server.getBackupManager().retrieveDownloadUrl(this);
     }
 
+    @Override
+    public PteroAction<DownloadableFile> retrieveDownload() {
+        return server.getBackupManager().retrieveDownload(this);
+    }
+
     @Override
     public OffsetDateTime getTimeCompleted() {
         return json.isNull("completed_at") ? null : OffsetDateTime.parse(json.getString("completed_at"));
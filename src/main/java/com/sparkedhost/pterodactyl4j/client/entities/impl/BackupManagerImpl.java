@@ -20,6 +20,7 @@ import com.sparkedhost.pterodactyl4j.PteroAction;
 import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
 import com.sparkedhost.pterodactyl4j.client.entities.Backup;
 import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
+import com.sparkedhost.pterodactyl4j.client.entities.DownloadableFile;
 import com.sparkedhost.pterodactyl4j.client.managers.BackupAction;
 import com.sparkedhost.pterodactyl4j.client.managers.BackupManager;
 import com.sparkedhost.pterodactyl4j.requests.Route;
@@ -46,6 +47,12 @@ public class BackupManagerImpl implements BackupManager {
                 (response, request) -> response.getObject().getJSONObject("attributes").getString("url"));
     }
 
+    @Override
+    public PteroAction<DownloadableFile> retrieveDownload(Backup backup) {
+        return retrieveDownloadUrl(backup).map(url -> new DownloadableFile(impl.getP4J(), backup.getUUID() + ".tar.gz", url,
+                () -> retrieveDownloadUrl(backup)));
+    }
+
     @Override
     public PteroAction<Void> restoreBackup(Backup backup) {
         return PteroActionImpl.onRequestExecute(impl.getP4J(),
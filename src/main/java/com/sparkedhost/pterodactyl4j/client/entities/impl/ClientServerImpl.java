@@ -220,16 +220,12 @@ public class ClientServerImpl implements ClientServer {
 
 	@Override
 	public PteroAction<Void> setPower(PowerAction powerAction) {
-		JSONObject obj = new JSONObject().put("signal", powerAction.name().toLowerCase());
-		return PteroActionImpl.onRequestExecute(impl.getP4J(),
-				Route.Client.SET_POWER.compile(getIdentifier()), PteroActionImpl.getRequestBody(obj));
+		return impl.setPower(this, powerAction);
 	}
 
 	@Override
 	public PteroAction<Void> sendCommand(String command) {
-		JSONObject obj = new JSONObject().put("command", command);
-		return PteroActionImpl.onRequestExecute(impl.getP4J(),
-				Route.Client.SEND_COMMAND.compile(getIdentifier()), PteroActionImpl.getRequestBody(obj));
+		return impl.sendCommand(this, command);
 	}
 
 	@Override
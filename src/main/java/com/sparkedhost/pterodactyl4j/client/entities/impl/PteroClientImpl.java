@@ -18,51 +18,88 @@ package com.sparkedhost.pterodactyl4j.client.entities.impl;
 
 import com.sparkedhost.pterodactyl4j.PteroAction;
 import com.sparkedhost.pterodactyl4j.PowerAction;
+import com.sparkedhost.pterodactyl4j.requests.CachedPteroAction;
 import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
 import com.sparkedhost.pterodactyl4j.client.entities.Account;
 import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
 import com.sparkedhost.pterodactyl4j.client.entities.PteroClient;
 import com.sparkedhost.pterodactyl4j.client.entities.Utilization;
+import com.sparkedhost.pterodactyl4j.client.managers.WebSocketManager;
+import com.sparkedhost.pterodactyl4j.client.managers.WebSocketPoolBuilder;
+import com.sparkedhost.pterodactyl4j.client.ws.SocketRoutedPteroAction;
 import com.sparkedhost.pterodactyl4j.entities.P4J;
 import com.sparkedhost.pterodactyl4j.requests.Route;
 import com.sparkedhost.pterodactyl4j.requests.action.PaginationAction;
 import com.sparkedhost.pterodactyl4j.requests.action.impl.PaginationResponseImpl;
 import com.sparkedhost.pterodactyl4j.utils.StreamUtils;
+import com.sparkedhost.pterodactyl4j.utils.cache.CacheType;
+import com.sparkedhost.pterodactyl4j.utils.cache.EntityCache;
 import org.json.JSONObject;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 public class PteroClientImpl implements PteroClient {
 
     private final P4J api;
+    // server identifier -> websocket that power and command actions are routed through
+    private final Map<String, WebSocketManager> webSockets = new ConcurrentHashMap<>();
 
     public PteroClientImpl(P4J api) {
         this.api = api;
     }
 
+    @Override
     public P4J getP4J() {
         return api;
     }
 
+    @Override
+    public EntityCache getEntityCache() {
+        return api.getEntityCache();
+    }
+
     @Override
     public PteroAction<Account> retrieveAccount() {
         return PteroActionImpl.onRequestExecute(api, Route.Accounts.GET_ACCOUNT.compile(), (
                 response, request) -> new AccountImpl(response.getObject(), this));
     }
 
+    @Override
+    public Optional<WebSocketManager> getWebSocket(String identifier) {
+        return Optional.ofNullable(webSockets.get(identifier));
+    }
+
+    @Override
+    public WebSocketPoolBuilder getWebSocketPoolBuilder() {
+        return new WebSocketPoolBuilder(this);
+    }
+
+    public void registerWebSocket(String identifier, WebSocketManager manager) {
+        webSockets.put(identifier, manager);
+    }
+
+    public void unregisterWebSocket(String identifier, WebSocketManager manager) {
+        webSockets.remove(identifier, manager);
+    }
+
     @Override
     public PteroAction<Void> setPower(ClientServer server, PowerAction powerAction) {
         JSONObject obj = new JSONObject().put("signal", powerAction.name().toLowerCase());
-        return PteroActionImpl.onRequestExecute(api,
-                Route.Client.SET_POWER.compile(server.getIdentifier()), PteroActionImpl.getRequestBody(obj));
+        return new SocketRoutedPteroAction(this, server.getIdentifier(), manager -> !manager.submitPower(powerAction).isCompletedExceptionally(),
+                PteroActionImpl.onRequestExecute(api,
+                        Route.Client.SET_POWER.compile(server.getIdentifier()), PteroActionImpl.getRequestBody(obj)));
     }
 
     @Override
     public PteroAction<Void> sendCommand(ClientServer server, String command) {
         JSONObject obj = new JSONObject().put("command", command);
-        return PteroActionImpl.onRequestExecute(api,
-                Route.Client.SEND_COMMAND.compile(server.getIdentifier()), PteroActionImpl.getRequestBody(obj));
+        return new SocketRoutedPteroAction(this, server.getIdentifier(), manager -> !manager.submitCommand(command).isCompletedExceptionally(),
+                PteroActionImpl.onRequestExecute(api,
+                        Route.Client.SEND_COMMAND.compile(server.getIdentifier()), PteroActionImpl.getRequestBody(obj)));
     }
 
     @Override
@@ -79,8 +116,9 @@ public class PteroClientImpl implements PteroClient {
 
     @Override
     public PteroAction<ClientServer> retrieveServerByIdentifier(String identifier) {
-        return PteroActionImpl.onRequestExecute(api, Route.Client.GET_SERVER.compile(identifier),
-                (response, request) -> new ClientServerImpl(response.getObject(), this));
+        return CachedPteroAction.of(api, CacheType.CLIENT_SERVER, identifier,
+                PteroActionImpl.onRequestExecute(api, Route.Client.GET_SERVER.compile(identifier),
+                        (response, request) -> new ClientServerImpl(response.getObject(), this)));
     }
 
     @Override
@@ -18,11 +18,13 @@ package com.sparkedhost.pterodactyl4j.client.managers;
 
 import com.sparkedhost.pterodactyl4j.PteroAction;
 import com.sparkedhost.pterodactyl4j.client.entities.Backup;
+import com.sparkedhost.pterodactyl4j.client.entities.DownloadableFile;
 
 public interface BackupManager {
 
     BackupAction createBackup();
     PteroAction<String> retrieveDownloadUrl(Backup backup);
+    PteroAction<DownloadableFile> retrieveDownload(Backup backup);
     PteroAction<Void> restoreBackup(Backup backup);
     PteroAction<Backup> toggleLock(Backup backup);
     PteroAction<Void> deleteBackup(Backup backup);
@@ -0,0 +1,184 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.managers;
+
+import com.sparkedhost.pterodactyl4j.exceptions.HttpException;
+import com.sparkedhost.pterodactyl4j.exceptions.LoginException;
+import com.sparkedhost.pterodactyl4j.exceptions.NotFoundException;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides if and when a websocket that was closed by the remote end or failed connects again.
+ *
+ * <p>The delay grows exponentially with every failed attempt and is randomized, so websockets that dropped
+ * at the same time, for example because Wings restarted, don't all reconnect at the same instant.
+ *
+ * <p>Failures that won't go away by waiting, like a revoked API key or a deleted or suspended server, stop the
+ * reconnects and leave the websocket {@link WebSocketManager.State#DISCONNECTED disconnected}. Which failures those are
+ * is decided by the {@link Condition Condition} of the policy, {@link #isTransient(int, Throwable)} by default.
+ */
+public final class ReconnectPolicy {
+
+    /** Reconnects after 1 to 2 seconds at first, backing off up to 2 minutes */
+    public static final ReconnectPolicy DEFAULT = new ReconnectPolicy(true, 1000, TimeUnit.MINUTES.toMillis(2), ReconnectPolicy::isTransient);
+    /** Never reconnects, the websocket stays closed until it is connected again manually */
+    public static final ReconnectPolicy DISABLED = new ReconnectPolicy(false, 0, 0, (code, error) -> false);
+
+    private final boolean enabled;
+    private final long minDelay;
+    private final long maxDelay;
+    private final Condition condition;
+
+    private ReconnectPolicy(boolean enabled, long minDelay, long maxDelay, Condition condition) {
+        this.enabled = enabled;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.condition = condition;
+    }
+
+    /**
+     * Creates a policy with custom delays
+     *
+     * @param  minDelay
+     *         The minimum delay before reconnecting
+     * @param  maxDelay
+     *         The delay the backoff grows to at most
+     * @param  unit
+     *         The time unit of the delays
+     *
+     * @throws IllegalArgumentException
+     *         If the minimum delay is not positive, the maximum delay is smaller than the minimum delay or the unit is null
+     *
+     * @return The new policy
+     */
+    public static ReconnectPolicy of(long minDelay, long maxDelay, TimeUnit unit) {
+        Checks.notNull(unit, "Unit");
+        Checks.check(minDelay > 0, "Min delay must be positive");
+        Checks.check(maxDelay >= minDelay, "Max delay must not be smaller than the min delay");
+        return new ReconnectPolicy(true, unit.toMillis(minDelay), unit.toMillis(maxDelay), ReconnectPolicy::isTransient);
+    }
+
+    /**
+     * Creates a copy of this policy that only reconnects after disconnects the provided condition accepts
+     *
+     * @param  condition
+     *         The condition deciding which disconnects are worth reconnecting for
+     *
+     * @throws IllegalArgumentException
+     *         If the condition is null
+     *
+     * @return The new policy
+     */
+    public ReconnectPolicy withCondition(Condition condition) {
+        Checks.notNull(condition, "Condition");
+        return new ReconnectPolicy(enabled, minDelay, maxDelay, condition);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the websocket should reconnect after the provided disconnect
+     *
+     * @param  code
+     *         The close code sent by the remote end, the HTTP status if Wings rejected the websocket, or -1 if neither is known
+     * @param  error
+     *         The error the websocket failed with, or null if it was closed
+     *
+     * @return True, if the policy is enabled and its condition accepts the disconnect
+     *
+     * @see    Condition#shouldReconnect(int, Throwable)
+     */
+    public boolean shouldReconnect(int code, Throwable error) {
+        return enabled && condition.shouldReconnect(code, error);
+    }
+
+    /**
+     * The default {@link Condition Condition}, which treats these disconnects as permanent:
+     * <ul>
+     *     <li>The panel rejecting the websocket credentials request because the API key is invalid or lacks
+     *     permissions, or the server was deleted or is suspended</li>
+     *     <li>Wings rejecting the websocket with a 401, 403 or 404</li>
+     *     <li>The close codes 1002 (protocol error), 1003 (unsupported data) and 1008 (policy violation)</li>
+     * </ul>
+     * Other failures, including servers that are still installing or being transferred, are reconnected.
+     *
+     * @param  code
+     *         The close code sent by the remote end, the HTTP status if Wings rejected the websocket, or -1 if neither is known
+     * @param  error
+     *         The error the websocket failed with, or null if it was closed
+     *
+     * @return True, if the disconnect is likely to go away by reconnecting
+     */
+    public static boolean isTransient(int code, Throwable error) {
+        switch (code) {
+            case 401:
+            case 403:
+            case 404:
+            case 1002:
+            case 1003:
+            case 1008:
+                return false;
+        }
+        if (error instanceof LoginException || error instanceof NotFoundException)
+            return false;
+        if (error instanceof HttpException && error.getMessage() != null) {
+            // the panel answers 409 for suspended, installing and transferring servers, only a suspension is permanent
+            String message = error.getMessage();
+            return !message.contains(" 401 error") && !message.contains("currently suspended");
+        }
+        return true;
+    }
+
+    /**
+     * The delay before the next reconnect attempt
+     *
+     * @param  attempt
+     *         The amount of attempts that failed since the websocket was last authenticated
+     *
+     * @return The delay in milliseconds
+     */
+    public long getDelay(int attempt) {
+        long backoff = minDelay << Math.min(attempt, 20);
+        long spread = Math.min(maxDelay - minDelay, backoff);
+        return minDelay + (spread <= 0 ? 0 : ThreadLocalRandom.current().nextLong(spread + 1));
+    }
+
+    /**
+     * Decides which disconnects are worth reconnecting for
+     */
+    @FunctionalInterface
+    public interface Condition {
+
+        /**
+         * Whether the websocket should reconnect after the provided disconnect
+         *
+         * @param  code
+         *         The close code sent by the remote end, the HTTP status if Wings rejected the websocket, or -1 if neither is known
+         * @param  error
+         *         The error the websocket failed with, which is the error of the credentials request if the panel rejected it,
+         *         or null if the websocket was closed
+         *
+         * @return True, if the websocket should reconnect
+         */
+        boolean shouldReconnect(int code, Throwable error);
+    }
+}
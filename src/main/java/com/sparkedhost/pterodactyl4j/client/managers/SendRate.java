@@ -0,0 +1,79 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.managers;
+
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+
+/**
+ * Decides how fast commands and power signals are sent through a websocket.
+ *
+ * <p>Frames are sent at a steady rate with short bursts on top, like a token bucket: the bucket holds up to
+ * {@link #getBurst() burst} frames and refills at {@link #getPerSecond() perSecond}. Frames beyond that wait in the
+ * queue of the websocket, which holds up to {@link #getCapacity() capacity} frames and keeps them while the websocket
+ * reconnects.
+ */
+public final class SendRate {
+
+    /** 5 frames per second with bursts of 10, matching the limit Wings applies to websocket messages, and up to 1000 queued frames */
+    public static final SendRate DEFAULT = new SendRate(5, 10, 1000);
+    /** Sends frames as soon as the websocket is authenticated, and queues up to 1000 frames while it isn't */
+    public static final SendRate UNLIMITED = new SendRate(Double.POSITIVE_INFINITY, Integer.MAX_VALUE, 1000);
+
+    private final double perSecond;
+    private final int burst;
+    private final int capacity;
+
+    private SendRate(double perSecond, int burst, int capacity) {
+        this.perSecond = perSecond;
+        this.burst = burst;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a custom rate
+     *
+     * @param  perSecond
+     *         The amount of frames sent per second in the long run
+     * @param  burst
+     *         The amount of frames that may be sent at once after the websocket was idle
+     * @param  capacity
+     *         The maximum amount of frames waiting to be sent
+     *
+     * @throws IllegalArgumentException
+     *         If any of the values isn't positive
+     *
+     * @return The new rate
+     */
+    public static SendRate of(double perSecond, int burst, int capacity) {
+        Checks.check(perSecond > 0, "Frames per second must be positive");
+        Checks.check(burst > 0, "Burst must be positive");
+        Checks.check(capacity > 0, "Capacity must be positive");
+        return new SendRate(perSecond, burst, capacity);
+    }
+
+    public double getPerSecond() {
+        return perSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
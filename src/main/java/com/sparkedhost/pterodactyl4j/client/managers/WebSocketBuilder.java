@@ -18,18 +18,29 @@ package com.sparkedhost.pterodactyl4j.client.managers;
 
 import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
 import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
+import com.sparkedhost.pterodactyl4j.client.ws.CachedServer;
 import com.sparkedhost.pterodactyl4j.client.ws.events.Event;
 import com.sparkedhost.pterodactyl4j.client.ws.hooks.IClientListenerManager;
+import com.sparkedhost.pterodactyl4j.client.ws.metrics.WebSocketMetrics;
 import com.sparkedhost.pterodactyl4j.client.ws.hooks.InterfacedClientListenerManager;
 import com.sparkedhost.pterodactyl4j.client.ws.hooks.ClientSocketListener;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+
+import java.util.concurrent.TimeUnit;
 
 public class WebSocketBuilder {
 
-    private final IClientListenerManager eventManager;
+    private IClientListenerManager eventManager;
     private final PteroClientImpl api;
     private final ClientServer server;
 
     private boolean freshServer;
+    private long freshServerInterval = CachedServer.DEFAULT_MAX_AGE;
+    private boolean reuseStatsEvents;
+    private boolean routeActions = true;
+    private ReconnectPolicy reconnectPolicy = ReconnectPolicy.DEFAULT;
+    private SendRate sendRate = SendRate.DEFAULT;
+    private WebSocketMetrics metrics = WebSocketMetrics.NOOP;
 
     public WebSocketBuilder(PteroClientImpl api, ClientServer server) {
         this.api = api;
@@ -77,6 +88,27 @@ public class WebSocketBuilder {
         return this;
     }
 
+    /**
+     * Replaces the event manager of the websocket.
+     * <br>Listeners added before are not carried over.
+     *
+     * <p>Use an {@link com.sparkedhost.pterodactyl4j.client.ws.hooks.AsyncClientListenerManager AsyncClientListenerManager}
+     * to keep slow listeners from stalling the websocket.
+     *
+     * @param  eventManager
+     *         The event manager to use
+     *
+     * @throws IllegalArgumentException
+     *         If the event manager is null
+     *
+     * @return The {@link WebSocketBuilder WebSocketBuilder} instance. Useful for chaining.
+     */
+    public WebSocketBuilder setEventManager(IClientListenerManager eventManager) {
+        Checks.notNull(eventManager, "Event Manager");
+        this.eventManager = eventManager;
+        return this;
+    }
+
     /**
      * Enables/Disables P4J to return the latest server instance when firing events.
      *
@@ -85,9 +117,11 @@ public class WebSocketBuilder {
      * since you can use {@link Event#retrieveServer()} when you need an updated instance.
      *
      * <p>However, if your program requires the latest data from the {@link ClientServer ClientServer},
-     * you can use this method to have P4J retrieve the server, then fire the event using the new data.
+     * you can use this method to have P4J keep a cached instance of the server and fire events with it. The cached server
+     * is retrieved again once it is older than the {@link #setFreshServerInterval(long, TimeUnit) fresh server interval},
+     * and before firing events that change the server, like status changes or a completed install.
      *
-     * <p><b>Note:</b> If this is enabled, and the panel rate limit is hit, events will stop firing until the limit is lifted
+     * <p><b>Note:</b> Events are fired in order, so events following a status change wait until the server was retrieved
      *
      * <p>Default: <b>false (disabled)</b>
      *
@@ -102,16 +136,142 @@ public class WebSocketBuilder {
         return this;
     }
 
+    /**
+     * Sets how old the cached server may get before it is retrieved again,
+     * only used if {@link #freshServer(boolean) fresh servers} are enabled.
+     * <br>The server is retrieved in the background, events are fired with the previous instance meanwhile.
+     *
+     * <p>Default: <b>30 seconds</b>
+     *
+     * @param  interval
+     *         The maximum age of the cached server
+     * @param  unit
+     *         The unit of the interval
+     *
+     * @throws IllegalArgumentException
+     *         If the interval is negative or the unit is null
+     *
+     * @return The {@link WebSocketBuilder WebSocketBuilder} instance. Useful for chaining.
+     */
+    public WebSocketBuilder setFreshServerInterval(long interval, TimeUnit unit) {
+        Checks.notNull(unit, "Unit");
+        Checks.check(interval >= 0, "Interval must not be negative");
+        this.freshServerInterval = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Enables/Disables reusing a single {@link com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent StatsUpdateEvent}
+     * for every stats frame of the websocket.
+     *
+     * <p>Wings sends a stats frame every second while the server is running. With this enabled, the event and its
+     * {@link com.sparkedhost.pterodactyl4j.client.ws.StatsSnapshot StatsSnapshot} are filled again for every frame instead of
+     * being created, so listeners must not keep them or hand them to other threads. Copy the snapshot to keep the values.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enable
+     *         True - reuse stats events
+     *
+     * @return The {@link WebSocketBuilder WebSocketBuilder} instance. Useful for chaining.
+     */
+    public WebSocketBuilder reuseStatsEvents(boolean enable) {
+        this.reuseStatsEvents = enable;
+        return this;
+    }
+
+    /**
+     * Enables/Disables routing the power and command actions of this server through the websocket.
+     *
+     * <p>While the websocket is connected and authenticated, {@link ClientServer#setPower(com.sparkedhost.pterodactyl4j.PowerAction)}
+     * and {@link ClientServer#sendCommand(String)} are sent through it instead of making a request, which doesn't use any of
+     * the panel rate limit. When the websocket isn't ready, the actions fall back to the HTTP API.
+     *
+     * <p>Default: <b>true (enabled)</b>
+     *
+     * @param  enable
+     *         True - send power and command actions through the websocket when possible
+     *
+     * @return The {@link WebSocketBuilder WebSocketBuilder} instance. Useful for chaining.
+     */
+    public WebSocketBuilder routeActions(boolean enable) {
+        this.routeActions = enable;
+        return this;
+    }
+
+    /**
+     * Sets when the websocket reconnects after being closed by the remote end or failing.
+     * <br>A reconnect retrieves a new socket url and token and requests the data requested through
+     * {@link WebSocketManager#request(WebSocketManager.RequestAction)} again.
+     *
+     * <p>Default: {@link ReconnectPolicy#DEFAULT}
+     *
+     * @param  policy
+     *         The reconnect policy, {@link ReconnectPolicy#DISABLED} to never reconnect
+     *
+     * @throws IllegalArgumentException
+     *         If the policy is null
+     *
+     * @return The {@link WebSocketBuilder WebSocketBuilder} instance. Useful for chaining.
+     */
+    public WebSocketBuilder setReconnectPolicy(ReconnectPolicy policy) {
+        Checks.notNull(policy, "Reconnect Policy");
+        this.reconnectPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Sets how fast commands and power signals are sent through the websocket.
+     * <br>Commands beyond the rate wait in a queue, which is kept while the websocket reconnects.
+     *
+     * <p>Default: {@link SendRate#DEFAULT}
+     *
+     * @param  rate
+     *         The send rate, {@link SendRate#UNLIMITED} to send commands as soon as possible
+     *
+     * @throws IllegalArgumentException
+     *         If the rate is null
+     *
+     * @return The {@link WebSocketBuilder WebSocketBuilder} instance. Useful for chaining.
+     */
+    public WebSocketBuilder setSendRate(SendRate rate) {
+        Checks.notNull(rate, "Send Rate");
+        this.sendRate = rate;
+        return this;
+    }
+
+    /**
+     * Sets the metrics the websocket reports frames, latencies and reconnects to.
+     *
+     * <p>Default: {@link WebSocketMetrics#NOOP}
+     *
+     * @param  metrics
+     *         The metrics, for example a {@link com.sparkedhost.pterodactyl4j.client.ws.metrics.WebSocketMetricsCollector WebSocketMetricsCollector}
+     *
+     * @throws IllegalArgumentException
+     *         If the metrics are null
+     *
+     * @return The {@link WebSocketBuilder WebSocketBuilder} instance. Useful for chaining.
+     */
+    public WebSocketBuilder setMetrics(WebSocketMetrics metrics) {
+        Checks.notNull(metrics, "Metrics");
+        this.metrics = metrics;
+        return this;
+    }
+
     /**
      * Builds a new {@link WebSocketManager WebSocketManager}
      * instance and retrieves a token from the panel to start the authorization process.
-     * <p>The authorization process runs in a different thread, so while this will return immediately, the manager has not
-     * finished connecting.
+     * <p>The socket url and token are retrieved asynchronously, so while this will return immediately, the manager has not
+     * finished connecting. Use a {@link WebSocketPool WebSocketPool} when holding the websockets of many servers.
      *
      * @return A {@link WebSocketManager WebSocketManager} that is ready for use
      */
     public WebSocketManager build() {
-        return new WebSocketManager(api, server, eventManager, freshServer);
+        WebSocketManager manager = new WebSocketManager(api, server, eventManager, freshServer, routeActions, reconnectPolicy,
+                freshServerInterval, reuseStatsEvents, sendRate, metrics, null, api.getP4J().getWebSocketClient(), api.getP4J().getRateLimitPool());
+        manager.connect();
+        return manager;
     }
 
 
@@ -19,35 +19,168 @@ package com.sparkedhost.pterodactyl4j.client.managers;
 import com.sparkedhost.pterodactyl4j.PowerAction;
 import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
 import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
+import com.sparkedhost.pterodactyl4j.client.ws.CachedServer;
 import com.sparkedhost.pterodactyl4j.client.ws.WebSocketAction;
 import com.sparkedhost.pterodactyl4j.client.ws.WebSocketClient;
+import com.sparkedhost.pterodactyl4j.client.ws.events.Event;
+import com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.output.ConsoleOutputEvent;
 import com.sparkedhost.pterodactyl4j.client.ws.hooks.IClientListenerManager;
+import com.sparkedhost.pterodactyl4j.client.ws.metrics.WebSocketMetrics;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import okhttp3.OkHttpClient;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WebSocketManager {
 
+    private final PteroClientImpl api;
+    private final ClientServer server;
     private final WebSocketClient client;
     private final IClientListenerManager eventManager;
-    private final Thread thread;
+    private final boolean routeActions;
+    private final boolean reuseStatsEvents;
+    private final ReconnectPolicy reconnectPolicy;
+    private final WebSocketPool pool;
+    private final ScheduledExecutorService scheduler;
+    private final WebSocketMetrics metrics;
+    private final AtomicInteger reconnectAttempts = new AtomicInteger();
+    // requested data is requested again on every new connection, but only once per connection
+    private final Set<RequestAction> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Set<RequestAction> requested = ConcurrentHashMap.newKeySet();
+    private final Runnable listenerChange = this::sendSubscriptions;
+
+    private static final Map<PowerAction, String> POWER_FRAMES = new EnumMap<>(PowerAction.class);
+
+    static {
+        for (PowerAction power : PowerAction.values())
+            POWER_FRAMES.put(power, WebSocketAction.create(WebSocketAction.SET_STATE, power.name().toLowerCase()));
+    }
 
     public WebSocketManager(PteroClientImpl api, ClientServer server, IClientListenerManager eventManager, boolean freshServer) {
-        this.eventManager = eventManager;
-        this.client = new WebSocketClient(api, server, freshServer, this);
-        this.thread = new Thread(client, "P4J-ClientWS");
+        this(api, server, eventManager, freshServer, true);
+    }
+
+    public WebSocketManager(PteroClientImpl api, ClientServer server, IClientListenerManager eventManager, boolean freshServer,
+                            boolean routeActions) {
+        this(api, server, eventManager, freshServer, routeActions, ReconnectPolicy.DEFAULT);
+    }
+
+    public WebSocketManager(PteroClientImpl api, ClientServer server, IClientListenerManager eventManager, boolean freshServer,
+                            boolean routeActions, ReconnectPolicy reconnectPolicy) {
+        this(api, server, eventManager, freshServer, routeActions, reconnectPolicy, CachedServer.DEFAULT_MAX_AGE);
+    }
+
+    public WebSocketManager(PteroClientImpl api, ClientServer server, IClientListenerManager eventManager, boolean freshServer,
+                            boolean routeActions, ReconnectPolicy reconnectPolicy, long freshServerInterval) {
+        this(api, server, eventManager, freshServer, routeActions, reconnectPolicy, freshServerInterval, false, SendRate.DEFAULT,
+                WebSocketMetrics.NOOP, null, api.getP4J().getWebSocketClient(), api.getP4J().getRateLimitPool());
         connect();
     }
 
+    WebSocketManager(PteroClientImpl api, ClientServer server, IClientListenerManager eventManager, boolean freshServer,
+                     boolean routeActions, ReconnectPolicy reconnectPolicy, long freshServerInterval, boolean reuseStatsEvents,
+                     SendRate sendRate, WebSocketMetrics metrics, WebSocketPool pool, OkHttpClient webSocketClient,
+                     ScheduledExecutorService scheduler) {
+        this.api = api;
+        this.server = server;
+        this.eventManager = eventManager;
+        this.routeActions = routeActions;
+        this.reuseStatsEvents = reuseStatsEvents;
+        this.reconnectPolicy = reconnectPolicy;
+        this.metrics = metrics;
+        this.pool = pool;
+        this.scheduler = scheduler;
+        this.client = new WebSocketClient(api, server, freshServer, this, webSocketClient, scheduler, freshServerInterval, sendRate);
+        if (routeActions)
+            api.registerWebSocket(server.getIdentifier(), this);
+        // requests skipped while nobody received their events are sent once a listener does
+        eventManager.addListenerChangeCallback(listenerChange);
+    }
+
     public IClientListenerManager getEventManager() {
         return eventManager;
     }
 
-    private void connect() {
-        thread.start();
+    public ClientServer getServer() {
+        return server;
+    }
+
+    /**
+     * The metrics the websocket reports to
+     *
+     * @return The {@link WebSocketMetrics WebSocketMetrics}, {@link WebSocketMetrics#NOOP} if none were set
+     */
+    public WebSocketMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * The current state of the websocket connection
+     *
+     * @return The {@link State State}
+     */
+    public State getState() {
+        return client.getState();
+    }
+
+    CompletableFuture<Void> connect() {
+        return client.connect();
     }
 
     public void shutdown() {
+        unregister();
+        eventManager.removeListenerChangeCallback(listenerChange);
         client.shutdown();
     }
 
+    /**
+     * Closes the websocket if it is open, or stops it from connecting if it isn't open yet
+     */
+    public void close() {
+        unregister();
+        eventManager.removeListenerChangeCallback(listenerChange);
+        client.close();
+    }
+
+    /**
+     * Whether a single {@link com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent StatsUpdateEvent}
+     * is reused for every stats frame of this websocket
+     *
+     * @return True, if stats events are reused
+     *
+     * @see    WebSocketBuilder#reuseStatsEvents(boolean)
+     */
+    public boolean isReusingStatsEvents() {
+        return reuseStatsEvents;
+    }
+
+    /**
+     * Whether the websocket is connected and authenticated, power and command messages are only accepted in this state
+     *
+     * @return True, if the websocket is ready to send messages
+     */
+    public boolean isAuthenticated() {
+        return client.isAuthenticated();
+    }
+
+    /**
+     * Stops routing power and command actions of the server through this websocket
+     */
+    public void unregister() {
+        if (routeActions)
+            api.unregisterWebSocket(server.getIdentifier(), this);
+    }
+
 
     public void authenticate() {
         client.sendAuthenticate();
@@ -57,26 +190,216 @@ public class WebSocketManager {
         client.sendAuthenticate(token);
     }
 
+    /**
+     * Requests the console logs or the resource stats of the server.
+     * <br>The request is remembered and sent again every time the websocket reconnects. If the websocket
+     * isn't authenticated yet, it is sent once it is. It is sent at most once per connection.
+     * <br>While no listener receives the events the data is fired as, the request isn't sent. It is sent as soon as
+     * such a listener is registered.
+     *
+     * @param  action
+     *         The data to request
+     */
     public void request(RequestAction action) {
-        client.send(WebSocketAction.create(action.data, null));
+        subscriptions.add(action);
+        if (client.isAuthenticated() && eventManager.isConsumed(action.eventType) && requested.add(action))
+            client.send(action.frame);
     }
 
+    /**
+     * Requests the console logs or the resource stats of the server on the current connection only.
+     * <br>Unlike {@link #request(RequestAction)} the request isn't sent again after a reconnect. Nothing is sent if the
+     * websocket isn't authenticated or the data was already requested on this connection.
+     *
+     * @param  action
+     *         The data to request
+     */
+    public void requestOnce(RequestAction action) {
+        if (client.isAuthenticated() && requested.add(action))
+            client.send(action.frame);
+    }
+
+    /**
+     * Used internally when the websocket opened
+     */
+    public void handleOpen() {
+        requested.clear();
+    }
+
+    /**
+     * Used internally when the panel accepted the token, sends the remembered requests
+     */
+    public void handleAuthenticated() {
+        reconnectAttempts.set(0);
+        sendSubscriptions();
+    }
+
+    private void sendSubscriptions() {
+        if (!client.isAuthenticated())
+            return;
+        for (RequestAction action : subscriptions) {
+            if (eventManager.isConsumed(action.eventType) && requested.add(action))
+                client.send(action.frame);
+        }
+    }
+
+    /**
+     * Used internally when the websocket was closed by the remote end or failed, schedules the reconnect
+     * unless the {@link ReconnectPolicy ReconnectPolicy} considers the disconnect permanent
+     *
+     * @param code
+     *        The close code sent by the remote end, the HTTP status if Wings rejected the websocket, or -1 if neither is known
+     * @param error
+     *        The error the websocket failed with, or null if it was closed
+     */
+    public void handleDisconnect(int code, Throwable error) {
+        if (!reconnectPolicy.shouldReconnect(code, error)) {
+            if (reconnectPolicy.isEnabled() && client.getState() != State.SHUTDOWN)
+                WebSocketClient.WEBSOCKET_LOG.warn("Not reconnecting websocket for server {}, the disconnect is permanent", server.getIdentifier());
+            return;
+        }
+        if (!client.setState(State.RECONNECTING))
+            return;
+        int attempt = reconnectAttempts.getAndIncrement();
+        metrics.onReconnect(server.getIdentifier(), attempt);
+        long delay = reconnectPolicy.getDelay(attempt);
+        WebSocketClient.WEBSOCKET_LOG.debug("Reconnecting websocket for server {} in {} ms", server.getIdentifier(), delay);
+        try {
+            scheduler.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            client.setState(State.DISCONNECTED);
+        }
+    }
+
+    private void reconnect() {
+        if (client.getState() != State.RECONNECTING)
+            return;
+        if (pool != null) {
+            // the pool paces reconnects like any other connection
+            pool.reconnect(this);
+            return;
+        }
+        try {
+            client.connect();
+        } catch (IllegalStateException e) {
+            WebSocketClient.WEBSOCKET_LOG.debug("Websocket for server {} is already connected", server.getIdentifier());
+        }
+    }
+
+    /**
+     * Queues a power signal to be sent through the websocket.
+     * <br>Signals are sent at the pace of the {@link SendRate SendRate} of the websocket while it is authenticated,
+     * signals queued while it isn't are sent once it authenticated again.
+     *
+     * @param  power
+     *         The power action
+     *
+     * @return Future completing once the signal was handed to the websocket, or exceptionally with an
+     *         {@link IllegalStateException IllegalStateException} if the queue is full or the websocket was shut down
+     */
+    public CompletableFuture<Void> submitPower(PowerAction power) {
+        Checks.notNull(power, "Power");
+        return client.getOutboundQueue().submit(POWER_FRAMES.get(power));
+    }
+
+    /**
+     * Queues a console command to be sent through the websocket.
+     * <br>Commands are sent at the pace of the {@link SendRate SendRate} of the websocket while it is authenticated,
+     * commands queued while it isn't are sent once it authenticated again.
+     *
+     * @param  command
+     *         The command to send
+     *
+     * @return Future completing once the command was handed to the websocket, or exceptionally with an
+     *         {@link IllegalStateException IllegalStateException} if the queue is full or the websocket was shut down
+     */
+    public CompletableFuture<Void> submitCommand(String command) {
+        Checks.notNull(command, "Command");
+        return client.getOutboundQueue().submit(WebSocketAction.create(WebSocketAction.SEND_COMMAND, command));
+    }
+
+    /**
+     * Queues a power signal to be sent through the websocket
+     *
+     * @param  power
+     *         The power action
+     *
+     * @throws IllegalStateException
+     *         If the queue of the websocket is full or the websocket was shut down
+     *
+     * @see    #submitPower(PowerAction)
+     */
     public void setPower(PowerAction power) {
-        client.send(WebSocketAction.create(WebSocketAction.SET_STATE, power.name().toLowerCase()));
+        requireQueued(submitPower(power));
     }
 
+    /**
+     * Queues a console command to be sent through the websocket
+     *
+     * @param  command
+     *         The command to send
+     *
+     * @throws IllegalStateException
+     *         If the queue of the websocket is full or the websocket was shut down
+     *
+     * @see    #submitCommand(String)
+     */
     public void sendCommand(String command) {
-        client.send(WebSocketAction.create(WebSocketAction.SEND_COMMAND, command));
+        requireQueued(submitCommand(command));
+    }
+
+    private static void requireQueued(CompletableFuture<Void> future) {
+        // the queue only refuses frames right away, queued frames complete once they were sent
+        if (!future.isCompletedExceptionally())
+            return;
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IllegalStateException)
+                throw (IllegalStateException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * The amount of commands and power signals waiting to be sent
+     *
+     * @return The amount of queued frames
+     */
+    public int getQueuedFrames() {
+        return client.getOutboundQueue().size();
+    }
+
+    public enum State {
+        /** The connection has not been started yet */
+        IDLE,
+        /** The socket url is being retrieved or the socket is being opened */
+        CONNECTING,
+        /** The socket is open but not authenticated */
+        CONNECTED,
+        /** The socket is open and the panel accepted the token */
+        AUTHENTICATED,
+        /** The socket was closed by the remote end or failed */
+        DISCONNECTED,
+        /** The socket was closed by the remote end or failed and waits to reconnect */
+        RECONNECTING,
+        /** The socket was closed by P4J */
+        SHUTDOWN
     }
 
     public enum RequestAction {
-        LOGS(WebSocketAction.SEND_LOGS),
-        STATS(WebSocketAction.SEND_STATS);
+        LOGS(WebSocketAction.SEND_LOGS, ConsoleOutputEvent.class),
+        STATS(WebSocketAction.SEND_STATS, StatsUpdateEvent.class);
 
         public final String data;
+        // the event the requested data is fired as
+        private final Class<? extends Event> eventType;
+        private final String frame;
 
-        RequestAction(String data) {
+        RequestAction(String data, Class<? extends Event> eventType) {
             this.data = data;
+            this.eventType = eventType;
+            this.frame = WebSocketAction.create(data, null);
         }
     }
 
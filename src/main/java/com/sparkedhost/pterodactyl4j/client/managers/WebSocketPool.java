@@ -0,0 +1,273 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.managers;
+
+import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
+import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
+import com.sparkedhost.pterodactyl4j.client.ws.hooks.IClientListenerManager;
+import com.sparkedhost.pterodactyl4j.client.ws.metrics.WebSocketMetrics;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the websockets of many servers, sharing one scheduler, one {@link OkHttpClient OkHttpClient}
+ * and one event manager between all of them.
+ *
+ * <p>Opening a websocket only queues it. The pool connects at most {@link WebSocketPoolBuilder#setMaxConcurrentConnects(int)}
+ * websockets at the same time and waits {@link WebSocketPoolBuilder#setConnectInterval(long, TimeUnit)} between two
+ * connection attempts, so opening thousands of websockets doesn't flood the panel with token requests.
+ */
+public class WebSocketPool {
+
+    public static final Logger POOL_LOG = LoggerFactory.getLogger(WebSocketPool.class);
+
+    private final PteroClientImpl api;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private final OkHttpClient webSocketClient;
+    private final IClientListenerManager eventManager;
+    private final boolean freshServer;
+    private final long freshServerInterval;
+    private final boolean reuseStatsEvents;
+    private final boolean routeActions;
+    private final ReconnectPolicy reconnectPolicy;
+    private final SendRate sendRate;
+    private final WebSocketMetrics metrics;
+    private final int maxConcurrentConnects;
+    private final long connectInterval;
+
+    private final Map<String, WebSocketManager> sockets = new ConcurrentHashMap<>();
+    private final Queue<WebSocketManager> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connecting = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile boolean shutdown = false;
+
+    WebSocketPool(PteroClientImpl api, ScheduledExecutorService scheduler, boolean ownScheduler, OkHttpClient webSocketClient,
+                  IClientListenerManager eventManager, boolean freshServer, long freshServerInterval,
+                  boolean reuseStatsEvents, boolean routeActions, ReconnectPolicy reconnectPolicy, SendRate sendRate,
+                  WebSocketMetrics metrics, int maxConcurrentConnects, long connectInterval) {
+        this.api = api;
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+        this.webSocketClient = webSocketClient;
+        this.eventManager = eventManager;
+        this.freshServer = freshServer;
+        this.freshServerInterval = freshServerInterval;
+        this.reuseStatsEvents = reuseStatsEvents;
+        this.routeActions = routeActions;
+        this.reconnectPolicy = reconnectPolicy;
+        this.sendRate = sendRate;
+        this.metrics = metrics;
+        this.maxConcurrentConnects = maxConcurrentConnects;
+        this.connectInterval = connectInterval;
+    }
+
+    /**
+     * Creates a {@link Dispatcher Dispatcher} suited for websockets.
+     * <br>OkHttp counts every open websocket as a running call, with the default limit of 64 calls any further
+     * websocket would never connect.
+     *
+     * @return A dispatcher without a practical call limit
+     */
+    public static Dispatcher createWebSocketDispatcher() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(Integer.MAX_VALUE);
+        dispatcher.setMaxRequestsPerHost(Integer.MAX_VALUE);
+        return dispatcher;
+    }
+
+    /**
+     * Queues the websocket of the provided server to be opened.
+     * <br>If the pool already holds a websocket for the server that wasn't closed, that one is returned instead.
+     *
+     * @param  server
+     *         The server to open the websocket of
+     *
+     * @throws IllegalStateException
+     *         If the pool was shut down
+     *
+     * @return The {@link WebSocketManager WebSocketManager} of the server, which might not be connected yet
+     */
+    public WebSocketManager open(ClientServer server) {
+        Checks.notNull(server, "Server");
+        if (shutdown)
+            throw new IllegalStateException("The websocket pool was shut down");
+
+        boolean[] created = {false};
+        WebSocketManager[] replaced = {null};
+        WebSocketManager manager = sockets.compute(server.getIdentifier(), (id, existing) -> {
+            if (existing != null && existing.getState() != WebSocketManager.State.SHUTDOWN
+                    && existing.getState() != WebSocketManager.State.DISCONNECTED)
+                return existing;
+            created[0] = true;
+            replaced[0] = existing;
+            return new WebSocketManager(api, server, eventManager, freshServer, routeActions, reconnectPolicy, freshServerInterval, reuseStatsEvents, sendRate, metrics, this,
+                    webSocketClient, scheduler);
+        });
+        // a disconnected websocket is still registered to the event manager and holds its queued signals
+        if (replaced[0] != null)
+            replaced[0].close();
+        if (created[0]) {
+            pending.offer(manager);
+            scheduleDrain(0);
+        }
+        return manager;
+    }
+
+    /**
+     * Queues the websockets of all provided servers to be opened
+     *
+     * @param  servers
+     *         The servers to open the websockets of
+     *
+     * @throws IllegalStateException
+     *         If the pool was shut down
+     *
+     * @return The {@link WebSocketManager WebSocketManagers}, in the order of the servers
+     *
+     * @see    #open(ClientServer)
+     */
+    public List<WebSocketManager> openAll(Collection<? extends ClientServer> servers) {
+        Checks.notNull(servers, "Servers");
+        List<WebSocketManager> managers = new ArrayList<>(servers.size());
+        for (ClientServer server : servers)
+            managers.add(open(server));
+        return Collections.unmodifiableList(managers);
+    }
+
+    void reconnect(WebSocketManager manager) {
+        if (shutdown)
+            return;
+        pending.offer(manager);
+        scheduleDrain(0);
+    }
+
+    public Optional<WebSocketManager> get(String identifier) {
+        return Optional.ofNullable(sockets.get(identifier));
+    }
+
+    public Collection<WebSocketManager> getWebSockets() {
+        return Collections.unmodifiableCollection(sockets.values());
+    }
+
+    /**
+     * Closes the websocket of the server and removes it from the pool
+     *
+     * @param  identifier
+     *         The server identifier
+     */
+    public void close(String identifier) {
+        WebSocketManager manager = sockets.remove(identifier);
+        if (manager != null)
+            manager.close();
+    }
+
+    /**
+     * The event manager shared by all websockets of this pool
+     *
+     * @return The {@link IClientListenerManager IClientListenerManager}
+     */
+    public IClientListenerManager getEventManager() {
+        return eventManager;
+    }
+
+    public int size() {
+        return sockets.size();
+    }
+
+    /**
+     * The amount of websockets waiting for a connection slot
+     *
+     * @return The amount of queued websockets
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Counts the websockets of this pool by their {@link WebSocketManager.State State}
+     *
+     * @return Map of every state to the amount of websockets in it
+     */
+    public Map<WebSocketManager.State, Integer> getStateCounts() {
+        Map<WebSocketManager.State, Integer> counts = new EnumMap<>(WebSocketManager.State.class);
+        for (WebSocketManager.State state : WebSocketManager.State.values())
+            counts.put(state, 0);
+        for (WebSocketManager manager : sockets.values())
+            counts.merge(manager.getState(), 1, Integer::sum);
+        return counts;
+    }
+
+    /**
+     * Closes every websocket of this pool and stops the scheduler if it was created by the pool
+     */
+    public void shutdown() {
+        shutdown = true;
+        pending.clear();
+        for (WebSocketManager manager : sockets.values())
+            manager.close();
+        sockets.clear();
+        if (ownScheduler)
+            scheduler.shutdown();
+    }
+
+    private void scheduleDrain(long delay) {
+        if (shutdown || !drainScheduled.compareAndSet(false, true))
+            return;
+        try {
+            scheduler.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            drainScheduled.set(false);
+        }
+    }
+
+    private synchronized void drain() {
+        drainScheduled.set(false);
+        while (!shutdown && connecting.get() < maxConcurrentConnects) {
+            WebSocketManager manager = pending.poll();
+            if (manager == null)
+                return;
+            WebSocketManager.State state = manager.getState();
+            if (state != WebSocketManager.State.IDLE && state != WebSocketManager.State.RECONNECTING)
+                continue; // closed while it was waiting
+
+            connecting.incrementAndGet();
+            try {
+                manager.connect().whenComplete((v, t) -> {
+                    connecting.decrementAndGet();
+                    scheduleDrain(connectInterval);
+                });
+            } catch (Exception e) {
+                connecting.decrementAndGet();
+                POOL_LOG.error("Could not connect the websocket of server {}", manager.getServer().getIdentifier(), e);
+            }
+
+            if (connectInterval > 0) {
+                scheduleDrain(connectInterval);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.managers;
+
+import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
+import com.sparkedhost.pterodactyl4j.client.ws.CachedServer;
+import com.sparkedhost.pterodactyl4j.client.ws.hooks.ClientSocketListener;
+import com.sparkedhost.pterodactyl4j.client.ws.hooks.IClientListenerManager;
+import com.sparkedhost.pterodactyl4j.client.ws.metrics.WebSocketMetrics;
+import com.sparkedhost.pterodactyl4j.client.ws.hooks.InterfacedClientListenerManager;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import com.sparkedhost.pterodactyl4j.utils.NamedThreadFactory;
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class WebSocketPoolBuilder {
+
+    private final PteroClientImpl api;
+
+    private IClientListenerManager eventManager;
+    private ScheduledExecutorService scheduler = null;
+    private OkHttpClient webSocketClient = null;
+    private boolean freshServer = false;
+    private long freshServerInterval = CachedServer.DEFAULT_MAX_AGE;
+    private boolean reuseStatsEvents = false;
+    private boolean routeActions = true;
+    private ReconnectPolicy reconnectPolicy = ReconnectPolicy.DEFAULT;
+    private SendRate sendRate = SendRate.DEFAULT;
+    private WebSocketMetrics metrics = WebSocketMetrics.NOOP;
+    private int maxConcurrentConnects = 8;
+    private long connectInterval = 50;
+
+    public WebSocketPoolBuilder(PteroClientImpl api) {
+        this.api = api;
+        this.eventManager = new InterfacedClientListenerManager();
+    }
+
+    /**
+     * Registers the specified listeners for the websockets of every server in the pool
+     *
+     * @param listeners
+     *        The listener objects
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If one of the listeners does not implement {@link ClientSocketListener ClientSocketListener}
+     *         or if the listeners are null
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder addEventListeners(Object... listeners) {
+        if (listeners == null)
+            throw new IllegalArgumentException("Listeners cannot be null");
+
+        for (Object listener : listeners) {
+            eventManager.register(listener);
+        }
+        return this;
+    }
+
+    /**
+     * Replaces the event manager shared by all websockets of the pool.
+     * <br>Listeners added before are not carried over.
+     *
+     * <p>Use an {@link com.sparkedhost.pterodactyl4j.client.ws.hooks.AsyncClientListenerManager AsyncClientListenerManager}
+     * to keep slow listeners from stalling the websockets.
+     *
+     * @param  eventManager
+     *         The event manager to use
+     *
+     * @throws IllegalArgumentException
+     *         If the event manager is null
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder setEventManager(IClientListenerManager eventManager) {
+        Checks.notNull(eventManager, "Event Manager");
+        this.eventManager = eventManager;
+        return this;
+    }
+
+    /**
+     * Sets how many websockets may be connecting at the same time.
+     * <br>Connecting includes retrieving the socket url from the panel and the websocket handshake with Wings.
+     *
+     * <p>Default: <b>8</b>
+     *
+     * @param  maxConcurrentConnects
+     *         The maximum amount of connection attempts at the same time
+     *
+     * @throws IllegalArgumentException
+     *         If the amount is not positive
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder setMaxConcurrentConnects(int maxConcurrentConnects) {
+        Checks.check(maxConcurrentConnects > 0, "Max concurrent connects must be positive");
+        this.maxConcurrentConnects = maxConcurrentConnects;
+        return this;
+    }
+
+    /**
+     * Sets the delay between starting two connection attempts.
+     *
+     * <p>Default: <b>50 milliseconds</b>
+     *
+     * @param  interval
+     *         The delay, or 0 to only be limited by {@link #setMaxConcurrentConnects(int)}
+     * @param  unit
+     *         The time unit of the delay
+     *
+     * @throws IllegalArgumentException
+     *         If the interval is negative or the unit is null
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder setConnectInterval(long interval, TimeUnit unit) {
+        Checks.notNull(unit, "Unit");
+        Checks.check(interval >= 0, "Interval must not be negative");
+        this.connectInterval = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Sets the {@link ScheduledExecutorService ScheduledExecutorService} that paces the connection attempts.
+     * <br>A scheduler provided here is not shut down together with the pool.
+     *
+     * <p>Default: a dedicated single threaded scheduler
+     *
+     * @param  scheduler
+     *         The scheduler to use
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder setScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Sets the {@link OkHttpClient OkHttpClient} the websockets of the pool are opened with.
+     * <br>The pool always replaces the dispatcher, because OkHttp would otherwise only open 64 websockets.
+     *
+     * <p>Default: the websocket client of the P4J instance
+     *
+     * @param  client
+     *         The client to derive the shared websocket client from
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder setWebSocketClient(OkHttpClient client) {
+        this.webSocketClient = client;
+        return this;
+    }
+
+    /**
+     * Enables/Disables P4J to return the latest server instance when firing events.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enable
+     *         True - provide a fresh instance of the server in event context
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     *
+     * @see    WebSocketBuilder#freshServer(boolean)
+     */
+    public WebSocketPoolBuilder freshServer(boolean enable) {
+        this.freshServer = enable;
+        return this;
+    }
+
+    /**
+     * Sets how old the cached server of each websocket may get before it is retrieved again,
+     * only used if {@link #freshServer(boolean) fresh servers} are enabled.
+     *
+     * <p>Default: <b>30 seconds</b>
+     *
+     * @param  interval
+     *         The maximum age of a cached server
+     * @param  unit
+     *         The unit of the interval
+     *
+     * @throws IllegalArgumentException
+     *         If the interval is negative or the unit is null
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     *
+     * @see    WebSocketBuilder#setFreshServerInterval(long, TimeUnit)
+     */
+    public WebSocketPoolBuilder setFreshServerInterval(long interval, TimeUnit unit) {
+        Checks.notNull(unit, "Unit");
+        Checks.check(interval >= 0, "Interval must not be negative");
+        this.freshServerInterval = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Enables/Disables reusing a single stats event per websocket instead of creating one for every stats frame.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enable
+     *         True - reuse stats events, listeners must not keep them
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     *
+     * @see    WebSocketBuilder#reuseStatsEvents(boolean)
+     */
+    public WebSocketPoolBuilder reuseStatsEvents(boolean enable) {
+        this.reuseStatsEvents = enable;
+        return this;
+    }
+
+    /**
+     * Enables/Disables routing the power and command actions of the pooled servers through their websockets.
+     *
+     * <p>Default: <b>true (enabled)</b>
+     *
+     * @param  enable
+     *         True - send power and command actions through the websocket when possible
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     *
+     * @see    WebSocketBuilder#routeActions(boolean)
+     */
+    public WebSocketPoolBuilder routeActions(boolean enable) {
+        this.routeActions = enable;
+        return this;
+    }
+
+    /**
+     * Sets when the websockets of the pool reconnect after being closed by the remote end or failing.
+     * <br>Reconnects wait for a connection slot like any other connection of the pool.
+     *
+     * <p>Default: {@link ReconnectPolicy#DEFAULT}
+     *
+     * @param  policy
+     *         The reconnect policy, {@link ReconnectPolicy#DISABLED} to never reconnect
+     *
+     * @throws IllegalArgumentException
+     *         If the policy is null
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder setReconnectPolicy(ReconnectPolicy policy) {
+        Checks.notNull(policy, "Reconnect Policy");
+        this.reconnectPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Sets how fast commands and power signals are sent through the websockets.
+     * <br>Commands beyond the rate wait in a queue per websocket, which is kept while the websocket reconnects.
+     *
+     * <p>Default: {@link SendRate#DEFAULT}
+     *
+     * @param  rate
+     *         The send rate, {@link SendRate#UNLIMITED} to send commands as soon as possible
+     *
+     * @throws IllegalArgumentException
+     *         If the rate is null
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder setSendRate(SendRate rate) {
+        Checks.notNull(rate, "Send Rate");
+        this.sendRate = rate;
+        return this;
+    }
+
+    /**
+     * Sets the metrics the websockets report frames, latencies and reconnects to.
+     *
+     * <p>Default: {@link WebSocketMetrics#NOOP}
+     *
+     * @param  metrics
+     *         The metrics, for example a {@link com.sparkedhost.pterodactyl4j.client.ws.metrics.WebSocketMetricsCollector WebSocketMetricsCollector}
+     *
+     * @throws IllegalArgumentException
+     *         If the metrics are null
+     *
+     * @return The {@link WebSocketPoolBuilder WebSocketPoolBuilder} instance. Useful for chaining.
+     */
+    public WebSocketPoolBuilder setMetrics(WebSocketMetrics metrics) {
+        Checks.notNull(metrics, "Metrics");
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Builds a new, empty {@link WebSocketPool WebSocketPool}
+     *
+     * @return The pool, use {@link WebSocketPool#open(com.sparkedhost.pterodactyl4j.client.entities.ClientServer)} to add servers
+     */
+    public WebSocketPool build() {
+        boolean ownScheduler = scheduler == null;
+        ScheduledExecutorService pool = ownScheduler
+                ? Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("WebSocketPool"))
+                : scheduler;
+        OkHttpClient base = webSocketClient == null ? api.getP4J().getWebSocketClient() : webSocketClient;
+        OkHttpClient client = base.newBuilder().dispatcher(WebSocketPool.createWebSocketDispatcher()).build();
+        return new WebSocketPool(api, pool, ownScheduler, client, eventManager, freshServer, freshServerInterval,
+                reuseStatsEvents, routeActions, reconnectPolicy, sendRate, metrics,
+                maxConcurrentConnects, connectInterval);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.utilization;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size ring buffers holding the samples of one server at the three resolutions of a {@link UtilizationStore UtilizationStore}.
+ * <br>Every sample is added to the current bucket of each resolution, so the coarser resolutions are downsampled as the
+ * samples arrive and keep their history after the finer buckets were overwritten.
+ */
+class ServerSeries {
+
+    static final int METRICS = UtilizationStore.Metric.values().length;
+
+    private final String node;
+    private final Tier[] tiers;
+
+    private long lastTimestamp = -1;
+    private long lastIngress;
+    private long lastEgress;
+
+    ServerSeries(String node, long[] resolutions, int[] capacities) {
+        this.node = node;
+        this.tiers = new Tier[resolutions.length];
+        for (int i = 0; i < tiers.length; i++)
+            tiers[i] = new Tier(resolutions[i], capacities[i]);
+    }
+
+    String getNode() {
+        return node;
+    }
+
+    synchronized void record(long timestamp, double cpu, long memory, long disk, long ingress, long egress) {
+        double ingressRate = Double.NaN;
+        double egressRate = Double.NaN;
+        // network usage is reported as a running total, it is stored as bytes per second
+        if (lastTimestamp >= 0 && timestamp > lastTimestamp && ingress >= lastIngress && egress >= lastEgress) {
+            double seconds = (timestamp - lastTimestamp) / 1000D;
+            ingressRate = (ingress - lastIngress) / seconds;
+            egressRate = (egress - lastEgress) / seconds;
+        }
+        if (timestamp >= lastTimestamp) {
+            lastTimestamp = timestamp;
+            lastIngress = ingress;
+            lastEgress = egress;
+        }
+        for (Tier tier : tiers) {
+            int slot = tier.slot(timestamp);
+            if (slot < 0)
+                continue;
+            tier.add(slot, UtilizationStore.Metric.CPU, cpu);
+            tier.add(slot, UtilizationStore.Metric.MEMORY, memory);
+            tier.add(slot, UtilizationStore.Metric.DISK, disk);
+            tier.add(slot, UtilizationStore.Metric.NETWORK_INGRESS, ingressRate);
+            tier.add(slot, UtilizationStore.Metric.NETWORK_EGRESS, egressRate);
+        }
+    }
+
+    /**
+     * Reads the buckets of a resolution within the provided bucket numbers, in ascending order
+     */
+    synchronized UtilizationSeries read(int resolution, UtilizationStore.Metric metric, long fromBucket, long toBucket) {
+        Tier tier = tiers[resolution];
+        fromBucket = Math.max(fromBucket, toBucket - tier.capacity + 1);
+        int max = (int) Math.max(0, toBucket - fromBucket + 1);
+        long[] timestamps = new long[max];
+        double[] averages = new double[max];
+        double[] maxima = new double[max];
+        int[] counts = new int[max];
+        int size = 0;
+        for (long bucket = fromBucket; bucket <= toBucket; bucket++) {
+            int slot = (int) Math.floorMod(bucket, (long) tier.capacity);
+            int index = slot * METRICS + metric.ordinal();
+            if (tier.buckets[slot] != bucket || tier.counts[index] == 0)
+                continue;
+            timestamps[size] = bucket * tier.resolution;
+            averages[size] = tier.sums[index] / tier.counts[index];
+            maxima[size] = tier.maxima[index];
+            counts[size] = tier.counts[index];
+            size++;
+        }
+        return new UtilizationSeries(metric, tier.resolution, Arrays.copyOf(timestamps, size), Arrays.copyOf(averages, size),
+                Arrays.copyOf(maxima, size), Arrays.copyOf(counts, size), false);
+    }
+
+    private static final class Tier {
+
+        private final long resolution;
+        private final int capacity;
+        // the bucket number held by each slot, the values of all metrics of a slot follow each other
+        private final long[] buckets;
+        private final double[] sums;
+        private final float[] maxima;
+        private final char[] counts;
+
+        private Tier(long resolution, int capacity) {
+            this.resolution = resolution;
+            this.capacity = capacity;
+            this.buckets = new long[capacity];
+            this.sums = new double[capacity * METRICS];
+            this.maxima = new float[capacity * METRICS];
+            this.counts = new char[capacity * METRICS];
+            Arrays.fill(buckets, Long.MIN_VALUE);
+        }
+
+        /**
+         * The slot of the bucket the timestamp falls into, cleared if it held an older bucket
+         *
+         * @return The slot, or -1 if the slot already holds a newer bucket
+         */
+        private int slot(long timestamp) {
+            long bucket = Math.floorDiv(timestamp, resolution);
+            int slot = (int) Math.floorMod(bucket, (long) capacity);
+            if (buckets[slot] == bucket)
+                return slot;
+            if (buckets[slot] > bucket)
+                return -1;
+            buckets[slot] = bucket;
+            int from = slot * METRICS;
+            Arrays.fill(sums, from, from + METRICS, 0);
+            Arrays.fill(maxima, from, from + METRICS, 0);
+            Arrays.fill(counts, from, from + METRICS, (char) 0);
+            return slot;
+        }
+
+        private void add(int slot, UtilizationStore.Metric metric, double value) {
+            int index = slot * METRICS + metric.ordinal();
+            if (Double.isNaN(value) || counts[index] == Character.MAX_VALUE)
+                return;
+            float v = (float) value;
+            sums[index] += value;
+            maxima[index] = counts[index] == 0 ? v : Math.max(maxima[index], v);
+            counts[index]++;
+        }
+    }
+}
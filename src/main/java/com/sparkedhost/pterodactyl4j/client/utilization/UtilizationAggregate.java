@@ -0,0 +1,92 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.utilization;
+
+import java.util.Arrays;
+
+/**
+ * The average, maximum and 95th percentile of a {@link UtilizationSeries UtilizationSeries}.
+ * <br>The percentile is taken over the bucket averages, so at coarser resolutions it describes the averages of the
+ * minutes or hours rather than single samples. All values are {@link Double#NaN NaN} for an empty series.
+ */
+public class UtilizationAggregate {
+
+    private final double average;
+    private final double max;
+    private final double p95;
+    private final long samples;
+
+    private UtilizationAggregate(double average, double max, double p95, long samples) {
+        this.average = average;
+        this.max = max;
+        this.p95 = p95;
+        this.samples = samples;
+    }
+
+    static UtilizationAggregate of(UtilizationSeries series) {
+        int size = series.size();
+        if (size == 0)
+            return new UtilizationAggregate(Double.NaN, Double.NaN, Double.NaN, 0);
+        double[] averages = series.averages();
+        double[] maxima = series.maxima();
+        int[] counts = series.counts();
+        double sum = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        long samples = 0;
+        long weights = 0;
+        for (int i = 0; i < size; i++) {
+            // buckets of a server weigh by their samples, the buckets of a rollup are totals and weigh the same
+            int weight = series.isRollup() ? 1 : counts[i];
+            sum += averages[i] * weight;
+            weights += weight;
+            samples += counts[i];
+            max = Math.max(max, maxima[i]);
+        }
+        double[] sorted = Arrays.copyOf(averages, size);
+        Arrays.sort(sorted);
+        // nearest rank
+        double p95 = sorted[(int) Math.ceil(0.95 * size) - 1];
+        return new UtilizationAggregate(sum / weights, max, p95, samples);
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getP95() {
+        return p95;
+    }
+
+    /**
+     * The amount of samples the aggregate was computed from
+     *
+     * @return The amount of samples
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return "UtilizationAggregate{average=" + average + ", max=" + max + ", p95=" + p95 + ", samples=" + samples + '}';
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.utilization;
+
+import com.sparkedhost.pterodactyl4j.UtilizationState;
+import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
+import com.sparkedhost.pterodactyl4j.client.entities.Utilization;
+import com.sparkedhost.pterodactyl4j.client.managers.WebSocketManager;
+import com.sparkedhost.pterodactyl4j.client.ws.events.AuthSuccessEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.hooks.ClientSocketListenerAdapter;
+import com.sparkedhost.pterodactyl4j.exceptions.RateLimitedException;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Publishes one stream of {@link UtilizationSnapshot UtilizationSnapshots} for a set of servers, no matter where
+ * the values come from.
+ *
+ * <p>Registered on websockets, for example with
+ * {@link com.sparkedhost.pterodactyl4j.client.managers.WebSocketPoolBuilder#addEventListeners(Object...) WebSocketPoolBuilder.addEventListeners(monitor)},
+ * the monitor publishes every stats frame. {@link #watch(ClientServer) Watched} servers without recent websocket
+ * stats are polled from the panel instead. How often depends on the last known usage: busy and starting or stopping
+ * servers are polled every {@link UtilizationMonitorBuilder#setBusyInterval(long, TimeUnit) busy interval}, idle ones
+ * every {@link UtilizationMonitorBuilder#setIdleInterval(long, TimeUnit) idle interval} and offline ones every
+ * {@link UtilizationMonitorBuilder#setOfflineInterval(long, TimeUnit) offline interval}. Every interval is jittered,
+ * so polls of servers watched at the same time drift apart instead of hitting the panel together.
+ *
+ * <p>Polls share the rate limit of the panel with every other request of the client, the monitor therefore never
+ * sends more than {@link UtilizationMonitorBuilder#setMaxRequestsPerMinute(int)} polls per minute and pauses polling
+ * for a minute after being rate limited.
+ *
+ * <p>Listeners are called on the websocket and request threads, they should return quickly.
+ */
+public class UtilizationMonitor extends ClientSocketListenerAdapter implements Closeable {
+
+    public static final Logger MONITOR_LOG = LoggerFactory.getLogger(UtilizationMonitor.class);
+
+    private static final long TICK_INTERVAL = 250;
+    private static final long RATE_LIMIT_PAUSE = TimeUnit.MINUTES.toMillis(1);
+
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private final long busyInterval;
+    private final long normalInterval;
+    private final long idleInterval;
+    private final long offlineInterval;
+    private final double busyCPU;
+    private final double idleCPU;
+    private final double jitter;
+    private final int maxRequestsPerMinute;
+    private final int maxConcurrentPolls;
+
+    private final Map<String, Watched> watched = new ConcurrentHashMap<>();
+    private final Map<String, UtilizationSnapshot> latest = new ConcurrentHashMap<>();
+    private final List<Consumer<? super UtilizationSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final PriorityQueue<Watched> queue = new PriorityQueue<>(Comparator.comparingLong(w -> w.dueAt));
+    private final AtomicInteger polling = new AtomicInteger();
+    private final ScheduledFuture<?> tick;
+
+    // guarded by this
+    private double budget;
+    private long budgetUpdatedAt;
+    private long pausedUntil;
+
+    UtilizationMonitor(ScheduledExecutorService scheduler, boolean ownScheduler, long busyInterval, long normalInterval,
+                       long idleInterval, long offlineInterval, double busyCPU, double idleCPU, double jitter,
+                       int maxRequestsPerMinute, int maxConcurrentPolls) {
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+        this.busyInterval = busyInterval;
+        this.normalInterval = normalInterval;
+        this.idleInterval = idleInterval;
+        this.offlineInterval = offlineInterval;
+        this.busyCPU = busyCPU;
+        this.idleCPU = idleCPU;
+        this.jitter = jitter;
+        this.maxRequestsPerMinute = maxRequestsPerMinute;
+        this.maxConcurrentPolls = maxConcurrentPolls;
+        this.budget = maxConcurrentPolls;
+        this.budgetUpdatedAt = System.currentTimeMillis();
+        this.tick = scheduler.scheduleWithFixedDelay(this::tick, TICK_INTERVAL, TICK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onAuthSuccess(AuthSuccessEvent event) {
+        event.getWebSocketManager().request(WebSocketManager.RequestAction.STATS);
+    }
+
+    @Override
+    public void onStatsUpdate(StatsUpdateEvent event) {
+        publish(UtilizationSnapshot.of(event.getServer(), event.getSnapshot()));
+    }
+
+    /**
+     * Starts polling the utilization of a server while it has no websocket delivering stats to this monitor.
+     * <br>The first poll happens within the {@link UtilizationMonitorBuilder#setNormalInterval(long, TimeUnit) normal interval},
+     * spread randomly so watching many servers at once doesn't send all polls together.
+     *
+     * @param  server
+     *         The server to watch
+     */
+    public void watch(ClientServer server) {
+        Checks.notNull(server, "Server");
+        Watched entry = new Watched(server);
+        if (watched.putIfAbsent(server.getIdentifier(), entry) != null)
+            return;
+        UtilizationSnapshot snapshot = latest.get(server.getIdentifier());
+        if (snapshot != null)
+            entry.update(snapshot);
+        synchronized (this) {
+            entry.dueAt = System.currentTimeMillis() + (long) (ThreadLocalRandom.current().nextDouble() * normalInterval);
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Watches all provided servers
+     *
+     * @param  servers
+     *         The servers to watch
+     *
+     * @see    #watch(ClientServer)
+     */
+    public void watchAll(Collection<? extends ClientServer> servers) {
+        Checks.notNull(servers, "Servers");
+        for (ClientServer server : servers)
+            watch(server);
+    }
+
+    /**
+     * Stops polling the utilization of a server.
+     * <br>Stats of its websocket are still published as long as the monitor is registered on it.
+     *
+     * @param  identifier
+     *         The identifier of the server
+     */
+    public void unwatch(String identifier) {
+        Watched entry = watched.remove(identifier);
+        if (entry == null)
+            return;
+        synchronized (this) {
+            queue.remove(entry);
+        }
+    }
+
+    /**
+     * The identifiers of the watched servers
+     *
+     * @return Immutable view of the identifiers
+     */
+    public Set<String> getWatched() {
+        return Collections.unmodifiableSet(watched.keySet());
+    }
+
+    /**
+     * Registers a listener receiving every published snapshot
+     *
+     * @param  listener
+     *         The listener
+     */
+    public void addListener(Consumer<? super UtilizationSnapshot> listener) {
+        Checks.notNull(listener, "Listener");
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<? super UtilizationSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the latest snapshot of a server
+     *
+     * @param  identifier
+     *         The identifier of the server
+     *
+     * @return The latest {@link UtilizationSnapshot UtilizationSnapshot}, or null if none was published yet
+     */
+    public UtilizationSnapshot getLatest(String identifier) {
+        return latest.get(identifier);
+    }
+
+    /**
+     * The latest snapshot of every server the monitor published one for
+     *
+     * @return Immutable view of the identifiers mapped to their latest snapshot
+     */
+    public Map<String, UtilizationSnapshot> getLatest() {
+        return Collections.unmodifiableMap(latest);
+    }
+
+    /**
+     * The amount of polls currently waiting for the panel
+     *
+     * @return The amount of running polls
+     */
+    public int getRunningPolls() {
+        return polling.get();
+    }
+
+    /**
+     * Stops polling and the scheduler if it was created by the monitor.
+     * <br>Websocket stats are still published while the monitor is registered on websockets.
+     */
+    @Override
+    public void close() {
+        tick.cancel(false);
+        if (ownScheduler)
+            scheduler.shutdown();
+        synchronized (this) {
+            queue.clear();
+        }
+        watched.clear();
+    }
+
+    private void publish(UtilizationSnapshot snapshot) {
+        String identifier = snapshot.getServer().getIdentifier();
+        latest.put(identifier, snapshot);
+        Watched entry = watched.get(identifier);
+        if (entry != null)
+            entry.update(snapshot);
+        for (Consumer<? super UtilizationSnapshot> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (Throwable t) {
+                MONITOR_LOG.error("A utilization listener threw an exception", t);
+            }
+        }
+    }
+
+    private void tick() {
+        List<Watched> due = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now < pausedUntil)
+                return;
+            budget = Math.min(maxConcurrentPolls, budget + (now - budgetUpdatedAt) * maxRequestsPerMinute / 60_000D);
+            budgetUpdatedAt = now;
+
+            while (!queue.isEmpty() && queue.peek().dueAt <= now
+                    && polling.get() + due.size() < maxConcurrentPolls && budget >= 1) {
+                Watched entry = queue.poll();
+                long sampledAt = entry.sampledAt;
+                if (sampledAt > 0 && sampledAt + interval(entry) > now) {
+                    // the websocket delivered stats in the meantime
+                    entry.dueAt = sampledAt + jittered(interval(entry));
+                    queue.add(entry);
+                    continue;
+                }
+                budget--;
+                due.add(entry);
+            }
+        }
+
+        for (Watched entry : due) {
+            polling.incrementAndGet();
+            try {
+                entry.server.retrieveUtilization().executeAsync(
+                        utilization -> onPolled(entry, utilization),
+                        error -> onPollFailed(entry, error));
+            } catch (Exception e) {
+                onPollFailed(entry, e);
+            }
+        }
+    }
+
+    private void onPolled(Watched entry, Utilization utilization) {
+        polling.decrementAndGet();
+        long now = System.currentTimeMillis();
+        if (watched.get(entry.server.getIdentifier()) == entry)
+            publish(UtilizationSnapshot.of(entry.server, utilization, now));
+        reschedule(entry, now + jittered(interval(entry)));
+    }
+
+    private void onPollFailed(Watched entry, Throwable error) {
+        polling.decrementAndGet();
+        long now = System.currentTimeMillis();
+        if (error instanceof RateLimitedException) {
+            MONITOR_LOG.warn("Polling the utilization was rate limited, pausing for a minute");
+            synchronized (this) {
+                pausedUntil = now + RATE_LIMIT_PAUSE;
+            }
+            reschedule(entry, now + RATE_LIMIT_PAUSE);
+        } else {
+            MONITOR_LOG.debug("Could not poll the utilization of server {}", entry.server.getIdentifier(), error);
+            reschedule(entry, now + jittered(offlineInterval));
+        }
+    }
+
+    private synchronized void reschedule(Watched entry, long dueAt) {
+        if (watched.get(entry.server.getIdentifier()) != entry)
+            return; // unwatched while it was polled
+        entry.dueAt = dueAt;
+        queue.add(entry);
+    }
+
+    private long interval(Watched entry) {
+        UtilizationState state = entry.state;
+        if (state == null)
+            return normalInterval;
+        if (entry.suspended)
+            return offlineInterval;
+        switch (state) {
+            case OFFLINE:
+                return offlineInterval;
+            case STARTING:
+            case STOPPING:
+                return busyInterval;
+            default:
+                if (entry.cpu >= busyCPU)
+                    return busyInterval;
+                return entry.cpu < idleCPU ? idleInterval : normalInterval;
+        }
+    }
+
+    private long jittered(long interval) {
+        return interval + (long) (interval * jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+    }
+
+    private static final class Watched {
+
+        private final ClientServer server;
+        private volatile UtilizationState state;
+        private volatile double cpu;
+        private volatile boolean suspended;
+        private volatile long sampledAt;
+        private long dueAt; // guarded by the monitor
+
+        private Watched(ClientServer server) {
+            this.server = server;
+        }
+
+        private void update(UtilizationSnapshot snapshot) {
+            state = snapshot.getState();
+            cpu = snapshot.getCPU();
+            suspended = snapshot.isSuspended();
+            sampledAt = snapshot.getTimestamp();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.utilization;
+
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import com.sparkedhost.pterodactyl4j.utils.NamedThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class UtilizationMonitorBuilder {
+
+    private ScheduledExecutorService scheduler = null;
+    private long busyInterval = TimeUnit.SECONDS.toMillis(5);
+    private long normalInterval = TimeUnit.SECONDS.toMillis(15);
+    private long idleInterval = TimeUnit.MINUTES.toMillis(1);
+    private long offlineInterval = TimeUnit.MINUTES.toMillis(5);
+    private double busyCPU = 50;
+    private double idleCPU = 2;
+    private double jitter = 0.2;
+    private int maxRequestsPerMinute = 120;
+    private int maxConcurrentPolls = 4;
+
+    /**
+     * Sets how often servers that are starting, stopping or using at least the {@link #setCPUThresholds(double, double) busy CPU}
+     * are polled.
+     *
+     * <p>Default: <b>5 seconds</b>
+     *
+     * @param  interval
+     *         The interval
+     * @param  unit
+     *         The time unit of the interval
+     *
+     * @throws IllegalArgumentException
+     *         If the interval is not positive or the unit is null
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setBusyInterval(long interval, TimeUnit unit) {
+        this.busyInterval = toMillis(interval, unit);
+        return this;
+    }
+
+    /**
+     * Sets how often running servers that are neither busy nor idle are polled.
+     * <br>Newly watched servers are polled within this interval too.
+     *
+     * <p>Default: <b>15 seconds</b>
+     *
+     * @param  interval
+     *         The interval
+     * @param  unit
+     *         The time unit of the interval
+     *
+     * @throws IllegalArgumentException
+     *         If the interval is not positive or the unit is null
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setNormalInterval(long interval, TimeUnit unit) {
+        this.normalInterval = toMillis(interval, unit);
+        return this;
+    }
+
+    /**
+     * Sets how often running servers using less than the {@link #setCPUThresholds(double, double) idle CPU} are polled.
+     *
+     * <p>Default: <b>1 minute</b>
+     *
+     * @param  interval
+     *         The interval
+     * @param  unit
+     *         The time unit of the interval
+     *
+     * @throws IllegalArgumentException
+     *         If the interval is not positive or the unit is null
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setIdleInterval(long interval, TimeUnit unit) {
+        this.idleInterval = toMillis(interval, unit);
+        return this;
+    }
+
+    /**
+     * Sets how often offline and suspended servers are polled, as well as servers whose last poll failed.
+     *
+     * <p>Default: <b>5 minutes</b>
+     *
+     * @param  interval
+     *         The interval
+     * @param  unit
+     *         The time unit of the interval
+     *
+     * @throws IllegalArgumentException
+     *         If the interval is not positive or the unit is null
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setOfflineInterval(long interval, TimeUnit unit) {
+        this.offlineInterval = toMillis(interval, unit);
+        return this;
+    }
+
+    /**
+     * Sets the CPU usage, in percent of one core, from which on a server counts as busy and below which it counts as idle
+     *
+     * <p>Default: <b>50 busy, 2 idle</b>
+     *
+     * @param  busy
+     *         The CPU usage from which on a server is busy
+     * @param  idle
+     *         The CPU usage below which a server is idle
+     *
+     * @throws IllegalArgumentException
+     *         If idle is negative or greater than busy
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setCPUThresholds(double busy, double idle) {
+        Checks.check(idle >= 0, "Idle CPU must not be negative");
+        Checks.check(idle <= busy, "Idle CPU must not be greater than busy CPU");
+        this.busyCPU = busy;
+        this.idleCPU = idle;
+        return this;
+    }
+
+    /**
+     * Sets how much every interval is randomly shortened or lengthened, as a fraction of the interval
+     *
+     * <p>Default: <b>0.2</b>
+     *
+     * @param  jitter
+     *         The jitter between 0 (none) and 1
+     *
+     * @throws IllegalArgumentException
+     *         If the jitter is not between 0 and 1
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setJitter(double jitter) {
+        Checks.check(jitter >= 0 && jitter < 1, "Jitter must be at least 0 and less than 1");
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Sets how many polls the monitor may send per minute.
+     * <br>The panel limits the requests of every API key per minute, keep this low enough to leave room for the
+     * other requests of the client. Servers that can't be polled in time are polled late.
+     *
+     * <p>Default: <b>120</b>
+     *
+     * @param  maxRequestsPerMinute
+     *         The maximum amount of polls per minute
+     *
+     * @throws IllegalArgumentException
+     *         If the amount is not positive
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setMaxRequestsPerMinute(int maxRequestsPerMinute) {
+        Checks.check(maxRequestsPerMinute > 0, "Max requests per minute must be positive");
+        this.maxRequestsPerMinute = maxRequestsPerMinute;
+        return this;
+    }
+
+    /**
+     * Sets how many polls may wait for the panel at the same time.
+     *
+     * <p>Default: <b>4</b>
+     *
+     * @param  maxConcurrentPolls
+     *         The maximum amount of running polls
+     *
+     * @throws IllegalArgumentException
+     *         If the amount is not positive
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setMaxConcurrentPolls(int maxConcurrentPolls) {
+        Checks.check(maxConcurrentPolls > 0, "Max concurrent polls must be positive");
+        this.maxConcurrentPolls = maxConcurrentPolls;
+        return this;
+    }
+
+    /**
+     * Sets the {@link ScheduledExecutorService ScheduledExecutorService} that schedules the polls.
+     * <br>A scheduler provided here is not shut down together with the monitor.
+     *
+     * <p>Default: a dedicated single threaded scheduler
+     *
+     * @param  scheduler
+     *         The scheduler to use
+     *
+     * @return The {@link UtilizationMonitorBuilder UtilizationMonitorBuilder} instance. Useful for chaining.
+     */
+    public UtilizationMonitorBuilder setScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Builds a new {@link UtilizationMonitor UtilizationMonitor} without any watched servers
+     *
+     * @return The monitor, use {@link UtilizationMonitor#watch(com.sparkedhost.pterodactyl4j.client.entities.ClientServer)}
+     *         to poll servers and register it on websockets to publish their stats
+     */
+    public UtilizationMonitor build() {
+        boolean ownScheduler = scheduler == null;
+        ScheduledExecutorService pool = ownScheduler
+                ? Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("UtilizationMonitor"))
+                : scheduler;
+        return new UtilizationMonitor(pool, ownScheduler, busyInterval, normalInterval, idleInterval, offlineInterval,
+                busyCPU, idleCPU, jitter, maxRequestsPerMinute, maxConcurrentPolls);
+    }
+
+    private static long toMillis(long interval, TimeUnit unit) {
+        Checks.notNull(unit, "Unit");
+        Checks.check(interval > 0, "Interval must be positive");
+        return unit.toMillis(interval);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.utilization;
+
+/**
+ * The buckets of one metric within a time range, in ascending order.
+ * <br>Each bucket holds the average and the maximum of the samples that fell into it. Buckets without samples are left out.
+ */
+public class UtilizationSeries {
+
+    private final UtilizationStore.Metric metric;
+    private final long resolution;
+    private final long[] timestamps;
+    private final double[] averages;
+    private final double[] maxima;
+    private final int[] counts;
+    private final boolean rollup;
+
+    UtilizationSeries(UtilizationStore.Metric metric, long resolution, long[] timestamps, double[] averages, double[] maxima,
+                      int[] counts, boolean rollup) {
+        this.metric = metric;
+        this.resolution = resolution;
+        this.timestamps = timestamps;
+        this.averages = averages;
+        this.maxima = maxima;
+        this.counts = counts;
+        this.rollup = rollup;
+    }
+
+    public UtilizationStore.Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * The length of a bucket
+     *
+     * @return The resolution in milliseconds
+     */
+    public long getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Whether this series sums the series of the servers of a node.
+     * <br>The averages and maxima of a rollup are the sums of the averages and maxima of the servers.
+     *
+     * @return True, if this is a node rollup
+     */
+    public boolean isRollup() {
+        return rollup;
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public boolean isEmpty() {
+        return timestamps.length == 0;
+    }
+
+    /**
+     * The start of a bucket
+     *
+     * @param  index
+     *         The index of the bucket
+     *
+     * @return The time in epoch milliseconds
+     */
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double getAverage(int index) {
+        return averages[index];
+    }
+
+    public double getMax(int index) {
+        return maxima[index];
+    }
+
+    /**
+     * The amount of samples in a bucket, for node rollups the amount of servers that reported samples
+     *
+     * @param  index
+     *         The index of the bucket
+     *
+     * @return The amount of samples
+     */
+    public int getCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Computes the average, maximum and 95th percentile of this series
+     *
+     * @return The {@link UtilizationAggregate UtilizationAggregate}
+     */
+    public UtilizationAggregate aggregate() {
+        return UtilizationAggregate.of(this);
+    }
+
+    long[] timestamps() {
+        return timestamps;
+    }
+
+    double[] averages() {
+        return averages;
+    }
+
+    double[] maxima() {
+        return maxima;
+    }
+
+    int[] counts() {
+        return counts;
+    }
+}
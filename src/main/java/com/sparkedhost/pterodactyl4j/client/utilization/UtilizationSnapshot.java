@@ -0,0 +1,151 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.utilization;
+
+import com.sparkedhost.pterodactyl4j.UtilizationState;
+import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
+import com.sparkedhost.pterodactyl4j.client.entities.Utilization;
+import com.sparkedhost.pterodactyl4j.client.ws.StatsSnapshot;
+
+import java.time.Duration;
+
+/**
+ * The resource usage of a server at one point in time, published by a {@link UtilizationMonitor UtilizationMonitor}.
+ * <br>Snapshots are immutable, regardless of whether they came from the websocket or from polling the panel.
+ */
+public class UtilizationSnapshot implements Utilization {
+
+    private final ClientServer server;
+    private final Source source;
+    private final long timestamp;
+    private final UtilizationState state;
+    private final long memory;
+    private final long disk;
+    private final double cpu;
+    private final long networkIngress;
+    private final long networkEgress;
+    private final long uptime;
+    private final boolean suspended;
+
+    private UtilizationSnapshot(ClientServer server, Source source, long timestamp, UtilizationState state, long memory,
+                                long disk, double cpu, long networkIngress, long networkEgress, long uptime,
+                                boolean suspended) {
+        this.server = server;
+        this.source = source;
+        this.timestamp = timestamp;
+        this.state = state;
+        this.memory = memory;
+        this.disk = disk;
+        this.cpu = cpu;
+        this.networkIngress = networkIngress;
+        this.networkEgress = networkEgress;
+        this.uptime = uptime;
+        this.suspended = suspended;
+    }
+
+    static UtilizationSnapshot of(ClientServer server, StatsSnapshot stats) {
+        return new UtilizationSnapshot(server, Source.WEBSOCKET, stats.getTimestamp(), stats.getState(),
+                stats.getMemory(), stats.getDisk(), stats.getCPU(), stats.getNetworkIngress(),
+                stats.getNetworkEgress(), stats.getUptime(), server.isSuspended());
+    }
+
+    static UtilizationSnapshot of(ClientServer server, Utilization utilization, long timestamp) {
+        return new UtilizationSnapshot(server, Source.POLLING, timestamp, utilization.getState(),
+                utilization.getMemory(), utilization.getDisk(), utilization.getCPU(), utilization.getNetworkIngress(),
+                utilization.getNetworkEgress(), utilization.getUptime().toMillis(), utilization.isSuspended());
+    }
+
+    public ClientServer getServer() {
+        return server;
+    }
+
+    /**
+     * Where the values of this snapshot came from
+     *
+     * @return The {@link Source Source}
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * The time the values were received at
+     *
+     * @return The time in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public UtilizationState getState() {
+        return state;
+    }
+
+    @Override
+    public Duration getUptime() {
+        return Duration.ofMillis(uptime);
+    }
+
+    @Override
+    public long getMemory() {
+        return memory;
+    }
+
+    @Override
+    public long getDisk() {
+        return disk;
+    }
+
+    @Override
+    public double getCPU() {
+        return cpu;
+    }
+
+    @Override
+    public long getNetworkIngress() {
+        return networkIngress;
+    }
+
+    @Override
+    public long getNetworkEgress() {
+        return networkEgress;
+    }
+
+    @Override
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    @Override
+    public String toString() {
+        return "UtilizationSnapshot{server=" + server.getIdentifier() + ", source=" + source + ", state=" + state
+                + ", cpu=" + cpu + ", memory=" + memory + ", disk=" + disk + ", rx=" + networkIngress
+                + ", tx=" + networkEgress + ", uptime=" + uptime + '}';
+    }
+
+    public enum Source {
+        /**
+         * The stats frames of the websocket of the server
+         */
+        WEBSOCKET,
+        /**
+         * The utilization endpoint of the panel
+         */
+        POLLING
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.utilization;
+
+import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
+import com.sparkedhost.pterodactyl4j.client.entities.Utilization;
+import com.sparkedhost.pterodactyl4j.client.ws.StatsSnapshot;
+import com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.hooks.ClientSocketListenerAdapter;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the recent resource usage of servers in memory, at a resolution of one second, one minute and one hour.
+ * <br>Every server holds a fixed amount of buckets per resolution, so the memory used doesn't grow over time.
+ * With the default retention a server takes about 50 KB.
+ *
+ * <p>Samples are added from websocket stats by registering the store as a listener, for example with
+ * {@link com.sparkedhost.pterodactyl4j.client.managers.WebSocketPoolBuilder#addEventListeners(Object...) WebSocketPoolBuilder.addEventListeners(store)},
+ * or from polled {@link Utilization Utilization} with {@link #record(ClientServer, Utilization)}.
+ *
+ * <p>Queries pick the finest resolution that still holds the start of the requested range.
+ * Network usage is stored as bytes per second, derived from the running totals reported by Wings.
+ */
+public class UtilizationStore extends ClientSocketListenerAdapter {
+
+    public static final int DEFAULT_SECONDS = 300;
+    public static final int DEFAULT_MINUTES = 180;
+    public static final int DEFAULT_HOURS = 168;
+
+    private static final long[] RESOLUTIONS = {
+            TimeUnit.SECONDS.toMillis(1), TimeUnit.MINUTES.toMillis(1), TimeUnit.HOURS.toMillis(1)
+    };
+
+    private final int[] capacities;
+    private final Map<String, ServerSeries> servers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a store keeping 5 minutes of seconds, 3 hours of minutes and 7 days of hours
+     */
+    public UtilizationStore() {
+        this(DEFAULT_SECONDS, DEFAULT_MINUTES, DEFAULT_HOURS);
+    }
+
+    /**
+     * Creates a store keeping the provided amount of buckets per server and resolution
+     *
+     * @param  seconds
+     *         The amount of one second buckets
+     * @param  minutes
+     *         The amount of one minute buckets
+     * @param  hours
+     *         The amount of one hour buckets
+     *
+     * @throws IllegalArgumentException
+     *         If any of the amounts isn't positive
+     */
+    public UtilizationStore(int seconds, int minutes, int hours) {
+        Checks.check(seconds > 0 && minutes > 0 && hours > 0, "The amount of buckets must be positive");
+        this.capacities = new int[] {seconds, minutes, hours};
+    }
+
+    @Override
+    public void onStatsUpdate(StatsUpdateEvent event) {
+        record(event.getServer(), event.getSnapshot());
+    }
+
+    /**
+     * Adds the stats of a websocket frame
+     *
+     * @param  server
+     *         The server the stats belong to
+     * @param  stats
+     *         The stats
+     */
+    public void record(ClientServer server, StatsSnapshot stats) {
+        record(server.getIdentifier(), server.getNode(), stats.getTimestamp(), stats.getCPU(), stats.getMemory(),
+                stats.getDisk(), stats.getNetworkIngress(), stats.getNetworkEgress());
+    }
+
+    /**
+     * Adds polled utilization, recorded at the current time
+     *
+     * @param  server
+     *         The server the utilization belongs to
+     * @param  utilization
+     *         The utilization
+     */
+    public void record(ClientServer server, Utilization utilization) {
+        record(server.getIdentifier(), server.getNode(), System.currentTimeMillis(), utilization.getCPU(),
+                utilization.getMemory(), utilization.getDisk(), utilization.getNetworkIngress(), utilization.getNetworkEgress());
+    }
+
+    /**
+     * Adds a sample
+     *
+     * @param  identifier
+     *         The identifier of the server
+     * @param  node
+     *         The node of the server, used for node rollups
+     * @param  timestamp
+     *         The time of the sample in epoch milliseconds
+     * @param  cpu
+     *         The absolute cpu usage
+     * @param  memory
+     *         The memory usage in bytes
+     * @param  disk
+     *         The disk usage in bytes
+     * @param  ingress
+     *         The total bytes received
+     * @param  egress
+     *         The total bytes sent
+     */
+    public void record(String identifier, String node, long timestamp, double cpu, long memory, long disk,
+                       long ingress, long egress) {
+        servers.computeIfAbsent(identifier, id -> new ServerSeries(node, RESOLUTIONS, capacities))
+                .record(timestamp, cpu, memory, disk, ingress, egress);
+    }
+
+    /**
+     * Returns the buckets of a server within a time range
+     *
+     * @param  identifier
+     *         The identifier of the server
+     * @param  metric
+     *         The metric to return
+     * @param  from
+     *         The start of the range in epoch milliseconds, inclusive
+     * @param  to
+     *         The end of the range in epoch milliseconds, inclusive
+     *
+     * @return The {@link UtilizationSeries UtilizationSeries}, empty if nothing was recorded for the server
+     */
+    public UtilizationSeries query(String identifier, Metric metric, long from, long to) {
+        Checks.notNull(metric, "Metric");
+        int resolution = resolutionFor(from);
+        ServerSeries series = servers.get(identifier);
+        if (series == null)
+            return empty(metric, resolution);
+        return series.read(resolution, metric, Math.floorDiv(from, RESOLUTIONS[resolution]),
+                Math.floorDiv(to, RESOLUTIONS[resolution]));
+    }
+
+    /**
+     * Computes the average, maximum and 95th percentile of a server within a time range
+     *
+     * @see    #query(String, Metric, long, long)
+     */
+    public UtilizationAggregate aggregate(String identifier, Metric metric, long from, long to) {
+        return query(identifier, metric, from, to).aggregate();
+    }
+
+    /**
+     * Returns the sum of the buckets of all servers on a node within a time range
+     *
+     * @param  node
+     *         The name of the node
+     * @param  metric
+     *         The metric to return
+     * @param  from
+     *         The start of the range in epoch milliseconds, inclusive
+     * @param  to
+     *         The end of the range in epoch milliseconds, inclusive
+     *
+     * @return The {@link UtilizationSeries#isRollup() rollup}, empty if nothing was recorded for the node
+     */
+    public UtilizationSeries queryNode(String node, Metric metric, long from, long to) {
+        Checks.notNull(metric, "Metric");
+        int resolution = resolutionFor(from);
+        long fromBucket = Math.floorDiv(from, RESOLUTIONS[resolution]);
+        long toBucket = Math.floorDiv(to, RESOLUTIONS[resolution]);
+        fromBucket = Math.max(fromBucket, toBucket - capacities[resolution] + 1);
+        int length = (int) Math.max(0, toBucket - fromBucket + 1);
+        double[] averages = new double[length];
+        double[] maxima = new double[length];
+        int[] counts = new int[length];
+        for (ServerSeries series : servers.values()) {
+            if (!node.equals(series.getNode()))
+                continue;
+            UtilizationSeries read = series.read(resolution, metric, fromBucket, toBucket);
+            for (int i = 0; i < read.size(); i++) {
+                int index = (int) (read.getTimestamp(i) / RESOLUTIONS[resolution] - fromBucket);
+                averages[index] += read.getAverage(i);
+                maxima[index] += read.getMax(i);
+                counts[index]++;
+            }
+        }
+        int size = 0;
+        long[] timestamps = new long[length];
+        for (int i = 0; i < length; i++) {
+            if (counts[i] == 0)
+                continue;
+            timestamps[size] = (fromBucket + i) * RESOLUTIONS[resolution];
+            averages[size] = averages[i];
+            maxima[size] = maxima[i];
+            counts[size] = counts[i];
+            size++;
+        }
+        return new UtilizationSeries(metric, RESOLUTIONS[resolution], Arrays.copyOf(timestamps, size),
+                Arrays.copyOf(averages, size), Arrays.copyOf(maxima, size),
+                Arrays.copyOf(counts, size), true);
+    }
+
+    /**
+     * Computes the average, maximum and 95th percentile of the summed usage of a node within a time range
+     *
+     * @see    #queryNode(String, Metric, long, long)
+     */
+    public UtilizationAggregate aggregateNode(String node, Metric metric, long from, long to) {
+        return queryNode(node, metric, from, to).aggregate();
+    }
+
+    /**
+     * The identifiers of the servers with recorded samples
+     *
+     * @return Immutable set of server identifiers
+     */
+    public Set<String> getServers() {
+        return Collections.unmodifiableSet(servers.keySet());
+    }
+
+    /**
+     * The nodes of the servers with recorded samples
+     *
+     * @return Immutable list of node names
+     */
+    public List<String> getNodes() {
+        List<String> nodes = new ArrayList<>();
+        for (ServerSeries series : servers.values()) {
+            if (!nodes.contains(series.getNode()))
+                nodes.add(series.getNode());
+        }
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Drops the samples of a server
+     *
+     * @param  identifier
+     *         The identifier of the server
+     */
+    public void remove(String identifier) {
+        servers.remove(identifier);
+    }
+
+    public void clear() {
+        servers.clear();
+    }
+
+    private int resolutionFor(long from) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < RESOLUTIONS.length - 1; i++) {
+            if (from >= now - capacities[i] * RESOLUTIONS[i])
+                return i;
+        }
+        return RESOLUTIONS.length - 1;
+    }
+
+    private static UtilizationSeries empty(Metric metric, int resolution) {
+        return new UtilizationSeries(metric, RESOLUTIONS[resolution], new long[0], new double[0], new double[0], new int[0], false);
+    }
+
+    public enum Metric {
+        /**
+         * The absolute cpu usage in percent
+         */
+        CPU,
+        /**
+         * The memory usage in bytes
+         */
+        MEMORY,
+        /**
+         * The disk usage in bytes
+         */
+        DISK,
+        /**
+         * The bytes received per second
+         */
+        NETWORK_INGRESS,
+        /**
+         * The bytes sent per second
+         */
+        NETWORK_EGRESS
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws;
+
+import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
+import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the latest known instance of a server for websockets that provide a fresh server in event context.
+ * <br>The instance is retrieved again in the background once it is older than the configured maximum age,
+ * or when {@link #refresh()} is called because an event changed the server. Reading it never blocks.
+ */
+public class CachedServer {
+
+    public static final long DEFAULT_MAX_AGE = TimeUnit.SECONDS.toMillis(30);
+
+    private final PteroClientImpl client;
+    private final String identifier;
+    private final long maxAge;
+    private volatile ClientServer server;
+    private volatile long retrievedAt;
+    private CompletableFuture<ClientServer> pending;
+
+    public CachedServer(PteroClientImpl client, ClientServer server, long maxAge) {
+        this.client = client;
+        this.identifier = server.getIdentifier();
+        this.maxAge = maxAge;
+        this.server = server;
+        this.retrievedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * The latest known server instance.
+     * <br>If it is older than the maximum age, a refresh is started and the current instance is returned.
+     *
+     * @return The cached {@link ClientServer ClientServer}
+     */
+    public ClientServer get() {
+        if (System.currentTimeMillis() - retrievedAt >= maxAge)
+            refresh();
+        return server;
+    }
+
+    /**
+     * Retrieves the server again, concurrent calls share a single request.
+     * <br>If the request fails, the future completes with the previous instance.
+     *
+     * @return Future completing with the latest known server instance
+     */
+    public synchronized CompletableFuture<ClientServer> refresh() {
+        if (pending != null)
+            return pending;
+        CompletableFuture<ClientServer> future = client.retrieveServerByIdentifier(identifier).submit()
+                .handle((retrieved, t) -> {
+                    synchronized (this) {
+                        pending = null;
+                        if (retrieved != null)
+                            this.server = retrieved;
+                        else
+                            WebSocketClient.WEBSOCKET_LOG.debug("Could not refresh server {}, keeping the cached instance", identifier, t);
+                        // a failed request is not retried before the maximum age passed again
+                        this.retrievedAt = System.currentTimeMillis();
+                        return server;
+                    }
+                });
+        if (!future.isDone())
+            pending = future;
+        return future;
+    }
+}
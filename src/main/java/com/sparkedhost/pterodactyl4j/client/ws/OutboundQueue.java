@@ -0,0 +1,173 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.ws;
+
+import com.sparkedhost.pterodactyl4j.client.managers.SendRate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the commands and power signals of a websocket until they can be sent, at the pace of a {@link SendRate SendRate}.
+ * <br>Frames are only sent while the websocket is authenticated, frames queued while it isn't are kept until it
+ * authenticated again, also after reconnecting.
+ */
+public class OutboundQueue {
+
+    private final WebSocketClient client;
+    private final ScheduledExecutorService scheduler;
+    private final SendRate rate;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private ScheduledFuture<?> drainTask;
+    private boolean closed = false;
+
+    public OutboundQueue(WebSocketClient client, ScheduledExecutorService scheduler, SendRate rate) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.rate = rate;
+        this.tokens = rate.getBurst();
+    }
+
+    /**
+     * Queues a frame
+     *
+     * @param  frame
+     *         The encoded frame
+     *
+     * @return Future completing once the frame was handed to the websocket, or exceptionally with an
+     *         {@link IllegalStateException IllegalStateException} if the queue is full or was closed
+     */
+    public CompletableFuture<Void> submit(String frame) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                future.completeExceptionally(new IllegalStateException("The websocket was shut down"));
+                return future;
+            }
+            if (frames.size() >= rate.getCapacity()) {
+                future.completeExceptionally(new IllegalStateException("The outbound queue of the websocket is full"));
+                return future;
+            }
+            frames.addLast(new Frame(frame, future));
+        }
+        drain();
+        return future;
+    }
+
+    /**
+     * Sends as many queued frames as the rate allows, called when the websocket authenticated
+     */
+    public void drain() {
+        // the futures are completed outside of the lock, their callbacks may queue more frames
+        for (CompletableFuture<Void> sent : sendAvailable())
+            sent.complete(null);
+    }
+
+    private synchronized List<CompletableFuture<Void>> sendAvailable() {
+        List<CompletableFuture<Void>> sent = Collections.emptyList();
+        while (!frames.isEmpty() && client.isAuthenticated()) {
+            refill();
+            if (tokens < 1) {
+                scheduleDrain((long) Math.ceil((1 - tokens) * 1_000_000 / rate.getPerSecond()));
+                break;
+            }
+            Frame frame = frames.peekFirst();
+            // a websocket that is closing refuses frames, they are sent on the next connection
+            if (!client.trySend(frame.frame))
+                break;
+            frames.pollFirst();
+            tokens--;
+            if (sent.isEmpty())
+                sent = new ArrayList<>();
+            sent.add(frame.future);
+        }
+        return sent;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (Double.isInfinite(rate.getPerSecond()))
+            tokens = rate.getBurst();
+        else
+            tokens = Math.min(rate.getBurst(), tokens + (now - refilledAt) / 1e9 * rate.getPerSecond());
+        refilledAt = now;
+    }
+
+    private void scheduleDrain(long delayMicros) {
+        if (drainTask != null && !drainTask.isDone())
+            return;
+        try {
+            drainTask = scheduler.schedule(this::scheduledDrain, delayMicros, TimeUnit.MICROSECONDS);
+        } catch (RejectedExecutionException e) {
+            WebSocketClient.WEBSOCKET_LOG.debug("Could not schedule sending the queued websocket frames");
+        }
+    }
+
+    private void scheduledDrain() {
+        // the running task has to be forgotten, otherwise it can't schedule the next one
+        synchronized (this) {
+            drainTask = null;
+        }
+        drain();
+    }
+
+    /**
+     * The amount of frames waiting to be sent
+     *
+     * @return The amount of queued frames
+     */
+    public synchronized int size() {
+        return frames.size();
+    }
+
+    /**
+     * Fails the queued frames and refuses new ones, called when the websocket is shut down
+     */
+    public void close() {
+        List<Frame> dropped;
+        synchronized (this) {
+            closed = true;
+            if (drainTask != null)
+                drainTask.cancel(false);
+            dropped = new ArrayList<>(frames);
+            frames.clear();
+        }
+        for (Frame frame : dropped)
+            frame.future.completeExceptionally(new IllegalStateException("The websocket was shut down"));
+    }
+
+    private static final class Frame {
+
+        private final String frame;
+        private final CompletableFuture<Void> future;
+
+        private Frame(String frame, CompletableFuture<Void> future) {
+            this.frame = frame;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.ws;
+
+import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
+import com.sparkedhost.pterodactyl4j.client.managers.WebSocketManager;
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.exceptions.RateLimitedException;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Sends a message through the live websocket of a server when there is one, otherwise executes the HTTP fallback.
+ * <br>The transport is picked when the action is executed, not when it is created.
+ */
+public class SocketRoutedPteroAction implements PteroAction<Void> {
+
+    private final PteroClientImpl client;
+    private final String identifier;
+    private final Predicate<WebSocketManager> socketAction;
+    private final PteroAction<Void> fallback;
+    private long deadline = 0;
+
+    public SocketRoutedPteroAction(PteroClientImpl client, String identifier, Predicate<WebSocketManager> socketAction,
+                                   PteroAction<Void> fallback) {
+        this.client = client;
+        this.identifier = identifier;
+        this.socketAction = socketAction;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public P4J getP4J() {
+        return client.getP4J();
+    }
+
+    private boolean sendThroughSocket() {
+        if (deadline > 0 && System.currentTimeMillis() > deadline)
+            return false; // the fallback fails with the timeout
+        WebSocketManager manager = client.getWebSocket(identifier).orElse(null);
+        if (manager == null || !manager.isAuthenticated())
+            return false;
+        try {
+            if (socketAction.test(manager)) {
+                WebSocketClient.WEBSOCKET_LOG.trace("Routed action for server {} through the websocket", identifier);
+                return true;
+            }
+        } catch (IllegalStateException e) {
+            // the socket closed in the meantime
+        }
+        return false;
+    }
+
+    @Override
+    public Void execute(boolean shouldQueue) throws RateLimitedException {
+        if (sendThroughSocket())
+            return null;
+        return fallback.execute(shouldQueue);
+    }
+
+    @Override
+    public void executeAsync(Consumer<? super Void> success, Consumer<? super Throwable> failure) {
+        if (!sendThroughSocket()) {
+            fallback.executeAsync(success, failure);
+            return;
+        }
+        Consumer<? super Void> finalizedSuccess = success == null ? PteroAction.getDefaultSuccess() : success;
+        getP4J().getCallbackPool().execute(() -> finalizedSuccess.accept(null));
+    }
+
+    @Override
+    public PteroAction<Void> deadline(long timestamp) {
+        this.deadline = timestamp;
+        fallback.deadline(timestamp);
+        return this;
+    }
+}
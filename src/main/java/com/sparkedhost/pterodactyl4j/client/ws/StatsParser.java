@@ -0,0 +1,238 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws;
+
+import com.sparkedhost.pterodactyl4j.UtilizationState;
+import org.json.JSONObject;
+
+/**
+ * Reads websocket stats frames straight into a {@link StatsSnapshot StatsSnapshot}, without building a JSON tree.
+ * <br>Accepts the stats payload as well as the whole frame, in which the payload is an escaped string.
+ * Content the scanner doesn't understand falls back to {@link JSONObject JSONObject}.
+ *
+ * <p>An instance keeps state between calls and must only be used by one thread at a time.
+ */
+public final class StatsParser {
+
+    // Wings writes the event before the args, other serializers might not
+    private static final String FRAME_PREFIX = "{\"event\":\"stats\"";
+    private static final String FRAME_SUFFIX = "\"event\":\"stats\"}";
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final UtilizationState[] STATES = UtilizationState.values();
+    // longs hold any 18 digit mantissa
+    private static final int MAX_DIGITS = 18;
+    // doubles up to 2^53 are exact, so a 15 digit mantissa divided by an exact power of ten is correctly rounded
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private long integer;
+    private double number;
+    private int end;
+
+    /**
+     * Whether the provided frame is a stats frame that can be handed to {@link #parse(String, StatsSnapshot)} as is
+     *
+     * @param  frame
+     *         The websocket frame
+     *
+     * @return True, if the frame carries stats
+     */
+    public static boolean isStatsFrame(String frame) {
+        return frame.startsWith(FRAME_PREFIX) || frame.endsWith(FRAME_SUFFIX);
+    }
+
+    /**
+     * Fills the snapshot with the stats in the provided content, fields missing from the content are reset
+     *
+     * @param  content
+     *         The stats payload or a whole stats frame
+     * @param  into
+     *         The snapshot to fill
+     */
+    public void parse(String content, StatsSnapshot into) {
+        into.reset();
+        try {
+            if (scan(content, into))
+                return;
+        } catch (RuntimeException e) {
+            WebSocketClient.WEBSOCKET_LOG.debug("Could not scan stats frame, parsing it as json", e);
+        }
+        JSONObject json = new JSONObject(content);
+        if (json.has("args"))
+            json = new JSONObject(json.getJSONArray("args").getString(0));
+        into.fill(json);
+    }
+
+    private boolean scan(String s, StatsSnapshot into) {
+        int found = 0;
+        int length = s.length();
+        int i = 0;
+        while (i < length) {
+            int open = s.indexOf('"', i);
+            if (open < 0)
+                break;
+            int close = s.indexOf('"', open + 1);
+            if (close < 0)
+                break;
+            int keyStart = open + 1;
+            // keys inside the escaped payload end with \"
+            int keyEnd = s.charAt(close - 1) == '\\' ? close - 1 : close;
+            int j = skipWhitespace(s, close + 1);
+            if (j >= length || s.charAt(j) != ':') {
+                // not a key, the closing quote might open the next one
+                i = close;
+                continue;
+            }
+            j = skipWhitespace(s, j + 1);
+            if (j >= length)
+                break;
+            char c = s.charAt(j);
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                readNumber(s, j);
+                i = end;
+                if (assignNumber(s, keyStart, keyEnd, into))
+                    found++;
+            } else if (c == '"' || (c == '\\' && j + 1 < length && s.charAt(j + 1) == '"')) {
+                int valueStart = c == '"' ? j + 1 : j + 2;
+                int valueClose = s.indexOf('"', valueStart);
+                if (valueClose < 0)
+                    break;
+                int valueEnd = s.charAt(valueClose - 1) == '\\' ? valueClose - 1 : valueClose;
+                if (matches(s, keyStart, keyEnd, "state")) {
+                    into.setState(readState(s, valueStart, valueEnd));
+                    found++;
+                }
+                i = valueClose + 1;
+            } else {
+                // objects, arrays and literals, their contents are scanned like the rest
+                i = j;
+            }
+        }
+        return found > 0;
+    }
+
+    private boolean assignNumber(String s, int start, int end, StatsSnapshot into) {
+        if (matches(s, start, end, "cpu_absolute"))
+            into.setCPU(number);
+        else if (matches(s, start, end, "memory_bytes"))
+            into.setMemory(integer);
+        else if (matches(s, start, end, "memory_limit_bytes"))
+            into.setMaxMemory(integer);
+        else if (matches(s, start, end, "disk_bytes"))
+            into.setDisk(integer);
+        else if (matches(s, start, end, "rx_bytes"))
+            into.setNetworkIngress(integer);
+        else if (matches(s, start, end, "tx_bytes"))
+            into.setNetworkEgress(integer);
+        else if (matches(s, start, end, "uptime"))
+            into.setUptime(integer);
+        else
+            return false;
+        return true;
+    }
+
+    private void readNumber(String s, int start) {
+        int length = s.length();
+        int i = start;
+        boolean negative = s.charAt(i) == '-';
+        if (negative)
+            i++;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+        char c;
+        while (i < length && (c = s.charAt(i)) >= '0' && c <= '9') {
+            if (digits < MAX_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0)
+                    digits++;
+            } else {
+                scale++;
+                exact = false;
+            }
+            i++;
+        }
+        boolean fraction = false;
+        if (i < length && s.charAt(i) == '.') {
+            fraction = true;
+            i++;
+            while (i < length && (c = s.charAt(i)) >= '0' && c <= '9') {
+                if (digits < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0)
+                        digits++;
+                    scale--;
+                } else {
+                    exact = false;
+                }
+                i++;
+            }
+        }
+        if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            fraction = true;
+            i++;
+            boolean negativeExponent = i < length && s.charAt(i) == '-';
+            if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+'))
+                i++;
+            int exponent = 0;
+            while (i < length && (c = s.charAt(i)) >= '0' && c <= '9') {
+                exponent = Math.min(exponent * 10 + (c - '0'), 1000);
+                i++;
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        end = i;
+
+        if (!fraction && exact) {
+            integer = negative ? -mantissa : mantissa;
+            number = integer;
+            return;
+        }
+        if (exact && digits <= MAX_EXACT_DIGITS && Math.abs(scale) < POWERS_OF_TEN.length)
+            number = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+        else
+            number = Double.parseDouble(s.substring(negative ? start + 1 : start, end));
+        if (negative)
+            number = -number;
+        integer = (long) number;
+    }
+
+    private static UtilizationState readState(String s, int start, int end) {
+        for (UtilizationState state : STATES) {
+            if (state.name().length() == end - start && s.regionMatches(true, start, state.name(), 0, end - start))
+                return state;
+        }
+        return UtilizationState.OFFLINE;
+    }
+
+    private static boolean matches(String s, int start, int end, String key) {
+        return end - start == key.length() && s.regionMatches(start, key, 0, key.length());
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i)))
+            i++;
+        return i;
+    }
+}
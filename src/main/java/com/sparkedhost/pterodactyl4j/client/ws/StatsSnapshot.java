@@ -0,0 +1,162 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws;
+
+import com.sparkedhost.pterodactyl4j.UtilizationState;
+import org.json.JSONObject;
+
+/**
+ * The resource usage of a server as sent by a single websocket stats frame, held in primitive fields.
+ * <br>If the websocket reuses its stats events, the snapshot is overwritten by the next frame, use {@link #copy()} to keep it.
+ */
+public class StatsSnapshot {
+
+    private UtilizationState state = UtilizationState.OFFLINE;
+    private long memory;
+    private long maxMemory;
+    private long disk;
+    private double cpu;
+    private long networkIngress;
+    private long networkEgress;
+    private long uptime;
+    private long timestamp;
+
+    public static StatsSnapshot fromJSON(JSONObject json) {
+        StatsSnapshot snapshot = new StatsSnapshot();
+        snapshot.fill(json);
+        return snapshot;
+    }
+
+    void fill(JSONObject json) {
+        state = UtilizationState.of(json.optString("state"));
+        memory = json.optLong("memory_bytes");
+        maxMemory = json.optLong("memory_limit_bytes");
+        disk = json.optLong("disk_bytes");
+        cpu = json.optDouble("cpu_absolute", 0);
+        JSONObject network = json.optJSONObject("network");
+        networkIngress = network == null ? 0 : network.optLong("rx_bytes");
+        networkEgress = network == null ? 0 : network.optLong("tx_bytes");
+        uptime = json.optLong("uptime");
+        timestamp = System.currentTimeMillis();
+    }
+
+    void reset() {
+        state = UtilizationState.OFFLINE;
+        memory = maxMemory = disk = networkIngress = networkEgress = uptime = 0;
+        cpu = 0;
+        timestamp = System.currentTimeMillis();
+    }
+
+    void setState(UtilizationState state) {
+        this.state = state;
+    }
+
+    void setMemory(long memory) {
+        this.memory = memory;
+    }
+
+    void setMaxMemory(long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    void setDisk(long disk) {
+        this.disk = disk;
+    }
+
+    void setCPU(double cpu) {
+        this.cpu = cpu;
+    }
+
+    void setNetworkIngress(long networkIngress) {
+        this.networkIngress = networkIngress;
+    }
+
+    void setNetworkEgress(long networkEgress) {
+        this.networkEgress = networkEgress;
+    }
+
+    void setUptime(long uptime) {
+        this.uptime = uptime;
+    }
+
+    /**
+     * Copies this snapshot, the copy isn't changed by later frames
+     *
+     * @return A new {@link StatsSnapshot StatsSnapshot} with the same values
+     */
+    public StatsSnapshot copy() {
+        StatsSnapshot copy = new StatsSnapshot();
+        copy.state = state;
+        copy.memory = memory;
+        copy.maxMemory = maxMemory;
+        copy.disk = disk;
+        copy.cpu = cpu;
+        copy.networkIngress = networkIngress;
+        copy.networkEgress = networkEgress;
+        copy.uptime = uptime;
+        copy.timestamp = timestamp;
+        return copy;
+    }
+
+    public UtilizationState getState() {
+        return state;
+    }
+
+    public long getMemory() {
+        return memory;
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public long getDisk() {
+        return disk;
+    }
+
+    public double getCPU() {
+        return cpu;
+    }
+
+    public long getNetworkIngress() {
+        return networkIngress;
+    }
+
+    public long getNetworkEgress() {
+        return networkEgress;
+    }
+
+    public long getUptime() {
+        return uptime;
+    }
+
+    /**
+     * The time the frame was received at
+     *
+     * @return The time in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "StatsSnapshot{state=" + state + ", cpu=" + cpu + ", memory=" + memory + ", maxMemory=" + maxMemory
+                + ", disk=" + disk + ", rx=" + networkIngress + ", tx=" + networkEgress + ", uptime=" + uptime + '}';
+    }
+}
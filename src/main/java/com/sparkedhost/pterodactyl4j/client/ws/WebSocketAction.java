@@ -16,7 +16,6 @@
 
 package com.sparkedhost.pterodactyl4j.client.ws;
 
-import org.json.JSONArray;
 import org.json.JSONObject;
 
 public final class WebSocketAction {
@@ -27,13 +26,10 @@ public final class WebSocketAction {
     public static final String SEND_COMMAND = "send command";
     public static final String SEND_STATS = "send stats";
 
+    // the frame is written directly, in the order Wings writes its own frames
     public static String create(String event, String argument) {
-        JSONObject returnable = new JSONObject();
-        JSONArray args = new JSONArray();
-        args.put(argument);
-        returnable.put("event", event)
-                .put("args", args);
-        return returnable.toString();
+        return "{\"event\":" + JSONObject.quote(event) + ",\"args\":["
+                + (argument == null ? "null" : JSONObject.quote(argument)) + "]}";
     }
 
 }
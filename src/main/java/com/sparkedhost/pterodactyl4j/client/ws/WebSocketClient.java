@@ -19,11 +19,25 @@ package com.sparkedhost.pterodactyl4j.client.ws;
 import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
 import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
 import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
+import com.sparkedhost.pterodactyl4j.client.managers.SendRate;
 import com.sparkedhost.pterodactyl4j.client.managers.WebSocketManager;
+import com.sparkedhost.pterodactyl4j.client.ws.events.BackupCompletedEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.Event;
+import com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.StatusUpdateEvent;
 import com.sparkedhost.pterodactyl4j.client.ws.events.connection.ConnectedEvent;
 import com.sparkedhost.pterodactyl4j.client.ws.events.connection.DisconnectedEvent;
 import com.sparkedhost.pterodactyl4j.client.ws.events.connection.DisconnectingEvent;
 import com.sparkedhost.pterodactyl4j.client.ws.events.connection.FailureEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.error.DaemonErrorEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.install.InstallCompletedEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.install.InstallStartedEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.output.ConsoleOutputEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.output.DaemonMessageEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.output.InstallOutputEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.transfer.TransferLogEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.events.transfer.TransferStatusEvent;
+import com.sparkedhost.pterodactyl4j.client.ws.metrics.WebSocketMetrics;
 import com.sparkedhost.pterodactyl4j.client.ws.handle.*;
 import com.sparkedhost.pterodactyl4j.requests.Route;
 import com.sparkedhost.pterodactyl4j.client.ws.handle.*;
@@ -32,9 +46,19 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class WebSocketClient extends WebSocketListener implements Runnable {
 
@@ -42,20 +66,87 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
 
     public static final Logger WEBSOCKET_LOG = LoggerFactory.getLogger(WebSocketClient.class);
 
+    // cached credentials are only used to connect or authenticate if they stay valid for this long
+    private static final long MIN_VALIDITY = TimeUnit.SECONDS.toMillis(30);
+    // tokens are refreshed this long before they expire, Wings warns about expiring tokens a minute before
+    private static final long REFRESH_LEAD = TimeUnit.SECONDS.toMillis(90);
+    // refreshes are spread over this window, so sockets connected together don't refresh together
+    private static final long REFRESH_JITTER = TimeUnit.SECONDS.toMillis(60);
+    // events that change the server, a fresh server is retrieved before they are fired
+    private static final Set<String> SERVER_EVENTS = new HashSet<>(Arrays.asList(
+            "status", "install started", "install completed", "transfer status"));
+    // events that only notify listeners, their frames are dropped unparsed if no listener receives them
+    private static final Map<String, Class<? extends Event>> NOTIFICATIONS = new HashMap<>();
+    private static final String EVENT_PREFIX = "{\"event\":\"";
+
+    static {
+        NOTIFICATIONS.put("status", StatusUpdateEvent.class);
+        NOTIFICATIONS.put("stats", StatsUpdateEvent.class);
+        NOTIFICATIONS.put("console output", ConsoleOutputEvent.class);
+        NOTIFICATIONS.put("install output", InstallOutputEvent.class);
+        NOTIFICATIONS.put("daemon message", DaemonMessageEvent.class);
+        NOTIFICATIONS.put("install started", InstallStartedEvent.class);
+        NOTIFICATIONS.put("install completed", InstallCompletedEvent.class);
+        NOTIFICATIONS.put("transfer logs", TransferLogEvent.class);
+        NOTIFICATIONS.put("transfer status", TransferStatusEvent.class);
+        NOTIFICATIONS.put("backup completed", BackupCompletedEvent.class);
+        NOTIFICATIONS.put("daemon error", DaemonErrorEvent.class);
+    }
+
     private WebSocket webSocket;
     private final PteroClientImpl client;
     private final ClientServer server;
     private final WebSocketManager manager;
     private final boolean freshServer;
-    private boolean connected = false;
+    private final CachedServer cachedServer;
+    // events are fired in order, an event waiting for a fresh server holds back the ones after it
+    private CompletableFuture<Void> dispatch = CompletableFuture.completedFuture(null);
+    private volatile boolean connected = false;
+    private volatile boolean authenticated = false;
+    private final AtomicReference<WebSocketManager.State> state = new AtomicReference<>(WebSocketManager.State.IDLE);
+    private volatile CompletableFuture<Void> openFuture = null;
     private final Map<String, ClientSocketHandler> handlers = new HashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile WebSocketCredentials credentials;
+    private CompletableFuture<WebSocketCredentials> pendingCredentials;
+    // the token the socket was last authenticated with
+    private volatile String authToken;
+    private ScheduledFuture<?> refreshTask;
+    private final OutboundQueue outbound;
+    // for the connect and auth latencies reported to the metrics
+    private volatile long connectStartedAt;
+    private volatile long authSentAt;
 
     public WebSocketClient(PteroClientImpl client, ClientServer server, boolean freshServer, WebSocketManager manager) {
+        this(client, server, freshServer, manager, client.getP4J().getWebSocketClient());
+    }
+
+    public WebSocketClient(PteroClientImpl client, ClientServer server, boolean freshServer, WebSocketManager manager,
+                           OkHttpClient webSocketClient) {
+        this(client, server, freshServer, manager, webSocketClient, client.getP4J().getRateLimitPool());
+    }
+
+    public WebSocketClient(PteroClientImpl client, ClientServer server, boolean freshServer, WebSocketManager manager,
+                           OkHttpClient webSocketClient, ScheduledExecutorService scheduler) {
+        this(client, server, freshServer, manager, webSocketClient, scheduler, CachedServer.DEFAULT_MAX_AGE);
+    }
+
+    public WebSocketClient(PteroClientImpl client, ClientServer server, boolean freshServer, WebSocketManager manager,
+                           OkHttpClient webSocketClient, ScheduledExecutorService scheduler, long freshServerInterval) {
+        this(client, server, freshServer, manager, webSocketClient, scheduler, freshServerInterval, SendRate.DEFAULT);
+    }
+
+    public WebSocketClient(PteroClientImpl client, ClientServer server, boolean freshServer, WebSocketManager manager,
+                           OkHttpClient webSocketClient, ScheduledExecutorService scheduler, long freshServerInterval,
+                           SendRate sendRate) {
         this.client = client;
         this.server = server;
         this.freshServer = freshServer;
+        this.cachedServer = freshServer ? new CachedServer(client, server, freshServerInterval) : null;
         this.manager = manager;
-        this.webSocketClient = client.getP4J().getWebSocketClient();
+        this.webSocketClient = webSocketClient;
+        this.scheduler = scheduler;
+        this.outbound = new OutboundQueue(this, scheduler, sendRate);
         setupHandlers();
     }
 
@@ -82,14 +173,119 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
         handlers.put("jwt error", new JWTErrorHandler(client, server, manager, this));
     }
 
-    public void connect() {
+    /**
+     * Retrieves the socket url and opens the websocket, without blocking the calling thread.
+     * <br>Credentials that are still valid are reused, so reconnecting doesn't need to request new ones.
+     *
+     * @return Future completing once the websocket is open, or exceptionally if it could not be opened
+     */
+    public CompletableFuture<Void> connect() {
         if(connected)
             throw new IllegalStateException("Client already connected");
-        String url = new PteroActionImpl<String>(client.getP4J(),
+        CompletableFuture<Void> opened = new CompletableFuture<>();
+        this.openFuture = opened;
+        this.connectStartedAt = System.nanoTime();
+        setState(WebSocketManager.State.CONNECTING);
+        retrieveCredentials(false).whenComplete((credentials, t) -> {
+            if (t != null) {
+                t = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                setState(WebSocketManager.State.DISCONNECTED);
+                WEBSOCKET_LOG.error(String.format("Could not retrieve the websocket for server %s", server.getIdentifier()), t);
+                manager.getEventManager().handle(new FailureEvent(client, server, manager, false, null, t));
+                opened.completeExceptionally(t);
+                manager.handleDisconnect(-1, t);
+                return;
+            }
+            if (state.get() == WebSocketManager.State.SHUTDOWN) {
+                opened.complete(null);
+                return;
+            }
+            Request req = new Request.Builder().url(credentials.getSocket()).build();
+            webSocketClient.newWebSocket(req, this);
+        });
+        return opened;
+    }
+
+    /**
+     * The socket url and token currently cached for this websocket
+     *
+     * @return The cached {@link WebSocketCredentials credentials}, or null if none were retrieved yet
+     */
+    public WebSocketCredentials getCredentials() {
+        return credentials;
+    }
+
+    /**
+     * Returns the cached credentials if they are still valid, otherwise requests new ones.
+     * <br>Concurrent callers share a single request.
+     *
+     * @param  force
+     *         Whether to request new credentials even if the cached ones are still valid
+     *
+     * @return Future completing with the credentials
+     */
+    public synchronized CompletableFuture<WebSocketCredentials> retrieveCredentials(boolean force) {
+        WebSocketCredentials cached = credentials;
+        if (!force && cached != null && cached.isValidFor(MIN_VALIDITY))
+            return CompletableFuture.completedFuture(cached);
+        if (pendingCredentials != null)
+            return pendingCredentials;
+        CompletableFuture<WebSocketCredentials> future = new PteroActionImpl<WebSocketCredentials>(client.getP4J(),
                 Route.Client.GET_WEBSOCKET.compile(server.getIdentifier()),
-                (response, request) -> response.getObject().getJSONObject("data").getString("socket")).execute();
-        Request req = new Request.Builder().url(url).build();
-        webSocketClient.newWebSocket(req, this);
+                (response, request) -> WebSocketCredentials.fromJSON(response.getObject().getJSONObject("data"))).submit()
+                .whenComplete((retrieved, t) -> {
+                    // cached before any dependent stage runs
+                    synchronized (this) {
+                        pendingCredentials = null;
+                        if (retrieved != null)
+                            this.credentials = retrieved;
+                    }
+                });
+        if (!future.isDone())
+            pendingCredentials = future;
+        return future;
+    }
+
+    /**
+     * Authenticates the socket with a token that isn't about to expire.
+     * <br>A token that was refreshed ahead of time is used as is, otherwise new credentials are requested.
+     */
+    public void refreshToken() {
+        WebSocketCredentials cached = credentials;
+        boolean fresh = cached != null && !cached.getToken().equals(authToken) && cached.isValidFor(REFRESH_LEAD);
+        manager.getMetrics().onTokenRefresh(server.getIdentifier());
+        authenticate(retrieveCredentials(!fresh));
+    }
+
+    private void scheduleRefresh() {
+        WebSocketCredentials current = credentials;
+        if (current == null)
+            return;
+        long delay = current.getExpiresAt() - System.currentTimeMillis() - REFRESH_LEAD
+                - ThreadLocalRandom.current().nextLong(REFRESH_JITTER);
+        synchronized (this) {
+            cancelRefresh();
+            try {
+                refreshTask = scheduler.schedule(this::refresh, Math.max(0, delay), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                WEBSOCKET_LOG.debug("Could not schedule the token refresh for server {}", server.getIdentifier());
+            }
+        }
+    }
+
+    private synchronized void cancelRefresh() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+    }
+
+    private void refresh() {
+        if (!isAuthenticated())
+            return;
+        WEBSOCKET_LOG.debug("Refreshing the websocket token for server {}", server.getIdentifier());
+        manager.getMetrics().onTokenRefresh(server.getIdentifier());
+        authenticate(retrieveCredentials(true));
     }
 
     public void shutdown() {
@@ -98,15 +294,76 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
 
         WEBSOCKET_LOG.info(String.format("Shutting down websocket for server %s", server.getIdentifier()));
 
+        state.set(WebSocketManager.State.SHUTDOWN);
+        cancelRefresh();
+        outbound.close();
         webSocket.close(1000, "Client shutting down");
     }
 
+    /**
+     * Closes the websocket if it is open, and stops a connection attempt that is still in progress
+     */
+    public void close() {
+        if (connected)
+            shutdown();
+        else {
+            state.set(WebSocketManager.State.SHUTDOWN);
+            cancelRefresh();
+            outbound.close();
+        }
+    }
+
+    public WebSocketManager.State getState() {
+        return state.get();
+    }
+
+    /**
+     * Moves to the provided state, unless the websocket was shut down
+     *
+     * @return True, if the state was changed
+     */
+    public boolean setState(WebSocketManager.State newState) {
+        return state.getAndUpdate(current -> current == WebSocketManager.State.SHUTDOWN ? current : newState)
+                != WebSocketManager.State.SHUTDOWN;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Whether the panel accepted the last token, only then Wings handles power and command messages
+     *
+     * @return True, if the socket is authenticated
+     */
+    public boolean isAuthenticated() {
+        return connected && authenticated;
+    }
+
     public boolean send(String message) {
         if(!connected)
             throw new IllegalStateException("Client isn't connected to server websocket");
         return webSocket.send(message);
     }
 
+    /**
+     * Sends a message if the websocket is connected, without throwing otherwise
+     *
+     * @return True, if the message was queued by the websocket
+     */
+    public boolean trySend(String message) {
+        return connected && webSocket.send(message);
+    }
+
+    /**
+     * The queue commands and power signals wait in until the {@link SendRate SendRate} allows sending them
+     *
+     * @return The {@link OutboundQueue OutboundQueue}
+     */
+    public OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
+
     public void sendAuthenticate() {
         sendAuthenticate(null);
     }
@@ -114,10 +371,42 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
     public void sendAuthenticate(String token) {
         if(!connected)
             throw new IllegalStateException("Client isn't connected to server websocket");
-        String t = Optional.ofNullable(token).orElseGet(() -> new PteroActionImpl<String>(client.getP4J(),
-                Route.Client.GET_WEBSOCKET.compile(server.getIdentifier()),
-                (response, request) -> response.getObject().getJSONObject("data").getString("token")).execute());
-        send(WebSocketAction.create(WebSocketAction.AUTH, t));
+        if (token != null) {
+            authToken = token;
+            authSentAt = System.nanoTime();
+            send(WebSocketAction.create(WebSocketAction.AUTH, token));
+            return;
+        }
+        authenticate(retrieveCredentials(false));
+    }
+
+    private void authenticate(CompletableFuture<WebSocketCredentials> credentials) {
+        // this is called from the socket reader thread, so the token is retrieved without blocking it
+        credentials.whenComplete((c, t) -> {
+            if (t != null)
+                WEBSOCKET_LOG.error(String.format("Could not retrieve a token for server %s", server.getIdentifier()), t);
+            else if (connected)
+                sendAuthenticate(c.getToken());
+        });
+    }
+
+    /**
+     * Reads the event name of frames starting with it, as Wings writes them, without parsing the frame
+     *
+     * @return The event name, or null if the frame doesn't start with it
+     */
+    private static String peekEvent(String frame) {
+        if (!frame.startsWith(EVENT_PREFIX))
+            return null;
+        int end = frame.indexOf('"', EVENT_PREFIX.length());
+        return end < 0 ? null : frame.substring(EVENT_PREFIX.length(), end);
+    }
+
+    private boolean isReceived(String event) {
+        Class<? extends Event> type = NOTIFICATIONS.get(event);
+        if (type == null || (freshServer && SERVER_EVENTS.contains(event)))
+            return true;
+        return manager.getEventManager().isConsumed(type);
     }
 
     private void onEvent(JSONObject json) {
@@ -127,15 +416,46 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
     }
 
     private void handleEvent(String event, String args) {
+        if ("auth success".equals(event)) {
+            authenticated = true;
+            setState(WebSocketManager.State.AUTHENTICATED);
+            manager.getMetrics().onAuthenticated(server.getIdentifier(), System.nanoTime() - authSentAt);
+            scheduleRefresh();
+            manager.handleAuthenticated();
+            outbound.drain();
+        } else if ("token expired".equals(event) || "jwt error".equals(event)) {
+            authenticated = false;
+            setState(WebSocketManager.State.CONNECTED);
+        }
+
         ClientSocketHandler handler = getHandler(event);
 
-        if (freshServer)
-            client.retrieveServerByIdentifier(server.getIdentifier())
-                    .executeAsync(freshServer ->
-                                    handler.setServer(freshServer).handleInternally(args),
-                            __ -> handler.handleInternally(args));
-        else
+        if (!freshServer) {
             handler.handleInternally(args);
+            return;
+        }
+        // only the reader thread appends, a completed chain runs the handler right away
+        if (SERVER_EVENTS.contains(event))
+            dispatch = dispatch.thenCompose(v -> cachedServer.refresh()).thenAccept(s -> fire(handler, s, args));
+        else
+            dispatch = dispatch.thenRun(() -> fire(handler, cachedServer.get(), args));
+    }
+
+    private void fire(ClientSocketHandler handler, ClientServer server, String args) {
+        try {
+            handler.setServer(server).handleInternally(args);
+        } catch (RuntimeException e) {
+            WEBSOCKET_LOG.error(String.format("There was an error handling an event for server %s", server.getIdentifier()), e);
+        }
+    }
+
+    /**
+     * The latest known instance of the server, if the websocket provides a fresh server in event context
+     *
+     * @return The {@link CachedServer CachedServer}, or null if fresh servers are disabled
+     */
+    public CachedServer getCachedServer() {
+        return cachedServer;
     }
 
     @SuppressWarnings("unchecked")
@@ -150,36 +470,90 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
 
     @Override
     public void onOpen(WebSocket webSocket, Response response) {
-        connected = true;
+        if (state.get() == WebSocketManager.State.SHUTDOWN) {
+            webSocket.close(1000, "Client shutting down");
+            completeOpen(null);
+            return;
+        }
         this.webSocket = webSocket;
+        connected = true;
+        setState(WebSocketManager.State.CONNECTED);
+        completeOpen(null);
         WEBSOCKET_LOG.info("Connected to websocket for server {}", server.getIdentifier());
+        manager.getMetrics().onConnected(server.getIdentifier(), System.nanoTime() - connectStartedAt);
+        manager.handleOpen();
         manager.getEventManager().handle(new ConnectedEvent(client, server, manager, connected));
         sendAuthenticate();
     }
 
     @Override
     public void onMessage(WebSocket webSocket, String text) {
-        onEvent(new JSONObject(text));
+        long start = System.nanoTime();
+        WebSocketMetrics metrics = manager.getMetrics();
+        String event = peekEvent(text);
+        if (event != null && !isReceived(event)) {
+            metrics.onFrame(server.getIdentifier(), event, text.length(), -1);
+            return;
+        }
+        try {
+            // stats frames arrive every second, their payload is read from the frame without building the envelope
+            if (StatsParser.isStatsFrame(text)) {
+                event = "stats";
+                handleEvent(event, text);
+            } else {
+                JSONObject json = new JSONObject(text);
+                if (event == null)
+                    event = json.optString("event", null);
+                onEvent(json);
+            }
+        } finally {
+            metrics.onFrame(server.getIdentifier(), event, text.length(), System.nanoTime() - start);
+        }
     }
 
 
     @Override
     public void onClosing(WebSocket webSocket, int code, String reason) {
         connected = false;
+        authenticated = false;
         manager.getEventManager().handle(new DisconnectingEvent(client, server, manager, connected, code));
+        // acknowledge the close frame, otherwise OkHttp never finishes closing and onClosed isn't called
+        webSocket.close(code == 1005 || code == 1006 ? 1000 : code, null);
 
     }
 
     @Override
     public void onClosed(WebSocket webSocket, int code, String reason) {
         connected = false;
+        authenticated = false;
+        cancelRefresh();
+        setState(WebSocketManager.State.DISCONNECTED);
+        manager.getMetrics().onDisconnected(server.getIdentifier(), code);
         manager.getEventManager().handle(new DisconnectedEvent(client, server, manager, connected, code));
+        manager.handleDisconnect(code, null);
     }
 
     @Override
     public void onFailure(WebSocket webSocket, Throwable t, Response response) {
         connected = false;
+        authenticated = false;
+        cancelRefresh();
+        setState(WebSocketManager.State.DISCONNECTED);
+        completeOpen(t);
+        manager.getMetrics().onDisconnected(server.getIdentifier(), -1);
         WEBSOCKET_LOG.error(String.format("There was an error in the websocket for server %s", server.getIdentifier()), t);
         manager.getEventManager().handle(new FailureEvent(client, server, manager, connected, response, t));
+        // a response means Wings rejected the upgrade
+        manager.handleDisconnect(response == null ? -1 : response.code(), t);
+    }
+
+    private void completeOpen(Throwable error) {
+        CompletableFuture<Void> future = openFuture;
+        if (future == null)
+            return;
+        if (error == null)
+            future.complete(null);
+        else
+            future.completeExceptionally(error);
     }
 }
@@ -0,0 +1,94 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The socket url and token returned by a single websocket details request.
+ * <br>The panel signs the token as a JWT, its expiry is read from the {@code exp} claim so the token can be
+ * reused until shortly before it expires.
+ */
+public class WebSocketCredentials {
+
+    // the panel issues tokens that are valid for 10 minutes, used if the token can't be decoded
+    private static final long DEFAULT_VALIDITY = TimeUnit.MINUTES.toMillis(10);
+
+    private final String socket;
+    private final String token;
+    private final long expiresAt;
+
+    public WebSocketCredentials(String socket, String token, long expiresAt) {
+        this.socket = socket;
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    public static WebSocketCredentials fromJSON(JSONObject json) {
+        String token = json.getString("token");
+        return new WebSocketCredentials(json.getString("socket"), token, readExpiry(token));
+    }
+
+    private static long readExpiry(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length == 3) {
+            try {
+                JSONObject claims = new JSONObject(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+                if (claims.has("exp"))
+                    return TimeUnit.SECONDS.toMillis(claims.getLong("exp"));
+            } catch (IllegalArgumentException | JSONException e) {
+                WebSocketClient.WEBSOCKET_LOG.debug("Could not decode the websocket token, assuming the default expiry", e);
+            }
+        }
+        return System.currentTimeMillis() + DEFAULT_VALIDITY;
+    }
+
+    public String getSocket() {
+        return socket;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * The time the token expires at
+     *
+     * @return The expiry in epoch milliseconds
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Whether the token is still valid for at least the provided time
+     *
+     * @param  millis
+     *         The time the token has to stay valid for
+     *
+     * @return True, if the token doesn't expire within the provided time
+     */
+    public boolean isValidFor(long millis) {
+        return expiresAt - System.currentTimeMillis() > millis;
+    }
+}
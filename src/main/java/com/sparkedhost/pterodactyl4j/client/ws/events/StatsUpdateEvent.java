@@ -21,23 +21,48 @@ import com.sparkedhost.pterodactyl4j.UtilizationState;
 import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
 import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
 import com.sparkedhost.pterodactyl4j.client.managers.WebSocketManager;
+import com.sparkedhost.pterodactyl4j.client.ws.StatsSnapshot;
 import org.json.JSONObject;
 
 public class StatsUpdateEvent extends Event {
 
-    private final JSONObject stats;
+    private final StatsSnapshot stats;
 
     public StatsUpdateEvent(PteroClientImpl api, ClientServer server, WebSocketManager manager, JSONObject stats) {
+        this(api, server, manager, StatsSnapshot.fromJSON(stats));
+    }
+
+    public StatsUpdateEvent(PteroClientImpl api, ClientServer server, WebSocketManager manager, StatsSnapshot stats) {
         super(api, server, manager);
         this.stats = stats;
     }
 
+    /**
+     * The stats of this event in primitive fields.
+     * <br>If the websocket {@link com.sparkedhost.pterodactyl4j.client.managers.WebSocketBuilder#reuseStatsEvents(boolean) reuses stats events},
+     * both the event and the snapshot are overwritten by the next frame, use {@link StatsSnapshot#copy()} to keep the values.
+     *
+     * @return The {@link StatsSnapshot StatsSnapshot}
+     */
+    public StatsSnapshot getSnapshot() {
+        return stats;
+    }
+
+    /**
+     * Copies this event together with its snapshot, the copy isn't changed by later frames
+     *
+     * @return A new {@link StatsUpdateEvent StatsUpdateEvent} with the same values
+     */
+    public StatsUpdateEvent copy() {
+        return new StatsUpdateEvent((PteroClientImpl) getClient(), getServer(), getWebSocketManager(), stats.copy());
+    }
+
     public UtilizationState getState() {
-        return UtilizationState.of(stats.getString("state"));
+        return stats.getState();
     }
 
     public long getMemory() {
-        return stats.getLong("memory_bytes");
+        return stats.getMemory();
     }
 
     public String getMemoryFormatted(DataType dataType) {
@@ -45,7 +70,7 @@ public class StatsUpdateEvent extends Event {
     }
 
     public long getMaxMemory() {
-        return stats.getLong("memory_limit_bytes");
+        return stats.getMaxMemory();
     }
 
     public String getMaxMemoryFormatted(DataType dataType) {
@@ -53,7 +78,7 @@ public class StatsUpdateEvent extends Event {
     }
 
     public long getDisk() {
-        return stats.getLong("disk_bytes");
+        return stats.getDisk();
     }
 
     public String getDiskFormatted(DataType dataType) {
@@ -61,11 +86,11 @@ public class StatsUpdateEvent extends Event {
     }
 
     public double getCPU() {
-        return stats.getDouble("cpu_absolute");
+        return stats.getCPU();
     }
 
     public long getNetworkIngress() {
-        return stats.getJSONObject("network").getLong("rx_bytes");
+        return stats.getNetworkIngress();
     }
 
     public String getNetworkIngressFormatted(DataType dataType) {
@@ -73,7 +98,7 @@ public class StatsUpdateEvent extends Event {
     }
 
     public long getNetworkEgress() {
-        return stats.getJSONObject("network").getLong("tx_bytes");
+        return stats.getNetworkEgress();
     }
 
     public String getNetworkEgressFormatted(DataType dataType) {
@@ -81,13 +106,13 @@ public class StatsUpdateEvent extends Event {
     }
 
     public long getUptime() {
-        return stats.getLong("uptime");
+        return stats.getUptime();
     }
 
     public String getUptimeFormatted(){
-        long second = (stats.getLong("uptime") / 1000) % 60;
-        long minute = (stats.getLong("uptime") / (1000 * 60)) % 60;
-        long hour = (stats.getLong("uptime") / (1000 * 60 * 60)) % 24;
+        long second = (stats.getUptime() / 1000) % 60;
+        long minute = (stats.getUptime() / (1000 * 60)) % 60;
+        long hour = (stats.getUptime() / (1000 * 60 * 60)) % 24;
         return String.format("%02d:%02d:%02d", hour, minute, second);
     }
 }
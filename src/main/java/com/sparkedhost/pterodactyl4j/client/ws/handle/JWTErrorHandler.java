@@ -34,7 +34,7 @@ public class JWTErrorHandler extends ClientSocketHandler {
     @Override
     public void handleInternally(String content) {
         if (content.equals("jwt: exp claim is invalid"))
-            webSocket.sendAuthenticate();
+            webSocket.refreshToken();
         getManager().getEventManager().handle(new JWTErrorEvent(getClient(), getServer(), getManager(), content));
     }
 }
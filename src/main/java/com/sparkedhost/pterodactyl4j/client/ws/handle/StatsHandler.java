@@ -19,18 +19,35 @@ package com.sparkedhost.pterodactyl4j.client.ws.handle;
 import com.sparkedhost.pterodactyl4j.client.entities.ClientServer;
 import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
 import com.sparkedhost.pterodactyl4j.client.managers.WebSocketManager;
+import com.sparkedhost.pterodactyl4j.client.ws.StatsParser;
+import com.sparkedhost.pterodactyl4j.client.ws.StatsSnapshot;
 import com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent;
-import org.json.JSONObject;
 
 public class StatsHandler extends ClientSocketHandler {
 
+    // frames of a socket are handled one after another, so the parser and a reused event are never shared
+    private final StatsParser parser = new StatsParser();
+    private StatsUpdateEvent reused;
+
     public StatsHandler(PteroClientImpl client, ClientServer server, WebSocketManager manager) {
         super(client, server, manager);
     }
 
     @Override
     public void handleInternally(String content) {
-        JSONObject json = new JSONObject(content);
-        getManager().getEventManager().handle(new StatsUpdateEvent(getClient(), getServer(), getManager(), json));
+        getManager().getEventManager().handle(createEvent(content));
+    }
+
+    private StatsUpdateEvent createEvent(String content) {
+        if (!getManager().isReusingStatsEvents()) {
+            StatsSnapshot snapshot = new StatsSnapshot();
+            parser.parse(content, snapshot);
+            return new StatsUpdateEvent(getClient(), getServer(), getManager(), snapshot);
+        }
+        // a fresh server instance needs a new event, the server of an event can't change
+        if (reused == null || reused.getServer() != getServer())
+            reused = new StatsUpdateEvent(getClient(), getServer(), getManager(), new StatsSnapshot());
+        parser.parse(content, reused.getSnapshot());
+        return reused;
     }
 }
@@ -32,6 +32,6 @@ public class TokenExpiredHandler extends ClientSocketHandler {
 
     @Override
     public void handleInternally(String content) {
-        webSocketClient.sendAuthenticate();
+        webSocketClient.refreshToken();
     }
 }
@@ -32,6 +32,6 @@ public class TokenExpiringHandler extends ClientSocketHandler {
 
     @Override
     public void handleInternally(String content) {
-        webSocketClient.sendAuthenticate();
+        webSocketClient.refreshToken();
     }
 }
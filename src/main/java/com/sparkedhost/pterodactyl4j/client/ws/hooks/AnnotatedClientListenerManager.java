@@ -0,0 +1,205 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws.hooks;
+
+import com.sparkedhost.pterodactyl4j.client.ws.events.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fires events to the methods of listeners annotated with {@link SubscribeEvent @SubscribeEvent}.
+ * <br>Listeners implementing {@link ClientSocketListener ClientSocketListener} are fired for every event as well.
+ *
+ * <p>The methods receiving an event type are looked up once per event class, including the methods subscribed to its
+ * supertypes, so firing an event only calls the methods that take it.
+ */
+public class AnnotatedClientListenerManager implements IClientListenerManager {
+
+    private static final Logger LISTENER_LOG = LoggerFactory.getLogger(ClientSocketListener.class);
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Event.class);
+    private static final Subscriber[] NONE = new Subscriber[0];
+    private static final MethodHandle ON_EVENT;
+
+    static {
+        try {
+            ON_EVENT = MethodHandles.lookup().findVirtual(ClientSocketListener.class, "onEvent", HANDLER_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final List<Object> listeners = new CopyOnWriteArrayList<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // replaced whenever the listeners change, so a lookup racing a change can't store an outdated entry
+    private volatile Map<Class<?>, Subscriber[]> dispatch = new ConcurrentHashMap<>();
+    private final List<Runnable> changeCallbacks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers the {@link SubscribeEvent @SubscribeEvent} methods of the listener
+     *
+     * @param  listener
+     *         The listener
+     *
+     * @throws IllegalArgumentException
+     *         If the listener has no subscribed methods and doesn't implement ClientSocketListener, or one of its
+     *         subscribed methods doesn't take a single event parameter
+     */
+    @Override
+    public void register(Object listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("Listener cannot be null");
+        List<Subscriber> found = findSubscribers(listener);
+        if (found.isEmpty())
+            throw new IllegalArgumentException("Listener must implement ClientSocketListener or have methods annotated with @SubscribeEvent");
+        synchronized (this) {
+            listeners.add(listener);
+            subscribers.addAll(found);
+            dispatch = new ConcurrentHashMap<>();
+        }
+        listenersChanged();
+    }
+
+    @Override
+    public void unregister(Object listener) {
+        synchronized (this) {
+            if (!listeners.remove(listener))
+                return;
+            subscribers.removeIf(subscriber -> subscriber.listener == listener);
+            dispatch = new ConcurrentHashMap<>();
+        }
+        listenersChanged();
+    }
+
+    @Override
+    public List<Object> getRegisteredListeners() {
+        return Collections.unmodifiableList(new LinkedList<>(listeners));
+    }
+
+    @Override
+    public boolean isConsumed(Class<? extends Event> type) {
+        return targets(type).length > 0;
+    }
+
+    @Override
+    public void addListenerChangeCallback(Runnable callback) {
+        changeCallbacks.add(callback);
+    }
+
+    @Override
+    public void removeListenerChangeCallback(Runnable callback) {
+        changeCallbacks.remove(callback);
+    }
+
+    private void listenersChanged() {
+        for (Runnable callback : changeCallbacks) {
+            try {
+                callback.run();
+            } catch (Throwable throwable) {
+                LISTENER_LOG.error("A listener change callback had an uncaught exception", throwable);
+            }
+        }
+    }
+
+    @Override
+    public void handle(Event event) {
+        Subscriber[] targets = targets(event.getClass());
+        for (Subscriber subscriber : targets) {
+            try {
+                subscriber.handle.invokeExact(event);
+            } catch (Throwable throwable) {
+                LISTENER_LOG.error("One of the ClientSocketListeners had an uncaught exception", throwable);
+            }
+        }
+    }
+
+    private Subscriber[] targets(Class<?> type) {
+        Map<Class<?>, Subscriber[]> table = dispatch;
+        Subscriber[] targets = table.get(type);
+        return targets != null ? targets : table.computeIfAbsent(type, this::resolve);
+    }
+
+    private Subscriber[] resolve(Class<?> type) {
+        List<Subscriber> targets = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.type.isAssignableFrom(type))
+                targets.add(subscriber);
+        }
+        return targets.isEmpty() ? NONE : targets.toArray(NONE);
+    }
+
+    private static List<Subscriber> findSubscribers(Object listener) {
+        List<Subscriber> found = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        // overridden methods are only registered once, for the most specific class
+        Set<String> seen = new HashSet<>();
+        for (Class<?> type = listener.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(SubscribeEvent.class) || Modifier.isStatic(method.getModifiers()))
+                    continue;
+                Class<?>[] parameters = method.getParameterTypes();
+                if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0]))
+                    throw new IllegalArgumentException(String.format("Method %s of %s must take a single event parameter",
+                            method.getName(), type.getName()));
+                if (!seen.add(method.getName() + parameters[0].getName()))
+                    continue;
+                try {
+                    method.setAccessible(true);
+                    MethodHandle handle = lookup.unreflect(method).bindTo(listener).asType(HANDLER_TYPE);
+                    found.add(new Subscriber(listener, parameters[0], handle));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    throw new IllegalArgumentException(String.format("Method %s of %s can't be accessed",
+                            method.getName(), type.getName()), e);
+                }
+            }
+        }
+        if (listener instanceof ClientSocketListener) {
+            MethodHandle handle = ON_EVENT.bindTo(listener);
+            found.add(new Subscriber(listener, Event.class, handle));
+        }
+        return found;
+    }
+
+    private static final class Subscriber {
+
+        private final Object listener;
+        private final Class<?> type;
+        // (Event)void, bound to the listener
+        private final MethodHandle handle;
+
+        private Subscriber(Object listener, Class<?> type, MethodHandle handle) {
+            this.listener = listener;
+            this.type = type;
+            this.handle = handle;
+        }
+    }
+}
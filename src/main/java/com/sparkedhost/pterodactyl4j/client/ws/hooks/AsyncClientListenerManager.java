@@ -0,0 +1,472 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws.hooks;
+
+import com.sparkedhost.pterodactyl4j.client.ws.events.Event;
+import com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import com.sparkedhost.pterodactyl4j.utils.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Fires events to every listener on a shared executor instead of the websocket reader thread.
+ * <br>Each listener has its own bounded queue and receives its events in order, one at a time, so a slow listener
+ * only delays itself. What happens when the queue of a listener is full is decided by its {@link OverflowPolicy OverflowPolicy}.
+ *
+ * <p>Listeners must implement {@link ClientSocketListener ClientSocketListener}. Stats events of websockets that
+ * {@link com.sparkedhost.pterodactyl4j.client.managers.WebSocketBuilder#reuseStatsEvents(boolean) reuse stats events}
+ * are copied before they are queued.
+ */
+public class AsyncClientListenerManager implements IClientListenerManager {
+
+    private static final Logger LISTENER_LOG = LoggerFactory.getLogger(ClientSocketListener.class);
+
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    // events delivered before a busy listener hands the thread back to the executor
+    private static final int BATCH_SIZE = 64;
+
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final int queueSize;
+    private final OverflowPolicy policy;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // replaced whenever the listeners change
+    private volatile Map<Class<?>, Boolean> consumed = new ConcurrentHashMap<>();
+    private final List<Runnable> changeCallbacks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a manager with queues of {@value #DEFAULT_QUEUE_SIZE} events that drop the oldest event when full
+     */
+    public AsyncClientListenerManager() {
+        this(DEFAULT_QUEUE_SIZE, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Creates a manager firing events on a dedicated pool.
+     * <br>A listener is only fired on one thread at a time, so the pool never holds more threads than there are
+     * listeners, and a slow listener can't keep the others from being fired.
+     *
+     * @param  queueSize
+     *         The amount of events queued per listener
+     * @param  policy
+     *         The policy of listeners registered through {@link #register(Object)}
+     *
+     * @throws IllegalArgumentException
+     *         If the policy is null, or the queue size isn't positive
+     */
+    public AsyncClientListenerManager(int queueSize, OverflowPolicy policy) {
+        this(Executors.newCachedThreadPool(new NamedThreadFactory("ClientListener")), true, queueSize, policy);
+    }
+
+    /**
+     * Creates a manager firing events on the provided executor, which is not shut down by {@link #shutdown()}.
+     * <br>Listeners share the threads of the executor, with fewer threads than busy listeners they wait for each other.
+     *
+     * @param  executor
+     *         The executor to fire events on
+     * @param  queueSize
+     *         The amount of events queued per listener
+     * @param  policy
+     *         The policy of listeners registered through {@link #register(Object)}
+     *
+     * @throws IllegalArgumentException
+     *         If the executor or policy is null, or the queue size isn't positive
+     */
+    public AsyncClientListenerManager(ExecutorService executor, int queueSize, OverflowPolicy policy) {
+        this(executor, false, queueSize, policy);
+    }
+
+    private AsyncClientListenerManager(ExecutorService executor, boolean ownExecutor, int queueSize, OverflowPolicy policy) {
+        Checks.notNull(executor, "Executor");
+        Checks.notNull(policy, "Overflow Policy");
+        Checks.check(queueSize > 0, "Queue size must be positive");
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.queueSize = queueSize;
+        this.policy = policy;
+    }
+
+    @Override
+    public void register(Object listener) {
+        register(listener, queueSize, policy);
+    }
+
+    /**
+     * Registers a listener with its own queue size and overflow policy
+     *
+     * @param  listener
+     *         The listener, must implement {@link ClientSocketListener ClientSocketListener}
+     * @param  queueSize
+     *         The amount of events queued for this listener
+     * @param  policy
+     *         What happens when the queue of this listener is full
+     *
+     * @throws IllegalArgumentException
+     *         If the listener doesn't implement ClientSocketListener, the policy is null or the queue size isn't positive
+     */
+    public void register(Object listener, int queueSize, OverflowPolicy policy) {
+        if (!(listener instanceof ClientSocketListener)) {
+            throw new IllegalArgumentException("Listener must implement ClientSocketListener");
+        }
+        Checks.notNull(policy, "Overflow Policy");
+        Checks.check(queueSize > 0, "Queue size must be positive");
+        subscriptions.add(new Subscription((ClientSocketListener) listener, queueSize, policy));
+        consumed = new ConcurrentHashMap<>();
+        listenersChanged();
+    }
+
+    @Override
+    public void unregister(Object listener) {
+        subscriptions.removeIf(subscription -> {
+            if (subscription.listener != listener)
+                return false;
+            subscription.close();
+            return true;
+        });
+        consumed = new ConcurrentHashMap<>();
+        listenersChanged();
+    }
+
+    @Override
+    public List<Object> getRegisteredListeners() {
+        List<Object> listeners = new LinkedList<>();
+        for (Subscription subscription : subscriptions)
+            listeners.add(subscription.listener);
+        return Collections.unmodifiableList(listeners);
+    }
+
+    @Override
+    public boolean isConsumed(Class<? extends Event> type) {
+        return consumed.computeIfAbsent(type,
+                t -> subscriptions.stream().anyMatch(s -> ClientSocketListenerAdapter.receives(s.listener, t)));
+    }
+
+    @Override
+    public void addListenerChangeCallback(Runnable callback) {
+        changeCallbacks.add(callback);
+    }
+
+    @Override
+    public void removeListenerChangeCallback(Runnable callback) {
+        changeCallbacks.remove(callback);
+    }
+
+    private void listenersChanged() {
+        for (Runnable callback : changeCallbacks) {
+            try {
+                callback.run();
+            } catch (Throwable throwable) {
+                LISTENER_LOG.error("A listener change callback had an uncaught exception", throwable);
+            }
+        }
+    }
+
+    @Override
+    public void handle(Event event) {
+        if (subscriptions.isEmpty())
+            return;
+        if (event instanceof StatsUpdateEvent && event.getWebSocketManager().isReusingStatsEvents())
+            event = ((StatsUpdateEvent) event).copy();
+        for (Subscription subscription : subscriptions)
+            subscription.offer(event);
+    }
+
+    /**
+     * The queue counters of a registered listener
+     *
+     * @param  listener
+     *         The listener
+     *
+     * @return The {@link ListenerStats ListenerStats}, or null if the listener isn't registered
+     */
+    public ListenerStats getListenerStats(Object listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener == listener)
+                return subscription.stats();
+        }
+        return null;
+    }
+
+    /**
+     * The queue counters of every registered listener
+     *
+     * @return Immutable map of listener to {@link ListenerStats ListenerStats}
+     */
+    public Map<Object, ListenerStats> getListenerStats() {
+        Map<Object, ListenerStats> stats = new LinkedHashMap<>();
+        for (Subscription subscription : subscriptions)
+            stats.put(subscription.listener, subscription.stats());
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Drops the queued events of every listener, and shuts down the executor if it was created by this manager
+     */
+    public void shutdown() {
+        for (Subscription subscription : subscriptions)
+            subscription.close();
+        subscriptions.clear();
+        if (ownExecutor)
+            executor.shutdown();
+    }
+
+    private final class Subscription implements Runnable {
+
+        private final ClientSocketListener listener;
+        private final int capacity;
+        private final OverflowPolicy policy;
+        private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+        // the queued stats event of each server, replaced by newer ones when coalescing
+        private final Map<String, Pending> latest = new HashMap<>();
+        private boolean scheduled;
+        private boolean closed;
+        private long delivered;
+        private long dropped;
+        private long coalesced;
+        private long failed;
+
+        private Subscription(ClientSocketListener listener, int capacity, OverflowPolicy policy) {
+            this.listener = listener;
+            this.capacity = capacity;
+            this.policy = policy;
+        }
+
+        private synchronized void offer(Event event) {
+            if (closed)
+                return;
+            String key = policy == OverflowPolicy.COALESCE_LATEST && event instanceof StatsUpdateEvent
+                    ? event.getServer().getIdentifier() : null;
+            if (key != null) {
+                Pending queued = latest.get(key);
+                if (queued != null) {
+                    queued.event = event;
+                    coalesced++;
+                    return;
+                }
+            }
+            while (queue.size() >= capacity) {
+                if (policy == OverflowPolicy.BLOCK) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dropped++;
+                        return;
+                    }
+                    if (closed)
+                        return;
+                } else {
+                    Pending oldest = queue.poll();
+                    if (oldest.key != null)
+                        latest.remove(oldest.key);
+                    dropped++;
+                }
+            }
+            Pending pending = new Pending(event, key, System.currentTimeMillis());
+            queue.add(pending);
+            if (key != null)
+                latest.put(key, pending);
+            if (!scheduled) {
+                scheduled = true;
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled = false;
+                    LISTENER_LOG.debug("Could not fire events, the listener executor was shut down");
+                }
+            }
+        }
+
+        private synchronized Pending poll() {
+            Pending pending = queue.poll();
+            if (pending == null) {
+                scheduled = false;
+                return null;
+            }
+            if (pending.key != null)
+                latest.remove(pending.key);
+            if (policy == OverflowPolicy.BLOCK)
+                notifyAll();
+            return pending;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Pending pending = poll();
+                if (pending == null)
+                    return;
+                try {
+                    listener.onEvent(pending.event);
+                } catch (Throwable throwable) {
+                    synchronized (this) {
+                        failed++;
+                    }
+                    LISTENER_LOG.error("One of the ClientSocketListeners had an uncaught exception", throwable);
+                }
+                synchronized (this) {
+                    delivered++;
+                }
+            }
+            // let other listeners use the thread, the subscription is still marked as scheduled
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    scheduled = false;
+                }
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            queue.clear();
+            latest.clear();
+            notifyAll();
+        }
+
+        private synchronized ListenerStats stats() {
+            Pending head = queue.peek();
+            long lag = head == null ? 0 : System.currentTimeMillis() - head.queuedAt;
+            return new ListenerStats(queue.size(), lag, delivered, dropped, coalesced, failed);
+        }
+    }
+
+    private static final class Pending {
+
+        private Event event;
+        private final String key;
+        private final long queuedAt;
+
+        private Pending(Event event, String key, long queuedAt) {
+            this.event = event;
+            this.key = key;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    /**
+     * What happens to a new event when the queue of a listener is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * The websocket waits until the listener caught up, which stops it from reading further frames
+         */
+        BLOCK,
+        /**
+         * The oldest queued event is dropped
+         */
+        DROP_OLDEST,
+        /**
+         * A queued stats event of the same server is replaced by the new one, so a lagging listener only receives
+         * the latest stats. Other events drop the oldest queued event when the queue is full.
+         */
+        COALESCE_LATEST
+    }
+
+    /**
+     * The counters of a listener queue at the time they were requested
+     */
+    public static final class ListenerStats {
+
+        private final int queued;
+        private final long lag;
+        private final long delivered;
+        private final long dropped;
+        private final long coalesced;
+        private final long failed;
+
+        private ListenerStats(int queued, long lag, long delivered, long dropped, long coalesced, long failed) {
+            this.queued = queued;
+            this.lag = lag;
+            this.delivered = delivered;
+            this.dropped = dropped;
+            this.coalesced = coalesced;
+            this.failed = failed;
+        }
+
+        /**
+         * The amount of events waiting to be fired to the listener
+         *
+         * @return The queue size
+         */
+        public int getQueued() {
+            return queued;
+        }
+
+        /**
+         * How long the oldest queued event has been waiting
+         *
+         * @return The lag in milliseconds, 0 if nothing is queued
+         */
+        public long getLag() {
+            return lag;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * The amount of events dropped because the queue was full
+         *
+         * @return The amount of dropped events
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * The amount of stats events replaced by newer ones before they were fired
+         *
+         * @return The amount of coalesced events
+         */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        /**
+         * The amount of events the listener threw an exception for
+         *
+         * @return The amount of failed events
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return "ListenerStats{queued=" + queued + ", lag=" + lag + ", delivered=" + delivered + ", dropped=" + dropped
+                    + ", coalesced=" + coalesced + ", failed=" + failed + '}';
+        }
+    }
+}
@@ -35,6 +35,13 @@ import com.sparkedhost.pterodactyl4j.client.ws.events.transfer.TransferLogEvent;
 import com.sparkedhost.pterodactyl4j.client.ws.events.transfer.TransferStatusEvent;
 import com.sparkedhost.pterodactyl4j.client.ws.events.connection.*;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public abstract class ClientSocketListenerAdapter implements ClientSocketListener {
 
     public void onStatusUpdate(StatusUpdateEvent event) {}
@@ -74,56 +81,89 @@ public abstract class ClientSocketListenerAdapter implements ClientSocketListene
     @Override
     public final void onEvent(Event event) {
         onGenericEvent(event);
-        if (event instanceof StatusUpdateEvent)
-            onStatusUpdate((StatusUpdateEvent) event);
-        else if (event instanceof StatsUpdateEvent)
-            onStatsUpdate((StatsUpdateEvent) event);
-        else if (event instanceof AuthSuccessEvent)
-            onAuthSuccess((AuthSuccessEvent) event);
-        else if (event instanceof ConsoleOutputEvent)
-            onConsoleOutput((ConsoleOutputEvent) event);
-        else if (event instanceof InstallOutputEvent)
-            onInstallOutput((InstallOutputEvent) event);
-        else if (event instanceof DaemonMessageEvent)
-            onDaemonMessage((DaemonMessageEvent) event);
-        else if (event instanceof TransferLogEvent)
-            onTransferLog((TransferLogEvent) event);
-        else if (event instanceof TransferStatusEvent)
-            onTransferStatusUpdate((TransferStatusEvent) event);
-        else if (event instanceof BackupCompletedEvent)
-            onBackupCompleted((BackupCompletedEvent) event);
-        else if (event instanceof InstallStartedEvent)
-            onInstallStarted((InstallStartedEvent) event);
-        else if (event instanceof InstallCompletedEvent)
-            onInstallCompleted((InstallCompletedEvent) event);
-        else if (event instanceof ConnectedEvent)
-            onConnected((ConnectedEvent) event);
-        else if (event instanceof DisconnectingEvent)
-            onDisconnecting((DisconnectingEvent) event);
-        else if (event instanceof DisconnectedEvent)
-            onDisconnected((DisconnectedEvent) event);
-        else if (event instanceof FailureEvent)
-            onFailure((FailureEvent) event);
-        else if (event instanceof DaemonErrorEvent)
-            onDaemonError((DaemonErrorEvent) event);
-        else if (event instanceof JWTErrorEvent)
-            onJWTError((JWTErrorEvent) event);
-        else if (event instanceof TokenExpiringEvent)
-            onTokenExpiring((TokenExpiringEvent) event);
-        else if (event instanceof TokenExpiredEvent) {
-            onTokenExpired((TokenExpiredEvent) event);
-        }
-
-        if (event instanceof OutputEvent)
-            onOutput((OutputEvent) event);
+        for (Dispatcher dispatcher : DISPATCH.get(event.getClass()))
+            dispatcher.dispatch(this, event);
+    }
 
-        if (event instanceof InstallEvent)
-            onInstallUpdate((InstallEvent) event);
+    /**
+     * Whether the listener receives events of the provided type.
+     * <br>Adapters only receive the types of the methods they override, any other listener receives every event.
+     */
+    static boolean receives(Object listener, Class<?> type) {
+        if (!(listener instanceof ClientSocketListenerAdapter))
+            return true;
+        for (Class<?> received : RECEIVED.get(listener.getClass())) {
+            if (received.isAssignableFrom(type))
+                return true;
+        }
+        return false;
+    }
 
-        if (event instanceof ConnectionEvent)
-            onConnectionUpdate((ConnectionEvent) event);
+    @FunctionalInterface
+    private interface Dispatcher {
+        void dispatch(ClientSocketListenerAdapter listener, Event event);
+    }
 
-        if (event instanceof TokenEvent)
-            onTokenUpdate((TokenEvent) event);
+    private static final Map<Class<?>, Dispatcher> DISPATCHERS = new HashMap<>();
+
+    static {
+        DISPATCHERS.put(StatusUpdateEvent.class, (l, e) -> l.onStatusUpdate((StatusUpdateEvent) e));
+        DISPATCHERS.put(StatsUpdateEvent.class, (l, e) -> l.onStatsUpdate((StatsUpdateEvent) e));
+        DISPATCHERS.put(AuthSuccessEvent.class, (l, e) -> l.onAuthSuccess((AuthSuccessEvent) e));
+        DISPATCHERS.put(ConsoleOutputEvent.class, (l, e) -> l.onConsoleOutput((ConsoleOutputEvent) e));
+        DISPATCHERS.put(InstallOutputEvent.class, (l, e) -> l.onInstallOutput((InstallOutputEvent) e));
+        DISPATCHERS.put(DaemonMessageEvent.class, (l, e) -> l.onDaemonMessage((DaemonMessageEvent) e));
+        DISPATCHERS.put(TransferLogEvent.class, (l, e) -> l.onTransferLog((TransferLogEvent) e));
+        DISPATCHERS.put(TransferStatusEvent.class, (l, e) -> l.onTransferStatusUpdate((TransferStatusEvent) e));
+        DISPATCHERS.put(BackupCompletedEvent.class, (l, e) -> l.onBackupCompleted((BackupCompletedEvent) e));
+        DISPATCHERS.put(InstallStartedEvent.class, (l, e) -> l.onInstallStarted((InstallStartedEvent) e));
+        DISPATCHERS.put(InstallCompletedEvent.class, (l, e) -> l.onInstallCompleted((InstallCompletedEvent) e));
+        DISPATCHERS.put(ConnectedEvent.class, (l, e) -> l.onConnected((ConnectedEvent) e));
+        DISPATCHERS.put(DisconnectingEvent.class, (l, e) -> l.onDisconnecting((DisconnectingEvent) e));
+        DISPATCHERS.put(DisconnectedEvent.class, (l, e) -> l.onDisconnected((DisconnectedEvent) e));
+        DISPATCHERS.put(FailureEvent.class, (l, e) -> l.onFailure((FailureEvent) e));
+        DISPATCHERS.put(DaemonErrorEvent.class, (l, e) -> l.onDaemonError((DaemonErrorEvent) e));
+        DISPATCHERS.put(JWTErrorEvent.class, (l, e) -> l.onJWTError((JWTErrorEvent) e));
+        DISPATCHERS.put(TokenExpiringEvent.class, (l, e) -> l.onTokenExpiring((TokenExpiringEvent) e));
+        DISPATCHERS.put(TokenExpiredEvent.class, (l, e) -> l.onTokenExpired((TokenExpiredEvent) e));
+
+        DISPATCHERS.put(OutputEvent.class, (l, e) -> l.onOutput((OutputEvent) e));
+        DISPATCHERS.put(InstallEvent.class, (l, e) -> l.onInstallUpdate((InstallEvent) e));
+        DISPATCHERS.put(ConnectionEvent.class, (l, e) -> l.onConnectionUpdate((ConnectionEvent) e));
+        DISPATCHERS.put(TokenEvent.class, (l, e) -> l.onTokenUpdate((TokenEvent) e));
     }
+
+    // the event types of the methods an adapter class overrides
+    private static final ClassValue<Class<?>[]> RECEIVED = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            List<Class<?>> received = new ArrayList<>();
+            for (Method method : ClientSocketListenerAdapter.class.getDeclaredMethods()) {
+                if (!Modifier.isPublic(method.getModifiers()) || Modifier.isFinal(method.getModifiers())
+                        || method.getParameterCount() != 1 || !method.getName().startsWith("on"))
+                    continue;
+                try {
+                    if (type.getMethod(method.getName(), method.getParameterTypes()).getDeclaringClass() != ClientSocketListenerAdapter.class)
+                        received.add(method.getParameterTypes()[0]);
+                } catch (NoSuchMethodException e) {
+                    received.add(method.getParameterTypes()[0]);
+                }
+            }
+            return received.toArray(new Class<?>[0]);
+        }
+    };
+
+    // the methods of an event class, the most specific type first, looked up once per class
+    private static final ClassValue<Dispatcher[]> DISPATCH = new ClassValue<Dispatcher[]>() {
+        @Override
+        protected Dispatcher[] computeValue(Class<?> type) {
+            List<Dispatcher> dispatchers = new ArrayList<>();
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                Dispatcher dispatcher = DISPATCHERS.get(current);
+                if (dispatcher != null)
+                    dispatchers.add(dispatcher);
+            }
+            return dispatchers.toArray(new Dispatcher[0]);
+        }
+    };
 }
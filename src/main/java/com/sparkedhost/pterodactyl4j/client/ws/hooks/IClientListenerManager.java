@@ -29,4 +29,37 @@ public interface IClientListenerManager {
     List<Object> getRegisteredListeners();
 
     void handle(Event event);
+
+    /**
+     * Whether any registered listener receives events of the provided type.
+     * <br>Websockets drop the frames of events nobody receives before parsing them, and don't request
+     * stats or logs nobody receives.
+     *
+     * @param  type
+     *         The event type
+     *
+     * @return True, if the event type is received by a listener. Defaults to true
+     */
+    default boolean isConsumed(Class<? extends Event> type) {
+        return true;
+    }
+
+    /**
+     * Adds a callback that is run after listeners were registered or unregistered, when {@link #isConsumed(Class)}
+     * might return something else than before.
+     * <br>Websockets use this to request stats or logs as soon as a listener receives them. The callback is run on the
+     * thread changing the listeners. Managers that consume every event ignore it, which is the default.
+     *
+     * @param  callback
+     *         The callback
+     */
+    default void addListenerChangeCallback(Runnable callback) {}
+
+    /**
+     * Removes a callback added through {@link #addListenerChangeCallback(Runnable)}
+     *
+     * @param  callback
+     *         The callback
+     */
+    default void removeListenerChangeCallback(Runnable callback) {}
 }
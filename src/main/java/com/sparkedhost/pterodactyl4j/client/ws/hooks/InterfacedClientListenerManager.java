@@ -23,6 +23,8 @@ import org.slf4j.LoggerFactory;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class InterfacedClientListenerManager implements IClientListenerManager {
@@ -30,6 +32,9 @@ public class InterfacedClientListenerManager implements IClientListenerManager {
     private static final Logger LISTENER_LOG = LoggerFactory.getLogger(ClientSocketListener.class);
 
     private final List<ClientSocketListener> listeners = new CopyOnWriteArrayList<>();
+    // replaced whenever the listeners change
+    private volatile Map<Class<?>, Boolean> consumed = new ConcurrentHashMap<>();
+    private final List<Runnable> changeCallbacks = new CopyOnWriteArrayList<>();
 
     @Override
     public void register(Object listener) {
@@ -37,11 +42,15 @@ public class InterfacedClientListenerManager implements IClientListenerManager {
             throw new IllegalArgumentException("Listener must implement ClientSocketListener");
         }
         listeners.add((ClientSocketListener) listener);
+        consumed = new ConcurrentHashMap<>();
+        listenersChanged();
     }
 
     @Override
     public void unregister(Object listener) {
         listeners.remove(listener);
+        consumed = new ConcurrentHashMap<>();
+        listenersChanged();
     }
 
     @Override
@@ -49,6 +58,31 @@ public class InterfacedClientListenerManager implements IClientListenerManager {
         return Collections.unmodifiableList(new LinkedList<>(listeners));
     }
 
+    @Override
+    public boolean isConsumed(Class<? extends Event> type) {
+        return consumed.computeIfAbsent(type, t -> listeners.stream().anyMatch(l -> ClientSocketListenerAdapter.receives(l, t)));
+    }
+
+    @Override
+    public void addListenerChangeCallback(Runnable callback) {
+        changeCallbacks.add(callback);
+    }
+
+    @Override
+    public void removeListenerChangeCallback(Runnable callback) {
+        changeCallbacks.remove(callback);
+    }
+
+    private void listenersChanged() {
+        for (Runnable callback : changeCallbacks) {
+            try {
+                callback.run();
+            } catch (Throwable throwable) {
+                LISTENER_LOG.error("A listener change callback had an uncaught exception", throwable);
+            }
+        }
+    }
+
     @Override
     public void handle(Event event) {
         for (ClientSocketListener listener : listeners) {
@@ -0,0 +1,45 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws.hooks;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a listener registered to an {@link AnnotatedClientListenerManager AnnotatedClientListenerManager}.
+ * <br>The method must take a single parameter, the {@link com.sparkedhost.pterodactyl4j.client.ws.events.Event Event} type
+ * it is fired for. It is fired for subtypes as well, so a parameter of
+ * {@link com.sparkedhost.pterodactyl4j.client.ws.events.output.OutputEvent OutputEvent} receives every output event.
+ *
+ * <pre>{@code
+ * public class ConsoleLogger {
+ *     @SubscribeEvent
+ *     public void onConsole(ConsoleOutputEvent event) {
+ *         System.out.println(event.getLine());
+ *     }
+ * }
+ * }</pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SubscribeEvent {
+}
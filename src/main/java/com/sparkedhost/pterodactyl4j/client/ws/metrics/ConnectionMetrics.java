@@ -0,0 +1,317 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.ws.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The measurements of a single websocket, collected by a {@link WebSocketMetricsCollector WebSocketMetricsCollector}.
+ * <br>Rates are averaged over the last minute, with recent frames weighing more.
+ */
+public class ConnectionMetrics {
+
+    /** The events Wings sends, frames of other events are counted as {@link #OTHER} */
+    public static final List<String> EVENTS = Collections.unmodifiableList(Arrays.asList(
+            "auth success", "status", "console output", "daemon message", "install started", "install output",
+            "install completed", "stats", "transfer logs", "transfer status", "backup completed", "token expiring",
+            "token expired", "daemon error", "jwt error"));
+    public static final String OTHER = "other";
+
+    private static final Map<String, Integer> INDEXES = new HashMap<>();
+    private static final long RATE_WINDOW = TimeUnit.MINUTES.toNanos(1);
+    private static final long RECONNECT_WINDOW = TimeUnit.HOURS.toNanos(1);
+
+    static {
+        for (int i = 0; i < EVENTS.size(); i++)
+            INDEXES.put(EVENTS.get(i), i);
+    }
+
+    private final String server;
+    private final long[] frames = new long[EVENTS.size() + 1];
+    private final long[] dropped = new long[EVENTS.size() + 1];
+    private final long[] handlerNanos = new long[EVENTS.size() + 1];
+    private final long[] maxHandlerNanos = new long[EVENTS.size() + 1];
+    private final DecayingRate[] rates = new DecayingRate[EVENTS.size() + 1];
+    private final DecayingRate reconnectRate = new DecayingRate(RECONNECT_WINDOW);
+    private long bytes;
+    private long lastFrameAt;
+    private long connectedAt;
+    private boolean connected;
+    private long lastConnectNanos = -1;
+    private long lastAuthNanos = -1;
+    private long maxAuthNanos = -1;
+    private long authentications;
+    private long tokenRefreshes;
+    private long disconnects;
+    private long reconnects;
+    private int lastCloseCode;
+
+    ConnectionMetrics(String server) {
+        this.server = server;
+        for (int i = 0; i < rates.length; i++)
+            rates[i] = new DecayingRate(RATE_WINDOW);
+    }
+
+    static int index(String event) {
+        Integer index = event == null ? null : INDEXES.get(event);
+        return index == null ? EVENTS.size() : index;
+    }
+
+    synchronized void recordFrame(String event, int length, long nanos) {
+        long now = System.nanoTime();
+        int index = index(event);
+        frames[index]++;
+        rates[index].mark(now);
+        bytes += length;
+        lastFrameAt = now;
+        if (nanos < 0) {
+            dropped[index]++;
+            return;
+        }
+        handlerNanos[index] += nanos;
+        if (nanos > maxHandlerNanos[index])
+            maxHandlerNanos[index] = nanos;
+    }
+
+    synchronized void recordConnected(long nanos) {
+        connected = true;
+        connectedAt = System.nanoTime();
+        lastFrameAt = connectedAt;
+        lastConnectNanos = nanos;
+    }
+
+    synchronized void recordAuthenticated(long nanos) {
+        authentications++;
+        lastAuthNanos = nanos;
+        if (nanos > maxAuthNanos)
+            maxAuthNanos = nanos;
+    }
+
+    synchronized void recordTokenRefresh() {
+        tokenRefreshes++;
+    }
+
+    synchronized void recordDisconnected(int code) {
+        connected = false;
+        disconnects++;
+        lastCloseCode = code;
+    }
+
+    synchronized void recordReconnect() {
+        reconnects++;
+        reconnectRate.mark(System.nanoTime());
+    }
+
+    public String getServer() {
+        return server;
+    }
+
+    /**
+     * Whether the websocket is open, as far as the collector has seen
+     *
+     * @return True, if the websocket is open
+     */
+    public synchronized boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * The amount of frames of an event received
+     *
+     * @param  event
+     *         The event, or {@link #OTHER}
+     *
+     * @return The amount of frames, including dropped ones
+     */
+    public synchronized long getFrames(String event) {
+        return frames[index(event)];
+    }
+
+    /**
+     * The amount of frames received
+     *
+     * @return The amount of frames, including dropped ones
+     */
+    public synchronized long getFrames() {
+        return Arrays.stream(frames).sum();
+    }
+
+    /**
+     * The amount of frames of an event that were dropped unparsed, because no listener receives them
+     *
+     * @param  event
+     *         The event, or {@link #OTHER}
+     *
+     * @return The amount of dropped frames
+     */
+    public synchronized long getDroppedFrames(String event) {
+        return dropped[index(event)];
+    }
+
+    /**
+     * The recent rate of frames of an event
+     *
+     * @param  event
+     *         The event, or {@link #OTHER}
+     *
+     * @return The frames per second
+     */
+    public synchronized double getFramesPerSecond(String event) {
+        return rates[index(event)].get(System.nanoTime());
+    }
+
+    /**
+     * The recent rate of frames
+     *
+     * @return The frames per second
+     */
+    public synchronized double getFramesPerSecond() {
+        long now = System.nanoTime();
+        double rate = 0;
+        for (DecayingRate eventRate : rates)
+            rate += eventRate.get(now);
+        return rate;
+    }
+
+    /**
+     * The size of the frames received
+     *
+     * @return The total length of the frames in characters
+     *
+     * @see    WebSocketMetrics#onFrame(String, String, int, long)
+     */
+    public synchronized long getBytesReceived() {
+        return bytes;
+    }
+
+    /**
+     * The average time the websocket thread spent on a handled frame of an event
+     *
+     * @param  event
+     *         The event, or {@link #OTHER}
+     *
+     * @return The average time in nanoseconds, 0 if no frame was handled
+     */
+    public synchronized long getAverageHandlerNanos(String event) {
+        int index = index(event);
+        long handled = frames[index] - dropped[index];
+        return handled == 0 ? 0 : handlerNanos[index] / handled;
+    }
+
+    /**
+     * The longest time the websocket thread spent on a frame of an event
+     *
+     * @param  event
+     *         The event, or {@link #OTHER}
+     *
+     * @return The time in nanoseconds
+     */
+    public synchronized long getMaxHandlerNanos(String event) {
+        return maxHandlerNanos[index(event)];
+    }
+
+    /**
+     * The total time the websocket thread spent on frames
+     *
+     * @return The time in nanoseconds
+     */
+    public synchronized long getHandlerNanos() {
+        return Arrays.stream(handlerNanos).sum();
+    }
+
+    /**
+     * The time since the last frame, or since the websocket opened if no frame was received since
+     *
+     * @return The time in milliseconds, or -1 if the websocket never opened
+     */
+    public synchronized long getMillisSinceLastFrame() {
+        return connectedAt == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastFrameAt);
+    }
+
+    /**
+     * The time from requesting the socket url to the opened websocket, of the last connection
+     *
+     * @return The time in nanoseconds, or -1 if the websocket never opened
+     */
+    public synchronized long getLastConnectNanos() {
+        return lastConnectNanos;
+    }
+
+    /**
+     * The time from sending the token to the auth success, of the last authentication
+     *
+     * @return The time in nanoseconds, or -1 if the websocket never authenticated
+     */
+    public synchronized long getLastAuthNanos() {
+        return lastAuthNanos;
+    }
+
+    /**
+     * The longest time from sending a token to the auth success
+     *
+     * @return The time in nanoseconds, or -1 if the websocket never authenticated
+     */
+    public synchronized long getMaxAuthNanos() {
+        return maxAuthNanos;
+    }
+
+    public synchronized long getAuthentications() {
+        return authentications;
+    }
+
+    public synchronized long getTokenRefreshes() {
+        return tokenRefreshes;
+    }
+
+    public synchronized long getDisconnects() {
+        return disconnects;
+    }
+
+    /**
+     * The close code of the last disconnect
+     *
+     * @return The close code, -1 if the websocket failed, or 0 if it never disconnected
+     */
+    public synchronized int getLastCloseCode() {
+        return lastCloseCode;
+    }
+
+    public synchronized long getReconnects() {
+        return reconnects;
+    }
+
+    /**
+     * The recent rate of reconnects, averaged over the last hour
+     *
+     * @return The reconnects per hour
+     */
+    public synchronized double getReconnectsPerHour() {
+        return reconnectRate.get(System.nanoTime()) * TimeUnit.HOURS.toSeconds(1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ConnectionMetrics:" + server + "(connected=" + connected + ", frames=" + getFrames()
+                + ", fps=" + String.format("%.2f", getFramesPerSecond()) + ", reconnects=" + reconnects
+                + ", sinceLastFrame=" + getMillisSinceLastFrame() + "ms)";
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.ws.metrics;
+
+// an event rate that decays exponentially, so it follows the recent rate without keeping samples
+final class DecayingRate {
+
+    private final double window;
+    private double rate;
+    private long updatedAt;
+
+    DecayingRate(long windowNanos) {
+        this.window = windowNanos;
+    }
+
+    void mark(long now) {
+        rate = get(now) + 1e9 / window;
+        updatedAt = now;
+    }
+
+    // in events per second
+    double get(long now) {
+        if (rate == 0)
+            return 0;
+        return rate * Math.exp(-(now - updatedAt) / window);
+    }
+}
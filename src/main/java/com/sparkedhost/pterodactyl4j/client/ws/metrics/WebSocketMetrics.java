@@ -0,0 +1,96 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.ws.metrics;
+
+/**
+ * Receives measurements of websockets, set with
+ * {@link com.sparkedhost.pterodactyl4j.client.managers.WebSocketPoolBuilder#setMetrics(WebSocketMetrics) WebSocketPoolBuilder.setMetrics}
+ * or {@link com.sparkedhost.pterodactyl4j.client.managers.WebSocketBuilder#setMetrics(WebSocketMetrics) WebSocketBuilder.setMetrics}.
+ *
+ * <p>The methods are called on the websocket threads, for every frame, so implementations have to be fast and thread-safe.
+ * Every method does nothing by default.
+ *
+ * @see WebSocketMetricsCollector
+ */
+public interface WebSocketMetrics {
+
+    /** Ignores every measurement */
+    WebSocketMetrics NOOP = new WebSocketMetrics() {};
+
+    /**
+     * Called when a websocket opened
+     *
+     * @param  server
+     *         The identifier of the server
+     * @param  connectNanos
+     *         The time from requesting the socket url to the opened websocket
+     */
+    default void onConnected(String server, long connectNanos) {}
+
+    /**
+     * Called when the panel accepted a token
+     *
+     * @param  server
+     *         The identifier of the server
+     * @param  latencyNanos
+     *         The time from sending the token to the auth success
+     */
+    default void onAuthenticated(String server, long latencyNanos) {}
+
+    /**
+     * Called when a websocket requests a new token, ahead of expiry or after Wings rejected one
+     *
+     * @param  server
+     *         The identifier of the server
+     */
+    default void onTokenRefresh(String server) {}
+
+    /**
+     * Called for every frame received
+     *
+     * @param  server
+     *         The identifier of the server
+     * @param  event
+     *         The event of the frame, or null if it couldn't be read
+     * @param  length
+     *         The length of the frame in characters, equal to its size in bytes unless it holds non-ASCII text
+     * @param  handlerNanos
+     *         The time the websocket thread spent on the frame, including the listeners run on it,
+     *         or -1 if the frame was dropped because no listener receives it
+     */
+    default void onFrame(String server, String event, int length, long handlerNanos) {}
+
+    /**
+     * Called when a websocket was closed by the remote end or failed
+     *
+     * @param  server
+     *         The identifier of the server
+     * @param  code
+     *         The close code, or -1 if the websocket failed
+     */
+    default void onDisconnected(String server, int code) {}
+
+    /**
+     * Called when a websocket starts reconnecting
+     *
+     * @param  server
+     *         The identifier of the server
+     * @param  attempt
+     *         The amount of attempts that failed since the websocket was last authenticated
+     */
+    default void onReconnect(String server, int attempt) {}
+}
@@ -0,0 +1,224 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.client.ws.metrics;
+
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link ConnectionMetrics ConnectionMetrics} per websocket and sums them up over all websockets.
+ * <br>{@link #findSilent(long, TimeUnit)} and {@link #findFlapping(double)} point at websockets that stopped
+ * receiving frames or keep reconnecting.
+ */
+public class WebSocketMetricsCollector implements WebSocketMetrics {
+
+    private final Map<String, ConnectionMetrics> connections = new ConcurrentHashMap<>();
+
+    private ConnectionMetrics of(String server) {
+        return connections.computeIfAbsent(server, ConnectionMetrics::new);
+    }
+
+    @Override
+    public void onConnected(String server, long connectNanos) {
+        of(server).recordConnected(connectNanos);
+    }
+
+    @Override
+    public void onAuthenticated(String server, long latencyNanos) {
+        of(server).recordAuthenticated(latencyNanos);
+    }
+
+    @Override
+    public void onTokenRefresh(String server) {
+        of(server).recordTokenRefresh();
+    }
+
+    @Override
+    public void onFrame(String server, String event, int length, long handlerNanos) {
+        of(server).recordFrame(event, length, handlerNanos);
+    }
+
+    @Override
+    public void onDisconnected(String server, int code) {
+        of(server).recordDisconnected(code);
+    }
+
+    @Override
+    public void onReconnect(String server, int attempt) {
+        of(server).recordReconnect();
+    }
+
+    /**
+     * Returns the metrics of a websocket
+     *
+     * @param  server
+     *         The identifier of the server
+     *
+     * @return The {@link ConnectionMetrics ConnectionMetrics}, or null if nothing was measured for the server
+     */
+    public ConnectionMetrics getConnection(String server) {
+        return connections.get(server);
+    }
+
+    /**
+     * The metrics of every websocket measured
+     *
+     * @return Immutable view of the metrics
+     */
+    public Collection<ConnectionMetrics> getConnections() {
+        return Collections.unmodifiableCollection(connections.values());
+    }
+
+    /**
+     * The websockets that are open but haven't received a frame for a while.
+     * <br>Wings sends stats every few seconds while a server is running, a running server that stays silent
+     * usually has a stuck websocket.
+     *
+     * @param  time
+     *         The time without frames
+     * @param  unit
+     *         The unit of the time
+     *
+     * @return The metrics of the silent websockets
+     */
+    public List<ConnectionMetrics> findSilent(long time, TimeUnit unit) {
+        Checks.notNull(unit, "Unit");
+        long millis = unit.toMillis(time);
+        return connections.values().stream()
+                .filter(c -> c.isConnected() && c.getMillisSinceLastFrame() > millis)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The websockets that reconnected more often than a rate over the last hour
+     *
+     * @param  reconnectsPerHour
+     *         The reconnect rate
+     *
+     * @return The metrics of the flapping websockets
+     */
+    public List<ConnectionMetrics> findFlapping(double reconnectsPerHour) {
+        return connections.values().stream()
+                .filter(c -> c.getReconnectsPerHour() > reconnectsPerHour)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The amount of websockets that are open
+     *
+     * @return The amount of open websockets
+     */
+    public int getConnectedCount() {
+        return (int) connections.values().stream().filter(ConnectionMetrics::isConnected).count();
+    }
+
+    /**
+     * The recent rate of frames of an event over all websockets
+     *
+     * @param  event
+     *         The event, or {@link ConnectionMetrics#OTHER}
+     *
+     * @return The frames per second
+     */
+    public double getFramesPerSecond(String event) {
+        return sum(c -> c.getFramesPerSecond(event));
+    }
+
+    /**
+     * The recent rate of frames over all websockets
+     *
+     * @return The frames per second
+     */
+    public double getFramesPerSecond() {
+        return sum(ConnectionMetrics::getFramesPerSecond);
+    }
+
+    public long getFrames(String event) {
+        return total(c -> c.getFrames(event));
+    }
+
+    public long getFrames() {
+        return total(ConnectionMetrics::getFrames);
+    }
+
+    public long getBytesReceived() {
+        return total(ConnectionMetrics::getBytesReceived);
+    }
+
+    public long getHandlerNanos() {
+        return total(ConnectionMetrics::getHandlerNanos);
+    }
+
+    public long getAuthentications() {
+        return total(ConnectionMetrics::getAuthentications);
+    }
+
+    public long getTokenRefreshes() {
+        return total(ConnectionMetrics::getTokenRefreshes);
+    }
+
+    public long getDisconnects() {
+        return total(ConnectionMetrics::getDisconnects);
+    }
+
+    public long getReconnects() {
+        return total(ConnectionMetrics::getReconnects);
+    }
+
+    /**
+     * The longest time any websocket waited for the panel to accept a token
+     *
+     * @return The time in nanoseconds, or -1 if no websocket authenticated
+     */
+    public long getMaxAuthNanos() {
+        return connections.values().stream().mapToLong(ConnectionMetrics::getMaxAuthNanos).max().orElse(-1);
+    }
+
+    /**
+     * Forgets the metrics of a websocket
+     *
+     * @param  server
+     *         The identifier of the server
+     */
+    public void remove(String server) {
+        connections.remove(server);
+    }
+
+    /**
+     * Forgets the metrics of every websocket
+     */
+    public void clear() {
+        connections.clear();
+    }
+
+    private long total(ToLongFunction<ConnectionMetrics> metric) {
+        return connections.values().stream().mapToLong(metric).sum();
+    }
+
+    private double sum(ToDoubleFunction<ConnectionMetrics> metric) {
+        return connections.values().stream().mapToDouble(metric).sum();
+    }
+}
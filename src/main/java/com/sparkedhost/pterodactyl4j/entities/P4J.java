@@ -19,6 +19,8 @@ package com.sparkedhost.pterodactyl4j.entities;
 import com.sparkedhost.pterodactyl4j.application.entities.PteroApplication;
 import com.sparkedhost.pterodactyl4j.client.entities.PteroClient;
 import com.sparkedhost.pterodactyl4j.requests.Requester;
+import com.sparkedhost.pterodactyl4j.requests.ResponseCachePolicy;
+import com.sparkedhost.pterodactyl4j.utils.cache.EntityCache;
 import okhttp3.OkHttpClient;
 
 import java.util.concurrent.ExecutorService;
@@ -35,7 +37,18 @@ public interface P4J {
 	ExecutorService getActionPool();
 	ScheduledExecutorService getRateLimitPool();
 	ExecutorService getSupplierPool();
+	/**
+	 * The pool file transfers block on, implementations without a dedicated pool use the {@link #getSupplierPool() supplier pool}
+	 *
+	 * @return The I/O pool
+	 */
+	default ExecutorService getIOPool() {
+		return getSupplierPool();
+	}
+	int getMaxConcurrentRequests();
 	OkHttpClient getWebSocketClient();
+	EntityCache getEntityCache();
+	ResponseCachePolicy getResponseCachePolicy();
 	PteroClient asClient();
 	PteroApplication asApplication();
 
@@ -22,6 +22,8 @@ import com.sparkedhost.pterodactyl4j.client.entities.PteroClient;
 import com.sparkedhost.pterodactyl4j.client.entities.impl.PteroClientImpl;
 import com.sparkedhost.pterodactyl4j.entities.P4J;
 import com.sparkedhost.pterodactyl4j.requests.Requester;
+import com.sparkedhost.pterodactyl4j.requests.ResponseCachePolicy;
+import com.sparkedhost.pterodactyl4j.utils.cache.EntityCache;
 import okhttp3.OkHttpClient;
 
 import java.util.concurrent.ExecutorService;
@@ -38,10 +40,18 @@ public class P4JImpl implements P4J {
     private final ExecutorService actionPool;
     private final ScheduledExecutorService rateLimitPool;
     private final ExecutorService supplierPool;
+    private final ExecutorService ioPool;
+    private final int maxConcurrentRequests;
     private final OkHttpClient webSocketClient;
+    private final EntityCache entityCache;
+    private final ResponseCachePolicy responseCachePolicy;
+    // shared by every caller, it holds the lookup indexes and batch windows of the Application API
+    private final PteroApplication application;
 
     public P4JImpl(String applicationUrl, String token, String userAgent, OkHttpClient httpClient, ExecutorService callbackPool, ExecutorService actionPool,
-                   ScheduledExecutorService rateLimitPool, ExecutorService supplierPool, OkHttpClient webSocketClient) {
+                   ScheduledExecutorService rateLimitPool, ExecutorService supplierPool, ExecutorService ioPool, OkHttpClient webSocketClient,
+                   EntityCache entityCache, ResponseCachePolicy responseCachePolicy,
+                   int maxConcurrentRequests) {
         this.token = token;
         this.applicationUrl = applicationUrl;
         this.userAgent = userAgent;
@@ -50,8 +60,13 @@ public class P4JImpl implements P4J {
         this.actionPool = actionPool;
         this.rateLimitPool = rateLimitPool;
         this.supplierPool = supplierPool;
+        this.ioPool = ioPool;
         this.webSocketClient = webSocketClient;
+        this.entityCache = entityCache;
+        this.responseCachePolicy = responseCachePolicy;
+        this.maxConcurrentRequests = maxConcurrentRequests;
         this.requester = new Requester(this);
+        this.application = new PteroApplicationImpl(this);
     }
 
     @Override
@@ -99,14 +114,34 @@ public class P4JImpl implements P4J {
         return supplierPool;
     }
 
+    @Override
+    public ExecutorService getIOPool() {
+        return ioPool;
+    }
+
+    @Override
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
     @Override
     public OkHttpClient getWebSocketClient() {
         return webSocketClient;
     }
 
+    @Override
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    @Override
+    public ResponseCachePolicy getResponseCachePolicy() {
+        return responseCachePolicy;
+    }
+
     @Override
     public PteroApplication asApplication() {
-        return new PteroApplicationImpl(this);
+        return application;
     }
 
     @Override
@@ -0,0 +1,378 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.requests;
+
+import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.exceptions.NotFoundException;
+import com.sparkedhost.pterodactyl4j.exceptions.RateLimitedException;
+import com.sparkedhost.pterodactyl4j.requests.action.PaginationAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Collects lookups by id that are made within a short window and resolves them together.
+ *
+ * <p>Every id is only requested once per batch, no matter how many callers asked for it, and each caller
+ * receives the entity it asked for. How a batch is resolved is up to the {@link BatchFunction BatchFunction},
+ * usually either a listing that contains all of the requested entities, or one request per distinct id.
+ *
+ * <p>Batches are resolved without blocking any thread, so lookups can be executed from any pool,
+ * including the supplier pool that resolves other actions.
+ *
+ * @param <V>
+ *        The entity type
+ */
+public class BatchLoader<V> {
+
+    public static final Logger BATCH_LOG = LoggerFactory.getLogger(BatchLoader.class);
+
+    public static final long DEFAULT_WINDOW = 10;
+
+    private final P4J api;
+    private final BatchFunction<V> function;
+    private final long window;
+
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<V>> pending = new HashMap<>();
+    private long pendingDeadline = 0;
+    private boolean pendingUnbounded = false;
+
+    public BatchLoader(P4J api, BatchFunction<V> function) {
+        this(api, function, DEFAULT_WINDOW);
+    }
+
+    public BatchLoader(P4J api, BatchFunction<V> function, long window) {
+        this.api = api;
+        this.function = function;
+        this.window = window;
+    }
+
+    /**
+     * Loads a single entity. The lookup is joined with all other lookups made within the batch window.
+     *
+     * @param  id
+     *         The entity id
+     *
+     * @return {@link PteroAction PteroAction} - Type of the entity
+     */
+    public PteroAction<V> load(long id) {
+        return new BatchedPteroAction(id);
+    }
+
+    /**
+     * Loads all provided entities in a single batch
+     *
+     * @param  ids
+     *         The entity ids, duplicates are only requested once
+     *
+     * @return {@link PteroAction PteroAction} - Type {@link java.util.Map Map} of id to entity, ids that don't exist are missing
+     */
+    public PteroAction<Map<Long, V>> loadAll(Collection<Long> ids) {
+        return PteroActionImpl.onExecute(api, () -> join(loadAllAsync(ids)), () -> loadAllAsync(ids));
+    }
+
+    private CompletableFuture<Map<Long, V>> loadAllAsync(Collection<Long> ids) {
+        return load(new HashSet<>(ids), 0).thenApply(Collections::unmodifiableMap);
+    }
+
+    private CompletableFuture<Map<Long, V>> load(Set<Long> ids, long deadline) {
+        try {
+            return function.load(ids, deadline);
+        } catch (Throwable t) {
+            CompletableFuture<Map<Long, V>> future = new CompletableFuture<>();
+            future.completeExceptionally(t);
+            return future;
+        }
+    }
+
+    private CompletableFuture<V> enqueue(long id, long deadline) {
+        synchronized (lock) {
+            CompletableFuture<V> future = pending.get(id);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                if (pending.isEmpty())
+                    api.getRateLimitPool().schedule(this::flush, window, TimeUnit.MILLISECONDS);
+                pending.put(id, future);
+            }
+            // the batch may only give up once every caller did
+            if (deadline > 0)
+                pendingDeadline = Math.max(pendingDeadline, deadline);
+            else
+                pendingUnbounded = true;
+            return future;
+        }
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<V>> batch;
+        long deadline;
+        synchronized (lock) {
+            batch = pending;
+            deadline = pendingUnbounded ? 0 : pendingDeadline;
+            pending = new HashMap<>();
+            pendingDeadline = 0;
+            pendingUnbounded = false;
+        }
+        BATCH_LOG.trace("Resolving batch of {} ids", batch.size());
+        load(batch.keySet(), deadline).whenComplete((values, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                batch.values().forEach(future -> future.completeExceptionally(cause));
+                return;
+            }
+            batch.forEach((id, future) -> {
+                V value = values.get(id);
+                if (value == null)
+                    future.completeExceptionally(new NotFoundException("The requested entity was not found."));
+                else
+                    future.complete(value);
+            });
+        });
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves every id of a batch, ids that don't exist are left out of the result.
+     * <br>Implementations must not block, the batch is resolved on the rate limit pool.
+     *
+     * @param <V>
+     *        The entity type
+     */
+    @FunctionalInterface
+    public interface BatchFunction<V> {
+
+        /**
+         * Starts resolving the ids
+         *
+         * @param  ids
+         *         The distinct ids of the batch
+         * @param  deadline
+         *         The deadline for the requests of the batch in epoch milliseconds, or 0 if at least one caller waits without one
+         *
+         * @return A future completing with the found entities
+         */
+        CompletableFuture<Map<Long, V>> load(Set<Long> ids, long deadline);
+    }
+
+    /**
+     * Resolves each id with its own request. The requests are queued at once and share the rate limiter.
+     *
+     * @param  retriever
+     *         Retrieves a single entity
+     * @param  <V>
+     *         The entity type
+     *
+     * @return The batch function
+     */
+    public static <V> BatchFunction<V> ofSingle(LongFunction<PteroAction<V>> retriever) {
+        return (ids, deadline) -> {
+            Map<Long, CompletableFuture<V>> futures = new HashMap<>();
+            for (long id : ids) {
+                PteroAction<V> action = retriever.apply(id);
+                if (deadline > 0)
+                    action = action.deadline(deadline);
+                futures.put(id, action.submit());
+            }
+            return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).handle((v, t) -> {
+                // every future is done here, so joining doesn't block
+                Map<Long, V> values = new HashMap<>();
+                for (Map.Entry<Long, CompletableFuture<V>> entry : futures.entrySet()) {
+                    try {
+                        values.put(entry.getKey(), entry.getValue().join());
+                    } catch (CompletionException e) {
+                        if (!(e.getCause() instanceof NotFoundException))
+                            throw e;
+                    }
+                }
+                return values;
+            });
+        };
+    }
+
+    /**
+     * Resolves the ids from a listing that is known to contain all of them, like the eggs of a nest
+     *
+     * @param  list
+     *         Retrieves the listing
+     * @param  idFunction
+     *         The id of an entity
+     * @param  <V>
+     *         The entity type
+     *
+     * @return The batch function
+     */
+    public static <V> BatchFunction<V> ofList(Supplier<PteroAction<List<V>>> list, ToLongFunction<V> idFunction) {
+        return (ids, deadline) -> {
+            PteroAction<List<V>> action = list.get();
+            if (deadline > 0)
+                action = action.deadline(deadline);
+            return action.submit().thenApply(listed -> {
+                Map<Long, V> values = new HashMap<>();
+                for (V value : listed) {
+                    long id = idFunction.applyAsLong(value);
+                    if (ids.contains(id))
+                        values.put(id, value);
+                }
+                return values;
+            });
+        };
+    }
+
+    /**
+     * Resolves the ids from a paginated listing, falling back to single requests when that is cheaper.
+     * <br>After the first page the amount of pages is known, so the listing is only walked further if the remaining
+     * pages are fewer than the ids that are still missing. Ids that are not found in the listing are requested one by one.
+     *
+     * @param  list
+     *         Creates a new listing
+     * @param  idFunction
+     *         The id of an entity
+     * @param  retriever
+     *         Retrieves a single entity
+     * @param  <V>
+     *         The entity type
+     *
+     * @return The batch function
+     */
+    public static <V> BatchFunction<V> ofPagination(Supplier<PaginationAction<V>> list, ToLongFunction<V> idFunction,
+                                                    LongFunction<PteroAction<V>> retriever) {
+        BatchFunction<V> single = ofSingle(retriever);
+        return (ids, deadline) -> {
+            if (ids.size() == 1)
+                return single.load(ids, deadline);
+
+            // only touched by the iteration, which handles one element at a time
+            Map<Long, V> values = new HashMap<>();
+            Set<Long> missing = new HashSet<>(ids);
+            PaginationAction<V> action = list.get();
+            if (deadline > 0)
+                action.deadline(deadline);
+            boolean[] firstPage = {true};
+            CompletableFuture<?> iteration = action.forEachAsync(value -> {
+                long id = idFunction.applyAsLong(value);
+                if (missing.remove(id))
+                    values.put(id, value);
+                if (firstPage[0]) {
+                    firstPage[0] = false;
+                    if (action.getTotalPages() - 1 > missing.size()) {
+                        // the first page is already cached by the action, use what it contains
+                        for (V cached : action.getCached()) {
+                            long cachedId = idFunction.applyAsLong(cached);
+                            if (missing.remove(cachedId))
+                                values.put(cachedId, cached);
+                        }
+                        return false;
+                    }
+                }
+                return !missing.isEmpty();
+            }, error -> {});
+            return iteration.thenCompose(v -> {
+                if (missing.isEmpty())
+                    return CompletableFuture.completedFuture(values);
+                return single.load(missing, deadline).thenApply(found -> {
+                    values.putAll(found);
+                    return values;
+                });
+            });
+        };
+    }
+
+    private class BatchedPteroAction implements PteroAction<V> {
+
+        private final long id;
+        private long deadline = 0;
+
+        private BatchedPteroAction(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public P4J getP4J() {
+            return api;
+        }
+
+        /**
+         * Joins the pending batch, the returned future fails with a {@link TimeoutException TimeoutException}
+         * once the deadline of this action passed, even if the batch is still waiting for other callers
+         */
+        private CompletableFuture<V> load() {
+            if (deadline <= 0)
+                return enqueue(id, 0);
+
+            CompletableFuture<V> future = new CompletableFuture<>();
+            long delay = deadline - System.currentTimeMillis();
+            if (delay <= 0) {
+                future.completeExceptionally(new TimeoutException("Action has timed out"));
+                return future;
+            }
+            enqueue(id, deadline).whenComplete((value, error) -> {
+                if (error == null)
+                    future.complete(value);
+                else
+                    future.completeExceptionally(error);
+            });
+            ScheduledFuture<?> timeout = api.getRateLimitPool().schedule(
+                    () -> future.completeExceptionally(new TimeoutException("Action has timed out")), delay, TimeUnit.MILLISECONDS);
+            future.whenComplete((value, error) -> timeout.cancel(false));
+            return future;
+        }
+
+        @Override
+        public V execute(boolean shouldQueue) throws RateLimitedException {
+            return join(load());
+        }
+
+        @Override
+        public void executeAsync(Consumer<? super V> success, Consumer<? super Throwable> failure) {
+            Consumer<? super V> onSuccess = success == null ? PteroAction.getDefaultSuccess() : success;
+            Consumer<? super Throwable> onFailure = failure == null ? PteroAction.getDefaultFailure() : failure;
+            load().whenCompleteAsync((value, error) -> {
+                if (error == null)
+                    onSuccess.accept(value);
+                else
+                    onFailure.accept(error instanceof CompletionException ? error.getCause() : error);
+            }, api.getCallbackPool());
+        }
+
+        @Override
+        public PteroAction<V> deadline(long timestamp) {
+            this.deadline = timestamp;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.requests;
+
+import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.exceptions.RateLimitedException;
+import com.sparkedhost.pterodactyl4j.utils.cache.CacheType;
+import com.sparkedhost.pterodactyl4j.utils.cache.EntityCache;
+
+import java.util.function.Consumer;
+
+public class CachedPteroAction<T> implements PteroAction<T> {
+
+    private final EntityCache cache;
+    private final CacheType type;
+    private final String id;
+    private final PteroAction<T> action;
+
+    private CachedPteroAction(EntityCache cache, CacheType type, String id, PteroAction<T> action) {
+        this.cache = cache;
+        this.type = type;
+        this.id = id;
+        this.action = action;
+    }
+
+    public static <T> PteroAction<T> of(P4J api, CacheType type, String id, PteroAction<T> action) {
+        EntityCache cache = api.getEntityCache();
+        if (!cache.isEnabled(type))
+            return action;
+        return new CachedPteroAction<>(cache, type, id, action);
+    }
+
+    @Override
+    public P4J getP4J() {
+        return action.getP4J();
+    }
+
+    @Override
+    public T execute(boolean shouldQueue) throws RateLimitedException {
+        T cached = cache.get(type, id);
+        if (cached != null)
+            return cached;
+
+        long generation = cache.getGeneration(type);
+        T value = action.execute(shouldQueue);
+        cache.put(type, id, value, generation);
+        return value;
+    }
+
+    @Override
+    public void executeAsync(Consumer<? super T> success, Consumer<? super Throwable> failure) {
+        T cached = cache.get(type, id);
+        if (cached != null) {
+            // like a request, a cache hit completes on the callback pool and never on the calling thread
+            Consumer<? super T> finalizedSuccess = success == null ? PteroAction.getDefaultSuccess() : success;
+            getP4J().getCallbackPool().execute(() -> finalizedSuccess.accept(cached));
+            return;
+        }
+
+        long generation = cache.getGeneration(type);
+        action.executeAsync(value -> {
+            cache.put(type, id, value, generation);
+            if (success == null)
+                PteroAction.getDefaultSuccess().accept(value);
+            else
+                success.accept(value);
+        }, failure);
+    }
+
+    @Override
+    public PteroAction<T> deadline(long timestamp) {
+        action.deadline(timestamp);
+        return this;
+    }
+}
@@ -21,6 +21,7 @@ import com.sparkedhost.pterodactyl4j.entities.P4J;
 import com.sparkedhost.pterodactyl4j.exceptions.RateLimitedException;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -28,10 +29,16 @@ public class DeferredPteroAction<T> implements PteroAction<T> {
 
     private final P4J api;
     private final Supplier<? extends T> value;
+    private final Supplier<? extends CompletableFuture<? extends T>> asyncValue;
 
     public DeferredPteroAction(P4J api, Supplier<? extends T> value) {
+        this(api, value, null);
+    }
+
+    public DeferredPteroAction(P4J api, Supplier<? extends T> value, Supplier<? extends CompletableFuture<? extends T>> asyncValue) {
         this.api = api;
         this.value = value;
+        this.asyncValue = asyncValue;
     }
 
     @Override
@@ -46,15 +53,34 @@ public class DeferredPteroAction<T> implements PteroAction<T> {
 
     @Override
     public void executeAsync(Consumer<? super T> success, Consumer<? super Throwable> failure) {
-        if (success == null)
-            PteroAction.getDefaultSuccess().accept(value);
-        else
-            CompletableFuture.supplyAsync(value, api.getSupplierPool())
-                    .thenAcceptAsync(success);
+        Consumer<? super T> finalizedSuccess = success == null ? PteroAction.getDefaultSuccess() : success;
+        Consumer<? super Throwable> finalizedFailure = failure == null ? PteroAction.getDefaultFailure() : failure;
+
+        submit().whenCompleteAsync((result, error) -> {
+            if (error == null)
+                finalizedSuccess.accept(result);
+            else
+                finalizedFailure.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        }, api.getCallbackPool());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<T> submit() {
+        if (asyncValue == null)
+            return CompletableFuture.supplyAsync(value::get, api.getSupplierPool());
+        try {
+            // the async path never parks a supplier thread while its requests are in flight
+            return (CompletableFuture<T>) asyncValue.get();
+        } catch (Throwable t) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(t);
+            return future;
+        }
     }
 
     @Override
     public PteroAction<T> deadline(long timestamp) {
         return this;
     }
-}
\ No newline at end of file
+}
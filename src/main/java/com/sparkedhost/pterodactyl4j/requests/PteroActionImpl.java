@@ -25,6 +25,7 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -44,6 +45,11 @@ public class PteroActionImpl<T> implements PteroAction<T> {
         return new DeferredPteroAction<>(api, supplier);
     }
 
+    public static <T> DeferredPteroAction<T> onExecute(P4J api, Supplier<? extends T> supplier,
+                                                       Supplier<? extends CompletableFuture<? extends T>> asyncSupplier) {
+        return new DeferredPteroAction<>(api, supplier, asyncSupplier);
+    }
+
     public static <T> PteroActionImpl<T> onRequestExecute(P4J api, Route.CompiledRoute route) {
         return new PteroActionImpl<>(api, route);
     }
@@ -90,8 +96,17 @@ public class PteroActionImpl<T> implements PteroAction<T> {
     public T execute(boolean shouldQueue) {
         Route.CompiledRoute route = finalizeRoute();
         RequestBody data = finalizeData();
+        return join(new RequestFuture<>(this, route, data, shouldQueue, deadline));
+    }
+
+    /**
+     * Blocks on the future and rethrows a wrapped {@link PteroException} as-is
+     *
+     * @return The value of the future
+     */
+    public static <T> T join(CompletableFuture<T> future) {
         try {
-            return new RequestFuture<>(this, route, data, shouldQueue, deadline).join();
+            return future.join();
         } catch (CompletionException ex) {
             if (ex.getCause() != null) {
                 Throwable cause = ex.getCause();
@@ -131,8 +146,11 @@ public class PteroActionImpl<T> implements PteroAction<T> {
     }
 
     public void handleResponse(Response response, Request<T> request) {
-        if(response.isOk())
+        if(response.isOk()) {
+            if (request.getRoute().getMethod() != Method.GET)
+                api.getEntityCache().invalidate(request.getRoute());
             handleSuccess(response, request);
+        }
         else request.setOnFailure(response);
     }
 
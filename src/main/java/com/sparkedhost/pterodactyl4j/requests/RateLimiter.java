@@ -22,12 +22,23 @@ import okhttp3.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
+import java.util.Deque;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Keeps requests within the rate limit of the panel.
+ *
+ * <p>Every request takes one of the {@code remaining} requests of the current window before it is sent, so no more
+ * requests are admitted than the window allows, even with several of them in flight. Each response reconciles
+ * {@code remaining} with the {@code X-RateLimit-Remaining} header of the panel, minus the requests that are still
+ * in flight and might not have been counted yet. Until the panel reported its limit, requests are sent one at a time.
+ *
+ * <p>The panel only sends the end of the window once the limit was hit, otherwise the window is assumed to end
+ * one minute after it was first seen.
+ */
 public class RateLimiter implements Runnable {
 
     public static final Logger RATELIMIT_LOG = LoggerFactory.getLogger(RateLimiter.class);
@@ -36,23 +47,28 @@ public class RateLimiter implements Runnable {
     private static final String LIMIT_HEADER = "X-RateLimit-Limit";
     private static final String RETRY_AFTER_HEADER = "Retry-After";
     private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final long WINDOW = TimeUnit.MINUTES.toMillis(1);
 
     private final Requester requester;
     private final ScheduledExecutorService scheduler;
+    private final int maxConcurrent;
 
-    private final Queue<Request<?>> requests = new ConcurrentLinkedQueue<>();
+    private final Deque<Request<?>> requests = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
     private final Map<RateLimiter, Future<?>> rateLimitQueue = new ConcurrentHashMap<>();
 
     private long reset = 0;
     private int limit = 1;
     private long retryAfter = 0;
     private int remaining = 1;
+    private int reserved = 0;
     
     private final ReentrantLock lock = new ReentrantLock();
 
     public RateLimiter(Requester requester, P4J api) {
         this.requester = requester;
         this.scheduler = api.getRateLimitPool();
+        this.maxConcurrent = api.getMaxConcurrentRequests();
     }
 
     public void queueRequest(Request<?> request) {
@@ -90,10 +106,18 @@ public class RateLimiter implements Runnable {
                 String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
                 String resetHeader = headers.get(RESET_HEADER);
 
-                this.limit = (int) Math.max(1L, parseLong(limitHeader));
-                this.remaining = (int) parseLong(remainingHeader);
+                if (limitHeader != null)
+                    this.limit = (int) Math.max(1L, parseLong(limitHeader));
+                // this request is still reserved until it is handled, every other reservation is in flight
+                if (remainingHeader != null)
+                    this.remaining = (int) Math.max(0L, parseLong(remainingHeader) - (reserved - 1));
                 this.retryAfter = parseDouble(retryAfterHeader);
-                this.reset = parseDouble(resetHeader);
+                if (resetHeader != null)
+                    this.reset = parseDouble(resetHeader);
+                else if (retryAfter > 0)
+                    this.reset = now + retryAfter;
+                else if (remainingHeader != null && reset <= now)
+                    this.reset = now + WINDOW;
                 RATELIMIT_LOG.trace("Updated to ({}/{}, {})", this.remaining, this.limit, this.reset - now);
             } catch (Exception e) {
                 RATELIMIT_LOG.error("Encountered Exception while updating the rate limiter. Route: {} Code: {} Headers:\n{}",
@@ -106,14 +130,9 @@ public class RateLimiter implements Runnable {
             scheduler.schedule(this, getRateLimit(), TimeUnit.MILLISECONDS)));
     }
 
-    private void cancel(Iterator<Request<?>> it, Request<?> request) {
-        request.onCancelled();
-        it.remove();
-    }
-
-    private boolean isSkipped(Iterator<Request<?>> it, Request<?> request) {
+    private boolean isSkipped(Request<?> request) {
         if (request.isSkipped()) {
-            cancel(it, request);
+            request.onCancelled();
             return true;
         }
         return false;
@@ -122,7 +141,8 @@ public class RateLimiter implements Runnable {
     private void backoff() {
         LockUtils.locked(lock, () -> {
             rateLimitQueue.remove(this);
-            if (!requests.isEmpty()) runQueue();
+            // when every slot or the window is taken by requests in flight, the next finishing request runs the queue again
+            if (!requests.isEmpty() && inFlight.get() < maxConcurrent && getWait() >= 0) runQueue();
         });
     }
 
@@ -130,40 +150,125 @@ public class RateLimiter implements Runnable {
     public void run() {
         RATELIMIT_LOG.trace("Rate limiter is running {} requests", requests.size());
 
-        Iterator<Request<?>> iterator = requests.iterator();
-        while (iterator.hasNext()) {
-            Long rateLimit = getRateLimit();
-            if (rateLimit > 0L) {
-                RATELIMIT_LOG.debug("Backing off {} ms", rateLimit);
-                break;
-            }
-
-            Request<?> request = iterator.next();
+        while (inFlight.get() < maxConcurrent) {
+            Request<?> request;
+            lock.lock();
+            try {
+                long rateLimit = reserve();
+                if (rateLimit != 0L) {
+                    RATELIMIT_LOG.debug("Backing off {}", rateLimit > 0 ? rateLimit + " ms" : "until a response arrives");
+                    break;
+                }
 
-            if (isSkipped(iterator, request))
-                continue;
+                request = requests.poll();
+                if (request == null || isSkipped(request)) {
+                    // hand the reservation back, the request was never sent
+                    remaining++;
+                    reserved--;
+                    if (request == null)
+                        break;
+                    continue;
+                }
+                inFlight.incrementAndGet();
+            } finally {
+                lock.unlock();
+            }
 
-            try {
-                rateLimit = requester.execute(request);
-                if (rateLimit != null)
+            if (maxConcurrent == 1) {
+                if (!execute(request))
                     break;
-                iterator.remove();
-            } catch (Exception ex) {
-                RATELIMIT_LOG.error("Encountered exception trying to execute request");
-                ex.printStackTrace();
-                break;
+            } else {
+                scheduler.execute(() -> {
+                    execute(request);
+                    LockUtils.locked(lock, this::runQueue);
+                });
             }
         }
         backoff();
     }
 
-    public long getRateLimit() {
-        long now = getNow();
-        if (reset <= now) {
-            remaining = limit;
+    /**
+     * Executes the request, putting it back at the head of the queue if it could not be completed
+     *
+     * @return True, if the request was completed
+     */
+    private boolean execute(Request<?> request) {
+        try {
+            if (requester.execute(request, false, false, true) == null)
+                return true;
+            requests.offerFirst(request);
+        } catch (Exception ex) {
+            RATELIMIT_LOG.error("Encountered exception trying to execute request");
+            ex.printStackTrace();
+            requests.offerFirst(request);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        return false;
+    }
+
+    /**
+     * Takes one of the remaining requests of the current window.
+     * <br>A successful reservation has to be {@link #release() released} once the request was handled.
+     *
+     * @return 0, if the request may be sent, the time in milliseconds until the window allows another request,
+     *         or -1 if the window is taken by requests in flight
+     */
+    long reserve() {
+        lock.lock();
+        try {
+            long rateLimit = getWait();
+            if (rateLimit != 0L)
+                return rateLimit;
+            remaining--;
+            reserved++;
             return 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the reservation of a handled request, the request still counts against the window
+     */
+    void release() {
+        LockUtils.locked(lock, () -> {
+            reserved--;
+            if (!requests.isEmpty())
+                runQueue();
+        });
+    }
+
+    /**
+     * The time until the window allows another request
+     *
+     * @return The time in milliseconds, 0 if the window allows a request right away or only requests in flight
+     *         have to be answered first
+     */
+    public long getRateLimit() {
+        return Math.max(0L, getWait());
+    }
+
+    /**
+     * The time until the window allows another request, telling apart windows taken by requests in flight
+     *
+     * @return The time in milliseconds, 0 if a request may be sent right away,
+     *         or -1 if the window is taken by requests in flight and the next response has to be awaited
+     */
+    long getWait() {
+        lock.lock();
+        try {
+            long now = getNow();
+            if (reset <= now) {
+                // requests in flight may still be counted against the new window
+                remaining = Math.max(remaining, limit - reserved);
+                return remaining < 1 ? -1L : 0L;
+            }
+            // Retry-After is only sent with a 429, an exhausted window has to wait for the reset
+            return remaining < 1 ? Math.max(retryAfter, reset - now) : 0L;
+        } finally {
+            lock.unlock();
         }
-        return remaining < 1 ? retryAfter : 0L;
     }
 
     public long getNow() {
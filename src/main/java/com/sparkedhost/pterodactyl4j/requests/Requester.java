@@ -19,15 +19,19 @@ package com.sparkedhost.pterodactyl4j.requests;
 import com.sparkedhost.pterodactyl4j.entities.P4J;
 import com.sparkedhost.pterodactyl4j.exceptions.HttpException;
 import com.sparkedhost.pterodactyl4j.exceptions.LoginException;
+import okhttp3.CacheControl;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.internal.http.HttpMethod;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
+import java.io.IOException;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 
@@ -43,6 +47,7 @@ public class Requester {
     public static final MediaType MEDIA_TYPE_OCTET = MediaType.parse("application/octet-stream; charset=utf-8");
 
     private static final String PTERODACTYL_API_PREFIX = "%s/api/";
+    private static final CacheControl ONLY_IF_CACHED = new CacheControl.Builder().onlyIfCached().build();
 
     public static String USER_AGENT = "";
 
@@ -57,6 +62,13 @@ public class Requester {
     }
 
     public <T> void request(Request<T> request) {
+        if (client.cache() != null && api.getResponseCachePolicy().isCached(request.getRoute().getBaseRoute()))
+            executeFromCache(request);
+        else
+            dispatch(request);
+    }
+
+    private void dispatch(Request<?> request) {
         if (request.shouldQueue())
             rateLimiter.queueRequest(request);
         else execute(request, true);
@@ -70,43 +82,74 @@ public class Requester {
         return execute(request, false, handleOnRateLimit);
     }
 
+    /**
+     * Answers the request from the response cache if a fresh response is stored, without touching the rate limiter.
+     * <br>The cache is read on an OkHttp thread, never on the thread that executed the action. If no fresh response
+     * is stored, the request is dispatched from there like any other request.
+     */
+    private void executeFromCache(Request<?> apiRequest) {
+        if (apiRequest.isSkipped())
+            return;
+
+        okhttp3.Request request = buildRequest(apiRequest).newBuilder().cacheControl(ONLY_IF_CACHED).build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                REQUESTER_LOG.debug("Could not read {} from the response cache", request.url(), e);
+                dispatch(apiRequest);
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull okhttp3.Response response) {
+                // 504 means there is no fresh response stored, the request has to go to the panel
+                if (response.code() == 504) {
+                    response.close();
+                    dispatch(apiRequest);
+                    return;
+                }
+                try (okhttp3.Response cached = response) {
+                    if (apiRequest.isSkipped())
+                        return;
+                    REQUESTER_LOG.trace("Serving {} {} from the response cache", request.method(), request.url());
+                    apiRequest.handleResponse(new Response(cached, -1));
+                }
+            }
+        });
+    }
+
     public Long execute(Request<?> apiRequest, boolean retried, boolean handleOnRateLimit) {
+        return execute(apiRequest, retried, handleOnRateLimit, false);
+    }
+
+    /**
+     * Executes the request
+     *
+     * @param reserved
+     *        Whether the request already took its reservation from the rate limiter, requests executed directly reserve it here
+     */
+    Long execute(Request<?> apiRequest, boolean retried, boolean handleOnRateLimit, boolean reserved) {
 
         Route.CompiledRoute route = apiRequest.getRoute();
-        Long retryAfter = rateLimiter.getRateLimit();
+        Long retryAfter = reserved ? 0L : rateLimiter.reserve();
 
-        if (retryAfter > 0) {
+        if (retryAfter != 0) {
+            // -1 means the window is taken by requests in flight, a retry is possible as soon as one of them returns
+            retryAfter = Math.max(1L, retryAfter);
             if (handleOnRateLimit)
                 apiRequest.handleResponse(new Response(retryAfter));
             return retryAfter;
         }
 
-        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
-
-        if (api.getApplicationUrl() == null || api.getApplicationUrl().isEmpty())
-            throw new HttpException("No Pterodactyl URL was defined.");
-        String applicationUrl = api.getApplicationUrl();
-        if (applicationUrl.endsWith("/"))
-            applicationUrl = applicationUrl.substring(0, applicationUrl.length() - 1);
-        String url = String.format(PTERODACTYL_API_PREFIX, applicationUrl) + apiRequest.getRoute().getCompiledRoute();
-
-        builder.url(url);
-        String method = route.getMethod().toString();
-        if (apiRequest.getRequestBody() != null)
-            builder.method(method, apiRequest.getRequestBody());
-        else if (HttpMethod.requiresRequestBody(method))
-            builder.method(method, EMPTY_BODY);
-        else
-            builder.method(method, null);
-
-        builder.header("Accept", "application/vnd.pterodactyl.v1+json")
-                .header("User-Agent", USER_AGENT);
-
-        if (api.getToken() == null || api.getToken().isEmpty())
-            throw new LoginException("No authorization token was defined.");
-        builder.header("Authorization", "Bearer " + api.getToken());
-
-        okhttp3.Request request = builder.build();
+        // a retry runs within the reservation of the first attempt
+        boolean release = !(retried && reserved);
+        okhttp3.Request request;
+        try {
+            request = buildRequest(apiRequest);
+        } catch (RuntimeException e) {
+            if (release)
+                rateLimiter.release();
+            throw e;
+        }
 
         okhttp3.Response[] responses = new okhttp3.Response[4];
         okhttp3.Response lastResponse = null;
@@ -153,13 +196,13 @@ public class Requester {
             return retryAfter;
         } catch (SocketTimeoutException e) {
             if (!retried)
-                return execute(apiRequest, true, handleOnRateLimit);
+                return execute(apiRequest, true, handleOnRateLimit, true);
             REQUESTER_LOG.error("Requester timed out while executing a request {}", e.getMessage());
             apiRequest.handleResponse(new Response(lastResponse, e));
             return null;
         } catch (Exception e) {
             if (!retried && isRetry(e))
-                return execute(apiRequest, true, handleOnRateLimit);
+                return execute(apiRequest, true, handleOnRateLimit, true);
             if (e.getMessage() == null)
                 REQUESTER_LOG.error("There was an exception while executing a request");
             else
@@ -172,9 +215,44 @@ public class Requester {
                     break;
                 r.close();
             }
+            if (release)
+                rateLimiter.release();
         }
     }
 
+    private okhttp3.Request buildRequest(Request<?> apiRequest) {
+        Route.CompiledRoute route = apiRequest.getRoute();
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
+
+        if (api.getApplicationUrl() == null || api.getApplicationUrl().isEmpty())
+            throw new HttpException("No Pterodactyl URL was defined.");
+        String applicationUrl = api.getApplicationUrl();
+        if (applicationUrl.endsWith("/"))
+            applicationUrl = applicationUrl.substring(0, applicationUrl.length() - 1);
+        String url = String.format(PTERODACTYL_API_PREFIX, applicationUrl) + apiRequest.getRoute().getCompiledRoute();
+
+        builder.url(url);
+        String method = route.getMethod().toString();
+        if (apiRequest.getRequestBody() != null)
+            builder.method(method, apiRequest.getRequestBody());
+        else if (HttpMethod.requiresRequestBody(method))
+            builder.method(method, EMPTY_BODY);
+        else
+            builder.method(method, null);
+
+        builder.header("Accept", "application/vnd.pterodactyl.v1+json")
+                .header("User-Agent", USER_AGENT);
+
+        if (api.getToken() == null || api.getToken().isEmpty())
+            throw new LoginException("No authorization token was defined.");
+        builder.header("Authorization", "Bearer " + api.getToken());
+
+        // lets the response cache policy know which route a response belongs to
+        builder.tag(Route.class, route.getBaseRoute());
+
+        return builder.build();
+    }
+
     private static boolean isRetry(Throwable e) {
         return e instanceof SocketException                 // Socket couldn't be created or access failed
                 || e instanceof SocketTimeoutException      // Connection timed out
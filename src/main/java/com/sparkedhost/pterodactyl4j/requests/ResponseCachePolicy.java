@@ -0,0 +1,79 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.requests;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route freshness policy for the HTTP response cache.
+ *
+ * <p>The panel marks every response as not cacheable, so this network interceptor replaces the {@code Cache-Control}
+ * header of responses for the configured routes with the configured max age before OkHttp stores them.
+ * Any {@code ETag} or {@code Last-Modified} validators sent by the panel are kept, which lets OkHttp revalidate
+ * expired entries with a conditional request instead of downloading them again.
+ */
+public class ResponseCachePolicy implements Interceptor {
+
+    private final Map<Route, Long> maxAges;
+
+    public ResponseCachePolicy(Map<Route, Long> maxAges) {
+        this.maxAges = Collections.unmodifiableMap(new HashMap<>(maxAges));
+    }
+
+    /**
+     * Whether responses of the provided route are cached
+     *
+     * @param  route
+     *         The route
+     *
+     * @return True, if a max age was configured for the route
+     */
+    public boolean isCached(Route route) {
+        return route.getMethod() == Method.GET && maxAges.containsKey(route);
+    }
+
+    public Map<Route, Long> getMaxAges() {
+        return maxAges;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        Route route = chain.request().tag(Route.class);
+        if (route == null || !isCached(route) || !(response.isSuccessful() || response.code() == 304))
+            return response;
+
+        CacheControl cacheControl = new CacheControl.Builder()
+                .maxAge((int) TimeUnit.MILLISECONDS.toSeconds(maxAges.get(route)), TimeUnit.SECONDS)
+                .build();
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .header("Cache-Control", "private, " + cacheControl)
+                .build();
+    }
+}
@@ -212,6 +212,10 @@ public class Route {
 		return route;
 	}
 
+	public Method getMethod() {
+		return method;
+	}
+
 	@Override
 	public String toString() {
 		return "Route(" + method + ": " + route + ")";
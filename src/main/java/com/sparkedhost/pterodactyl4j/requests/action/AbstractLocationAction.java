@@ -29,7 +29,11 @@ public abstract class AbstractLocationAction extends PteroActionImpl<Location> i
     protected String description;
 
     public AbstractLocationAction(PteroApplicationImpl impl, Route.CompiledRoute route) {
-        super(impl.getP4J(), route, (response, request) -> new LocationImpl(response.getObject(), impl));
+        super(impl.getP4J(), route, (response, request) -> {
+            // the short code index would keep answering without the new or changed location
+            impl.getEntityIndex().invalidateLocations();
+            return new LocationImpl(response.getObject(), impl);
+        });
     }
 
     @Override
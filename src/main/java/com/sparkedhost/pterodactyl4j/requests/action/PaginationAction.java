@@ -194,6 +194,20 @@ public interface PaginationAction<T> extends PteroAction<List<T>>, Iterable<T> {
      */
     PaginationAction<T> limit(int limit);
 
+    /**
+     * Sets the field the panel should sort the entities by.
+     * <br>Prefix the field with {@code -} to sort in descending order, for example {@code -id} returns the newest entities first.
+     *
+     * <p>The panel only allows sorting by a few fields for each endpoint (usually {@code id} and {@code uuid}),
+     * other fields will cause the request to fail.
+     *
+     * @param  field
+     *         The field to sort by, or {@code null} to use the default order of the panel
+     *
+     * @return The current PaginationAction implementation instance, useful for chaining
+     */
+    PaginationAction<T> sort(String field);
+
     /**
      * Whether already retrieved entities should be stored
      * within the internal cache. All cached entities will be
@@ -564,7 +578,10 @@ public interface PaginationAction<T> extends PteroAction<List<T>>, Iterable<T> {
      * @return {@link PteroAction PteroAction} - Type {@link java.util.List List} of {@link T &lt;T&gt;}
      */
     default PteroAction<List<T>> all() {
-        return PteroActionImpl.onExecute(getP4J(), () -> stream().collect(StreamUtils.toUnmodifiableList()));
+        return PteroActionImpl.onExecute(getP4J(), () -> stream().collect(StreamUtils.toUnmodifiableList()), () -> {
+            List<T> entities = Collections.synchronizedList(new ArrayList<>());
+            return forEachAsync(entities::add, t -> {}).thenApply(__ -> Collections.unmodifiableList(entities));
+        });
     }
 
     /**
@@ -46,6 +46,7 @@ public abstract class PaginationActionImpl<T> extends PteroActionImpl<List<T>> i
     protected volatile int totalPages = 1;
     protected volatile T last = null;
     protected volatile boolean useCache = true;
+    protected volatile String sort = null;
 
     /**
      * Creates a new PaginationAction instance
@@ -132,6 +133,12 @@ public abstract class PaginationActionImpl<T> extends PteroActionImpl<List<T>> i
         return this;
     }
 
+    @Override
+    public PaginationAction<T> sort(String field) {
+        this.sort = field;
+        return this;
+    }
+
     @Override
     public PaginationAction<T> cache(boolean enableCache) {
         this.useCache = enableCache;
@@ -236,6 +243,8 @@ public abstract class PaginationActionImpl<T> extends PteroActionImpl<List<T>> i
         String limit = Integer.toUnsignedString(getLimit());
         String page = Integer.toUnsignedString(getCurrentPage());
 
+        if (sort != null)
+            return route.withQueryParams("per_page", limit, "page", page, "sort", sort);
         return route.withQueryParams("per_page", limit, "page", page);
     }
 
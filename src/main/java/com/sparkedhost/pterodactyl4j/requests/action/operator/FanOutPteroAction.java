@@ -0,0 +1,142 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.requests.action.operator;
+
+import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class FanOutPteroAction<I, O> implements PteroAction<List<O>> {
+
+    private final P4J api;
+    private final List<I> items;
+    private final Function<? super I, ? extends PteroAction<? extends O>> function;
+    private final int parallelism;
+    private long deadline = 0;
+
+    public FanOutPteroAction(P4J api, Collection<? extends I> items,
+                             Function<? super I, ? extends PteroAction<? extends O>> function, int parallelism) {
+        this.api = api;
+        this.items = new ArrayList<>(items);
+        this.function = function;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public P4J getP4J() {
+        return api;
+    }
+
+    @Override
+    public List<O> execute(boolean shouldQueue) {
+        return PteroActionImpl.join(submit());
+    }
+
+    @Override
+    public void executeAsync(Consumer<? super List<O>> success, Consumer<? super Throwable> failure) {
+        submit().whenCompleteAsync((result, error) -> {
+            if (error == null)
+                PteroActionOperator.doSuccess(success, result);
+            else
+                PteroActionOperator.doFailure(failure, error instanceof CompletionException ? error.getCause() : error);
+        }, api.getCallbackPool());
+    }
+
+    @Override
+    public CompletableFuture<List<O>> submit() {
+        return new Execution().start();
+    }
+
+    @Override
+    public PteroAction<List<O>> deadline(long timestamp) {
+        this.deadline = timestamp;
+        return this;
+    }
+
+    private class Execution {
+
+        private final CompletableFuture<List<O>> result = new CompletableFuture<>();
+        private final Object[] values = new Object[items.size()];
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger remaining = new AtomicInteger(items.size());
+        private final AtomicInteger launching = new AtomicInteger();
+
+        private CompletableFuture<List<O>> start() {
+            if (items.isEmpty())
+                result.complete(Collections.emptyList());
+            else
+                launch();
+            return result;
+        }
+
+        private void launch() {
+            // actions that complete right away call back into launch(), the loop picks up their slot instead of recursing
+            if (launching.getAndIncrement() != 0)
+                return;
+            do {
+                while (!result.isDone() && active.get() < parallelism && next.get() < items.size()) {
+                    int index = next.getAndIncrement();
+                    active.incrementAndGet();
+                    run(index);
+                }
+            } while (launching.decrementAndGet() != 0);
+        }
+
+        private void run(int index) {
+            PteroAction<? extends O> action;
+            try {
+                action = function.apply(items.get(index));
+                if (action == null)
+                    throw new IllegalStateException("FanOut operand is null");
+                if (deadline > 0)
+                    action.deadline(deadline);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                return;
+            }
+
+            action.submit().whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                    return;
+                }
+                values[index] = value;
+                active.decrementAndGet();
+                if (remaining.decrementAndGet() == 0)
+                    result.complete(toList());
+                else
+                    launch();
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<O> toList() {
+            List<O> list = new ArrayList<>(values.length);
+            for (Object value : values)
+                list.add((O) value);
+            return Collections.unmodifiableList(list);
+        }
+    }
+}
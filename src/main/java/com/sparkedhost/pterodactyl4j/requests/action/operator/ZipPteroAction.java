@@ -0,0 +1,66 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.requests.action.operator;
+
+import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+public class ZipPteroAction<I, U, O> extends PteroActionOperator<I, O> {
+
+    private final PteroAction<U> other;
+    private final BiFunction<? super I, ? super U, ? extends O> accumulator;
+
+    public ZipPteroAction(PteroAction<I> action, PteroAction<U> other, BiFunction<? super I, ? super U, ? extends O> accumulator) {
+        super(action);
+        this.other = other;
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    public O execute(boolean shouldQueue) {
+        return PteroActionImpl.join(submit());
+    }
+
+    @Override
+    public void executeAsync(Consumer<? super O> success, Consumer<? super Throwable> failure) {
+        submit().whenCompleteAsync((result, error) -> {
+            if (error == null)
+                doSuccess(success, result);
+            else
+                doFailure(failure, error instanceof CompletionException ? error.getCause() : error);
+        }, getP4J().getCallbackPool());
+    }
+
+    @Override
+    public CompletableFuture<O> submit() {
+        // both actions are submitted before waiting on either of them
+        CompletableFuture<I> first = action.submit();
+        CompletableFuture<U> second = other.submit();
+        return first.thenCombine(second, accumulator);
+    }
+
+    @Override
+    public PteroAction<O> deadline(long timestamp) {
+        other.deadline(timestamp);
+        return super.deadline(timestamp);
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.requests.bulk;
+
+import com.sparkedhost.pterodactyl4j.PteroAction;
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.requests.CompletedPteroAction;
+import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
+import com.sparkedhost.pterodactyl4j.requests.action.operator.FanOutPteroAction;
+import com.sparkedhost.pterodactyl4j.utils.Checks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies the same kind of change to many items, for example updating the build of thousands of servers.
+ *
+ * <p>Every item is mapped to a {@link PteroAction PteroAction} by the provided function and at most
+ * {@link #setParallelism(int) parallelism} of these actions run at the same time, the rest wait here instead of
+ * piling up in the rate limiter. A failing item does not stop the operation, the {@link BulkResult BulkResult}
+ * reports the outcome of every item and can {@link BulkResult#retryFailed() retry} only the failed ones.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * BulkOperation.of(api, servers, server -> server.getBuildManager().setMemory(2, DataType.GB))
+ *     .setParallelism(4)
+ *     .setProgressListener(progress -> System.out.println(progress.getCompleted() + "/" + progress.getTotal()))
+ *     .executeAsync(result -> System.out.println(result.getFailed().size() + " servers failed"));
+ * }</pre>
+ *
+ * @param <I>
+ *        The item type
+ * @param <O>
+ *        The result type of the per-item actions
+ */
+public class BulkOperation<I, O> implements PteroAction<BulkResult<I, O>> {
+
+    public static final Logger BULK_LOG = LoggerFactory.getLogger(BulkOperation.class);
+
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private final P4J api;
+    private final List<Entry<I>> entries;
+    private final Function<? super I, ? extends PteroAction<? extends O>> function;
+    private final List<BulkResult.Outcome<I, O>> carried;
+    private int parallelism;
+    private Consumer<? super BulkProgress<I, O>> progressListener = null;
+    private long deadline = 0;
+
+    BulkOperation(P4J api, List<Entry<I>> entries, Function<? super I, ? extends PteroAction<? extends O>> function,
+                  List<BulkResult.Outcome<I, O>> carried) {
+        this.api = api;
+        this.entries = entries;
+        this.function = function;
+        this.carried = carried;
+        this.parallelism = DEFAULT_PARALLELISM;
+    }
+
+    /**
+     * Creates a new BulkOperation for the provided items.
+     * <br>Nothing is executed until the operation is executed like any other {@link PteroAction PteroAction}.
+     *
+     * @param  api
+     *         The P4J instance
+     * @param  items
+     *         The items to apply the action to
+     * @param  action
+     *         The function creating the action for a single item
+     *
+     * @param  <I>
+     *         The item type
+     * @param  <O>
+     *         The result type of the per-item actions
+     *
+     * @throws IllegalArgumentException
+     *         If any of the arguments is null
+     *
+     * @return The new BulkOperation
+     */
+    public static <I, O> BulkOperation<I, O> of(P4J api, Collection<? extends I> items,
+                                                Function<? super I, ? extends PteroAction<? extends O>> action) {
+        Checks.notNull(api, "API");
+        Checks.notNull(items, "Items");
+        Checks.notNull(action, "Function");
+        List<Entry<I>> entries = new ArrayList<>(items.size());
+        for (I item : items)
+            entries.add(new Entry<>(entries.size(), item));
+        return new BulkOperation<>(api, entries, action, Collections.emptyList());
+    }
+
+    /**
+     * Sets how many item actions may run at the same time.
+     *
+     * <p>Requests of running item actions still only overlap up to the
+     * {@link com.sparkedhost.pterodactyl4j.PteroBuilder#setMaxConcurrentRequests(int) max concurrent requests}
+     * of the P4J instance, the other ones wait in the rate limiter and are sent as soon as a request finished.
+     *
+     * <p>Default: {@value #DEFAULT_PARALLELISM}
+     *
+     * @param  parallelism
+     *         The maximum amount of running item actions
+     *
+     * @throws IllegalArgumentException
+     *         If the parallelism is not positive
+     *
+     * @return The same BulkOperation instance. Useful for chaining.
+     */
+    public BulkOperation<I, O> setParallelism(int parallelism) {
+        Checks.check(parallelism > 0, "Parallelism must be positive");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets a listener that is called every time an item finished, successfully or not.
+     * <br>The listener is called from the threads completing the requests and must not block.
+     *
+     * @param  listener
+     *         The progress listener, or null to remove it
+     *
+     * @return The same BulkOperation instance. Useful for chaining.
+     */
+    public BulkOperation<I, O> setProgressListener(Consumer<? super BulkProgress<I, O>> listener) {
+        this.progressListener = listener;
+        return this;
+    }
+
+    /**
+     * The amount of items this operation executes
+     *
+     * @return The item count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    Function<? super I, ? extends PteroAction<? extends O>> getFunction() {
+        return function;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    Consumer<? super BulkProgress<I, O>> getProgressListener() {
+        return progressListener;
+    }
+
+    @Override
+    public P4J getP4J() {
+        return api;
+    }
+
+    @Override
+    public BulkResult<I, O> execute(boolean shouldQueue) {
+        return PteroActionImpl.join(submit());
+    }
+
+    @Override
+    public void executeAsync(Consumer<? super BulkResult<I, O>> success, Consumer<? super Throwable> failure) {
+        Consumer<? super BulkResult<I, O>> finalizedSuccess = success == null ? PteroAction.getDefaultSuccess() : success;
+        Consumer<? super Throwable> finalizedFailure = failure == null ? PteroAction.getDefaultFailure() : failure;
+        submit().whenCompleteAsync((result, error) -> {
+            if (error == null)
+                finalizedSuccess.accept(result);
+            else
+                finalizedFailure.accept(error instanceof CompletionException ? error.getCause() : error);
+        }, api.getCallbackPool());
+    }
+
+    @Override
+    public CompletableFuture<BulkResult<I, O>> submit() {
+        Execution execution = new Execution();
+        // item failures are turned into outcomes, so the fan out itself only fails on bugs
+        return new FanOutPteroAction<>(api, entries, execution::run, parallelism)
+                .deadline(deadline)
+                .submit()
+                .thenApply(this::merge);
+    }
+
+    @Override
+    public PteroAction<BulkResult<I, O>> deadline(long timestamp) {
+        this.deadline = timestamp;
+        return this;
+    }
+
+    private BulkResult<I, O> merge(List<BulkResult.Outcome<I, O>> outcomes) {
+        List<BulkResult.Outcome<I, O>> all = new ArrayList<>(carried.size() + outcomes.size());
+        all.addAll(carried);
+        all.addAll(outcomes);
+        all.sort(Comparator.comparingInt(BulkResult.Outcome::getIndex));
+        return new BulkResult<>(this, all);
+    }
+
+    static final class Entry<I> {
+        final int index;
+        final I item;
+
+        Entry(int index, I item) {
+            this.index = index;
+            this.item = item;
+        }
+    }
+
+    private class Execution {
+
+        // items carried over from an earlier run all succeeded there
+        private final AtomicInteger succeeded = new AtomicInteger(carried.size());
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private PteroAction<BulkResult.Outcome<I, O>> run(Entry<I> entry) {
+            PteroAction<? extends O> action;
+            try {
+                action = function.apply(entry.item);
+                if (action == null)
+                    throw new IllegalStateException("Bulk action for item " + entry.index + " is null");
+            } catch (Throwable t) {
+                return new CompletedPteroAction<>(api, record(BulkResult.Outcome.failure(entry.index, entry.item, t)));
+            }
+            return action.<BulkResult.Outcome<I, O>>map(value -> record(BulkResult.Outcome.success(entry.index, entry.item, value)))
+                    .onErrorMap(error -> record(BulkResult.Outcome.failure(entry.index, entry.item, error)));
+        }
+
+        private BulkResult.Outcome<I, O> record(BulkResult.Outcome<I, O> outcome) {
+            int succeededCount = outcome.isSuccess() ? succeeded.incrementAndGet() : succeeded.get();
+            int failedCount = outcome.isSuccess() ? failed.get() : failed.incrementAndGet();
+            if (!outcome.isSuccess())
+                BULK_LOG.debug("Bulk item {} failed", outcome.getIndex(), outcome.getError());
+
+            Consumer<? super BulkProgress<I, O>> listener = progressListener;
+            if (listener != null) {
+                try {
+                    listener.accept(new BulkProgress<>(carried.size() + entries.size(), succeededCount, failedCount, outcome));
+                } catch (Throwable t) {
+                    BULK_LOG.error("Bulk progress listener threw an exception", t);
+                }
+            }
+            return outcome;
+        }
+    }
+}
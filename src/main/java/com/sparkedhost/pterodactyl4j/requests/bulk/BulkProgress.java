@@ -0,0 +1,76 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.requests.bulk;
+
+/**
+ * A progress update of a running {@link BulkOperation BulkOperation}, sent whenever an item finished.
+ *
+ * @param <I>
+ *        The item type
+ * @param <O>
+ *        The result type of the per-item actions
+ */
+public class BulkProgress<I, O> {
+
+    private final int total;
+    private final int succeeded;
+    private final int failed;
+    private final BulkResult.Outcome<I, O> outcome;
+
+    BulkProgress(int total, int succeeded, int failed, BulkResult.Outcome<I, O> outcome) {
+        this.total = total;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.outcome = outcome;
+    }
+
+    /**
+     * The amount of items of the operation.
+     * <br>Retries keep the total of the original operation and count the items that already succeeded before.
+     *
+     * @return The total item count
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getCompleted() {
+        return succeeded + failed;
+    }
+
+    /**
+     * The outcome of the item that just finished
+     *
+     * @return The latest outcome
+     */
+    public BulkResult.Outcome<I, O> getOutcome() {
+        return outcome;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkProgress(" + getCompleted() + "/" + total + ", " + failed + " failed)";
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.requests.bulk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The outcome of a {@link BulkOperation BulkOperation}, holding the result or failure of every item
+ * in the order the items were provided.
+ *
+ * @param <I>
+ *        The item type
+ * @param <O>
+ *        The result type of the per-item actions
+ */
+public class BulkResult<I, O> {
+
+    private final BulkOperation<I, O> operation;
+    private final List<Outcome<I, O>> outcomes;
+    private final List<Outcome<I, O>> succeeded;
+    private final List<Outcome<I, O>> failed;
+
+    BulkResult(BulkOperation<I, O> operation, List<Outcome<I, O>> outcomes) {
+        this.operation = operation;
+        this.outcomes = Collections.unmodifiableList(outcomes);
+        List<Outcome<I, O>> succeeded = new ArrayList<>();
+        List<Outcome<I, O>> failed = new ArrayList<>();
+        for (Outcome<I, O> outcome : outcomes)
+            (outcome.isSuccess() ? succeeded : failed).add(outcome);
+        this.succeeded = Collections.unmodifiableList(succeeded);
+        this.failed = Collections.unmodifiableList(failed);
+    }
+
+    /**
+     * The outcome of every item, in the order the items were provided
+     *
+     * @return Unmodifiable list of outcomes
+     */
+    public List<Outcome<I, O>> getOutcomes() {
+        return outcomes;
+    }
+
+    /**
+     * The outcomes of the items whose action completed
+     *
+     * @return Unmodifiable list of successful outcomes
+     */
+    public List<Outcome<I, O>> getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * The outcomes of the items whose action failed
+     *
+     * @return Unmodifiable list of failed outcomes
+     */
+    public List<Outcome<I, O>> getFailed() {
+        return failed;
+    }
+
+    /**
+     * The items whose action failed
+     *
+     * @return Unmodifiable list of failed items
+     */
+    public List<I> getFailedItems() {
+        List<I> items = new ArrayList<>(failed.size());
+        for (Outcome<I, O> outcome : failed)
+            items.add(outcome.getItem());
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Whether every item completed successfully
+     *
+     * @return True, if no item failed
+     */
+    public boolean isSuccess() {
+        return failed.isEmpty();
+    }
+
+    /**
+     * Creates a new {@link BulkOperation BulkOperation} that only executes the failed items again,
+     * using the same action, parallelism and progress listener.
+     * <br>Its result also contains the items that already succeeded here, so it replaces this result.
+     *
+     * @return The BulkOperation retrying the failed items
+     */
+    public BulkOperation<I, O> retryFailed() {
+        List<BulkOperation.Entry<I>> entries = new ArrayList<>(failed.size());
+        for (Outcome<I, O> outcome : failed)
+            entries.add(new BulkOperation.Entry<>(outcome.getIndex(), outcome.getItem()));
+        return new BulkOperation<>(operation.getP4J(), entries, operation.getFunction(), succeeded)
+                .setParallelism(operation.getParallelism())
+                .setProgressListener(operation.getProgressListener());
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult(" + succeeded.size() + " succeeded, " + failed.size() + " failed)";
+    }
+
+    /**
+     * The outcome of a single item
+     *
+     * @param <I>
+     *        The item type
+     * @param <O>
+     *        The result type of the item action
+     */
+    public static class Outcome<I, O> {
+
+        private final int index;
+        private final I item;
+        private final O result;
+        private final Throwable error;
+
+        private Outcome(int index, I item, O result, Throwable error) {
+            this.index = index;
+            this.item = item;
+            this.result = result;
+            this.error = error;
+        }
+
+        static <I, O> Outcome<I, O> success(int index, I item, O result) {
+            return new Outcome<>(index, item, result, null);
+        }
+
+        static <I, O> Outcome<I, O> failure(int index, I item, Throwable error) {
+            return new Outcome<>(index, item, null, error);
+        }
+
+        /**
+         * The position of the item in the original collection
+         *
+         * @return The item index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public I getItem() {
+            return item;
+        }
+
+        /**
+         * The result of the item action, empty if it failed or completed without a value
+         *
+         * @return Possibly-empty Optional of the result
+         */
+        public Optional<O> getResult() {
+            return Optional.ofNullable(result);
+        }
+
+        /**
+         * The exception the item action failed with
+         *
+         * @return The exception, or null if the item succeeded
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return "Outcome(" + index + ", " + (isSuccess() ? "success" : error) + ")";
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.utils.cache;
+
+/**
+ * Immutable snapshot of the counters of a single {@link CacheType CacheType} in the {@link EntityCache EntityCache}.
+ */
+public class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int size;
+
+    public CacheStats(long hits, long misses, long evictions, long invalidations, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+    }
+
+    /**
+     * The amount of lookups that were answered from the cache
+     *
+     * @return The hit count
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * The amount of lookups that had to go to the panel
+     *
+     * @return The miss count
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The amount of entries removed because the cache reached its maximum size
+     *
+     * @return The eviction count
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * The amount of entries removed because P4J modified the entity
+     *
+     * @return The invalidation count
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * The amount of entries currently cached, including expired entries that have not been cleaned up yet
+     *
+     * @return The current size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * The ratio of lookups answered from the cache
+     *
+     * @return The hit rate between 0 and 1, or 0 if no lookups were made
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats(hits=%d, misses=%d, evictions=%d, invalidations=%d, size=%d)",
+                hits, misses, evictions, invalidations, size);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.utils.cache;
+
+import com.sparkedhost.pterodactyl4j.requests.Route;
+
+/**
+ * The entity types that can be kept in the {@link EntityCache EntityCache}.
+ *
+ * <p>Each type is mapped to the route prefix the panel uses for it, which is how mutations
+ * made through P4J invalidate the cached entries.
+ */
+public enum CacheType {
+
+    NODE("application/nodes/"),
+    LOCATION("application/locations/"),
+    NEST("application/nests/"),
+    /**
+     * Eggs have no route prefix of their own, they live below {@link #NEST} and are cached as {@code nest/egg}.
+     * <br>The panel API has no routes that change nests or eggs, so no request made through P4J can make a cached
+     * egg stale. Cached eggs only expire, or are removed with {@link EntityCache#invalidate(CacheType)}.
+     */
+    EGG(null),
+    USER("application/users/"),
+    SERVER("application/servers/"),
+    CLIENT_SERVER("client/servers/");
+
+    private final String prefix;
+
+    CacheType(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Resolves the entity type targeted by a compiled route
+     *
+     * @param  route
+     *         The compiled route
+     *
+     * @return The matching CacheType, or {@code null} if the route does not target a cacheable entity
+     */
+    public static CacheType of(Route.CompiledRoute route) {
+        String path = getPath(route) + '/';
+        for (CacheType type : values()) {
+            if (type.prefix != null && path.startsWith(type.prefix))
+                return type;
+        }
+        return null;
+    }
+
+    /**
+     * Extracts the id of the entity targeted by a compiled route
+     *
+     * @param  route
+     *         The compiled route
+     *
+     * @return The entity id, or {@code null} if the route targets the whole collection
+     */
+    public String getId(Route.CompiledRoute route) {
+        if (prefix == null)
+            return null;
+        String path = getPath(route);
+        if (path.length() <= prefix.length())
+            return null;
+        String id = path.substring(prefix.length());
+        int slash = id.indexOf('/');
+        return slash == -1 ? id : id.substring(0, slash);
+    }
+
+    private static String getPath(Route.CompiledRoute route) {
+        String compiled = route.getCompiledRoute();
+        int query = compiled.indexOf('?');
+        return query == -1 ? compiled : compiled.substring(0, query);
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.utils.cache;
+
+import com.sparkedhost.pterodactyl4j.requests.Route;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Optional in-memory cache for entities that rarely change, like nodes, locations, nests and eggs.
+ *
+ * <p>Every {@link CacheType CacheType} has its own time-to-live and is bounded by the maximum size configured
+ * in the {@link com.sparkedhost.pterodactyl4j.PteroBuilder PteroBuilder}, evicting the least recently used entries first.
+ * Types without a time-to-live are not cached at all, which is the default.
+ *
+ * <p>Entries are invalidated automatically whenever a mutating request made through P4J (like editing a node or
+ * deleting a location) succeeds. Changes made through the panel itself are only picked up once the entry expires.
+ */
+public class EntityCache {
+
+    public static final Logger CACHE_LOG = LoggerFactory.getLogger(EntityCache.class);
+
+    private final Map<CacheType, Bucket> buckets = new EnumMap<>(CacheType.class);
+    private final List<BiConsumer<CacheType, String>> mutationListeners = new CopyOnWriteArrayList<>();
+
+    public EntityCache(Map<CacheType, Long> expirations, int maxSize) {
+        for (Map.Entry<CacheType, Long> entry : expirations.entrySet()) {
+            if (entry.getValue() > 0)
+                buckets.put(entry.getKey(), new Bucket(entry.getValue(), maxSize));
+        }
+    }
+
+    /**
+     * Whether entities of the provided type are cached
+     *
+     * @param  type
+     *         The entity type
+     *
+     * @return True, if a time-to-live has been configured for the type
+     */
+    public boolean isEnabled(CacheType type) {
+        return buckets.containsKey(type);
+    }
+
+    /**
+     * Gets a cached entity if it is present and not expired
+     *
+     * @param  type
+     *         The entity type
+     * @param  id
+     *         The entity id
+     * @param  <T>
+     *         The entity class
+     *
+     * @return The cached entity, or {@code null} if it has to be retrieved
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(CacheType type, String id) {
+        Bucket bucket = buckets.get(type);
+        if (bucket == null)
+            return null;
+        return (T) bucket.get(id);
+    }
+
+    /**
+     * The current generation of the provided type, which changes every time the type is invalidated.
+     * <br>Used to avoid caching responses of requests that were in flight during an invalidation.
+     *
+     * @param  type
+     *         The entity type
+     *
+     * @return The current generation
+     */
+    public long getGeneration(CacheType type) {
+        Bucket bucket = buckets.get(type);
+        return bucket == null ? 0 : bucket.generation;
+    }
+
+    /**
+     * Caches an entity, unless the type was invalidated since the provided generation
+     *
+     * @param  type
+     *         The entity type
+     * @param  id
+     *         The entity id
+     * @param  value
+     *         The entity
+     * @param  generation
+     *         The generation returned by {@link #getGeneration(CacheType)} before the entity was requested
+     */
+    public void put(CacheType type, String id, Object value, long generation) {
+        Bucket bucket = buckets.get(type);
+        if (bucket == null || value == null)
+            return;
+        bucket.put(id, value, generation);
+    }
+
+    /**
+     * Removes a single entity from the cache
+     *
+     * @param  type
+     *         The entity type
+     * @param  id
+     *         The entity id
+     */
+    public void invalidate(CacheType type, String id) {
+        Bucket bucket = buckets.get(type);
+        if (bucket != null)
+            bucket.invalidate(id);
+    }
+
+    /**
+     * Removes all entities of the provided type from the cache
+     *
+     * @param  type
+     *         The entity type
+     */
+    public void invalidate(CacheType type) {
+        Bucket bucket = buckets.get(type);
+        if (bucket != null)
+            bucket.invalidate(null);
+    }
+
+    /**
+     * Removes every entity from the cache
+     */
+    public void invalidateAll() {
+        for (Bucket bucket : buckets.values())
+            bucket.invalidate(null);
+    }
+
+    /**
+     * Invalidates the entity targeted by a successful mutating request
+     *
+     * @param  route
+     *         The compiled route of the request
+     */
+    public void invalidate(Route.CompiledRoute route) {
+        if (buckets.isEmpty() && mutationListeners.isEmpty())
+            return;
+        CacheType type = CacheType.of(route);
+        if (type == null)
+            return;
+        String id = type.getId(route);
+        for (BiConsumer<CacheType, String> listener : mutationListeners) {
+            try {
+                listener.accept(type, id);
+            } catch (Throwable t) {
+                CACHE_LOG.error("Mutation listener threw an exception", t);
+            }
+        }
+        if (buckets.isEmpty())
+            return;
+        CACHE_LOG.trace("Invalidating {} {} after {} {}", type, id == null ? "(all)" : id, route.getMethod(), route.getCompiledRoute());
+        if (id == null)
+            invalidate(type);
+        else
+            invalidate(type, id);
+    }
+
+    /**
+     * Registers a listener that is notified about every successful mutating request made through P4J,
+     * even for types that are not cached.
+     * <br>The listener receives the targeted type and the entity id, or {@code null} if the request
+     * targeted the whole collection (like creating a new entity).
+     *
+     * @param  listener
+     *         The listener
+     */
+    public void addMutationListener(BiConsumer<CacheType, String> listener) {
+        mutationListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener previously registered with {@link #addMutationListener(BiConsumer)}
+     *
+     * @param  listener
+     *         The listener
+     */
+    public void removeMutationListener(BiConsumer<CacheType, String> listener) {
+        mutationListeners.remove(listener);
+    }
+
+    /**
+     * The counters of the provided type
+     *
+     * @param  type
+     *         The entity type
+     *
+     * @return Snapshot of the counters, all zero if the type is not cached
+     */
+    public CacheStats getStats(CacheType type) {
+        Bucket bucket = buckets.get(type);
+        if (bucket == null)
+            return new CacheStats(0, 0, 0, 0, 0);
+        return bucket.getStats();
+    }
+
+    private static final class CacheEntry {
+        private final Object value;
+        private final long expiresAt;
+
+        private CacheEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Bucket {
+        private final long ttl;
+        private final LinkedHashMap<String, CacheEntry> entries;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+        private volatile long generation = 0;
+
+        private Bucket(long ttl, int maxSize) {
+            this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+            // access ordered, so the eldest entry is the least recently used one
+            this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                    if (size() <= maxSize)
+                        return false;
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        private synchronized Object get(String id) {
+            CacheEntry entry = entries.get(id);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(id);
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+
+        private synchronized void put(String id, Object value, long generation) {
+            if (this.generation != generation)
+                return;
+            entries.put(id, new CacheEntry(value, System.nanoTime() + ttl));
+        }
+
+        private synchronized void invalidate(String id) {
+            generation++;
+            if (id == null) {
+                invalidations.add(entries.size());
+                entries.clear();
+            } else if (entries.remove(id) != null) {
+                invalidations.increment();
+            }
+            purgeExpired();
+        }
+
+        private void purgeExpired() {
+            long now = System.nanoTime();
+            Iterator<CacheEntry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAt - now <= 0)
+                    it.remove();
+            }
+        }
+
+        private synchronized CacheStats getStats() {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), entries.size());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ConsoleBufferTest {
+
+    @Test
+    public void dropsOldestLinesAtLineLimit() {
+        ConsoleBuffer buffer = new ConsoleBuffer(3, 1024, false);
+        for (int i = 0; i < 5; i++)
+            assertEquals(i, buffer.append("line " + i));
+
+        assertEquals(Arrays.asList("line 2", "line 3", "line 4"), buffer.getLines());
+        assertEquals(2, buffer.getFirstSequence());
+        assertEquals(5, buffer.getNextSequence());
+        assertEquals(18, buffer.getByteSize());
+    }
+
+    @Test
+    public void wrapsAroundAtByteLimit() {
+        ConsoleBuffer buffer = new ConsoleBuffer(100, 16, false);
+        buffer.append("aaaaa");
+        buffer.append("bbbbb");
+        buffer.append("ccccc");
+        // doesn't fit behind the third line, starts over at the beginning and drops the first line
+        buffer.append("dddd");
+
+        assertEquals(Arrays.asList("bbbbb", "ccccc", "dddd"), buffer.getLines());
+        assertEquals(1, buffer.getFirstSequence());
+
+        // overwrites the second line as well
+        buffer.append("eeeeee");
+        assertEquals(Arrays.asList("ccccc", "dddd", "eeeeee"), buffer.getLines());
+        assertEquals(Arrays.asList("dddd", "eeeeee"), buffer.getLastLines(2));
+    }
+
+    @Test
+    public void stripsAnsiAndTruncatesLongLines() {
+        ConsoleBuffer buffer = new ConsoleBuffer(10, 8, false);
+        buffer.append("\u001B[33mwarn\u001B[0m\r");
+        assertEquals(Collections.singletonList("warn"), buffer.getLines());
+
+        buffer.append("0123456789");
+        assertEquals(Collections.singletonList("01234567"), buffer.getLines());
+    }
+
+    @Test
+    public void keepsEmptyLinesInOrderAcrossWrap() {
+        ConsoleBuffer buffer = new ConsoleBuffer(10, 10, false);
+        buffer.append("12345");
+        buffer.append("");
+        buffer.append("6789");
+        buffer.append("");
+        buffer.append("abc");
+
+        assertEquals(Arrays.asList("", "6789", "", "abc"), buffer.getLines());
+    }
+
+    @Test
+    public void visitsFromSequence() {
+        ConsoleBuffer buffer = new ConsoleBuffer(4, 64, true);
+        for (int i = 0; i < 6; i++)
+            buffer.append("line " + i);
+
+        List<String> visited = new ArrayList<>();
+        long next = buffer.forEach(0, (sequence, line) -> visited.add(sequence + ":" + StandardCharsets.UTF_8.decode(line)));
+        assertEquals(Arrays.asList("2:line 2", "3:line 3", "4:line 4", "5:line 5"), visited);
+        assertEquals(6, next);
+
+        visited.clear();
+        buffer.forEach(5, (sequence, line) -> visited.add(StandardCharsets.UTF_8.decode(line).toString()));
+        assertEquals(Collections.singletonList("line 5"), visited);
+    }
+
+    @Test
+    public void clearKeepsSequence() {
+        ConsoleBuffer buffer = new ConsoleBuffer(4, 64, false);
+        buffer.append("a");
+        buffer.append("b");
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(2, buffer.getFirstSequence());
+        assertEquals(2, buffer.append("c"));
+        assertEquals(Collections.singletonList("c"), buffer.getLines());
+    }
+
+    // the held lines must always be the most recent ones, unchanged and in order
+    @Test
+    public void holdsMostRecentLinesUnderRandomWrites() throws IOException {
+        for (boolean direct : new boolean[]{false, true}) {
+            Random random = new Random(42);
+            ConsoleBuffer buffer = new ConsoleBuffer(50, 512, direct);
+            List<String> appended = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                String line = randomLine(random);
+                appended.add(line);
+                buffer.append(line);
+
+                List<String> lines = buffer.getLines();
+                assertTrue(lines.size() <= 50);
+                assertEquals(appended.subList(appended.size() - lines.size(), appended.size()), lines);
+                assertEquals(buffer.getNextSequence() - lines.size(), buffer.getFirstSequence());
+                int bytes = 0;
+                for (String held : lines)
+                    bytes += held.getBytes(StandardCharsets.UTF_8).length;
+                assertEquals(bytes, buffer.getByteSize());
+                assertTrue(bytes <= 512);
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                buffer.writeTo(lines.size(), out);
+                StringBuilder expected = new StringBuilder();
+                for (String held : lines)
+                    expected.append(held).append('\n');
+                assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static String randomLine(Random random) {
+        String alphabet = "abcdefghij éß€😀";
+        int length = random.nextInt(10) == 0 ? 0 : random.nextInt(60);
+        StringBuilder line = new StringBuilder();
+        while (line.length() < length) {
+            int index = random.nextInt(alphabet.length() - 1);
+            // keep surrogate pairs together
+            if (Character.isHighSurrogate(alphabet.charAt(index)))
+                line.append(alphabet, index, index + 2);
+            else if (!Character.isLowSurrogate(alphabet.charAt(index)))
+                line.append(alphabet.charAt(index));
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.console;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ServerArchiveTest {
+
+    private static final String SERVER = "1a2b3c4d";
+    private static final String[] WORDS = {"Server", "started", "player", "joined", "Überwelt", "saving", "chunks", "error",
+            "Done", "tick", "lag", "€", "😀", "[INFO]", "[WARN]"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final class Line {
+        final long timestamp;
+        final String text;
+
+        Line(long timestamp, String text) {
+            this.timestamp = timestamp;
+            this.text = text;
+        }
+    }
+
+    private static ConsoleArchive create(File directory, boolean textIndex) {
+        // tiny blocks and segments, so a query has to pick from many of them
+        return new ConsoleArchiveBuilder(directory)
+                .setBlockSize(256)
+                .setSegmentSize(2048)
+                .setSegmentDuration(1, TimeUnit.HOURS)
+                .setTextIndex(textIndex)
+                .build();
+    }
+
+    private static List<Line> fill(ConsoleArchive archive, int count) {
+        Random random = new Random(7);
+        List<Line> lines = new ArrayList<>();
+        long timestamp = 1_600_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            timestamp += random.nextInt(5000);
+            StringBuilder text = new StringBuilder().append(i);
+            for (int words = random.nextInt(8); words > 0; words--)
+                text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            archive.append(SERVER, timestamp, text);
+            lines.add(new Line(timestamp, text.toString()));
+        }
+        return lines;
+    }
+
+    private static List<String> expected(List<Line> lines, long from, long to, String contains, int limit) {
+        List<String> matches = new ArrayList<>();
+        for (Line line : lines) {
+            if (matches.size() == limit)
+                break;
+            if (line.timestamp >= from && line.timestamp <= to && (contains == null || line.text.contains(contains)))
+                matches.add(line.timestamp + " " + line.text);
+        }
+        return matches;
+    }
+
+    private static List<String> actual(ConsoleArchive archive, long from, long to, String contains, int limit) {
+        List<String> matches = new ArrayList<>();
+        for (ArchivedLine line : archive.query(SERVER, from, to, contains, limit))
+            matches.add(line.getTimestamp() + " " + line.getLine());
+        return matches;
+    }
+
+    private static void assertQueries(ConsoleArchive archive, List<Line> lines) {
+        Random random = new Random(11);
+        long first = lines.get(0).timestamp;
+        long last = lines.get(lines.size() - 1).timestamp;
+        List<String> needles = new ArrayList<>(Arrays.asList(WORDS));
+        needles.addAll(Arrays.asList(null, "a", "er", "ver", "d Ü", "missing", "1 "));
+        for (int i = 0; i < 300; i++) {
+            long from = first + (long) (random.nextDouble() * (last - first)) - 1000;
+            long to = from + random.nextInt(200_000);
+            String contains = needles.get(random.nextInt(needles.size()));
+            int limit = random.nextBoolean() ? Integer.MAX_VALUE : 1 + random.nextInt(5);
+            assertEquals("from " + from + " to " + to + " containing " + contains,
+                    expected(lines, from, to, contains, limit), actual(archive, from, to, contains, limit));
+        }
+        assertEquals(expected(lines, Long.MIN_VALUE, Long.MAX_VALUE, null, Integer.MAX_VALUE),
+                actual(archive, Long.MIN_VALUE, Long.MAX_VALUE, null, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void searchMatchesEveryLineWithTextIndex() throws IOException {
+        try (ConsoleArchive archive = create(folder.newFolder(), true)) {
+            // the last block isn't sealed yet and is searched in memory
+            assertQueries(archive, fill(archive, 2000));
+        }
+    }
+
+    @Test
+    public void searchMatchesEveryLineWithoutTextIndex() throws IOException {
+        try (ConsoleArchive archive = create(folder.newFolder(), false)) {
+            assertQueries(archive, fill(archive, 500));
+        }
+    }
+
+    @Test
+    public void searchesReopenedArchive() throws IOException {
+        File directory = folder.newFolder();
+        List<Line> lines;
+        try (ConsoleArchive archive = create(directory, true)) {
+            lines = fill(archive, 1000);
+        }
+        try (ConsoleArchive archive = create(directory, true)) {
+            assertQueries(archive, lines);
+        }
+    }
+
+    @Test
+    public void limitReturnsOldestMatches() throws IOException {
+        try (ConsoleArchive archive = create(folder.newFolder(), true)) {
+            for (int i = 0; i < 100; i++)
+                archive.append(SERVER, 1000 + i, "line " + i);
+
+            List<ArchivedLine> lines = archive.query(SERVER, 0, Long.MAX_VALUE, "line 1", 3);
+            assertEquals(3, lines.size());
+            assertEquals("line 1", lines.get(0).getLine());
+            assertEquals("line 10", lines.get(1).getLine());
+            assertEquals("line 11", lines.get(2).getLine());
+        }
+    }
+
+    @Test
+    public void keepsOrderWhenClockGoesBackwards() throws IOException {
+        try (ConsoleArchive archive = create(folder.newFolder(), true)) {
+            archive.append(SERVER, 5000, "first");
+            archive.append(SERVER, 4000, "second");
+
+            List<ArchivedLine> lines = archive.query(SERVER, 0, Long.MAX_VALUE);
+            assertEquals(2, lines.size());
+            assertEquals(5000, lines.get(1).getTimestamp());
+            assertTrue(archive.query(SERVER, 0, 4999).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.entities;
+
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.entities.impl.P4JImpl;
+import com.sparkedhost.pterodactyl4j.requests.CompletedPteroAction;
+import com.sparkedhost.pterodactyl4j.requests.ResponseCachePolicy;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class DownloadableFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private ExecutorService ioPool;
+    private ScheduledExecutorService rateLimitPool;
+    private P4J api;
+
+    private byte[] data;
+    private boolean rangesSupported = true;
+    // the first request number whose range is ignored, after the probe said ranges are supported
+    private int ignoreRangesFrom = Integer.MAX_VALUE;
+    // ranged replies run until the end of the file instead of the end of the range
+    private boolean overlongRanges = false;
+    // the request number whose body is cut off halfway, like a dropped connection
+    private int dropRequest = -1;
+    private final Set<String> usedUrls = ConcurrentHashMap.newKeySet();
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger issuedUrls = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                return serve(request);
+            }
+        });
+        server.start();
+        ioPool = Executors.newCachedThreadPool();
+        rateLimitPool = Executors.newSingleThreadScheduledExecutor();
+        api = new P4JImpl(server.url("/").toString(), "token", "P4J", new OkHttpClient(), ForkJoinPool.commonPool(),
+                ForkJoinPool.commonPool(), rateLimitPool, ForkJoinPool.commonPool(), ioPool, new OkHttpClient(), null,
+                new ResponseCachePolicy(Collections.emptyMap()), 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ioPool.shutdownNow();
+        rateLimitPool.shutdownNow();
+        server.shutdown();
+    }
+
+    // signed urls are only accepted once, like Wings does
+    private MockResponse serve(RecordedRequest request) {
+        int number = requests.incrementAndGet();
+        if (!usedUrls.add(request.getPath()))
+            return new MockResponse().setResponseCode(403);
+
+        String range = request.getHeader("Range");
+        MockResponse response;
+        if (range == null || !rangesSupported || number >= ignoreRangesFrom) {
+            response = new MockResponse().setBody(new Buffer().write(data));
+        } else {
+            ranges.add(range);
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            int start = Integer.parseInt(bounds[0]);
+            int end = bounds[1].isEmpty() || overlongRanges ? data.length - 1 : Math.min(Integer.parseInt(bounds[1]), data.length - 1);
+            response = new MockResponse().setResponseCode(206)
+                    .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + data.length)
+                    .setBody(new Buffer().write(Arrays.copyOfRange(data, start, end + 1)));
+        }
+        if (number == dropRequest)
+            response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+        return response;
+    }
+
+    private DownloadableFile create() {
+        return new DownloadableFile(api, "backup.tar.gz", server.url("/download?token=0").toString(),
+                () -> new CompletedPteroAction<>(api, server.url("/download?token=" + issuedUrls.incrementAndGet()).toString()));
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void resumesAfterDroppedConnection() throws Exception {
+        data = random(1024 * 1024);
+        dropRequest = 1;
+        File file = folder.newFile();
+        List<Long> progress = new CopyOnWriteArrayList<>();
+
+        create().downloadToFile(file, false, (downloaded, total) -> progress.add(downloaded)).get(10, TimeUnit.SECONDS);
+
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        assertEquals(1, ranges.size());
+        long resumedAt = Long.parseLong(ranges.get(0).substring("bytes=".length(), ranges.get(0).length() - 1));
+        assertTrue("Resumed from the start", resumedAt > 0);
+        assertEquals(1, issuedUrls.get());
+        assertEquals(Long.valueOf(data.length), progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void resumesExistingFile() throws Exception {
+        data = random(64 * 1024);
+        File file = folder.newFile();
+        Files.write(file.toPath(), Arrays.copyOf(data, 1000));
+
+        create().downloadToFile(file, true, null).get(10, TimeUnit.SECONDS);
+
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        assertEquals(Collections.singletonList("bytes=1000-"), ranges);
+    }
+
+    @Test
+    public void restartsWhenRangeIsIgnored() throws Exception {
+        data = random(64 * 1024);
+        rangesSupported = false;
+        File file = folder.newFile();
+        Files.write(file.toPath(), Arrays.copyOf(data, 1000));
+
+        create().downloadToFile(file, true, null).get(10, TimeUnit.SECONDS);
+
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void downloadsSegmentsWithFreshUrls() throws Exception {
+        data = random((int) (DownloadableFile.MIN_SEGMENT_SIZE * 3));
+        // the probe is request 1, cut off one of the segments
+        dropRequest = 3;
+        File file = folder.newFile();
+        List<Long> progress = new CopyOnWriteArrayList<>();
+
+        create().downloadToFile(file, 3, (downloaded, total) -> progress.add(downloaded)).get(30, TimeUnit.SECONDS);
+
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        long size = DownloadableFile.MIN_SEGMENT_SIZE;
+        Set<String> expected = new HashSet<>(Arrays.asList("bytes=0-0", "bytes=0-" + (size - 1),
+                "bytes=" + size + "-" + (2 * size - 1), "bytes=" + 2 * size + "-" + (3 * size - 1)));
+        assertTrue(ranges.containsAll(expected));
+        // one range request per segment, the probe, and the resumed segment
+        assertEquals(5, ranges.size());
+        assertEquals(4, issuedUrls.get());
+        assertEquals(Long.valueOf(data.length), Collections.max(progress));
+    }
+
+    @Test
+    public void fallsBackToSingleConnectionForSmallFiles() throws Exception {
+        data = random(1024 * 1024);
+        File file = folder.newFile();
+
+        create().downloadToFile(file, 4, null).get(10, TimeUnit.SECONDS);
+
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        assertEquals(Collections.singletonList("bytes=0-0"), ranges);
+    }
+
+    @Test
+    public void failsSegmentsWhenRangeIsIgnored() throws Exception {
+        data = random((int) (DownloadableFile.MIN_SEGMENT_SIZE * 2));
+        // the probe is answered with a range, the segments with the whole file
+        ignoreRangesFrom = 2;
+        File file = folder.newFile();
+
+        try {
+            create().downloadToFile(file, 2, null).get(30, TimeUnit.SECONDS);
+            fail("The segments were written from the whole file");
+        } catch (ExecutionException e) {
+            assertEquals("The server doesn't support range requests", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void stopsSegmentsAtTheirEnd() throws Exception {
+        data = random((int) (DownloadableFile.MIN_SEGMENT_SIZE * 3));
+        overlongRanges = true;
+        File file = folder.newFile();
+        AtomicLong reported = new AtomicLong();
+
+        create().downloadToFile(file, 3, (downloaded, total) -> reported.accumulateAndGet(downloaded, Math::max))
+                .get(30, TimeUnit.SECONDS);
+
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        assertEquals(data.length, reported.get());
+    }
+
+    @Test
+    public void retrievesFreshUrlForEveryStream() throws Exception {
+        data = random(64 * 1024);
+        DownloadableFile download = create();
+
+        for (int i = 0; i < 2; i++) {
+            try (InputStream stream = download.retrieveInputStream().get(10, TimeUnit.SECONDS)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = stream.read(buffer)) >= 0)
+                    out.write(buffer, 0, read);
+                assertArrayEquals(data, out.toByteArray());
+            }
+        }
+        assertEquals(1, issuedUrls.get());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.managers;
+
+import com.sparkedhost.pterodactyl4j.exceptions.HttpException;
+import com.sparkedhost.pterodactyl4j.exceptions.LoginException;
+import com.sparkedhost.pterodactyl4j.exceptions.NotFoundException;
+import com.sparkedhost.pterodactyl4j.exceptions.ServerException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ReconnectPolicyTest {
+
+    private static HttpException panelError(int status, String detail) {
+        JSONObject json = new JSONObject().put("errors", new JSONArray().put(new JSONObject().put("detail", detail)));
+        return new HttpException(String.format("Pterodactyl4J has encountered a %d error.", status), json);
+    }
+
+    @Test
+    public void reconnectsAfterTransientFailures() {
+        ReconnectPolicy policy = ReconnectPolicy.DEFAULT;
+        assertTrue(policy.shouldReconnect(1001, null));
+        assertTrue(policy.shouldReconnect(1006, null));
+        assertTrue(policy.shouldReconnect(-1, new IOException("Connection reset")));
+        assertTrue(policy.shouldReconnect(502, new IOException("Expected HTTP 101 response but was '502 Bad Gateway'")));
+        assertTrue(policy.shouldReconnect(-1, new ServerException("The server has encountered an Internal Server Error.")));
+        assertTrue(policy.shouldReconnect(-1, panelError(409, "This server has not yet completed its installation process, please try again later.")));
+    }
+
+    @Test
+    public void stopsAfterPermanentFailures() {
+        ReconnectPolicy policy = ReconnectPolicy.DEFAULT;
+        assertFalse(policy.shouldReconnect(1008, null));
+        assertFalse(policy.shouldReconnect(403, new IOException("Expected HTTP 101 response but was '403 Forbidden'")));
+        assertFalse(policy.shouldReconnect(-1, new LoginException("The provided token is either incorrect or does not have access to process this request.")));
+        assertFalse(policy.shouldReconnect(-1, new NotFoundException("The requested entity was not found.")));
+        assertFalse(policy.shouldReconnect(-1, panelError(401, "Unauthenticated.")));
+        assertFalse(policy.shouldReconnect(-1, panelError(409, "This server is currently suspended and the functionality requested is unavailable.")));
+    }
+
+    @Test
+    public void customConditionReplacesDefault() {
+        ReconnectPolicy policy = ReconnectPolicy.of(1, 2, TimeUnit.SECONDS).withCondition((code, error) -> code != 1001);
+        assertTrue(policy.shouldReconnect(1008, null));
+        assertFalse(policy.shouldReconnect(1001, null));
+        assertFalse(ReconnectPolicy.DISABLED.withCondition((code, error) -> true).shouldReconnect(1006, null));
+    }
+}
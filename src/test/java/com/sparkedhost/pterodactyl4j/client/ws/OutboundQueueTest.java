@@ -0,0 +1,217 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws;
+
+import com.sparkedhost.pterodactyl4j.client.managers.SendRate;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class OutboundQueueTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    // records the frames instead of writing them to a websocket
+    private static final class RecordingClient extends WebSocketClient {
+
+        private final List<String> frames = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean authenticated = true;
+        private volatile boolean accepting = true;
+
+        private RecordingClient(ScheduledExecutorService scheduler, SendRate rate) {
+            super(null, null, false, null, null, scheduler, 0, rate);
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return authenticated;
+        }
+
+        @Override
+        public boolean trySend(String message) {
+            if (!accepting)
+                return false;
+            sentAt.add(System.nanoTime());
+            frames.add(message);
+            return true;
+        }
+    }
+
+    private static List<CompletableFuture<Void>> submitAll(OutboundQueue queue, int count) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            futures.add(queue.submit("frame " + i));
+        return futures;
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> futures) throws Exception {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void sendsTheBurstAtOnceAndPacesTheRest() throws Exception {
+        double perSecond = 20;
+        int burst = 3;
+        RecordingClient client = new RecordingClient(scheduler, SendRate.of(perSecond, burst, 100));
+        OutboundQueue queue = client.getOutboundQueue();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = submitAll(queue, 10);
+        // the burst is handed to the websocket by the submitting thread
+        for (int i = 0; i < burst; i++)
+            assertTrue(futures.get(i).isDone());
+        assertFalse(futures.get(burst).isDone());
+        awaitAll(futures);
+
+        assertEquals(10, client.frames.size());
+        for (int i = 0; i < 10; i++)
+            assertEquals("frame " + i, client.frames.get(i));
+        // frame n beyond the burst waits until n tokens were refilled, less a millisecond for rounding
+        for (int i = burst; i < 10; i++) {
+            long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(client.sentAt.get(i) - start);
+            long expectedMicros = (long) ((i - burst + 1) * 1_000_000 / perSecond);
+            assertTrue("frame " + i + " was sent after " + elapsedMicros + "us, expected at least " + expectedMicros + "us",
+                    elapsedMicros >= expectedMicros - 1000);
+        }
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void neverExceedsTheRateOverAnyWindow() throws Exception {
+        double perSecond = 50;
+        int burst = 5;
+        RecordingClient client = new RecordingClient(scheduler, SendRate.of(perSecond, burst, 100));
+        awaitAll(submitAll(client.getOutboundQueue(), 40));
+
+        // any window of d seconds holds at most burst + d * perSecond frames
+        List<Long> sentAt = client.sentAt;
+        for (int from = 0; from < sentAt.size(); from++) {
+            for (int to = from + 1; to < sentAt.size(); to++) {
+                double seconds = (sentAt.get(to) - sentAt.get(from)) / 1e9;
+                int frames = to - from + 1;
+                assertTrue(frames + " frames were sent within " + seconds + "s",
+                        frames <= burst + seconds * perSecond + 1);
+            }
+        }
+    }
+
+    @Test
+    public void keepsFramesUntilAuthenticated() throws Exception {
+        RecordingClient client = new RecordingClient(scheduler, SendRate.UNLIMITED);
+        client.authenticated = false;
+        OutboundQueue queue = client.getOutboundQueue();
+
+        List<CompletableFuture<Void>> futures = submitAll(queue, 5);
+        assertEquals(5, queue.size());
+        assertTrue(client.frames.isEmpty());
+        for (CompletableFuture<Void> future : futures)
+            assertFalse(future.isDone());
+
+        client.authenticated = true;
+        queue.drain();
+        awaitAll(futures);
+        assertEquals(0, queue.size());
+        assertEquals("frame 0", client.frames.get(0));
+        assertEquals("frame 4", client.frames.get(4));
+    }
+
+    @Test
+    public void keepsFramesRefusedByAClosingWebsocket() throws Exception {
+        RecordingClient client = new RecordingClient(scheduler, SendRate.UNLIMITED);
+        client.accepting = false;
+        OutboundQueue queue = client.getOutboundQueue();
+
+        List<CompletableFuture<Void>> futures = submitAll(queue, 3);
+        assertEquals(3, queue.size());
+
+        client.accepting = true;
+        queue.drain();
+        awaitAll(futures);
+        assertEquals(3, client.frames.size());
+        assertEquals("frame 0", client.frames.get(0));
+    }
+
+    @Test
+    public void rejectsFramesBeyondTheCapacity() {
+        RecordingClient client = new RecordingClient(scheduler, SendRate.of(1, 1, 2));
+        client.authenticated = false;
+        OutboundQueue queue = client.getOutboundQueue();
+
+        submitAll(queue, 2);
+        CompletableFuture<Void> rejected = queue.submit("frame 2");
+        assertTrue(rejected.isCompletedExceptionally());
+        assertCause(rejected, "The outbound queue of the websocket is full");
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void closeFailsQueuedAndRefusesNewFrames() {
+        RecordingClient client = new RecordingClient(scheduler, SendRate.of(1, 1, 100));
+        OutboundQueue queue = client.getOutboundQueue();
+
+        List<CompletableFuture<Void>> futures = submitAll(queue, 3);
+        assertTrue(futures.get(0).isDone());
+        queue.close();
+
+        assertEquals(0, queue.size());
+        assertCause(futures.get(1), "The websocket was shut down");
+        assertCause(futures.get(2), "The websocket was shut down");
+        assertCause(queue.submit("late"), "The websocket was shut down");
+        assertEquals(1, client.frames.size());
+    }
+
+    @Test
+    public void callbacksMayQueueMoreFrames() throws Exception {
+        RecordingClient client = new RecordingClient(scheduler, SendRate.of(100, 2, 100));
+        OutboundQueue queue = client.getOutboundQueue();
+
+        CompletableFuture<Void> chained = queue.submit("first")
+                .thenCompose(v -> queue.submit("second"))
+                .thenCompose(v -> queue.submit("third"))
+                .thenCompose(v -> queue.submit("fourth"));
+        chained.get(10, TimeUnit.SECONDS);
+        assertEquals(4, client.frames.size());
+        assertEquals("fourth", client.frames.get(3));
+    }
+
+    private static void assertCause(CompletableFuture<Void> future, String message) {
+        try {
+            future.getNow(null);
+            fail("The frame was sent");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(message, e.getCause().getMessage());
+        }
+    }
+}
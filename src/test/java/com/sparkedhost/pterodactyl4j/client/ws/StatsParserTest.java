@@ -0,0 +1,118 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StatsParserTest {
+
+    private static final String PAYLOAD = "{\"memory_bytes\":536870912,\"memory_limit_bytes\":1073741824,\"cpu_absolute\":33.333333333333336,"
+            + "\"network\":{\"rx_bytes\":1024,\"tx_bytes\":2048},\"state\":\"running\",\"disk_bytes\":104857600,\"uptime\":3600000}";
+
+    private final StatsParser parser = new StatsParser();
+
+    // Wings writes the event first and the payload as an escaped string
+    private static String wingsFrame(String payload) {
+        return "{\"event\":\"stats\",\"args\":[" + JSONObject.quote(payload) + "]}";
+    }
+
+    private StatsSnapshot parse(String content) {
+        StatsSnapshot snapshot = new StatsSnapshot();
+        parser.parse(content, snapshot);
+        return snapshot;
+    }
+
+    private static void assertSnapshot(StatsSnapshot expected, StatsSnapshot actual) {
+        assertEquals(expected.getState(), actual.getState());
+        assertEquals(expected.getMemory(), actual.getMemory());
+        assertEquals(expected.getMaxMemory(), actual.getMaxMemory());
+        assertEquals(expected.getDisk(), actual.getDisk());
+        // the scanner must round exactly like the json parser
+        assertEquals(Double.doubleToLongBits(expected.getCPU()), Double.doubleToLongBits(actual.getCPU()));
+        assertEquals(expected.getNetworkIngress(), actual.getNetworkIngress());
+        assertEquals(expected.getNetworkEgress(), actual.getNetworkEgress());
+        assertEquals(expected.getUptime(), actual.getUptime());
+    }
+
+    private void assertMatchesFallback(String payload) {
+        StatsSnapshot expected = StatsSnapshot.fromJSON(new JSONObject(payload));
+        assertSnapshot(expected, parse(payload));
+        assertSnapshot(expected, parse(wingsFrame(payload)));
+    }
+
+    @Test
+    public void detectsStatsFrames() {
+        assertTrue(StatsParser.isStatsFrame(wingsFrame(PAYLOAD)));
+        assertTrue(StatsParser.isStatsFrame("{\"args\":[" + JSONObject.quote(PAYLOAD) + "],\"event\":\"stats\"}"));
+        assertFalse(StatsParser.isStatsFrame("{\"event\":\"console output\",\"args\":[\"stats\"]}"));
+    }
+
+    @Test
+    public void parsesUnescapedPayload() {
+        StatsSnapshot snapshot = parse(PAYLOAD);
+        assertEquals(536870912L, snapshot.getMemory());
+        assertEquals(1024L, snapshot.getNetworkIngress());
+        assertMatchesFallback(PAYLOAD);
+    }
+
+    @Test
+    public void parsesEscapedFrame() {
+        assertSnapshot(StatsSnapshot.fromJSON(new JSONObject(PAYLOAD)), parse(wingsFrame(PAYLOAD)));
+        // other serializers may write the event last
+        assertSnapshot(StatsSnapshot.fromJSON(new JSONObject(PAYLOAD)),
+                parse("{\"args\":[" + JSONObject.quote(PAYLOAD) + "],\"event\":\"stats\"}"));
+    }
+
+    @Test
+    public void readsNumbersLikeJsonObject() {
+        String[] cpus = {"0", "0.0", "100", "12.5", "0.1", "99.99999999999999", "1.7976931348623157e2", "1E-3",
+                "-0.5", "123456789012345678901234567890.5", "0.30000000000000004", "5e-324"};
+        for (String cpu : cpus)
+            assertMatchesFallback("{\"cpu_absolute\":" + cpu + ",\"memory_bytes\":9007199254740993,\"state\":\"starting\"}");
+    }
+
+    @Test
+    public void toleratesWhitespaceAndOrder() {
+        assertMatchesFallback("{ \"state\" : \"STOPPING\" ,\n \"uptime\" : 5,\n \"network\" : { \"tx_bytes\" : 7 , \"rx_bytes\" : 3 } }");
+    }
+
+    @Test
+    public void resetsMissingFields() {
+        StatsSnapshot snapshot = parse(PAYLOAD);
+        parser.parse("{\"memory_bytes\":1}", snapshot);
+
+        assertEquals(1, snapshot.getMemory());
+        assertEquals(0, snapshot.getDisk());
+        assertEquals(0, snapshot.getCPU(), 0);
+        assertMatchesFallback("{\"memory_bytes\":1}");
+    }
+
+    @Test
+    public void unknownStateIsOffline() {
+        assertMatchesFallback("{\"state\":\"hibernating\",\"uptime\":1}");
+    }
+
+    @Test
+    public void fallsBackForUnknownContent() {
+        assertMatchesFallback("{}");
+        assertMatchesFallback("{\"unrelated\":[1,2,{\"nested\":true}]}");
+    }
+}
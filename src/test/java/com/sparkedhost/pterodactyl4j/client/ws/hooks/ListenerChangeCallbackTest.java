@@ -0,0 +1,89 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.client.ws.hooks;
+
+import com.sparkedhost.pterodactyl4j.client.ws.events.StatsUpdateEvent;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ListenerChangeCallbackTest {
+
+    private static void assertCallbacks(IClientListenerManager manager, Object listener) {
+        AtomicInteger changes = new AtomicInteger();
+        boolean[] consumedOnChange = new boolean[2];
+        Runnable callback = () -> consumedOnChange[changes.getAndIncrement()] = manager.isConsumed(StatsUpdateEvent.class);
+        manager.addListenerChangeCallback(callback);
+
+        assertFalse(manager.isConsumed(StatsUpdateEvent.class));
+        manager.register(listener);
+        manager.unregister(listener);
+
+        assertEquals(2, changes.get());
+        // the callback sees the listeners after the change
+        assertTrue(consumedOnChange[0]);
+        assertFalse(consumedOnChange[1]);
+
+        manager.removeListenerChangeCallback(callback);
+        manager.register(listener);
+        assertEquals(2, changes.get());
+    }
+
+    @Test
+    public void interfacedManagerReportsChanges() {
+        assertCallbacks(new InterfacedClientListenerManager(), new ClientSocketListenerAdapter() {
+            @Override
+            public void onStatsUpdate(StatsUpdateEvent event) {}
+        });
+    }
+
+    @Test
+    public void annotatedManagerReportsChanges() {
+        assertCallbacks(new AnnotatedClientListenerManager(), new Object() {
+            @SubscribeEvent
+            public void onStats(StatsUpdateEvent event) {}
+        });
+    }
+
+    @Test
+    public void asyncManagerReportsChanges() {
+        AsyncClientListenerManager manager = new AsyncClientListenerManager();
+        try {
+            assertCallbacks(manager, new ClientSocketListenerAdapter() {
+                @Override
+                public void onStatsUpdate(StatsUpdateEvent event) {}
+            });
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void failingCallbackDoesNotStopOthers() {
+        InterfacedClientListenerManager manager = new InterfacedClientListenerManager();
+        AtomicInteger calls = new AtomicInteger();
+        for (Runnable callback : Arrays.<Runnable>asList(() -> { throw new IllegalStateException(); }, calls::incrementAndGet))
+            manager.addListenerChangeCallback(callback);
+
+        manager.register(new ClientSocketListenerAdapter() {});
+        assertEquals(1, calls.get());
+    }
+}
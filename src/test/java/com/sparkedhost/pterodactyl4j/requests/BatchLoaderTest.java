@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.requests;
+
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.entities.impl.P4JImpl;
+import com.sparkedhost.pterodactyl4j.exceptions.NotFoundException;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class BatchLoaderTest {
+
+    private P4J api;
+    private ExecutorService supplierPool;
+    private ScheduledExecutorService rateLimitPool;
+
+    @Before
+    public void setUp() {
+        supplierPool = Executors.newSingleThreadExecutor();
+        rateLimitPool = Executors.newSingleThreadScheduledExecutor();
+        api = new P4JImpl("http://localhost", "token", "P4J", new OkHttpClient(), ForkJoinPool.commonPool(), ForkJoinPool.commonPool(),
+                rateLimitPool, supplierPool, supplierPool, new OkHttpClient(), null, new ResponseCachePolicy(Collections.emptyMap()), 1);
+    }
+
+    @After
+    public void tearDown() {
+        supplierPool.shutdownNow();
+        rateLimitPool.shutdownNow();
+    }
+
+    private static Map<Long, String> names(Set<Long> ids) {
+        Map<Long, String> values = new HashMap<>();
+        for (long id : ids) {
+            if (id != 404)
+                values.put(id, "entity" + id);
+        }
+        return values;
+    }
+
+    @Test
+    public void joinsLookupsWithinWindow() {
+        List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+        BatchLoader<String> loader = new BatchLoader<>(api, (ids, deadline) -> {
+            batches.add(new HashSet<>(ids));
+            return CompletableFuture.completedFuture(names(ids));
+        }, 50);
+
+        CompletableFuture<String> first = loader.load(1).submit();
+        CompletableFuture<String> second = loader.load(1).submit();
+        CompletableFuture<String> third = loader.load(2).submit();
+        CompletableFuture<String> missing = loader.load(404).submit();
+
+        assertEquals("entity1", first.join());
+        assertEquals("entity1", second.join());
+        assertEquals("entity2", third.join());
+        try {
+            missing.join();
+            fail("Missing entity was resolved");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof NotFoundException);
+        }
+        assertEquals(Collections.singletonList(new HashSet<>(Arrays.asList(1L, 2L, 404L))), batches);
+    }
+
+    @Test
+    public void executesFromSupplierThread() throws Exception {
+        BatchLoader<String> loader = new BatchLoader<>(api, (ids, deadline) -> CompletableFuture.completedFuture(names(ids)));
+
+        // the supplier pool only has one thread, which is blocked by this lookup
+        Future<String> result = supplierPool.submit(() -> loader.load(7).execute());
+
+        assertEquals("entity7", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failsBatchWithFunctionError() {
+        BatchLoader<String> loader = new BatchLoader<>(api, (ids, deadline) -> {
+            CompletableFuture<Map<Long, String>> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("panel unavailable"));
+            return future;
+        });
+
+        try {
+            loader.load(1).execute();
+            fail("Batch error was not propagated");
+        } catch (IllegalStateException e) {
+            assertEquals("panel unavailable", e.getMessage());
+        }
+    }
+
+    @Test
+    public void deadlineTimesOutAndIsAppliedToBatch() {
+        BlockingQueue<Long> deadlines = new LinkedBlockingQueue<>();
+        BatchLoader<String> loader = new BatchLoader<>(api, (ids, deadline) -> {
+            deadlines.add(deadline);
+            return new CompletableFuture<>();
+        });
+        long deadline = System.currentTimeMillis() + 200;
+
+        try {
+            loader.load(1).deadline(deadline).execute();
+            fail("Lookup did not time out");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertEquals(Long.valueOf(deadline), deadlines.poll());
+    }
+
+    @Test
+    public void batchWaitsForCallersWithoutDeadline() throws Exception {
+        BlockingQueue<Long> deadlines = new LinkedBlockingQueue<>();
+        BatchLoader<String> loader = new BatchLoader<>(api, (ids, deadline) -> {
+            deadlines.add(deadline);
+            return CompletableFuture.completedFuture(names(ids));
+        }, 50);
+
+        CompletableFuture<String> bounded = loader.load(1).deadline(System.currentTimeMillis() + 5_000).submit();
+        CompletableFuture<String> unbounded = loader.load(2).submit();
+
+        assertEquals("entity1", bounded.join());
+        assertEquals("entity2", unbounded.join());
+        assertEquals(Long.valueOf(0), deadlines.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void expiredDeadlineIsNotQueued() {
+        List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+        BatchLoader<String> loader = new BatchLoader<>(api, (ids, deadline) -> {
+            batches.add(ids);
+            return CompletableFuture.completedFuture(names(ids));
+        });
+
+        try {
+            loader.load(1).deadline(System.currentTimeMillis() - 1).execute();
+            fail("Expired lookup was executed");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(batches.isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.requests;
+
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.entities.impl.P4JImpl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+
+    private static final int LIMIT = 3;
+    private static final long WINDOW = 1000;
+
+    private MockWebServer server;
+    private ScheduledExecutorService rateLimitPool;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    private long windowEnd = 0;
+    private int used = 0;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) throws InterruptedException {
+                int running = active.incrementAndGet();
+                maxActive.accumulateAndGet(running, Math::max);
+                try {
+                    Thread.sleep(100);
+                    return count();
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        });
+        server.start();
+        rateLimitPool = Executors.newScheduledThreadPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        rateLimitPool.shutdownNow();
+        server.shutdown();
+    }
+
+    // a strict fixed window like the throttle of the panel
+    private synchronized MockResponse count() {
+        long now = System.currentTimeMillis();
+        if (now >= windowEnd) {
+            windowEnd = now + WINDOW;
+            used = 0;
+        }
+        MockResponse response = new MockResponse()
+                .setHeader("X-RateLimit-Limit", LIMIT)
+                .setHeader("X-RateLimit-Reset", String.valueOf(windowEnd / 1000.0));
+        if (used >= LIMIT) {
+            rejected.incrementAndGet();
+            return response.setResponseCode(429)
+                    .setHeader("X-RateLimit-Remaining", 0)
+                    .setHeader("Retry-After", String.valueOf((windowEnd - now) / 1000.0));
+        }
+        used++;
+        return response.setHeader("X-RateLimit-Remaining", LIMIT - used).setBody("{}");
+    }
+
+    private P4J create(int maxConcurrent) {
+        String url = server.url("/").toString();
+        return new P4JImpl(url, "token", "P4J", new OkHttpClient(), ForkJoinPool.commonPool(), ForkJoinPool.commonPool(),
+                rateLimitPool, ForkJoinPool.commonPool(), ForkJoinPool.commonPool(), new OkHttpClient(), null,
+                new ResponseCachePolicy(Collections.emptyMap()), maxConcurrent);
+    }
+
+    private List<CompletableFuture<Integer>> submit(P4J api, int count) {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PteroActionImpl<Integer> action = PteroActionImpl.onRequestExecute(api, Route.Nodes.GET_NODE.compile(String.valueOf(i)),
+                    (response, request) -> response.getCode());
+            futures.add(action.submit());
+        }
+        return futures;
+    }
+
+    @Test
+    public void concurrentRequestsStayWithinRemaining() throws Exception {
+        P4J api = create(4);
+        // learn the limit of the panel first
+        assertEquals(Integer.valueOf(200), submit(api, 1).get(0).get(5, TimeUnit.SECONDS));
+
+        for (CompletableFuture<Integer> future : submit(api, 8))
+            assertEquals(Integer.valueOf(200), future.get(10, TimeUnit.SECONDS));
+
+        assertEquals(0, rejected.get());
+        assertTrue("Requests were not sent concurrently", maxActive.get() > 1);
+        assertTrue("More requests in flight than the window allows", maxActive.get() <= LIMIT);
+        assertEquals(9, server.getRequestCount());
+    }
+
+    @Test
+    public void requestsAreSerialUntilLimitIsKnown() throws Exception {
+        P4J api = create(4);
+
+        for (CompletableFuture<Integer> future : submit(api, 2))
+            assertEquals(Integer.valueOf(200), future.get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, maxActive.get());
+    }
+}
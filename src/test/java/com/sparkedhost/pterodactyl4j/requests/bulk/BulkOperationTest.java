@@ -0,0 +1,95 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.sparkedhost.pterodactyl4j.requests.bulk;
+
+import com.sparkedhost.pterodactyl4j.entities.P4J;
+import com.sparkedhost.pterodactyl4j.entities.impl.P4JImpl;
+import com.sparkedhost.pterodactyl4j.requests.CompletedPteroAction;
+import com.sparkedhost.pterodactyl4j.requests.PteroActionImpl;
+import com.sparkedhost.pterodactyl4j.requests.ResponseCachePolicy;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class BulkOperationTest {
+
+    private P4J api;
+    private ScheduledExecutorService rateLimitPool;
+
+    @Before
+    public void setUp() {
+        rateLimitPool = Executors.newSingleThreadScheduledExecutor();
+        api = new P4JImpl("http://localhost", "token", "P4J", new OkHttpClient(), ForkJoinPool.commonPool(), ForkJoinPool.commonPool(),
+                rateLimitPool, ForkJoinPool.commonPool(), ForkJoinPool.commonPool(), new OkHttpClient(), null,
+                new ResponseCachePolicy(Collections.emptyMap()), 1);
+    }
+
+    @After
+    public void tearDown() {
+        rateLimitPool.shutdownNow();
+    }
+
+    @Test
+    public void retryKeepsOriginalProgress() {
+        Set<Integer> attempted = ConcurrentHashMap.newKeySet();
+        List<BulkProgress<Integer, Integer>> progress = new CopyOnWriteArrayList<>();
+        // even items fail on their first attempt
+        BulkOperation<Integer, Integer> operation = BulkOperation.of(api, Arrays.asList(1, 2, 3, 4, 5), item -> {
+            if (item % 2 == 0 && attempted.add(item))
+                return new CompletedPteroAction<>(api, null, new IllegalStateException("failed " + item));
+            return new CompletedPteroAction<>(api, item * 10);
+        }).setProgressListener(progress::add);
+
+        BulkResult<Integer, Integer> result = operation.execute();
+        assertEquals(Arrays.asList(2, 4), result.getFailedItems());
+        assertEquals(5, progress.get(progress.size() - 1).getCompleted());
+
+        progress.clear();
+        BulkResult<Integer, Integer> retried = result.retryFailed().execute();
+
+        assertTrue(retried.isSuccess());
+        assertEquals(5, retried.getOutcomes().size());
+        assertEquals(2, progress.size());
+        for (BulkProgress<Integer, Integer> update : progress)
+            assertEquals(5, update.getTotal());
+        BulkProgress<Integer, Integer> last = progress.get(progress.size() - 1);
+        assertEquals(5, last.getSucceeded());
+        assertEquals(0, last.getFailed());
+    }
+
+    @Test
+    public void runsItemsInParallelByDefault() throws Exception {
+        CountDownLatch started = new CountDownLatch(BulkOperation.DEFAULT_PARALLELISM);
+        CompletableFuture<Integer> release = new CompletableFuture<>();
+        BulkOperation<Integer, Integer> operation = BulkOperation.of(api, Arrays.asList(1, 2, 3, 4, 5, 6), item -> {
+            started.countDown();
+            return PteroActionImpl.onExecute(api, release::join, () -> release);
+        });
+
+        CompletableFuture<BulkResult<Integer, Integer>> future = operation.submit();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        release.complete(1);
+        assertTrue(future.get(5, TimeUnit.SECONDS).isSuccess());
+    }
+}
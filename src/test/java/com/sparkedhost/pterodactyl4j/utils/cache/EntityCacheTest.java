@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2021 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.sparkedhost.pterodactyl4j.utils.cache;
+
+import com.sparkedhost.pterodactyl4j.requests.Route;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class EntityCacheTest {
+
+    private static EntityCache create(long ttl, int maxSize) {
+        Map<CacheType, Long> expirations = new EnumMap<>(CacheType.class);
+        expirations.put(CacheType.NODE, ttl);
+        expirations.put(CacheType.LOCATION, ttl);
+        return new EntityCache(expirations, maxSize);
+    }
+
+    @Test
+    public void onlyConfiguredTypesAreCached() {
+        EntityCache cache = create(60_000, 10);
+        cache.put(CacheType.USER, "1", "user", cache.getGeneration(CacheType.USER));
+
+        assertTrue(cache.isEnabled(CacheType.NODE));
+        assertFalse(cache.isEnabled(CacheType.USER));
+        assertNull(cache.get(CacheType.USER, "1"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        EntityCache cache = create(60_000, 3);
+        for (int i = 1; i <= 3; i++)
+            cache.put(CacheType.NODE, String.valueOf(i), "node" + i, cache.getGeneration(CacheType.NODE));
+
+        assertEquals("node1", cache.get(CacheType.NODE, "1")); // 2 is now the eldest
+        cache.put(CacheType.NODE, "4", "node4", cache.getGeneration(CacheType.NODE));
+
+        assertNull(cache.get(CacheType.NODE, "2"));
+        assertEquals("node1", cache.get(CacheType.NODE, "1"));
+        assertEquals("node3", cache.get(CacheType.NODE, "3"));
+        assertEquals("node4", cache.get(CacheType.NODE, "4"));
+        CacheStats stats = cache.getStats(CacheType.NODE);
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getSize());
+    }
+
+    @Test
+    public void expiresAfterTimeToLive() throws InterruptedException {
+        EntityCache cache = create(50, 10);
+        cache.put(CacheType.NODE, "1", "node", cache.getGeneration(CacheType.NODE));
+        assertEquals("node", cache.get(CacheType.NODE, "1"));
+
+        Thread.sleep(100);
+        assertNull(cache.get(CacheType.NODE, "1"));
+    }
+
+    @Test
+    public void mutatingRouteInvalidatesEntity() {
+        EntityCache cache = create(60_000, 10);
+        long generation = cache.getGeneration(CacheType.NODE);
+        cache.put(CacheType.NODE, "1", "node1", generation);
+        cache.put(CacheType.NODE, "2", "node2", generation);
+        cache.put(CacheType.LOCATION, "1", "location1", cache.getGeneration(CacheType.LOCATION));
+
+        cache.invalidate(Route.Nodes.EDIT_NODE.compile("1"));
+
+        assertNull(cache.get(CacheType.NODE, "1"));
+        assertEquals("node2", cache.get(CacheType.NODE, "2"));
+        assertEquals("location1", cache.get(CacheType.LOCATION, "1"));
+    }
+
+    @Test
+    public void collectionRouteInvalidatesType() {
+        EntityCache cache = create(60_000, 10);
+        cache.put(CacheType.NODE, "1", "node1", cache.getGeneration(CacheType.NODE));
+        List<String> mutations = new ArrayList<>();
+        cache.addMutationListener((type, id) -> mutations.add(type + ":" + id));
+
+        cache.invalidate(Route.Nodes.CREATE_NODE.compile());
+
+        assertNull(cache.get(CacheType.NODE, "1"));
+        assertEquals(1, mutations.size());
+        assertEquals("NODE:null", mutations.get(0));
+    }
+
+    @Test
+    public void staleGenerationIsNotCached() {
+        EntityCache cache = create(60_000, 10);
+        long generation = cache.getGeneration(CacheType.NODE);
+        cache.invalidate(CacheType.NODE); // invalidated while the request was in flight
+
+        cache.put(CacheType.NODE, "1", "stale", generation);
+        assertNull(cache.get(CacheType.NODE, "1"));
+
+        cache.put(CacheType.NODE, "1", "fresh", cache.getGeneration(CacheType.NODE));
+        assertEquals("fresh", cache.get(CacheType.NODE, "1"));
+    }
+}